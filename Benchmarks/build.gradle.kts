@@ -19,6 +19,7 @@ dependencies {
     implementation(project(":Repositories:SQLite"))
     implementation(project(":Exif"))
     implementation(project(":Image"))
+    implementation(project(":XMP"))
     implementation(project(":Lib"))
     implementation(project(":TestSupport"))
     implementation(project(":CacheDb"))
@@ -10,6 +10,10 @@ import org.openjdk.jmh.infra.Blackhole;
 /**
  * Benchmarks for EXIF cache operations.
  * Measures XML serialization overhead for Phase 5/6 comparison.
+ * <p>
+ * {@code memoryEntries} = 0 measures SQLite only, else the in-memory tier
+ * of the application's EXIF cache is in front of SQLite. The concurrent
+ * benchmarks measure throughput of parallel readers and writers.
  */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -23,9 +27,12 @@ public class ExifCacheBenchmark {
     private ExifTags[] sampleExifTags;
     private ExifCacheTestHarness cache;
 
+    @Param({"0", "2000"})
+    public int memoryEntries;
+
     @Setup(Level.Trial)
     public void setup() {
-        cache = ExifCacheTestHarness.create();
+        cache = ExifCacheTestHarness.create(memoryEntries);
         testFiles = TestImages.generateFilePaths(1000);
         sampleExifTags = ExifCacheTestHarness.generateSampleTags(1000);
 
@@ -33,6 +40,7 @@ public class ExifCacheBenchmark {
         for (int i = 0; i < testFiles.length; i++) {
             cache.cacheExifTags(testFiles[i], sampleExifTags[i]);
         }
+        cache.flush();
     }
 
     @TearDown(Level.Trial)
@@ -64,4 +72,47 @@ public class ExifCacheBenchmark {
         File file = testFiles[ThreadLocalRandom.current().nextInt(testFiles.length)];
         bh.consume(cache.getCachedExifTags(file));
     }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void exifCache_write_concurrent() {
+        int i = ThreadLocalRandom.current().nextInt(testFiles.length);
+        cache.cacheExifTags(testFiles[i], sampleExifTags[i]);
+    }
+
+    /**
+     * Typical use while browsing: containsUpToDate followed by a read.
+     */
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void exifCache_containsUpToDateAndRead_concurrent(Blackhole bh) {
+        File file = testFiles[ThreadLocalRandom.current().nextInt(testFiles.length)];
+        if (cache.containsUpToDateExifTags(file)) {
+            bh.consume(cache.getCachedExifTags(file));
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void exifCache_mixed_read(Blackhole bh) {
+        File file = testFiles[ThreadLocalRandom.current().nextInt(testFiles.length)];
+        bh.consume(cache.getCachedExifTags(file));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void exifCache_mixed_write() {
+        int i = ThreadLocalRandom.current().nextInt(testFiles.length);
+        cache.cacheExifTags(testFiles[i], sampleExifTags[i]);
+    }
 }
@@ -5,30 +5,41 @@ import java.io.IOException;
 import java.nio.file.Files;
 import org.jphototagger.cachedb.CacheConnectionFactory;
 import org.jphototagger.exif.cache.SqliteExifCache;
+import org.jphototagger.exif.cache.TieredExifCache;
 import org.jphototagger.exif.ExifIfd;
 import org.jphototagger.exif.ExifTag;
 import org.jphototagger.exif.ExifTags;
 
 /**
- * Test harness for EXIF cache benchmarking using SQLite backend.
+ * Test harness for EXIF cache benchmarking using SQLite backend,
+ * optionally with the in-memory tier of the application's EXIF cache in front.
  */
 public final class ExifCacheTestHarness {
 
     private final File tempDir;
     private final CacheConnectionFactory factory;
     private final SqliteExifCache cache;
+    private final TieredExifCache tieredCache;
 
-    private ExifCacheTestHarness(File tempDir) {
+    private ExifCacheTestHarness(File tempDir, int maxMemoryEntries) {
         this.tempDir = tempDir;
         File dbFile = new File(tempDir, "benchmark-exif-cache.db");
         this.factory = new CacheConnectionFactory(dbFile);
         this.cache = new SqliteExifCache(factory);
+        this.tieredCache = maxMemoryEntries > 0 ? new TieredExifCache(cache, maxMemoryEntries) : null;
     }
 
     public static ExifCacheTestHarness create() {
+        return create(0);
+    }
+
+    /**
+     * @param maxMemoryEntries maximum count of EXIF tags in the in-memory tier, 0 for SQLite only
+     */
+    public static ExifCacheTestHarness create(int maxMemoryEntries) {
         try {
             File tempDir = Files.createTempDirectory("exif-benchmark").toFile();
-            return new ExifCacheTestHarness(tempDir);
+            return new ExifCacheTestHarness(tempDir, maxMemoryEntries);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -60,22 +71,46 @@ public final class ExifCacheTestHarness {
     }
 
     public void cacheExifTags(File imageFile, ExifTags exifTags) {
-        cache.cacheExifTags(imageFile, exifTags);
+        if (tieredCache == null) {
+            cache.cacheExifTags(imageFile, exifTags);
+        } else {
+            tieredCache.cacheExifTags(imageFile, exifTags);
+        }
     }
 
     public ExifTags getCachedExifTags(File imageFile) {
-        return cache.getCachedExifTags(imageFile);
+        return tieredCache == null
+            ? cache.getCachedExifTags(imageFile)
+            : tieredCache.getCachedExifTags(imageFile);
     }
 
     public boolean containsUpToDateExifTags(File imageFile) {
-        return cache.containsUpToDateExifTags(imageFile);
+        return tieredCache == null
+            ? cache.containsUpToDateExifTags(imageFile)
+            : tieredCache.containsUpToDateExifTags(imageFile);
+    }
+
+    /**
+     * Waits until asynchronously cached EXIF tags are written into the database.
+     */
+    public void flush() {
+        if (tieredCache != null) {
+            tieredCache.flush();
+        }
     }
 
     public void clear() {
-        cache.clear();
+        if (tieredCache == null) {
+            cache.clear();
+        } else {
+            tieredCache.clear();
+        }
     }
 
     public void close() {
+        if (tieredCache != null) {
+            tieredCache.close();
+        }
         factory.close();
         deleteRecursively(tempDir);
     }
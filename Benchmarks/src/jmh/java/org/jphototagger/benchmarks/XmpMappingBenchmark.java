@@ -0,0 +1,123 @@
+package org.jphototagger.benchmarks;
+
+import com.adobe.xmp.properties.XMPPropertyInfo;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jphototagger.domain.metadata.MetaDataValue;
+import org.jphototagger.domain.metadata.mapping.XmpMetaDataValueXmpArrayNameMapping;
+import org.jphototagger.domain.metadata.xmp.Xmp;
+import org.jphototagger.xmp.XmpMetadata;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for mapping XMP sidecar content to {@code Xmp}.
+ * Compares the direct mapping of the properties JPhotoTagger knows with
+ * iterating over all property infos and resolving their paths.
+ * The sidecars resemble those written by raw converters: camera raw settings,
+ * EXIF and TIFF properties besides keywords and IPTC core data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmpMappingBenchmark {
+
+    private static final int SIDECAR_COUNT = 100;
+
+    @Param({"10", "50"})
+    private int keywordCount;
+
+    private String[] sidecars;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sidecars = new String[SIDECAR_COUNT];
+        for (int i = 0; i < SIDECAR_COUNT; i++) {
+            sidecars[i] = createSidecar(i, keywordCount);
+        }
+    }
+
+    @Benchmark
+    public void xmpMapping_direct(Blackhole bh) {
+        bh.consume(XmpMetadata.getXmpOfXmpString(nextSidecar()));
+    }
+
+    @Benchmark
+    public void xmpMapping_propertyInfos(Blackhole bh) {
+        bh.consume(getXmpOfPropertyInfos(XmpMetadata.getPropertyInfosOfXmpString(nextSidecar())));
+    }
+
+    private String nextSidecar() {
+        return sidecars[ThreadLocalRandom.current().nextInt(sidecars.length)];
+    }
+
+    private static Xmp getXmpOfPropertyInfos(List<XMPPropertyInfo> propertyInfos) {
+        Xmp xmp = new Xmp();
+        for (XMPPropertyInfo propertyInfo : propertyInfos) {
+            MetaDataValue mdValue = XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue(propertyInfo.getPath());
+            Object value = propertyInfo.getValue();
+            if (mdValue != null && value != null) {
+                xmp.setValue(mdValue, mdValue.getValueType().parseString(value.toString()));
+            }
+        }
+        return xmp;
+    }
+
+    private static String createSidecar(int index, int keywordCount) {
+        StringBuilder sb = new StringBuilder(16384);
+        sb.append("<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">\n")
+          .append(" <rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\">\n")
+          .append("  <rdf:Description rdf:about=\"\"\n")
+          .append("    xmlns:xap=\"http://ns.adobe.com/xap/1.0/\"\n")
+          .append("    xmlns:dc=\"http://purl.org/dc/elements/1.1/\"\n")
+          .append("    xmlns:photoshop=\"http://ns.adobe.com/photoshop/1.0/\"\n")
+          .append("    xmlns:Iptc4xmpCore=\"http://iptc.org/std/Iptc4xmpCore/1.0/xmlns/\"\n")
+          .append("    xmlns:lr=\"http://ns.adobe.com/lightroom/1.0/\"\n")
+          .append("    xmlns:tiff=\"http://ns.adobe.com/tiff/1.0/\"\n")
+          .append("    xmlns:exif=\"http://ns.adobe.com/exif/1.0/\"\n")
+          .append("    xmlns:crs=\"http://ns.adobe.com/camera-raw-settings/1.0/\"\n")
+          .append("   xap:Rating=\"").append(index % 6).append("\"\n")
+          .append("   photoshop:City=\"City ").append(index % 7).append("\"\n")
+          .append("   photoshop:State=\"State\"\n")
+          .append("   photoshop:Country=\"Country\"\n")
+          .append("   photoshop:Headline=\"Headline of image ").append(index).append("\"\n")
+          .append("   photoshop:Credit=\"Credit\"\n")
+          .append("   photoshop:Source=\"Source\"\n")
+          .append("   Iptc4xmpCore:Location=\"Location ").append(index % 5).append("\"\n")
+          .append("   Iptc4xmpCore:DateCreated=\"2011-05-").append(10 + index % 20).append("\"\n")
+          .append("   tiff:Make=\"Camera Maker\"\n")
+          .append("   tiff:Model=\"Camera Model\"\n")
+          .append("   tiff:Orientation=\"1\"\n")
+          .append("   exif:ExposureTime=\"1/250\"\n")
+          .append("   exif:FNumber=\"56/10\"\n")
+          .append("   exif:FocalLength=\"500/10\"\n")
+          .append("   exif:DateTimeOriginal=\"2011-05-10T12:00:00\"\n");
+        for (int i = 0; i < 80; i++) {
+            sb.append("   crs:Setting").append(i).append("=\"").append(i * 3 % 100).append("\"\n");
+        }
+        sb.append("   >\n");
+        sb.append("   <dc:creator><rdf:Seq><rdf:li>Photographer</rdf:li></rdf:Seq></dc:creator>\n");
+        sb.append("   <dc:rights><rdf:Alt><rdf:li xml:lang=\"x-default\">Copyright</rdf:li></rdf:Alt></dc:rights>\n");
+        sb.append("   <dc:title><rdf:Alt><rdf:li xml:lang=\"x-default\">Title ").append(index).append("</rdf:li></rdf:Alt></dc:title>\n");
+        sb.append("   <dc:description><rdf:Alt><rdf:li xml:lang=\"x-default\">Description of image ")
+          .append(index).append("</rdf:li></rdf:Alt></dc:description>\n");
+        sb.append("   <dc:subject><rdf:Bag>\n");
+        for (int i = 0; i < keywordCount; i++) {
+            sb.append("    <rdf:li>Keyword ").append((index + i) % 200).append("</rdf:li>\n");
+        }
+        sb.append("   </rdf:Bag></dc:subject>\n");
+        sb.append("   <lr:hierarchicalSubject><rdf:Bag>\n");
+        for (int i = 0; i < keywordCount; i++) {
+            sb.append("    <rdf:li>Category|Keyword ").append((index + i) % 200).append("</rdf:li>\n");
+        }
+        sb.append("   </rdf:Bag></lr:hierarchicalSubject>\n");
+        sb.append("  </rdf:Description>\n")
+          .append(" </rdf:RDF>\n")
+          .append("</x:xmpmeta>\n");
+        return sb.toString();
+    }
+}
@@ -1,5 +1,8 @@
 package org.jphototagger.benchmarks;
 
+import java.util.Map;
+import org.jphototagger.lib.concurrent.InitTaskGraph;
+
 /**
  * Standalone startup time benchmark.
  * Measures initialization phases without launching full UI.
@@ -9,39 +12,60 @@ package org.jphototagger.benchmarks;
  * Note: This is a simplified version that measures class loading
  * and basic initialization. Full startup benchmarking requires
  * the complete application context.
+ *
+ * The phases are independent and executed concurrently through an
+ * InitTaskGraph as the application does, the total is the wall time until
+ * the last phase was completed. The application logs the same timeline on
+ * startup.
  */
 public class StartupBenchmark {
 
-    public static void main(String[] args) {
+    private static final String CLASS_LOADING = "Class loading";
+    private static final String JAXB = "JAXB init";
+    private static final String IMAGEIO = "ImageIO init";
+
+    public static void main(String[] args) throws Exception {
         System.out.println("JPhotoTagger Startup Benchmark");
         System.out.println("==============================");
         System.out.println();
 
-        long totalStart = System.nanoTime();
+        InitTaskGraph initTasks = new InitTaskGraph("Startup benchmark");
+        initTasks.add(CLASS_LOADING, new Runnable() {
 
-        // Phase 1: Class loading (load key classes)
-        long phase1Start = System.nanoTime();
-        loadClasses();
-        long phase1End = System.nanoTime();
+            @Override
+            public void run() {
+                loadClasses();
+            }
+        });
+        initTasks.add(JAXB, new Runnable() {
 
-        // Phase 2: JAXB initialization
-        long phase2Start = System.nanoTime();
-        initJaxb();
-        long phase2End = System.nanoTime();
+            @Override
+            public void run() {
+                initJaxb();
+            }
+        });
+        initTasks.add(IMAGEIO, new Runnable() {
 
-        // Phase 3: Image I/O initialization
-        long phase3Start = System.nanoTime();
-        initImageIO();
-        long phase3End = System.nanoTime();
-
-        long totalEnd = System.nanoTime();
+            @Override
+            public void run() {
+                initImageIO();
+            }
+        });
+        initTasks.start();
+        Map<String, Throwable> failures = initTasks.awaitAll();
+        for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+            System.err.println("Warning: " + failure.getKey() + " failed - " + failure.getValue());
+        }
 
-        // Output results
-        double phase1Ms = (phase1End - phase1Start) / 1_000_000.0;
-        double phase2Ms = (phase2End - phase2Start) / 1_000_000.0;
-        double phase3Ms = (phase3End - phase3Start) / 1_000_000.0;
-        double totalMs = (totalEnd - totalStart) / 1_000_000.0;
+        double phase1Ms = toMillis(initTasks.getDurationNanos(CLASS_LOADING));
+        double phase2Ms = toMillis(initTasks.getDurationNanos(JAXB));
+        double phase3Ms = toMillis(initTasks.getDurationNanos(IMAGEIO));
+        double totalMs = toMillis(initTasks.getElapsedNanos());
 
+        for (String task : initTasks.getTimeline()) {
+            System.out.println(task);
+        }
+        System.out.println();
         System.out.printf("Phase 1 (Class Loading):    %8.2f ms%n", phase1Ms);
         System.out.printf("Phase 2 (JAXB Init):        %8.2f ms%n", phase2Ms);
         System.out.printf("Phase 3 (ImageIO Init):     %8.2f ms%n", phase3Ms);
@@ -54,6 +78,10 @@ public class StartupBenchmark {
                 phase1Ms, phase2Ms, phase3Ms, totalMs);
     }
 
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
     private static void loadClasses() {
         try {
             // Load key domain classes
@@ -10,7 +10,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -40,6 +43,7 @@ public final class SqliteThumbnailCache extends CacheDatabase {
     private static final String INSERT_THUMBNAIL = "INSERT OR REPLACE INTO thumbnails (file_path, modified_time, file_length, thumbnail) VALUES (?, ?, ?, ?)";
     private static final String DELETE_THUMBNAIL = "DELETE FROM thumbnails WHERE file_path = ?";
     private static final String SELECT_ALL_PATHS = "SELECT file_path FROM thumbnails";
+    private static final String RENAME_PATH = "UPDATE OR REPLACE thumbnails SET file_path = ? WHERE file_path = ?";
 
     public SqliteThumbnailCache(CacheConnectionFactory connectionFactory) {
         super(connectionFactory);
@@ -124,6 +128,55 @@ public final class SqliteThumbnailCache extends CacheDatabase {
         }
     }
 
+    /**
+     * Inserts or replaces thumbnails within one transaction.
+     *
+     * @param thumbnailsOfImageFiles thumbnails of image files
+     * @return count of inserted thumbnails
+     */
+    public int insertThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        Map<File, byte[]> bytesOfImageFiles = new LinkedHashMap<>();
+        for (Map.Entry<File, ? extends Image> entry : thumbnailsOfImageFiles.entrySet()) {
+            byte[] bytes = toJpegBytes(entry.getValue());
+            if (bytes == null) {
+                LOGGER.log(Level.WARNING, "Failed to convert thumbnail to bytes for {0}", entry.getKey());
+            } else {
+                bytesOfImageFiles.put(entry.getKey(), bytes);
+            }
+        }
+        if (bytesOfImageFiles.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection con = getConnection()) {
+            boolean originalAutoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                try (PreparedStatement stmt = con.prepareStatement(INSERT_THUMBNAIL)) {
+                    for (Map.Entry<File, byte[]> entry : bytesOfImageFiles.entrySet()) {
+                        File imageFile = entry.getKey();
+                        stmt.setString(1, imageFile.getAbsolutePath());
+                        stmt.setLong(2, imageFile.lastModified());
+                        stmt.setLong(3, imageFile.length());
+                        stmt.setBytes(4, entry.getValue());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    con.commit();
+                    return bytesOfImageFiles.size();
+                } catch (SQLException e) {
+                    con.rollback();
+                    throw e;
+                }
+            } finally {
+                con.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error inserting thumbnails", e);
+            return 0;
+        }
+    }
+
     public boolean deleteThumbnail(File imageFile) {
         try (Connection con = getConnection();
              PreparedStatement stmt = con.prepareStatement(DELETE_THUMBNAIL)) {
@@ -136,6 +189,47 @@ public final class SqliteThumbnailCache extends CacheDatabase {
         }
     }
 
+    /**
+     * Deletes thumbnails within one transaction.
+     *
+     * @param imageFiles image files
+     * @return count of deleted thumbnails
+     */
+    public int deleteThumbnails(Collection<? extends File> imageFiles) {
+        if (imageFiles.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection con = getConnection()) {
+            boolean originalAutoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                try (PreparedStatement stmt = con.prepareStatement(DELETE_THUMBNAIL)) {
+                    for (File imageFile : imageFiles) {
+                        stmt.setString(1, imageFile.getAbsolutePath());
+                        stmt.addBatch();
+                    }
+                    int count = 0;
+                    for (int rows : stmt.executeBatch()) {
+                        if (rows > 0) {
+                            count += rows;
+                        }
+                    }
+                    con.commit();
+                    return count;
+                } catch (SQLException e) {
+                    con.rollback();
+                    throw e;
+                }
+            } finally {
+                con.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deleting thumbnails", e);
+            return 0;
+        }
+    }
+
     public boolean renameThumbnail(File fromImageFile, File toImageFile) {
         try (Connection con = getConnection()) {
             boolean originalAutoCommit = con.getAutoCommit();
@@ -189,6 +283,50 @@ public final class SqliteThumbnailCache extends CacheDatabase {
         }
     }
 
+    /**
+     * Renames thumbnails with one batch in one transaction.
+     *
+     * @param newImageFileOfOldImageFile new image file of every renamed old image file
+     * @return count of renamed thumbnails
+     */
+    public int renameThumbnails(Map<File, File> newImageFileOfOldImageFile) {
+        if (newImageFileOfOldImageFile == null) {
+            throw new NullPointerException("newImageFileOfOldImageFile == null");
+        }
+        if (newImageFileOfOldImageFile.isEmpty()) {
+            return 0;
+        }
+        try (Connection con = getConnection()) {
+            boolean originalAutoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                int count = 0;
+                try (PreparedStatement stmt = con.prepareStatement(RENAME_PATH)) {
+                    for (Map.Entry<File, File> entry : newImageFileOfOldImageFile.entrySet()) {
+                        stmt.setString(1, entry.getValue().getAbsolutePath());
+                        stmt.setString(2, entry.getKey().getAbsolutePath());
+                        stmt.addBatch();
+                    }
+                    for (int updateCount : stmt.executeBatch()) {
+                        if (updateCount > 0) {
+                            count++;
+                        }
+                    }
+                }
+                con.commit();
+                return count;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error renaming thumbnails", e);
+            return 0;
+        }
+    }
+
     public Set<String> getImageFilenames() {
         Set<String> filenames = new HashSet<>();
         try (Connection con = getConnection();
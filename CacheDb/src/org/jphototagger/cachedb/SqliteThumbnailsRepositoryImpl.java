@@ -2,6 +2,8 @@ package org.jphototagger.cachedb;
 
 import java.awt.Image;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import org.jphototagger.domain.repository.ThumbnailsRepository;
 
@@ -21,6 +23,11 @@ public final class SqliteThumbnailsRepositoryImpl implements ThumbnailsRepositor
         cache.insertThumbnail(thumbnail, imageFile);
     }
 
+    @Override
+    public int insertThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        return cache.insertThumbnails(thumbnailsOfImageFiles);
+    }
+
     @Override
     public Image findThumbnail(File imageFile) {
         return cache.findThumbnail(imageFile);
@@ -41,11 +48,21 @@ public final class SqliteThumbnailsRepositoryImpl implements ThumbnailsRepositor
         return cache.renameThumbnail(fromImageFile, toImageFile);
     }
 
+    @Override
+    public int renameThumbnails(Map<File, File> newImageFileOfOldImageFile) {
+        return cache.renameThumbnails(newImageFileOfOldImageFile);
+    }
+
     @Override
     public boolean deleteThumbnail(File imageFile) {
         return cache.deleteThumbnail(imageFile);
     }
 
+    @Override
+    public int deleteThumbnails(Collection<? extends File> imageFiles) {
+        return cache.deleteThumbnails(imageFiles);
+    }
+
     @Override
     public void compact() {
         cache.compact();
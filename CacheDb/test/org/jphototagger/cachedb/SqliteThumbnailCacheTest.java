@@ -7,6 +7,9 @@ import java.io.File;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -68,6 +71,25 @@ class SqliteThumbnailCacheTest {
         assertThat(result.getHeight(null)).isEqualTo(100);
     }
 
+    @Test
+    void insertThumbnails_insertsAndReplacesAll() throws Exception {
+        File file1 = new File(tempDir, "test1.jpg");
+        File file2 = new File(tempDir, "test2.jpg");
+        file1.createNewFile();
+        file2.createNewFile();
+        cache.insertThumbnail(createTestThumbnail(), file1);
+
+        Map<File, Image> thumbnails = new LinkedHashMap<>();
+        thumbnails.put(file1, new BufferedImage(40, 80, BufferedImage.TYPE_INT_RGB));
+        thumbnails.put(file2, createTestThumbnail());
+        int inserted = cache.insertThumbnails(thumbnails);
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(cache.getImageFilenames()).containsExactlyInAnyOrder(file1.getAbsolutePath(), file2.getAbsolutePath());
+        assertThat(cache.findThumbnail(file1).getWidth(null)).isEqualTo(40);
+        assertThat(cache.hasUpToDateThumbnail(file2)).isTrue();
+    }
+
     @Test
     void hasUpToDateThumbnail_returnsTrueWhenCurrent() throws Exception {
         imageFile.createNewFile();
@@ -102,6 +124,24 @@ class SqliteThumbnailCacheTest {
         assertThat(cache.existsThumbnail(imageFile)).isFalse();
     }
 
+    @Test
+    void deleteThumbnails_removesAllEntries() throws Exception {
+        File file1 = new File(tempDir, "test1.jpg");
+        File file2 = new File(tempDir, "test2.jpg");
+        File file3 = new File(tempDir, "test3.jpg");
+        file1.createNewFile();
+        file2.createNewFile();
+        file3.createNewFile();
+        cache.insertThumbnail(createTestThumbnail(), file1);
+        cache.insertThumbnail(createTestThumbnail(), file2);
+        cache.insertThumbnail(createTestThumbnail(), file3);
+
+        int deleted = cache.deleteThumbnails(Arrays.asList(file1, file3, new File(tempDir, "absent.jpg")));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(cache.getImageFilenames()).containsExactly(file2.getAbsolutePath());
+    }
+
     @Test
     void renameThumbnail_movesEntry() throws Exception {
         imageFile.createNewFile();
@@ -115,6 +155,33 @@ class SqliteThumbnailCacheTest {
         assertThat(cache.existsThumbnail(newFile)).isTrue();
     }
 
+    @Test
+    void renameThumbnails_movesAllEntries() throws Exception {
+        File file1 = new File(tempDir, "test1.jpg");
+        File file2 = new File(tempDir, "test2.jpg");
+        File otherFile = new File(tempDir, "test3.jpg");
+        file1.createNewFile();
+        file2.createNewFile();
+        otherFile.createNewFile();
+        cache.insertThumbnail(createTestThumbnail(), file1);
+        cache.insertThumbnail(createTestThumbnail(), file2);
+        cache.insertThumbnail(createTestThumbnail(), otherFile);
+        File newFile1 = new File(new File(tempDir, "renamed"), "test1.jpg");
+        File newFile2 = new File(new File(tempDir, "renamed"), "test2.jpg");
+        Map<File, File> newFileOfOldFile = new LinkedHashMap<>();
+        newFileOfOldFile.put(file1, newFile1);
+        newFileOfOldFile.put(file2, newFile2);
+        newFileOfOldFile.put(new File(tempDir, "notcached.jpg"), new File(tempDir, "notcached2.jpg"));
+
+        int count = cache.renameThumbnails(newFileOfOldFile);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(cache.existsThumbnail(file1)).isFalse();
+        assertThat(cache.existsThumbnail(newFile1)).isTrue();
+        assertThat(cache.existsThumbnail(newFile2)).isTrue();
+        assertThat(cache.existsThumbnail(otherFile)).isTrue();
+    }
+
     @Test
     void getImageFilenames_returnsAllCachedPaths() throws Exception {
         File file1 = new File(tempDir, "test1.jpg");
@@ -0,0 +1,84 @@
+package org.jphototagger.domain.filefilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.bushe.swing.event.annotation.AnnotationProcessor;
+import org.bushe.swing.event.annotation.EventSubscriber;
+import org.jphototagger.domain.repository.FileExcludePatternsRepository;
+import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternDeletedEvent;
+import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternInsertedEvent;
+import org.jphototagger.lib.util.CompiledPatterns;
+import org.openide.util.Lookup;
+
+/**
+ * Compiled file exclude patterns of the repository.
+ * <p>
+ * The patterns will be read and compiled once and again after a pattern was inserted or deleted, instead of querying
+ * the repository per directory and compiling each pattern per file. Each change increments the version, a snapshot
+ * is reloaded on the next access, if it's version differs from the current version.
+ *
+ * @author Elmar Baumann
+ */
+public final class FileExcludePatterns {
+
+    public static final FileExcludePatterns INSTANCE = new FileExcludePatterns();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private FileExcludePatterns() {
+        AnnotationProcessor.process(this);
+    }
+
+    /**
+     * Returns the current file exclude patterns, invalid patterns are ignored.
+     *
+     * @return compiled patterns, matching against absolute file paths
+     */
+    public CompiledPatterns getPatterns() {
+        long currentVersion = version.get();
+        Snapshot currentSnapshot = snapshot;
+
+        if (currentSnapshot == null || currentSnapshot.version != currentVersion) {
+            FileExcludePatternsRepository repo = Lookup.getDefault().lookup(FileExcludePatternsRepository.class);
+            // A change while loading increments the version: The next call reloads again
+            currentSnapshot = new Snapshot(currentVersion, CompiledPatterns.compileValid(repo.findAllFileExcludePatterns()));
+            snapshot = currentSnapshot;
+        }
+
+        return currentSnapshot.patterns;
+    }
+
+    /**
+     * @return version, incremented on every change of the file exclude patterns
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Forces reloading the patterns on the next access.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    @EventSubscriber(eventClass = FileExcludePatternInsertedEvent.class)
+    public void fileExcludePatternInserted(FileExcludePatternInsertedEvent evt) {
+        invalidate();
+    }
+
+    @EventSubscriber(eventClass = FileExcludePatternDeletedEvent.class)
+    public void fileExcludePatternDeleted(FileExcludePatternDeletedEvent evt) {
+        invalidate();
+    }
+
+    private static final class Snapshot {
+
+        private final long version;
+        private final CompiledPatterns patterns;
+
+        private Snapshot(long version, CompiledPatterns patterns) {
+            this.version = version;
+            this.patterns = patterns;
+        }
+    }
+}
@@ -7,10 +7,9 @@ import java.util.Collection;
 import java.util.List;
 import org.jphototagger.api.concurrent.CancelRequest;
 import org.jphototagger.api.preferences.Preferences;
-import org.jphototagger.domain.repository.FileExcludePatternsRepository;
 import org.jphototagger.lib.io.FileUtil;
 import org.jphototagger.lib.io.filefilter.DirectoryFilter;
-import org.jphototagger.lib.util.RegexUtil;
+import org.jphototagger.lib.util.CompiledPatterns;
 import org.openide.util.Lookup;
 
 /**
@@ -24,14 +23,17 @@ public final class FileFilterUtil {
         }
 
         AppFileFilterProvider provider = Lookup.getDefault().lookup(AppFileFilterProvider.class);
-        File[] filteredFiles = directory.listFiles(provider.getAcceptedImageFilesFileFilter());
-        FileExcludePatternsRepository repo = Lookup.getDefault().lookup(FileExcludePatternsRepository.class);
-        List<String> excludePatterns = repo.findAllFileExcludePatterns();
+
+        return getImageFilesOfDirectory(directory, provider.getAcceptedImageFilesFileFilter(), FileExcludePatterns.INSTANCE.getPatterns());
+    }
+
+    private static List<File> getImageFilesOfDirectory(File directory, FileFilter imageFilesFilter, CompiledPatterns excludePatterns) {
+        File[] filteredFiles = directory.listFiles(imageFilesFilter);
         List<File> files = new ArrayList<>();
 
         if (filteredFiles != null) {
             for (File file : filteredFiles) {
-                if (!RegexUtil.containsMatch(excludePatterns, file.getAbsolutePath())) {
+                if (excludePatterns.isEmpty() || !excludePatterns.matchesAny(file.getAbsolutePath())) {
                     files.add(file);
                 }
             }
@@ -46,9 +48,12 @@ public final class FileFilterUtil {
         }
 
         List<File> files = new ArrayList<>();
+        AppFileFilterProvider provider = Lookup.getDefault().lookup(AppFileFilterProvider.class);
+        FileFilter imageFilesFilter = provider.getAcceptedImageFilesFileFilter();
+        CompiledPatterns excludePatterns = FileExcludePatterns.INSTANCE.getPatterns();
 
         for (File directory : directories) {
-            files.addAll(getImageFilesOfDirectory(directory));
+            files.addAll(getImageFilesOfDirectory(directory, imageFilesFilter, excludePatterns));
         }
 
         return files;
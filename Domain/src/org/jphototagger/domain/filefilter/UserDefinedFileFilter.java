@@ -3,12 +3,14 @@ package org.jphototagger.domain.filefilter;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import org.jphototagger.lib.util.Bundle;
+import org.jphototagger.lib.util.CompiledPatterns;
 
 /**
  * @author Elmar Baumann
@@ -245,6 +247,7 @@ public final class UserDefinedFileFilter implements Serializable {
         private final String pattern;
         private final boolean isNot;
         private final long id;
+        private transient volatile CompiledPatterns compiledPattern;
 
         public RegexFileFilter(String pattern, boolean not, long id) {
             if (pattern == null) {
@@ -261,14 +264,27 @@ public final class UserDefinedFileFilter implements Serializable {
             String filename = file.getName();
 
             try {
+                boolean matches = getCompiledPattern().matchesAny(filename);
+
                 return isNot
-                        ? !filename.matches(pattern)
-                        : filename.matches(pattern);
+                        ? !matches
+                        : matches;
             } catch (Throwable t) {
                 Logger.getLogger(UserDefinedFileFilter.class.getName()).log(Level.SEVERE, null, t);
             }
 
             return false;
         }
+
+        private CompiledPatterns getCompiledPattern() {
+            CompiledPatterns patterns = compiledPattern;
+
+            if (patterns == null) {
+                patterns = CompiledPatterns.compile(Collections.singletonList(pattern));
+                compiledPattern = patterns;
+            }
+
+            return patterns;
+        }
     }
 }
@@ -1,7 +1,9 @@
 package org.jphototagger.domain.metadata.mapping;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpDcCreatorMetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpDcDescriptionMetaDataValue;
@@ -28,6 +30,7 @@ import org.jphototagger.domain.metadata.xmp.XmpRatingMetaDataValue;
 public final class XmpMetaDataValueXmpArrayNameMapping {
 
     private static final Map<MetaDataValue, String> XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE = new HashMap<>();
+    private static final Map<String, MetaDataValue> XMP_META_DATA_VALUE_OF_XMP_ARRAY_NAME = new HashMap<>();
 
     static {
         XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.put(XmpDcCreatorMetaDataValue.INSTANCE, "dc:creator");
@@ -48,6 +51,17 @@ public final class XmpMetaDataValueXmpArrayNameMapping {
         XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.put(XmpPhotoshopStateMetaDataValue.INSTANCE, "photoshop:State");
         XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.put(XmpPhotoshopTransmissionReferenceMetaDataValue.INSTANCE, "photoshop:TransmissionReference");
         XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.put(XmpRatingMetaDataValue.INSTANCE, "xap:Rating");
+
+        for (Map.Entry<MetaDataValue, String> entry : XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.entrySet()) {
+            XMP_META_DATA_VALUE_OF_XMP_ARRAY_NAME.put(entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * @return all values having an array name
+     */
+    public static Set<MetaDataValue> getXmpMetaDataValues() {
+        return Collections.unmodifiableSet(XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.keySet());
     }
 
     public static String getXmpArrayNameOfXmpMetaDataValue(MetaDataValue value) {
@@ -62,7 +76,8 @@ public final class XmpMetaDataValueXmpArrayNameMapping {
      * Finds a value for a string with a specific path start.
      *
      * @param stringArrayNameStart string with a array name start, can contain
-     *                             more characters after name start
+     *                             an array index or a path to a field after
+     *                             the array name, e.g. {@code "dc:subject[1]"}
      * @return                     value or null if not found
      */
     public static MetaDataValue findXmpMetaDataValue(String stringArrayNameStart) {
@@ -70,13 +85,19 @@ public final class XmpMetaDataValueXmpArrayNameMapping {
             throw new NullPointerException("stringArrayNameStart == null");
         }
 
-        for (MetaDataValue value : XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.keySet()) {
-            if (stringArrayNameStart.startsWith(XMP_ARRAY_NAME_OF_XMP_META_DATA_VALUE.get(value))) {
-                return value;
+        return XMP_META_DATA_VALUE_OF_XMP_ARRAY_NAME.get(getArrayName(stringArrayNameStart));
+    }
+
+    private static String getArrayName(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+
+            if (c == '[' || c == '/') {
+                return path.substring(0, i);
             }
         }
 
-        return null;
+        return path;
     }
 
     private XmpMetaDataValueXmpArrayNameMapping() {
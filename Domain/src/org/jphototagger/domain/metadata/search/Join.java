@@ -15,6 +15,7 @@ public final class Join {
     private static final Map<String, String> NULL_SQL_OF = new HashMap<>();
     private static final Map<String, String> NOT_NULL_SQL_OF = new HashMap<>();
     private static final Map<String, String> DELETE_SQL_OF = new HashMap<>();
+    private static final Map<String, String> XMP_REFERENCE_COLUMN_OF = new HashMap<>();
 
     static {
         JOIN_FROM_FILES.put("files",
@@ -174,6 +175,16 @@ public final class Join {
                 "DELETE FROM photoshop_sources WHERE source = ?");
         DELETE_SQL_OF.put("photoshop_states",
                 "DELETE FROM photoshop_states WHERE state = ?");
+        XMP_REFERENCE_COLUMN_OF.put("dc_creators", "id_dc_creator");
+        XMP_REFERENCE_COLUMN_OF.put("dc_rights", "id_dc_rights");
+        XMP_REFERENCE_COLUMN_OF.put("iptc4xmpcore_locations", "id_iptc4xmpcore_location");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_authorspositions", "id_photoshop_authorsposition");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_captionwriters", "id_photoshop_captionwriter");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_cities", "id_photoshop_city");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_countries", "id_photoshop_country");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_credits", "id_photoshop_credit");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_sources", "id_photoshop_source");
+        XMP_REFERENCE_COLUMN_OF.put("photoshop_states", "id_photoshop_state");
     }
 
     private Join() {
@@ -215,6 +226,20 @@ public final class Join {
         return DELETE_SQL_OF.get(tablename);
     }
 
+    /**
+     * @param tablename name of a table referenced 1:n by the table <code>xmp</code>
+     * @return name of the column in the table <code>xmp</code> referencing the table
+     */
+    public static String getXmpReferenceColumnOf(String tablename) {
+        if (tablename == null) {
+            throw new NullPointerException("tablename == null");
+        }
+        if (!XMP_REFERENCE_COLUMN_OF.containsKey(tablename)) {
+            throw new IllegalArgumentException("Table not defined: " + tablename);
+        }
+        return XMP_REFERENCE_COLUMN_OF.get(tablename);
+    }
+
     public static String getNotNullSqlOf(String joinTablename) {
         if (joinTablename == null) {
             throw new NullPointerException("joinTablename == null");
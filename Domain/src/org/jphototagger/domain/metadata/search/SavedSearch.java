@@ -10,6 +10,7 @@ import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlElementWrapper;
 import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlTransient;
 import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.file.FilesFilenameMetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpDcSubjectsSubjectMetaDataValue;
@@ -41,6 +42,12 @@ public final class SavedSearch {
     private String customSql;
     private Type type;
     private String name;
+    /**
+     * Statement created from the other fields, reused until one of them
+     * changes
+     */
+    @XmlTransient
+    private ParamStatement paramStatement;
 
     public SavedSearch() {
     }
@@ -82,6 +89,7 @@ public final class SavedSearch {
         if (other != this) {
             panels = other.getDeepCopyPanels();
             type = other.type;
+            paramStatement = null;
         }
     }
 
@@ -108,6 +116,9 @@ public final class SavedSearch {
     }
 
     public void setType(Type type) {
+        if (this.type != type) {
+            paramStatement = null;
+        }
         this.type = type;
     }
 
@@ -132,10 +143,20 @@ public final class SavedSearch {
         }
     }
 
+    /**
+     * Creates the statement of this search. The SQL will be created only once
+     * as long as this search is not modified, so that equal statements can be
+     * reused by the repository.
+     *
+     * @return statement
+     */
     public ParamStatement createParamStatement() {
-        return isCustomSql()
-                ? createParamStmtFromCustomSql()
-                : createParamStmtFromPanels();
+        if (paramStatement == null) {
+            paramStatement = isCustomSql()
+                    ? createParamStmtFromCustomSql()
+                    : createParamStmtFromPanels();
+        }
+        return new ParamStatement(paramStatement);
     }
 
     public boolean isCustomSql() {
@@ -176,6 +197,7 @@ public final class SavedSearch {
     }
 
     public void setCustomSql(String customSql) {
+        paramStatement = null;
         this.customSql = (customSql == null)
                 ? null
                 : customSql.trim();
@@ -224,6 +246,7 @@ public final class SavedSearch {
     }
 
     private void setNotEmptyKeywords(List<String> keywords) {
+        paramStatement = null;
         if (keywords == null) {
             this.keywords = new ArrayList<>();
             return;
@@ -238,6 +261,7 @@ public final class SavedSearch {
     }
 
     private void setDeepCopyPanels(List<SavedSearchPanel> panels) {
+        paramStatement = null;
         if (panels == null) {
             this.panels = new ArrayList<>();
             return;
@@ -2,6 +2,7 @@ package org.jphototagger.domain.repository;
 
 import java.io.File;
 import java.util.List;
+import org.jphototagger.api.concurrent.Cancelable;
 import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.search.ParamStatement;
 
@@ -12,5 +13,40 @@ public interface FindRepository {
 
     List<File> findImageFiles(ParamStatement paramStatement);
 
+    /**
+     * Finds image files in the calling thread and passes them in chunks to a
+     * listener while reading the query result.
+     *
+     * @param paramStatement query, the first column of the result has to be
+     *                       the file name
+     * @param listener       receives the found image files
+     * @return               true if the search was completed, false if it was
+     *                       canceled or on errors
+     */
+    boolean findImageFiles(ParamStatement paramStatement, ImageFilesFoundListener listener);
+
+    /**
+     * Receives image files found by
+     * {@link FindRepository#findImageFiles(ParamStatement, ImageFilesFoundListener)}.
+     * All methods are called in the searching thread.
+     */
+    interface ImageFilesFoundListener {
+
+        /**
+         * Called before the query will be executed.
+         *
+         * @param query cancels the query, also while the repository is
+         *              executing it. Can be called from any thread.
+         */
+        void searchStarted(Cancelable query);
+
+        /**
+         * Called for every chunk of found image files.
+         *
+         * @param imageFiles image files found since the previous call
+         */
+        void imageFilesFound(List<File> imageFiles);
+    }
+
     List<File> findImageFilesLikeOr(List<MetaDataValue> metaDataValues, String searchString);
 }
@@ -1,6 +1,7 @@
 package org.jphototagger.domain.repository;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import org.jphototagger.domain.imagecollections.ImageCollection;
 
@@ -31,6 +32,17 @@ public interface ImageCollectionsRepository {
 
     boolean saveImageCollection(ImageCollection collection);
 
+    /**
+     * Saves image collections within one transaction. Other than
+     * {@link #saveImageCollection(ImageCollection)} existing collections will
+     * not be replaced.
+     *
+     * @param  collections image collections, all image files have to be saved
+     *                     in the repository
+     * @return             count of saved image collections
+     */
+    int saveNewImageCollections(Collection<? extends ImageCollection> collections);
+
     boolean insertImagesIntoImageCollection(String collectionName, List<File> imageFiles);
 
     int updateRenameImageCollection(String fromName, String toName);
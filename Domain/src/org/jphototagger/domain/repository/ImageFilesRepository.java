@@ -4,6 +4,7 @@ import java.awt.Image;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.jphototagger.api.applifecycle.generics.Functor;
 import org.jphototagger.api.progress.ProgressListener;
@@ -49,12 +50,41 @@ public interface ImageFilesRepository {
 
     Set<String> findAllDistinctMetaDataValues(MetaDataValue value);
 
+    /**
+     * @param values metadata values
+     * @return for each metadata value it's distinct values and how many image
+     *         files have them
+     */
+    Map<MetaDataValue, Map<String, Integer>> findImageCountsOfDistinctMetaDataValues(Collection<? extends MetaDataValue> values);
+
     List<File> findAllImageFiles();
 
     void eachImage(Functor<File> functor);
 
+    /**
+     * @param pathPrefix start of the absolute paths of the image files to count, empty string counts all
+     * @return count of image files whose path starts with the prefix
+     */
+    long getFileCountStartingWith(String pathPrefix);
+
+    /**
+     * Returns a page of image files ordered ascending by their absolute path.
+     *
+     * @param pathPrefix start of the absolute paths of the image files, empty string returns all
+     * @param offset     index of the first image file within all ordered image files starting with the prefix
+     * @param limit      maximum count of image files to return
+     * @return image files, empty if the offset is behind the last image file
+     */
+    List<File> findImageFilesStartingWith(String pathPrefix, int offset, int limit);
+
     List<String> findDcSubjectsOfImageFile(File file);
 
+    /**
+     * @param files image files
+     * @return distinct dc subjects of all image files, read with one query
+     */
+    Set<String> findDcSubjectsOfImageFiles(Collection<? extends File> files);
+
     Exif findExifOfImageFile(File file);
 
     long findExifDateTimeOriginalTimestamp(File file);
@@ -91,6 +121,13 @@ public interface ImageFilesRepository {
 
     long findXmpFilesLastModifiedTimestamp(File file);
 
+    /**
+     * @param files image files
+     * @return last modification times of the XMP data of the image files known by the repository, image files without
+     *         XMP data are not contained
+     */
+    Map<File, Long> findXmpFilesLastModifiedTimestamps(Collection<? extends File> files);
+
     Xmp findXmpOfImageFile(File file);
 
     String findXmpIptc4CoreDateCreated(File file);
@@ -115,9 +152,35 @@ public interface ImageFilesRepository {
 
     boolean updateThumbnail(File file, Image thumbnail);
 
+    /**
+     * Updates thumbnails at once, publishes one {@code ThumbnailsUpdatedEvent}.
+     *
+     * @param thumbnailsOfImageFiles thumbnails of image files
+     * @return count of updated thumbnails
+     */
+    int updateThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles);
+
     int updateAllThumbnails(ProgressListener listener);
 
+    /**
+     * Renames filenames starting with a substring at once, publishes one {@code ImageFilesMovedEvent}.
+     *
+     * @param before start substring of the old filenames, e.g. a directory path with trailing separator
+     * @param after new start substring
+     * @param progressListener null or progress listener
+     * @return count of renamed files
+     */
     int updateRenameFilenamesStartingWith(final String before, final String after, final ProgressListener progressListener);
 
     public int updateRenameAllDcSubjects(String fromName, String toName);
+
+    /**
+     * Renames or deletes a value of a XMP metadata value in all image files at once.
+     *
+     * @param mdValue  XMP metadata value, not {@code XmpDcSubjectsSubjectMetaDataValue}
+     * @param oldValue old value
+     * @param newValue new value, empty string deletes the value
+     * @return count of image files which had the old value
+     */
+    int updateRenameXmpValue(MetaDataValue mdValue, String oldValue, String newValue);
 }
@@ -32,6 +32,18 @@ public interface KeywordsRepository {
 
     boolean saveKeyword(Keyword keyword);
 
+    /**
+     * Saves keyword paths within one transaction. The first keyword of a path
+     * is a root keyword, each following keyword is a child of it's
+     * predecessor. Keywords existing under the same parent - compared ignoring
+     * the case - will not be saved again.
+     *
+     * @param  paths keyword paths, only the names and the real property of the
+     *               keywords are relevant
+     * @return       count of saved keywords
+     */
+    int saveKeywordPaths(Collection<? extends List<Keyword>> paths);
+
     boolean updateKeyword(Keyword keyword);
 
     int updateRenameAllKeywords(String fromName, String toName);
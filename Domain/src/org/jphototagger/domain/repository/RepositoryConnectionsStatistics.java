@@ -0,0 +1,47 @@
+package org.jphototagger.domain.repository;
+
+/**
+ * Usage of the connections to the repository since the application start.
+ *
+ * @author Elmar Baumann
+ */
+public interface RepositoryConnectionsStatistics {
+
+    int getOpenConnectionCount();
+
+    int getAvailableConnectionCount();
+
+    int getMinConnectionCount();
+
+    int getMaxConnectionCount();
+
+    long getBorrowCount();
+
+    /**
+     * @return count of borrowings which had to wait for a free connection
+     */
+    long getWaitCount();
+
+    long getTotalWaitMillis();
+
+    long getMaxWaitMillis();
+
+    /**
+     * @return count of borrowings which failed, because no connection was freed within the maximum wait time
+     */
+    long getTimeoutCount();
+
+    /**
+     * @return count of connections not freed for a long time
+     */
+    int getLeakedConnectionCount();
+
+    /**
+     * @return count of discarded connections, e.g. closed by a timeout
+     */
+    long getInvalidConnectionCount();
+
+    long getStatementCacheHitCount();
+
+    long getStatementCacheMissCount();
+}
@@ -1,6 +1,8 @@
 package org.jphototagger.domain.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import org.jphototagger.domain.metadata.MetaDataValue;
 
 /**
@@ -10,6 +12,15 @@ public interface RepositoryStatistics {
 
     boolean existsMetaDataValue(MetaDataValue metaDataValue, String value);
 
+    /**
+     * Batch version of {@link #existsMetaDataValue(MetaDataValue, String)}.
+     *
+     * @param metaDataValue metadata value
+     * @param values        values
+     * @return existing values
+     */
+    Set<String> findExistingMetaDataValues(MetaDataValue metaDataValue, Collection<? extends String> values);
+
     boolean existsValueInMetaDataValues(String value, List<MetaDataValue> metaDataValues);
 
     int getCountOfMetaDataValue(MetaDataValue metaDataValue);
@@ -2,6 +2,8 @@ package org.jphototagger.domain.repository;
 
 import java.awt.Image;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -11,6 +13,14 @@ public interface ThumbnailsRepository {
 
     void insertThumbnail(Image thumbnail, File imageFile);
 
+    /**
+     * Inserts or replaces thumbnails at once.
+     *
+     * @param thumbnailsOfImageFiles thumbnails of image files
+     * @return count of inserted thumbnails
+     */
+    int insertThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles);
+
     Image findThumbnail(File imageFile);
 
     boolean existsThumbnail(File imageFile);
@@ -19,8 +29,24 @@ public interface ThumbnailsRepository {
 
     boolean renameThumbnail(File fromImageFile, File toImageFile);
 
+    /**
+     * Renames thumbnails at once. Usage: Renaming a directory in the filesystem.
+     *
+     * @param newImageFileOfOldImageFile new image file of every renamed old image file
+     * @return count of renamed thumbnails
+     */
+    int renameThumbnails(Map<File, File> newImageFileOfOldImageFile);
+
     boolean deleteThumbnail(File imageFile);
 
+    /**
+     * Deletes thumbnails at once.
+     *
+     * @param imageFiles image files
+     * @return count of deleted thumbnails
+     */
+    int deleteThumbnails(Collection<? extends File> imageFiles);
+
     void compact();
 
     /**
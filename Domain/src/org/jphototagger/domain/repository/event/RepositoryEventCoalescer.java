@@ -0,0 +1,251 @@
+package org.jphototagger.domain.repository.event;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bushe.swing.event.EventService;
+import org.bushe.swing.event.EventServiceExistsException;
+import org.bushe.swing.event.EventServiceLocator;
+import org.bushe.swing.event.ThreadSafeEventService;
+import org.jphototagger.domain.repository.event.exif.ImageFilesExifChangedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesInsertedEvent;
+import org.jphototagger.domain.repository.event.xmp.ImageFilesXmpChangedEvent;
+
+/**
+ * Merges the per file events of a repository within a short time window into batch events, e.g. all
+ * {@link org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent}s of a bulk delete into one
+ * {@link ImageFilesDeletedEvent}.
+ * <p>
+ * The batch events are not published through the {@code EventBus}, which delivers within the Event Dispatch Thread,
+ * but through an own event service in a background thread. Subscribers opt in via
+ * <pre>
+ * &#064;EventSubscriber(eventClass = ImageFilesDeletedEvent.class,
+ *                  eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+ * </pre>
+ * and have to switch to the Event Dispatch Thread themselves, if they modify GUI components - once per batch.
+ * <p>
+ * Batches are published in the order deleted, inserted, XMP changed, EXIF changed. A file deleted after it's
+ * insertion within the same window is contained only in the deleted files and vice versa.
+ *
+ * @author Elmar Baumann
+ */
+public final class RepositoryEventCoalescer {
+
+    public static final String EVENT_SERVICE_NAME = "JPhotoTagger.RepositoryBatchEvents";
+    public static final RepositoryEventCoalescer INSTANCE = new RepositoryEventCoalescer(EVENT_SERVICE_NAME, 250, 1000);
+    private static final Logger LOGGER = Logger.getLogger(RepositoryEventCoalescer.class.getName());
+    private final Object monitor = new Object();
+    private final String eventServiceName;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "JPhotoTagger: Publishing repository batch events");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final Runnable flushRunnable = new Runnable() {
+
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private Set<File> deletedFiles = new LinkedHashSet<>();
+    private Set<File> insertedFiles = new LinkedHashSet<>();
+    private Set<File> xmpChangedFiles = new LinkedHashSet<>();
+    private Set<File> exifChangedFiles = new LinkedHashSet<>();
+    private int pendingCount;
+    private boolean flushScheduled;
+    private boolean immediateFlushScheduled;
+
+    /**
+     * @param eventServiceName name of the event service publishing the batch events
+     * @param windowMillis     milliseconds after the first collected event until the batches will be published
+     * @param maxBatchSize     count of collected events publishing the batches before the window expires
+     */
+    RepositoryEventCoalescer(String eventServiceName, long windowMillis, int maxBatchSize) {
+        if (eventServiceName == null) {
+            throw new NullPointerException("eventServiceName == null");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Negative window: " + windowMillis);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid max. batch size: " + maxBatchSize);
+        }
+
+        this.eventServiceName = eventServiceName;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void imageFileInserted(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+
+        synchronized (monitor) {
+            deletedFiles.remove(imageFile);
+            insertedFiles.add(imageFile);
+            pendingEventsAdded(1);
+        }
+    }
+
+    public void imageFileDeleted(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+
+        synchronized (monitor) {
+            insertedFiles.remove(imageFile);
+            xmpChangedFiles.remove(imageFile);
+            exifChangedFiles.remove(imageFile);
+            deletedFiles.add(imageFile);
+            pendingEventsAdded(1);
+        }
+    }
+
+    /**
+     * Collects the deletion of many image files at once, e.g. after a bulk delete within one transaction.
+     *
+     * @param imageFiles deleted image files
+     */
+    public void imageFilesDeleted(Collection<? extends File> imageFiles) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+        if (imageFiles.isEmpty()) {
+            return;
+        }
+
+        synchronized (monitor) {
+            for (File imageFile : imageFiles) {
+                insertedFiles.remove(imageFile);
+                xmpChangedFiles.remove(imageFile);
+                exifChangedFiles.remove(imageFile);
+                deletedFiles.add(imageFile);
+            }
+            pendingEventsAdded(imageFiles.size());
+        }
+    }
+
+    public void xmpChanged(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+
+        synchronized (monitor) {
+            xmpChangedFiles.add(imageFile);
+            pendingEventsAdded(1);
+        }
+    }
+
+    public void exifChanged(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+
+        synchronized (monitor) {
+            exifChangedFiles.add(imageFile);
+            pendingEventsAdded(1);
+        }
+    }
+
+    // Called while holding the monitor
+    private void pendingEventsAdded(int count) {
+        pendingCount += count;
+        if (pendingCount >= maxBatchSize && !immediateFlushScheduled) {
+            flushScheduled = true;
+            immediateFlushScheduled = true;
+            executor.execute(flushRunnable);
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(flushRunnable, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publishes all collected events in the calling thread.
+     */
+    public void flush() {
+        Set<File> deleted;
+        Set<File> inserted;
+        Set<File> xmpChanged;
+        Set<File> exifChanged;
+        synchronized (monitor) {
+            if (pendingCount == 0) {
+                return;
+            }
+            deleted = deletedFiles;
+            inserted = insertedFiles;
+            xmpChanged = xmpChangedFiles;
+            exifChanged = exifChangedFiles;
+            deletedFiles = new LinkedHashSet<>();
+            insertedFiles = new LinkedHashSet<>();
+            xmpChangedFiles = new LinkedHashSet<>();
+            exifChangedFiles = new LinkedHashSet<>();
+            pendingCount = 0;
+            flushScheduled = false;
+            immediateFlushScheduled = false;
+        }
+        EventService eventService = getEventService();
+        if (!deleted.isEmpty()) {
+            publish(eventService, new ImageFilesDeletedEvent(this, deleted));
+        }
+        if (!inserted.isEmpty()) {
+            publish(eventService, new ImageFilesInsertedEvent(this, inserted));
+        }
+        if (!xmpChanged.isEmpty()) {
+            publish(eventService, new ImageFilesXmpChangedEvent(this, xmpChanged));
+        }
+        if (!exifChanged.isEmpty()) {
+            publish(eventService, new ImageFilesExifChangedEvent(this, exifChanged));
+        }
+    }
+
+    private static void publish(EventService eventService, Object event) {
+        try {
+            eventService.publish(event);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        }
+    }
+
+    /**
+     * @return event service publishing the batch events, e.g. for subscribers without annotations
+     */
+    public EventService getEventService() {
+        EventService eventService = EventServiceLocator.getEventService(eventServiceName);
+        if (eventService != null) {
+            return eventService;
+        }
+        try {
+            EventServiceLocator.setEventService(eventServiceName, new ThreadSafeEventService());
+        } catch (EventServiceExistsException ex) {
+            // Created concurrently by the annotation processor of a subscriber
+            LOGGER.log(Level.FINEST, null, ex);
+        }
+        return EventServiceLocator.getEventService(eventServiceName);
+    }
+
+    /**
+     * @return count of collected events not yet published
+     */
+    int getPendingCount() {
+        synchronized (monitor) {
+            return pendingCount;
+        }
+    }
+}
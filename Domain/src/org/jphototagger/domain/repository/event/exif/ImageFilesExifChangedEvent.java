@@ -0,0 +1,43 @@
+package org.jphototagger.domain.repository.event.exif;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
+
+/**
+ * EXIF metadata of image files was inserted, updated or deleted, replaces a bulk of
+ * {@link ExifInsertedEvent}s, {@link ExifUpdatedEvent}s and {@link ExifDeletedEvent}s.
+ * <p>
+ * Published by the {@link RepositoryEventCoalescer} through it's event service, see
+ * {@link RepositoryEventCoalescer#EVENT_SERVICE_NAME}.
+ *
+ * @author Elmar Baumann
+ */
+public final class ImageFilesExifChangedEvent {
+
+    private final Object source;
+    private final List<File> imageFiles;
+
+    public ImageFilesExifChangedEvent(Object source, Collection<? extends File> imageFiles) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+
+        this.source = source;
+        this.imageFiles = Collections.unmodifiableList(new ArrayList<>(imageFiles));
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    /**
+     * @return unmodifiable list of the affected image files, each file is contained only once
+     */
+    public List<File> getImageFiles() {
+        return imageFiles;
+    }
+}
@@ -0,0 +1,59 @@
+package org.jphototagger.domain.repository.event.imagefiles;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Image files have been deleted from the repository at once together with their XMP and EXIF metadata, no
+ * {@code ImageFileDeletedEvent}s, {@code XmpDeletedEvent}s and {@code ExifDeletedEvent}s will be published for them.
+ * <p>
+ * The deleted metadata is unknown, subscribers keeping metadata values have to read them again from the repository.
+ *
+ * @author Elmar Baumann
+ */
+public final class ImageFilesDeletedAtOnceEvent {
+
+    private final Object source;
+    private final List<File> imageFiles;
+    private final int xmpCount;
+    private final int exifCount;
+
+    /**
+     * @param source     source
+     * @param imageFiles deleted image files
+     * @param xmpCount   count of deleted image files having had XMP metadata
+     * @param exifCount  count of deleted image files having had EXIF metadata
+     */
+    public ImageFilesDeletedAtOnceEvent(Object source, Collection<? extends File> imageFiles, int xmpCount, int exifCount) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+
+        this.source = source;
+        this.imageFiles = Collections.unmodifiableList(new ArrayList<>(imageFiles));
+        this.xmpCount = xmpCount;
+        this.exifCount = exifCount;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    /**
+     * @return unmodifiable list of the deleted image files
+     */
+    public List<File> getImageFiles() {
+        return imageFiles;
+    }
+
+    public int getXmpCount() {
+        return xmpCount;
+    }
+
+    public int getExifCount() {
+        return exifCount;
+    }
+}
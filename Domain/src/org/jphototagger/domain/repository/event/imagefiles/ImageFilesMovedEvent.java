@@ -0,0 +1,78 @@
+package org.jphototagger.domain.repository.event.imagefiles;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Image files were moved by renaming the start of their paths, e.g. after renaming or moving a directory.
+ * Replaces an {@link ImageFileMovedEvent} for each of the files.
+ * <p>
+ * The new paths are the paths determined by the repository, which may match the old path prefix ignoring the case.
+ * Listeners therefore have to look up the new files through {@link #getNewImageFile(File)} or
+ * {@link #getMovedImageFiles()} instead of replacing the prefix of the paths by themselves.
+ *
+ * @author Elmar Baumann
+ */
+public final class ImageFilesMovedEvent {
+
+    private final Object source;
+    private final String oldPathPrefix;
+    private final String newPathPrefix;
+    private final Map<File, File> newImageFileOfOldImageFile;
+
+    /**
+     * @param source                     source
+     * @param oldPathPrefix              old start of the paths, e.g. the old directory path with trailing separator
+     * @param newPathPrefix              new start of the paths
+     * @param newImageFileOfOldImageFile new file of every moved old file
+     */
+    public ImageFilesMovedEvent(Object source, String oldPathPrefix, String newPathPrefix, Map<File, File> newImageFileOfOldImageFile) {
+        if (oldPathPrefix == null) {
+            throw new NullPointerException("oldPathPrefix == null");
+        }
+        if (newPathPrefix == null) {
+            throw new NullPointerException("newPathPrefix == null");
+        }
+        if (newImageFileOfOldImageFile == null) {
+            throw new NullPointerException("newImageFileOfOldImageFile == null");
+        }
+
+        this.source = source;
+        this.oldPathPrefix = oldPathPrefix;
+        this.newPathPrefix = newPathPrefix;
+        this.newImageFileOfOldImageFile = Collections.unmodifiableMap(new LinkedHashMap<>(newImageFileOfOldImageFile));
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    public String getOldPathPrefix() {
+        return oldPathPrefix;
+    }
+
+    public String getNewPathPrefix() {
+        return newPathPrefix;
+    }
+
+    /**
+     * @return unmodifiable map with the moved files with their old paths as keys and their new paths as values
+     */
+    public Map<File, File> getMovedImageFiles() {
+        return newImageFileOfOldImageFile;
+    }
+
+    /**
+     * @param oldImageFile file with it's old path
+     * @return file with it's new path or null, if that file was not moved
+     */
+    public File getNewImageFile(File oldImageFile) {
+        if (oldImageFile == null) {
+            throw new NullPointerException("oldImageFile == null");
+        }
+
+        return newImageFileOfOldImageFile.get(oldImageFile);
+    }
+}
@@ -0,0 +1,19 @@
+package org.jphototagger.domain.repository.event.keywords;
+
+/**
+ * Keywords of the keywords tree (hierarchical keywords) were inserted, updated or deleted.
+ *
+ * @author Elmar Baumann
+ */
+public final class KeywordsChangedEvent {
+
+    private final Object source;
+
+    public KeywordsChangedEvent(Object source) {
+        this.source = source;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+}
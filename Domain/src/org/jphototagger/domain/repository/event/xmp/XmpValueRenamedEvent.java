@@ -0,0 +1,67 @@
+package org.jphototagger.domain.repository.event.xmp;
+
+import org.jphototagger.domain.metadata.MetaDataValue;
+
+/**
+ * A value of a XMP metadata value has been renamed in all XMP records of the repository at once, no
+ * {@code XmpUpdatedEvent}s will be published for the affected image files.
+ *
+ * @author Elmar Baumann
+ */
+public final class XmpValueRenamedEvent {
+
+    private final Object source;
+    private final MetaDataValue mdValue;
+    private final String fromValue;
+    private final String toValue;
+    private final int imageFileCount;
+
+    /**
+     * @param source         source
+     * @param mdValue        metadata value
+     * @param fromValue      old value
+     * @param toValue        new value, empty if the value has been deleted
+     * @param imageFileCount count of image files having had the old value
+     */
+    public XmpValueRenamedEvent(Object source, MetaDataValue mdValue, String fromValue, String toValue, int imageFileCount) {
+        if (mdValue == null) {
+            throw new NullPointerException("mdValue == null");
+        }
+        if (fromValue == null) {
+            throw new NullPointerException("fromValue == null");
+        }
+        if (toValue == null) {
+            throw new NullPointerException("toValue == null");
+        }
+
+        this.source = source;
+        this.mdValue = mdValue;
+        this.fromValue = fromValue;
+        this.toValue = toValue;
+        this.imageFileCount = imageFileCount;
+    }
+
+    public MetaDataValue getMetaDataValue() {
+        return mdValue;
+    }
+
+    public String getFromValue() {
+        return fromValue;
+    }
+
+    public String getToValue() {
+        return toValue;
+    }
+
+    public boolean isDeleted() {
+        return toValue.isEmpty();
+    }
+
+    public int getImageFileCount() {
+        return imageFileCount;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+}
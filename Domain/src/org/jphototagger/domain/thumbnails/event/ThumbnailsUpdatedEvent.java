@@ -0,0 +1,39 @@
+package org.jphototagger.domain.thumbnails.event;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The thumbnails of multiple image files have been updated at once, no {@code ThumbnailUpdatedEvent}s will be
+ * published for these image files.
+ *
+ * @author Elmar Baumann
+ */
+public final class ThumbnailsUpdatedEvent {
+
+    private final Object source;
+    private final List<File> imageFiles;
+
+    public ThumbnailsUpdatedEvent(Object source, Collection<? extends File> imageFiles) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+
+        this.source = source;
+        this.imageFiles = Collections.unmodifiableList(new ArrayList<>(imageFiles));
+    }
+
+    /**
+     * @return image files, unmodifiable
+     */
+    public List<File> getImageFiles() {
+        return imageFiles;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+}
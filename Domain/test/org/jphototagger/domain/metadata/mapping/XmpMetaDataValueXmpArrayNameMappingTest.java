@@ -0,0 +1,26 @@
+package org.jphototagger.domain.metadata.mapping;
+
+import org.jphototagger.domain.metadata.xmp.XmpDcSubjectsSubjectMetaDataValue;
+import org.jphototagger.domain.metadata.xmp.XmpDcTitleMetaDataValue;
+import org.jphototagger.domain.metadata.xmp.XmpIptc4xmpcoreLocationMetaDataValue;
+import org.jphototagger.domain.metadata.xmp.XmpPhotoshopCityMetaDataValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * @author Elmar Baumann
+ */
+public class XmpMetaDataValueXmpArrayNameMappingTest {
+
+    @Test
+    public void testFindXmpMetaDataValue() {
+        assertEquals(XmpPhotoshopCityMetaDataValue.INSTANCE, XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("photoshop:City"));
+        assertEquals(XmpDcSubjectsSubjectMetaDataValue.INSTANCE, XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("dc:subject[12]"));
+        assertEquals(XmpDcTitleMetaDataValue.INSTANCE, XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("dc:title[1]/?xml:lang"));
+        assertEquals(XmpIptc4xmpcoreLocationMetaDataValue.INSTANCE, XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("Iptc4xmpCore:Location"));
+        assertNull(XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("Iptc4xmpCore:LocationCreated"));
+        assertNull(XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue("lr:hierarchicalSubject[1]"));
+        assertNull(XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue(""));
+    }
+}
@@ -0,0 +1,109 @@
+package org.jphototagger.domain.repository.event;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bushe.swing.event.EventService;
+import org.bushe.swing.event.EventServiceLocator;
+import org.bushe.swing.event.EventSubscriber;
+import org.bushe.swing.event.ThreadSafeEventService;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesInsertedEvent;
+import org.jphototagger.domain.repository.event.xmp.ImageFilesXmpChangedEvent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Elmar Baumann
+ */
+public class RepositoryEventCoalescerTest {
+
+    private static final String EVENT_SERVICE_NAME = "RepositoryEventCoalescerTest";
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private final EventSubscriber<Object> subscriber = new EventSubscriber<Object>() {
+
+        @Override
+        public void onEvent(Object event) {
+            publishedEvents.add(event);
+        }
+    };
+    private EventService eventService;
+    private RepositoryEventCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        eventService = EventServiceLocator.getEventService(EVENT_SERVICE_NAME);
+        if (eventService == null) {
+            eventService = new ThreadSafeEventService();
+            EventServiceLocator.setEventService(EVENT_SERVICE_NAME, eventService);
+        }
+        eventService.subscribeStrongly(Object.class, subscriber);
+        coalescer = new RepositoryEventCoalescer(EVENT_SERVICE_NAME, 60000, 100);
+    }
+
+    @After
+    public void tearDown() {
+        eventService.unsubscribe(Object.class, subscriber);
+    }
+
+    @Test
+    public void testMergesEventsOfTheSameKind() {
+        File file1 = new File("a.jpg");
+        File file2 = new File("b.jpg");
+        coalescer.imageFileInserted(file1);
+        coalescer.imageFileInserted(file2);
+        coalescer.imageFileInserted(file1);
+        assertEquals(3, coalescer.getPendingCount());
+
+        coalescer.flush();
+
+        assertEquals(1, publishedEvents.size());
+        ImageFilesInsertedEvent event = (ImageFilesInsertedEvent) publishedEvents.get(0);
+        assertEquals(Arrays.asList(file1, file2), event.getImageFiles());
+        assertEquals(0, coalescer.getPendingCount());
+    }
+
+    @Test
+    public void testDeletionRemovesPreviousChanges() {
+        File file = new File("a.jpg");
+        File otherFile = new File("b.jpg");
+        coalescer.imageFileInserted(file);
+        coalescer.xmpChanged(file);
+        coalescer.xmpChanged(otherFile);
+        coalescer.imageFileDeleted(file);
+
+        coalescer.flush();
+
+        assertEquals(2, publishedEvents.size());
+        ImageFilesDeletedEvent deletedEvent = (ImageFilesDeletedEvent) publishedEvents.get(0);
+        ImageFilesXmpChangedEvent xmpEvent = (ImageFilesXmpChangedEvent) publishedEvents.get(1);
+        assertEquals(Arrays.asList(file), deletedEvent.getImageFiles());
+        assertEquals(Arrays.asList(otherFile), xmpEvent.getImageFiles());
+    }
+
+    @Test
+    public void testBulkDeletionPublishesOneEvent() {
+        File file1 = new File("a.jpg");
+        File file2 = new File("b.jpg");
+        coalescer.imageFileInserted(file1);
+        coalescer.imageFilesDeleted(Arrays.asList(file1, file2));
+        assertEquals(3, coalescer.getPendingCount());
+
+        coalescer.flush();
+
+        assertEquals(1, publishedEvents.size());
+        ImageFilesDeletedEvent event = (ImageFilesDeletedEvent) publishedEvents.get(0);
+        assertEquals(Arrays.asList(file1, file2), event.getImageFiles());
+    }
+
+    @Test
+    public void testFlushWithoutEventsPublishesNothing() {
+        coalescer.flush();
+
+        assertTrue(publishedEvents.isEmpty());
+    }
+}
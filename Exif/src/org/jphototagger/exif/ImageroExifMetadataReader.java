@@ -14,6 +14,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.image.ImageFileType;
 import org.jphototagger.lib.io.FileUtil;
+import org.jphototagger.lib.io.JpegHeader;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
@@ -60,7 +61,10 @@ public final class ImageroExifMetadataReader implements ExifTagsProvider {
         try {
             if (ImageFileType.isJpegFile(fromFile.getName())) {
                 LOGGER.log(Level.INFO, "Reading EXIF metadata of file ''{0}'''' with JPEG reader", fromFile);
-                imageReader = new JpegReader(fromFile);
+                JpegHeader jpegHeader = JpegHeader.get(fromFile);
+                imageReader = jpegHeader == null
+                        ? new JpegReader(fromFile)
+                        : new JpegReader(jpegHeader.getBytes());
                 addAllExifTags((JpegReader) imageReader, toExifTags);
             } else {
                 LOGGER.log(Level.INFO, "Reading EXIF metadata of file ''{0}'''' with TIFF reader", fromFile);
@@ -1,6 +1,7 @@
 package org.jphototagger.exif.cache;
 
 import java.io.File;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.EventBus;
@@ -10,14 +11,16 @@ import org.jphototagger.api.storage.CacheDirectoryProvider;
 import org.jphototagger.cachedb.CacheConnectionFactory;
 import org.jphototagger.domain.metadata.exif.event.ExifCacheClearedEvent;
 import org.jphototagger.domain.metadata.exif.event.ExifCacheFileDeletedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
 import org.jphototagger.exif.ExifTags;
 import org.openide.util.Lookup;
 
 /**
  * SQLite-backed EXIF cache.
- * Delegates to SqliteExifCache.
+ * Delegates to a {@link TieredExifCache}, which holds recently used EXIF tags in memory in front of a SqliteExifCache.
  *
  * @author Elmar Baumann
  */
@@ -25,8 +28,9 @@ public final class ExifCache {
 
     private static final Logger LOGGER = Logger.getLogger(ExifCache.class.getName());
     public static final ExifCache INSTANCE = new ExifCache();
+    private static final int MAX_MEMORY_ENTRIES = 2000;
     private final File cacheDir;
-    private final SqliteExifCache sqliteCache;
+    private final TieredExifCache tieredCache;
 
     private ExifCache() {
         CacheDirectoryProvider provider = Lookup.getDefault().lookup(CacheDirectoryProvider.class);
@@ -34,10 +38,10 @@ public final class ExifCache {
         LOGGER.log(Level.INFO, "Opening SQLite EXIF cache in ''{0}''", cacheDir);
         File cacheDbFile = new File(cacheDir, "cache.db");
         CacheConnectionFactory connectionFactory = new CacheConnectionFactory(cacheDbFile);
-        sqliteCache = new SqliteExifCache(connectionFactory);
+        tieredCache = new TieredExifCache(new SqliteExifCache(connectionFactory), MAX_MEMORY_ENTRIES);
     }
 
-    public synchronized void cacheExifTags(File imageFile, ExifTags exifTags) {
+    public void cacheExifTags(File imageFile, ExifTags exifTags) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
@@ -45,39 +49,45 @@ public final class ExifCache {
             throw new NullPointerException("exifTags == null");
         }
         LOGGER.log(Level.FINEST, "Caching EXIF metadata of image file ''{0}''", imageFile);
-        sqliteCache.cacheExifTags(imageFile, exifTags);
+        tieredCache.cacheExifTags(imageFile, exifTags);
     }
 
-    public synchronized boolean containsUpToDateExifTags(File imageFile) {
+    public boolean containsUpToDateExifTags(File imageFile) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
-        return sqliteCache.containsUpToDateExifTags(imageFile);
+        return tieredCache.containsUpToDateExifTags(imageFile);
     }
 
-    public synchronized ExifTags getCachedExifTags(File imageFile) {
+    public ExifTags getCachedExifTags(File imageFile) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
         LOGGER.log(Level.FINEST, "Reading cached EXIF metadata of image file ''{0}''", imageFile);
-        return sqliteCache.getCachedExifTags(imageFile);
+        return tieredCache.getCachedExifTags(imageFile);
     }
 
     private void deleteCachedExifTags(File imageFile) {
-        sqliteCache.deleteCachedExifTags(imageFile);
+        tieredCache.deleteCachedExifTags(imageFile);
         LOGGER.log(Level.FINEST, "Deleted cached EXIF metadata of image file ''{0}''", imageFile);
         EventBus.publish(new ExifCacheFileDeletedEvent(this, imageFile));
     }
 
-    private synchronized void renameCachedExifTags(File oldImageFile, File newImageFile) {
-        sqliteCache.renameCachedExifTags(oldImageFile, newImageFile);
+    private void renameCachedExifTags(File oldImageFile, File newImageFile) {
+        tieredCache.renameCachedExifTags(oldImageFile, newImageFile);
         LOGGER.log(Level.FINEST, "Renamed cached EXIF metadata from ''{0}'' to ''{1}''",
                 new Object[]{oldImageFile, newImageFile});
     }
 
+    private void renameCachedExifTags(Map<File, File> newImageFileOfOldImageFile) {
+        int count = tieredCache.renameCachedExifTags(newImageFileOfOldImageFile);
+        LOGGER.log(Level.FINEST, "Renamed cached EXIF metadata of {0} image files", count);
+    }
+
     int clear() {
         LOGGER.log(Level.INFO, "Deleting all cached EXIF metadata");
-        int count = sqliteCache.clear();
+        LOGGER.log(Level.FINE, "EXIF cache before clearing: {0}", tieredCache);
+        int count = tieredCache.clear();
         EventBus.publish(new ExifCacheClearedEvent(this, count));
         return count;
     }
@@ -89,10 +99,16 @@ public final class ExifCache {
         renameCachedExifTags(oldImageFile, newImageFile);
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileRemoved(ImageFileDeletedEvent event) {
-        File deletedImageFile = event.getImageFile();
-        deleteCachedExifTags(deletedImageFile);
+    @EventSubscriber(eventClass = ImageFilesMovedEvent.class)
+    public void imageFilesMoved(ImageFilesMovedEvent event) {
+        renameCachedExifTags(event.getMovedImageFiles());
+    }
+
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesRemoved(ImageFilesDeletedEvent event) {
+        for (File deletedImageFile : event.getImageFiles()) {
+            deleteCachedExifTags(deletedImageFile);
+        }
     }
 
     void init() {
@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.cachedb.CacheConnectionFactory;
@@ -17,6 +18,9 @@ import org.jphototagger.lib.xml.bind.XmlObjectImporter;
 /**
  * SQLite-backed EXIF metadata cache.
  * Replaces MapDB-based ExifCache.
+ * <p>
+ * Not synchronized: Every operation uses it's own connection, so that readers run concurrently (WAL mode). Writers
+ * should be serialized by the caller.
  */
 public final class SqliteExifCache extends CacheDatabase {
 
@@ -32,10 +36,12 @@ public final class SqliteExifCache extends CacheDatabase {
 
     private static final String SELECT_EXISTS = "SELECT modified_time FROM exif_cache WHERE file_path = ?";
     private static final String SELECT_EXIF = "SELECT exif_xml FROM exif_cache WHERE file_path = ?";
+    private static final String SELECT_EXIF_AND_MODIFIED = "SELECT exif_xml, modified_time FROM exif_cache WHERE file_path = ?";
     private static final String INSERT_EXIF = "INSERT OR REPLACE INTO exif_cache (file_path, modified_time, exif_xml) VALUES (?, ?, ?)";
     private static final String DELETE_EXIF = "DELETE FROM exif_cache WHERE file_path = ?";
     private static final String SELECT_COUNT = "SELECT COUNT(*) FROM exif_cache";
     private static final String DELETE_ALL = "DELETE FROM exif_cache";
+    private static final String RENAME_PATH = "UPDATE OR REPLACE exif_cache SET file_path = ? WHERE file_path = ?";
 
     public SqliteExifCache(CacheConnectionFactory connectionFactory) {
         super(connectionFactory);
@@ -52,7 +58,7 @@ public final class SqliteExifCache extends CacheDatabase {
         }
     }
 
-    public synchronized void cacheExifTags(File imageFile, ExifTags exifTags) {
+    public void cacheExifTags(File imageFile, ExifTags exifTags) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
@@ -77,7 +83,42 @@ public final class SqliteExifCache extends CacheDatabase {
         }
     }
 
-    public synchronized boolean containsUpToDateExifTags(File imageFile) {
+    /**
+     * Caches EXIF tags of several image files within one transaction.
+     *
+     * @param exifTagsOfImageFiles EXIF tags of image files, the time of last modification of the image files is taken
+     *                             from {@link ExifTags#getLastModified()}
+     */
+    public void cacheExifTags(Map<File, ExifTags> exifTagsOfImageFiles) {
+        if (exifTagsOfImageFiles == null) {
+            throw new NullPointerException("exifTagsOfImageFiles == null");
+        }
+        if (exifTagsOfImageFiles.isEmpty()) {
+            return;
+        }
+
+        try (Connection con = getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement stmt = con.prepareStatement(INSERT_EXIF)) {
+                for (Map.Entry<File, ExifTags> entry : exifTagsOfImageFiles.entrySet()) {
+                    ExifTags exifTags = entry.getValue();
+                    stmt.setString(1, entry.getKey().getAbsolutePath());
+                    stmt.setLong(2, exifTags.getLastModified());
+                    stmt.setString(3, XmlObjectExporter.marshal(exifTags));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                con.commit();
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error caching EXIF tags", e);
+        }
+    }
+
+    public boolean containsUpToDateExifTags(File imageFile) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
@@ -97,7 +138,7 @@ public final class SqliteExifCache extends CacheDatabase {
         return false;
     }
 
-    public synchronized ExifTags getCachedExifTags(File imageFile) {
+    public ExifTags getCachedExifTags(File imageFile) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
         }
@@ -117,7 +158,35 @@ public final class SqliteExifCache extends CacheDatabase {
         return null;
     }
 
-    public synchronized void deleteCachedExifTags(File imageFile) {
+    /**
+     * Reads cached EXIF tags with one query if they are up to date.
+     *
+     * @param  imageFile    image file
+     * @param  lastModified current time of last modification of the image file
+     * @return              EXIF tags or null if not cached or cached with a different time of last modification
+     */
+    public ExifTags getUpToDateExifTags(File imageFile, long lastModified) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+
+        try (Connection con = getConnection();
+             PreparedStatement stmt = con.prepareStatement(SELECT_EXIF_AND_MODIFIED)) {
+            stmt.setString(1, imageFile.getAbsolutePath());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getLong(2) == lastModified) {
+                    ExifTags exifTags = XmlObjectImporter.unmarshal(rs.getString(1), ExifTags.class);
+                    exifTags.setLastModified(lastModified);
+                    return exifTags;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error getting cached EXIF tags", e);
+        }
+        return null;
+    }
+
+    public void deleteCachedExifTags(File imageFile) {
         try (Connection con = getConnection();
              PreparedStatement stmt = con.prepareStatement(DELETE_EXIF)) {
             stmt.setString(1, imageFile.getAbsolutePath());
@@ -127,7 +196,7 @@ public final class SqliteExifCache extends CacheDatabase {
         }
     }
 
-    public synchronized void renameCachedExifTags(File oldImageFile, File newImageFile) {
+    public void renameCachedExifTags(File oldImageFile, File newImageFile) {
         try (Connection con = getConnection()) {
             boolean originalAutoCommit = con.getAutoCommit();
             try {
@@ -174,7 +243,48 @@ public final class SqliteExifCache extends CacheDatabase {
         }
     }
 
-    public synchronized int clear() {
+    /**
+     * Renames cached EXIF tags with one batch in one transaction.
+     *
+     * @param newImageFileOfOldImageFile new image file of every renamed old image file
+     * @return count of renamed entries
+     */
+    public int renameCachedExifTags(Map<File, File> newImageFileOfOldImageFile) {
+        if (newImageFileOfOldImageFile.isEmpty()) {
+            return 0;
+        }
+        try (Connection con = getConnection()) {
+            boolean originalAutoCommit = con.getAutoCommit();
+            try {
+                con.setAutoCommit(false);
+                int count = 0;
+                try (PreparedStatement stmt = con.prepareStatement(RENAME_PATH)) {
+                    for (Map.Entry<File, File> entry : newImageFileOfOldImageFile.entrySet()) {
+                        stmt.setString(1, entry.getValue().getAbsolutePath());
+                        stmt.setString(2, entry.getKey().getAbsolutePath());
+                        stmt.addBatch();
+                    }
+                    for (int updateCount : stmt.executeBatch()) {
+                        if (updateCount > 0) {
+                            count++;
+                        }
+                    }
+                }
+                con.commit();
+                return count;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error renaming cached EXIF tags", e);
+            return 0;
+        }
+    }
+
+    public int clear() {
         int count = 0;
         try (Connection con = getConnection()) {
             try (PreparedStatement countStmt = con.prepareStatement(SELECT_COUNT);
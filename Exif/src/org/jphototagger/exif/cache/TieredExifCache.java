@@ -0,0 +1,306 @@
+package org.jphototagger.exif.cache;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jphototagger.exif.ExifTags;
+
+/**
+ * EXIF cache with a bounded in-memory tier of decoded EXIF tags in front of a {@link SqliteExifCache}.
+ * <p>
+ * Readers are not serialized: Hits of the in-memory tier don't touch the database, misses read on their own
+ * connection. Writes are applied to the in-memory tier at once and written to the database in batches by a single
+ * writer thread, deletions and renamings are serialized with that writer.
+ * <p>
+ * Entries are keyed by the absolute path and are valid while the time of last modification of the image file is
+ * unchanged. Image files without EXIF metadata are cached as empty EXIF tags (negative entries), so that they are not
+ * read again. The returned EXIF tags are shared and must not be modified.
+ *
+ * @author Elmar Baumann
+ */
+public final class TieredExifCache {
+
+    private static final Logger LOGGER = Logger.getLogger(TieredExifCache.class.getName());
+    private static final long WRITE_DELAY_MILLIS = 250;
+    private final SqliteExifCache sqliteCache;
+    private final int maxMemoryEntries;
+    private final Map<String, ExifTags> memoryEntries; // Guarded by itself
+    private final Map<File, ExifTags> pendingWrites = new LinkedHashMap<>(); // Guarded by itself
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService writer;
+    private boolean writeScheduled; // Guarded by pendingWrites
+    private long memoryHits; // Guarded by memoryEntries
+    private long memoryMisses; // Guarded by memoryEntries
+    private final Runnable writePending = new Runnable() {
+
+        @Override
+        public void run() {
+            writePendingExifTags();
+        }
+    };
+
+    /**
+     * @param sqliteCache      database tier
+     * @param maxMemoryEntries maximum count of EXIF tags in memory, the least recently used are removed first
+     */
+    public TieredExifCache(SqliteExifCache sqliteCache, final int maxMemoryEntries) {
+        if (sqliteCache == null) {
+            throw new NullPointerException("sqliteCache == null");
+        }
+        if (maxMemoryEntries < 1) {
+            throw new IllegalArgumentException("Invalid maximum count of memory entries: " + maxMemoryEntries);
+        }
+        this.sqliteCache = sqliteCache;
+        this.maxMemoryEntries = maxMemoryEntries;
+        memoryEntries = new LinkedHashMap<String, ExifTags>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExifTags> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+        writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "JPhotoTagger: Writing EXIF cache");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Caches EXIF tags. The tags are immediately visible to readers, the database will be updated asynchronously.
+     *
+     * @param imageFile image file
+     * @param exifTags  EXIF tags, empty if the image file has no EXIF metadata. The time of last modification will be
+     *                  set to the image file's.
+     */
+    public void cacheExifTags(File imageFile, ExifTags exifTags) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+        if (exifTags == null) {
+            throw new NullPointerException("exifTags == null");
+        }
+        exifTags.setLastModified(imageFile.lastModified());
+        putIntoMemory(imageFile, exifTags);
+        synchronized (pendingWrites) {
+            pendingWrites.put(imageFile, exifTags);
+            if (!writeScheduled) {
+                writeScheduled = true;
+                writer.schedule(writePending, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public boolean containsUpToDateExifTags(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+        return getUpToDateExifTags(imageFile) != null;
+    }
+
+    /**
+     * @param  imageFile image file
+     * @return           up to date EXIF tags, else - for compatibility - outdated EXIF tags from the database or null
+     *                   if not cached
+     */
+    public ExifTags getCachedExifTags(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+        ExifTags exifTags = getUpToDateExifTags(imageFile);
+        return exifTags == null
+                ? sqliteCache.getCachedExifTags(imageFile)
+                : exifTags;
+    }
+
+    private ExifTags getUpToDateExifTags(File imageFile) {
+        long lastModified = imageFile.lastModified();
+        String path = imageFile.getAbsolutePath();
+        synchronized (memoryEntries) {
+            ExifTags exifTags = memoryEntries.get(path);
+            if (exifTags != null && exifTags.getLastModified() == lastModified) {
+                memoryHits++;
+                return exifTags;
+            }
+            memoryMisses++;
+        }
+        synchronized (pendingWrites) {
+            ExifTags exifTags = pendingWrites.get(imageFile);
+            if (exifTags != null) { // Removed from memory before written
+                return exifTags.getLastModified() == lastModified
+                        ? exifTags
+                        : null;
+            }
+        }
+        ExifTags exifTags = sqliteCache.getUpToDateExifTags(imageFile, lastModified);
+        if (exifTags != null) {
+            putIntoMemory(imageFile, exifTags);
+        }
+        return exifTags;
+    }
+
+    private void putIntoMemory(File imageFile, ExifTags exifTags) {
+        synchronized (memoryEntries) {
+            memoryEntries.put(imageFile.getAbsolutePath(), exifTags);
+        }
+    }
+
+    private void removeFromMemory(File imageFile) {
+        synchronized (memoryEntries) {
+            memoryEntries.remove(imageFile.getAbsolutePath());
+        }
+    }
+
+    private void writePendingExifTags() {
+        writeLock.lock();
+        try {
+            Map<File, ExifTags> exifTagsToWrite;
+            synchronized (pendingWrites) {
+                exifTagsToWrite = new LinkedHashMap<>(pendingWrites);
+                pendingWrites.clear();
+                writeScheduled = false;
+            }
+            if (!exifTagsToWrite.isEmpty()) {
+                sqliteCache.cacheExifTags(exifTagsToWrite);
+                LOGGER.log(Level.FINEST, "Wrote EXIF metadata of {0} image files into the cache", exifTagsToWrite.size());
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void deleteCachedExifTags(File imageFile) {
+        if (imageFile == null) {
+            throw new NullPointerException("imageFile == null");
+        }
+        writeLock.lock();
+        try {
+            synchronized (pendingWrites) {
+                pendingWrites.remove(imageFile);
+            }
+            removeFromMemory(imageFile);
+            sqliteCache.deleteCachedExifTags(imageFile);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void renameCachedExifTags(File oldImageFile, File newImageFile) {
+        if (oldImageFile == null) {
+            throw new NullPointerException("oldImageFile == null");
+        }
+        if (newImageFile == null) {
+            throw new NullPointerException("newImageFile == null");
+        }
+        writeLock.lock();
+        try {
+            ExifTags pendingExifTags;
+            synchronized (pendingWrites) {
+                pendingExifTags = pendingWrites.remove(oldImageFile);
+            }
+            if (pendingExifTags != null) {
+                sqliteCache.cacheExifTags(Collections.singletonMap(oldImageFile, pendingExifTags));
+            }
+            ExifTags memoryExifTags;
+            synchronized (memoryEntries) {
+                memoryExifTags = memoryEntries.remove(oldImageFile.getAbsolutePath());
+                if (memoryExifTags != null) {
+                    memoryEntries.put(newImageFile.getAbsolutePath(), memoryExifTags);
+                }
+            }
+            sqliteCache.renameCachedExifTags(oldImageFile, newImageFile);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Renames the entries of many image files at once, e.g. after renaming a directory.
+     *
+     * @param newImageFileOfOldImageFile new image file of every renamed old image file
+     * @return count of renamed database entries
+     */
+    public int renameCachedExifTags(Map<File, File> newImageFileOfOldImageFile) {
+        if (newImageFileOfOldImageFile == null) {
+            throw new NullPointerException("newImageFileOfOldImageFile == null");
+        }
+        writeLock.lock();
+        try {
+            writePendingExifTags();
+            synchronized (memoryEntries) {
+                Map<String, ExifTags> renamedEntries = new LinkedHashMap<>();
+                for (Iterator<Map.Entry<String, ExifTags>> it = memoryEntries.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<String, ExifTags> entry = it.next();
+                    File newImageFile = newImageFileOfOldImageFile.get(new File(entry.getKey()));
+                    if (newImageFile != null) {
+                        renamedEntries.put(newImageFile.getAbsolutePath(), entry.getValue());
+                        it.remove();
+                    }
+                }
+                memoryEntries.putAll(renamedEntries);
+            }
+            return sqliteCache.renameCachedExifTags(newImageFileOfOldImageFile);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes pending EXIF tags into the database and waits until they are written.
+     */
+    public void flush() {
+        writePendingExifTags();
+    }
+
+    /**
+     * @return count of deleted database entries
+     */
+    public int clear() {
+        writeLock.lock();
+        try {
+            synchronized (pendingWrites) {
+                pendingWrites.clear();
+            }
+            synchronized (memoryEntries) {
+                memoryEntries.clear();
+            }
+            return sqliteCache.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes pending EXIF tags and stops the writer thread. The cache must not be used afterwards.
+     */
+    public void close() {
+        writer.shutdown();
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        synchronized (memoryEntries) {
+            return "Memory entries: " + memoryEntries.size() + " of " + maxMemoryEntries
+                    + ", hits: " + memoryHits
+                    + ", misses: " + memoryMisses;
+        }
+    }
+}
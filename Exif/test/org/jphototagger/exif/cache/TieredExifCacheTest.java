@@ -0,0 +1,222 @@
+package org.jphototagger.exif.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jphototagger.cachedb.CacheConnectionFactory;
+import org.jphototagger.exif.ExifIfd;
+import org.jphototagger.exif.ExifTag;
+import org.jphototagger.exif.ExifTags;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredExifCacheTest {
+
+    @TempDir
+    File tempDir;
+
+    private CacheConnectionFactory factory;
+    private SqliteExifCache sqliteCache;
+    private TieredExifCache cache;
+    private File imageFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        factory = new CacheConnectionFactory(new File(tempDir, "cache.db"));
+        sqliteCache = new SqliteExifCache(factory);
+        cache = new TieredExifCache(sqliteCache, 2);
+
+        imageFile = new File(tempDir, "test.jpg");
+        imageFile.createNewFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+        factory.close();
+    }
+
+    @Test
+    void cachedExifTags_visibleBeforeWritten() {
+        ExifTags tags = createSampleExifTags();
+        cache.cacheExifTags(imageFile, tags);
+
+        assertThat(cache.containsUpToDateExifTags(imageFile)).isTrue();
+        assertThat(cache.getCachedExifTags(imageFile)).isSameAs(tags);
+    }
+
+    @Test
+    void flush_writesIntoDatabase() {
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+
+        cache.flush();
+
+        assertThat(sqliteCache.containsUpToDateExifTags(imageFile)).isTrue();
+    }
+
+    @Test
+    void emptyExifTags_cachedAsNegativeEntry() {
+        cache.cacheExifTags(imageFile, new ExifTags());
+        cache.flush();
+
+        TieredExifCache reopenedCache = new TieredExifCache(sqliteCache, 2);
+        try {
+            assertThat(reopenedCache.containsUpToDateExifTags(imageFile)).isTrue();
+            assertThat(reopenedCache.getCachedExifTags(imageFile).getTagCount()).isZero();
+        } finally {
+            reopenedCache.close();
+        }
+    }
+
+    @Test
+    void modifiedImageFile_notUpToDate() {
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+
+        imageFile.setLastModified(imageFile.lastModified() + 2000);
+
+        assertThat(cache.containsUpToDateExifTags(imageFile)).isFalse();
+    }
+
+    @Test
+    void evictedExifTags_readFromDatabase() throws Exception {
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+        for (int i = 0; i < 3; i++) {
+            File file = new File(tempDir, "other" + i + ".jpg");
+            file.createNewFile();
+            cache.cacheExifTags(file, createSampleExifTags());
+        }
+        cache.flush();
+
+        ExifTags result = cache.getCachedExifTags(imageFile);
+
+        assertThat(result).isNotNull();
+        assertThat(result.findExifTagByTagId(271).getStringValue()).isEqualTo("TestCamera");
+        assertThat(cache.toString()).contains("Memory entries: 2 of 2");
+    }
+
+    @Test
+    void deleteCachedExifTags_removesPendingWrite() {
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+
+        cache.deleteCachedExifTags(imageFile);
+        cache.flush();
+
+        assertThat(cache.containsUpToDateExifTags(imageFile)).isFalse();
+        assertThat(sqliteCache.containsUpToDateExifTags(imageFile)).isFalse();
+    }
+
+    @Test
+    void renameCachedExifTags_movesPendingWrite() {
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+        File newFile = new File(tempDir, "renamed.jpg");
+
+        cache.renameCachedExifTags(imageFile, newFile);
+
+        assertThat(cache.containsUpToDateExifTags(imageFile)).isFalse();
+        assertThat(sqliteCache.getCachedExifTags(newFile)).isNotNull();
+    }
+
+    @Test
+    void renameCachedExifTags_movesWrittenAndPendingEntries() throws Exception {
+        File writtenFile = new File(tempDir, "written.jpg");
+        File pendingFile = new File(tempDir, "pending.jpg");
+        writtenFile.createNewFile();
+        pendingFile.createNewFile();
+        cache.cacheExifTags(writtenFile, createSampleExifTags());
+        cache.flush();
+        cache.cacheExifTags(pendingFile, createSampleExifTags());
+        File newWrittenFile = new File(new File(tempDir, "renamed"), "written.jpg");
+        File newPendingFile = new File(new File(tempDir, "renamed"), "pending.jpg");
+        Map<File, File> newFileOfOldFile = new HashMap<>();
+        newFileOfOldFile.put(writtenFile, newWrittenFile);
+        newFileOfOldFile.put(pendingFile, newPendingFile);
+
+        int count = cache.renameCachedExifTags(newFileOfOldFile);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(sqliteCache.getCachedExifTags(writtenFile)).isNull();
+        assertThat(sqliteCache.getCachedExifTags(newWrittenFile)).isNotNull();
+        assertThat(sqliteCache.getCachedExifTags(newPendingFile)).isNotNull();
+    }
+
+    @Test
+    void clear_removesPendingAndWrittenEntries() throws Exception {
+        File file = new File(tempDir, "test1.jpg");
+        file.createNewFile();
+        cache.cacheExifTags(file, createSampleExifTags());
+        cache.flush();
+        cache.cacheExifTags(imageFile, createSampleExifTags());
+
+        int deleted = cache.clear();
+        cache.flush();
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(cache.getCachedExifTags(file)).isNull();
+        assertThat(cache.getCachedExifTags(imageFile)).isNull();
+    }
+
+    @Test
+    void concurrentReadersAndWriters() throws Exception {
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            File file = new File(tempDir, "concurrent" + i + ".jpg");
+            file.createNewFile();
+            files.add(file);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+
+                    @Override
+                    public Boolean call() {
+                        boolean allFound = true;
+                        for (File file : files) {
+                            cache.cacheExifTags(file, createSampleExifTags());
+                            allFound &= cache.getCachedExifTags(file) != null;
+                        }
+                        return allFound;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        cache.flush();
+
+        for (File file : files) {
+            assertThat(sqliteCache.containsUpToDateExifTags(file)).isTrue();
+        }
+    }
+
+    private ExifTags createSampleExifTags() {
+        ExifTags tags = new ExifTags();
+        ExifTag makeTag = new ExifTag(
+            271,  // tagId for Make
+            2,    // ASCII type
+            11,   // valueCount
+            0,    // valueOffset
+            "TestCamera".getBytes(),
+            "TestCamera",
+            18761,  // little endian
+            "Make",
+            ExifIfd.EXIF
+        );
+        tags.addExifTag(makeTag);
+
+        return tags;
+    }
+}
@@ -14,12 +14,14 @@ import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImageProducer;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.ImageIO;
 import org.jphototagger.domain.metadata.exif.ExifInfo;
 import org.jphototagger.image.util.ImageTransform;
+import org.jphototagger.lib.io.JpegHeader;
 import org.openide.util.Lookup;
 
 /**
@@ -59,6 +61,14 @@ final class ThumbnailUtil {
         ImageReader reader = null;
         try {
             LOGGER.log(Level.INFO, "Reading embedded thumbnail from image file ''{0}'', size {1} Bytes", new Object[]{file, file.length()});
+            JpegHeader jpegHeader = JpegHeader.get(file);
+            if (jpegHeader != null) { // EXIF thumbnail within the already read header
+                byte[] thumbnailBytes = jpegHeader.getEmbeddedThumbnailBytes();
+                if (thumbnailBytes != null) {
+                    thumbnail = ImageIO.read(new ByteArrayInputStream(thumbnailBytes));
+                }
+                return new ImageAndReader(thumbnail, null);
+            }
             reader = ReaderFactory.createReader(file);
             if (reader instanceof TiffReader) {
                 TiffReader tiffReader = (TiffReader) reader;
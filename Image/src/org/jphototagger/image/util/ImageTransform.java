@@ -10,6 +10,7 @@ import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.PixelGrabber;
+import java.awt.image.WritableRaster;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.ImageIcon;
@@ -20,7 +21,8 @@ import javax.swing.ImageIcon;
 public final class ImageTransform {
 
     /**
-     * Rotiert ein Bild.
+     * Rotiert ein Bild im Uhrzeigersinn. Vielfache von 90 Grad werden
+     * pixelgenau durch Umkopieren der Pixel rotiert.
      *
      * @param img   Bild
      * @param angle Winkel
@@ -31,9 +33,63 @@ public final class ImageTransform {
             throw new NullPointerException("img == null");
         }
 
+        double normalizedAngle = angle % 360;
+
+        if (normalizedAngle < 0) {
+            normalizedAngle += 360;
+        }
+
+        if (normalizedAngle % 90 == 0) {
+            return rotateOrthogonal(toBufferedImage(img), (int) (normalizedAngle / 90));
+        }
+
         return tilt(toBufferedImage(img), Math.toRadians(angle));
     }
 
+    /**
+     * Rotiert ein Bild pixelgenau um Vielfache von 90 Grad im Uhrzeigersinn.
+     *
+     * @param image     Bild
+     * @param quadrants Anzahl der 90-Grad-Schritte
+     * @return          Rotiertes Bild mit dem Farbmodell des Bilds
+     */
+    public static BufferedImage rotateOrthogonal(BufferedImage image, int quadrants) {
+        if (image == null) {
+            throw new NullPointerException("image == null");
+        }
+
+        int quadrant = ((quadrants % 4) + 4) % 4;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swapDimensions = quadrant % 2 == 1;
+        ColorModel colorModel = image.getColorModel();
+        WritableRaster src = image.getRaster();
+        WritableRaster dst = colorModel.createCompatibleWritableRaster(swapDimensions ? h : w, swapDimensions ? w : h);
+        Object pixel = null;
+
+        if (quadrant == 0) {
+            dst.setDataElements(0, 0, src);
+
+            return new BufferedImage(colorModel, dst, image.isAlphaPremultiplied(), null);
+        }
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                pixel = src.getDataElements(x, y, pixel);
+
+                if (quadrant == 1) {
+                    dst.setDataElements(h - 1 - y, x, pixel);
+                } else if (quadrant == 2) {
+                    dst.setDataElements(w - 1 - x, h - 1 - y, pixel);
+                } else {
+                    dst.setDataElements(y, w - 1 - x, pixel);
+                }
+            }
+        }
+
+        return new BufferedImage(colorModel, dst, image.isAlphaPremultiplied(), null);
+    }
+
     // Code von http://forums.sun.com/thread.jspa?forumID=54&threadID=5286788
     private static BufferedImage tilt(BufferedImage image, double angle) {
         double sin = Math.abs(Math.sin(angle)), cos = Math.abs(Math.cos(angle));
@@ -1,14 +1,21 @@
 package org.jphototagger.iptc;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.api.preferences.Preferences;
 import org.jphototagger.api.storage.CacheDirectoryProvider;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
 import org.jphototagger.lib.io.FileUtil;
 import org.openide.util.Lookup;
 
@@ -145,8 +152,31 @@ public final class IptcIgnoreCache {
 
     @EventSubscriber(eventClass = ImageFileMovedEvent.class)
     public void imageFileMoved(ImageFileMovedEvent event) {
-        File oldImageFile = event.getOldImageFile();
-        File newImageFile = event.getNewImageFile();
+        renameCacheFile(event.getOldImageFile(), event.getNewImageFile());
+    }
+
+    @EventSubscriber(eventClass = ImageFilesMovedEvent.class)
+    public void imageFilesMoved(ImageFilesMovedEvent event) {
+        Set<String> cacheFilenames = getCacheFilenames();
+        if (cacheFilenames.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<File, File> movedImageFile : event.getMovedImageFiles().entrySet()) {
+            if (cacheFilenames.contains(getCacheFile(movedImageFile.getKey()).getName())) {
+                renameCacheFile(movedImageFile.getKey(), movedImageFile.getValue());
+            }
+        }
+    }
+
+    // One directory listing instead of testing the existence of a cache file for each moved image file
+    private Set<String> getCacheFilenames() {
+        String[] cacheFilenames = CACHE_DIR.list();
+        return cacheFilenames == null
+                ? Collections.<String>emptySet()
+                : new HashSet<>(Arrays.asList(cacheFilenames));
+    }
+
+    private void renameCacheFile(File oldImageFile, File newImageFile) {
         File oldCacheFile = getCacheFile(oldImageFile);
 
         if (oldCacheFile.exists()) {
@@ -160,13 +190,14 @@ public final class IptcIgnoreCache {
         }
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileRemoved(ImageFileDeletedEvent event) {
-        File deletedImageFile = event.getImageFile();
-        File cacheFile = getCacheFile(deletedImageFile);
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesRemoved(ImageFilesDeletedEvent event) {
+        for (File deletedImageFile : event.getImageFiles()) {
+            File cacheFile = getCacheFile(deletedImageFile);
 
-        if (cacheFile.exists()) {
-            unIgnore(deletedImageFile, cacheFile);
+            if (cacheFile.exists()) {
+                unIgnore(deletedImageFile, cacheFile);
+            }
         }
     }
 
@@ -5,6 +5,7 @@ import com.imagero.reader.iptc.IPTCConstants;
 import com.imagero.reader.iptc.IPTCEntry;
 import com.imagero.reader.iptc.IPTCEntryCollection;
 import com.imagero.reader.iptc.IPTCEntryMeta;
+import com.imagero.reader.jpeg.JpegReader;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.domain.metadata.iptc.Iptc;
+import org.jphototagger.lib.io.JpegHeader;
 
 /**
  * IPTC metadata of an image file.
@@ -36,7 +38,7 @@ public final class IptcMetadata {
             try {
                 LOGGER.log(Level.INFO, "Reading IPTC from image file ''{0}'', size {1} Bytes", new Object[]{imageFile, imageFile.length()});
 
-                IPTCEntryCollection collection = MetadataUtils.getIPTC(imageFile);
+                IPTCEntryCollection collection = readIptc(imageFile);
 
                 if (collection != null) {
                     addEntries(collection.getEntries(IPTCConstants.RECORD_APPLICATION), metadata);
@@ -49,6 +51,26 @@ public final class IptcMetadata {
         return metadata;
     }
 
+    private static IPTCEntryCollection readIptc(File imageFile) throws Exception {
+        JpegHeader jpegHeader = JpegHeader.get(imageFile);
+
+        if (jpegHeader == null) {
+            return MetadataUtils.getIPTC(imageFile);
+        }
+
+        if (!jpegHeader.hasIptc()) {
+            return null;
+        }
+
+        JpegReader jpegReader = new JpegReader(jpegHeader.getBytes());
+
+        try {
+            return MetadataUtils.getIPTC(jpegReader);
+        } finally {
+            jpegReader.close();
+        }
+    }
+
     private static void addEntries(IPTCEntry[][] entries, List<IptcEntry> metadata) {
         if (entries != null) {
             for (IPTCEntry[] entrie : entries) {
@@ -0,0 +1,317 @@
+package org.jphototagger.lib.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Executes initialization tasks concurrently as soon as the tasks they depend on are completed.
+ * <p>
+ * Tasks have to be added before {@link #start()}, dependencies have to be added before the tasks depending on them,
+ * so that the graph can't contain cycles. A task will not be executed if a task it depends on failed, waiting for it
+ * throws the failure of the dependency. Start and duration of each task are recorded, see {@link #getTimeline()}.
+ *
+ * @author Elmar Baumann
+ */
+public final class InitTaskGraph {
+
+    private final String name;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private ExecutorService executor;
+
+    /**
+     * @param name name of the graph, used for the names of the executing threads
+     */
+    public InitTaskGraph(String name) {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+
+        this.name = name;
+    }
+
+    /**
+     * Adds a task.
+     *
+     * @param taskName     unique name of the task
+     * @param runnable     task
+     * @param dependencies names of previously added tasks which have to be completed before this task will be executed
+     */
+    public synchronized void add(String taskName, Runnable runnable, String... dependencies) {
+        if (taskName == null) {
+            throw new NullPointerException("taskName == null");
+        }
+        if (runnable == null) {
+            throw new NullPointerException("runnable == null");
+        }
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+        if (tasks.containsKey(taskName)) {
+            throw new IllegalArgumentException("Duplicate task: " + taskName);
+        }
+
+        List<Task> dependencyTasks = new ArrayList<>(dependencies.length);
+
+        for (String dependency : dependencies) {
+            Task dependencyTask = tasks.get(dependency);
+            if (dependencyTask == null) {
+                throw new IllegalArgumentException("Unknown dependency of task " + taskName + ": " + dependency);
+            }
+            dependencyTasks.add(dependencyTask);
+        }
+
+        tasks.put(taskName, new Task(taskName, runnable, dependencyTasks));
+    }
+
+    /**
+     * Starts executing all tasks. The threads terminate after all tasks are completed.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            throw new IllegalStateException("Already started");
+        }
+
+        // One thread per task: Initialization tasks are few and mostly waiting for I/O
+        executor = Executors.newFixedThreadPool(Math.max(1, tasks.size()), new ThreadFactory() {
+
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "JPhotoTagger: " + name + " " + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+
+        for (Task task : tasks.values()) {
+            futures.add(task.schedule(executor));
+        }
+
+        final ExecutorService taskExecutor = executor;
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).whenComplete(new BiConsumer<Void, Throwable>() {
+
+            @Override
+            public void accept(Void result, Throwable t) {
+                taskExecutor.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Waits until a task and therefore all tasks it depends on are completed.
+     *
+     * @param  taskName name of the task
+     * @throws Exception the failure of the task or of a task it depends on
+     */
+    public void await(String taskName) throws Exception {
+        Task task;
+
+        synchronized (this) {
+            if (executor == null) {
+                throw new IllegalStateException("Not started");
+            }
+            task = tasks.get(taskName);
+        }
+
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown task: " + taskName);
+        }
+
+        try {
+            task.future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause() instanceof CompletionException && ex.getCause().getCause() != null
+                    ? ex.getCause().getCause()
+                    : ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new ExecutionException(cause);
+        }
+    }
+
+    /**
+     * Waits until all tasks are completed.
+     *
+     * @return names of the failed tasks and their failures
+     */
+    public Map<String, Throwable> awaitAll() throws InterruptedException {
+        List<Task> allTasks;
+
+        synchronized (this) {
+            if (executor == null) {
+                throw new IllegalStateException("Not started");
+            }
+            allTasks = new ArrayList<>(tasks.values());
+        }
+
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+
+        for (Task task : allTasks) {
+            try {
+                await(task.name);
+            } catch (InterruptedException ex) {
+                throw ex;
+            } catch (Throwable t) {
+                failures.put(task.name, t);
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Returns start and duration of the executed tasks, e.g. for logging startup times.
+     *
+     * @return one line per executed task ordered by it's start, relative to the creation of this graph
+     */
+    public synchronized List<String> getTimeline() {
+        List<Task> executedTasks = new ArrayList<>();
+
+        for (Task task : tasks.values()) {
+            if (task.executed) {
+                executedTasks.add(task);
+            }
+        }
+
+        Collections.sort(executedTasks, new Comparator<Task>() {
+
+            @Override
+            public int compare(Task o1, Task o2) {
+                return Long.compare(o1.startNanos, o2.startNanos);
+            }
+        });
+
+        List<String> timeline = new ArrayList<>(executedTasks.size());
+
+        for (Task task : executedTasks) {
+            timeline.add(String.format("%-30s start %6d ms, duration %6d ms%s (%s)", task.name,
+                    toMillis(task.startNanos - startNanos), toMillis(task.endNanos - task.startNanos),
+                    task.failed ? ", failed" : "", task.threadName));
+        }
+
+        return timeline;
+    }
+
+    /**
+     * @param  taskName name of the task
+     * @return          milliseconds the task was running or -1, if the task was not executed
+     */
+    public synchronized long getDurationMillis(String taskName) {
+        long durationNanos = getDurationNanos(taskName);
+
+        return durationNanos < 0
+                ? -1
+                : toMillis(durationNanos);
+    }
+
+    /**
+     * @param  taskName name of the task
+     * @return          nanoseconds the task was running or -1, if the task was not executed
+     */
+    public synchronized long getDurationNanos(String taskName) {
+        Task task = tasks.get(taskName);
+
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown task: " + taskName);
+        }
+
+        return task.executed
+                ? task.endNanos - task.startNanos
+                : -1;
+    }
+
+    /**
+     * @return milliseconds from the creation of this graph until the last completed task
+     */
+    public synchronized long getElapsedMillis() {
+        return toMillis(getElapsedNanos());
+    }
+
+    /**
+     * @return nanoseconds from the creation of this graph until the last completed task
+     */
+    public synchronized long getElapsedNanos() {
+        long endNanos = startNanos;
+
+        for (Task task : tasks.values()) {
+            if (task.executed && task.endNanos - endNanos > 0) {
+                endNanos = task.endNanos;
+            }
+        }
+
+        return endNanos - startNanos;
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+
+    private static final class Task {
+
+        private final String name;
+        private final Runnable runnable;
+        private final List<Task> dependencies;
+        private CompletableFuture<Void> future;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile boolean failed;
+        private volatile boolean executed;
+        private volatile String threadName;
+
+        private Task(String name, Runnable runnable, List<Task> dependencies) {
+            this.name = name;
+            this.runnable = runnable;
+            this.dependencies = dependencies;
+        }
+
+        private CompletableFuture<Void> schedule(ExecutorService executor) {
+            CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.size()];
+
+            for (int i = 0; i < dependencyFutures.length; i++) {
+                dependencyFutures[i] = dependencies.get(i).future;
+            }
+
+            future = CompletableFuture.allOf(dependencyFutures).thenRunAsync(new Runnable() {
+
+                @Override
+                public void run() {
+                    execute();
+                }
+            }, executor);
+
+            return future;
+        }
+
+        private void execute() {
+            threadName = Thread.currentThread().getName();
+            startNanos = System.nanoTime();
+            try {
+                runnable.run();
+            } catch (RuntimeException | Error t) {
+                failed = true;
+                throw t;
+            } finally {
+                endNanos = System.nanoTime();
+                executed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.jphototagger.lib.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Metadata region of a JPEG file: All segments from the start of image
+ * marker up to the start of scan marker, read with a single sequential pass.
+ * The compressed image data will not be read.
+ * <p>
+ * The header contains the segments of the EXIF metadata including the
+ * embedded thumbnail, the XMP packet and the IPTC block, so that all
+ * metadata parsers can share one read of the file. Recently read headers are
+ * cached while the image file is unchanged, because scanning a file for
+ * the repository and creating it's thumbnail read the same file several
+ * times in short succession.
+ *
+ * @author Elmar Baumann
+ */
+public final class JpegHeader {
+
+    private static final Logger LOGGER = Logger.getLogger(JpegHeader.class.getName());
+    private static final int MAX_CACHED_HEADERS = 16;
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_EOI = 0xD9;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int MARKER_APP1 = 0xE1;
+    private static final int MARKER_APP13 = 0xED;
+    private static final byte[] EXIF_IDENTIFIER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] XMP_IDENTIFIER = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PHOTOSHOP_IDENTIFIER = "Photoshop 3.0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int TIFF_TAG_JPEG_INTERCHANGE_FORMAT = 0x0201;
+    private static final int TIFF_TAG_JPEG_INTERCHANGE_FORMAT_LENGTH = 0x0202;
+    private static final Map<File, JpegHeader> CACHE = new LinkedHashMap<File, JpegHeader>(MAX_CACHED_HEADERS, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, JpegHeader> eldest) {
+            return size() > MAX_CACHED_HEADERS;
+        }
+    };
+    private final long fileLength;
+    private final long fileLastModified;
+    private final byte[] bytes;
+    private int exifOffset = -1;
+    private int exifLength;
+    private int xmpOffset = -1;
+    private int xmpLength;
+    private int photoshopOffset = -1;
+    private int photoshopLength;
+
+    private JpegHeader(byte[] bytes, long fileLength, long fileLastModified) {
+        this.bytes = bytes;
+        this.fileLength = fileLength;
+        this.fileLastModified = fileLastModified;
+        findSegments();
+    }
+
+    /**
+     * Returns the header of a JPEG file, from the cache if the file is
+     * unchanged since it's header was read.
+     *
+     * @param  file file
+     * @return      header or null if the file is not a JPEG file or on errors
+     */
+    public static JpegHeader get(File file) {
+        if (file == null) {
+            throw new NullPointerException("file == null");
+        }
+
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        synchronized (CACHE) {
+            JpegHeader header = CACHE.get(file);
+
+            if ((header != null) && (header.fileLength == length) && (header.fileLastModified == lastModified)) {
+                return header;
+            }
+        }
+
+        try {
+            byte[] bytes = readHeaderBytes(file);
+
+            if (bytes == null) {
+                return null;
+            }
+
+            JpegHeader header = new JpegHeader(bytes, length, lastModified);
+
+            synchronized (CACHE) {
+                CACHE.put(file, header);
+            }
+
+            return header;
+        } catch (Throwable t) {
+            LOGGER.log(Level.WARNING, "Can''t read JPEG header of file ''{0}'': {1}", new Object[]{file, t.getLocalizedMessage()});
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the segments from the start of image up to the start of scan,
+     * skipping nothing, so that the header can be parsed like a JPEG file.
+     *
+     * @return header bytes or null if the file is not a JPEG file
+     */
+    private static byte[] readHeaderBytes(File file) throws IOException {
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            if ((is.read() != 0xFF) || (is.read() != MARKER_SOI)) {
+                return null;
+            }
+
+            ByteArrayOutputStream header = new ByteArrayOutputStream(64 * 1024);
+
+            header.write(0xFF);
+            header.write(MARKER_SOI);
+
+            while (true) {
+                int marker = readMarker(is);
+
+                if ((marker == MARKER_SOS) || (marker == MARKER_EOI)) {
+                    break;
+                }
+
+                header.write(0xFF);
+                header.write(marker);
+
+                if (isStandaloneMarker(marker)) {
+                    continue;
+                }
+
+                int lengthHigh = readByte(is);
+                int lengthLow = readByte(is);
+                int length = (lengthHigh << 8) | lengthLow;
+
+                if (length < 2) {
+                    throw new IOException("Invalid segment length " + length);
+                }
+
+                byte[] segment = new byte[length - 2];
+
+                readFully(is, segment);
+                header.write(lengthHigh);
+                header.write(lengthLow);
+                header.write(segment);
+            }
+
+            return header.toByteArray();
+        }
+    }
+
+    private static int readMarker(InputStream is) throws IOException {
+        int b = readByte(is);
+
+        if (b != 0xFF) {
+            throw new IOException("Missing marker");
+        }
+
+        while (b == 0xFF) { // fill bytes
+            b = readByte(is);
+        }
+
+        return b;
+    }
+
+    private static boolean isStandaloneMarker(int marker) {
+        return (marker == 0x01) || ((marker >= 0xD0) && (marker <= 0xD7));
+    }
+
+    private static int readByte(InputStream is) throws IOException {
+        int b = is.read();
+
+        if (b < 0) {
+            throw new EOFException();
+        }
+
+        return b;
+    }
+
+    private static void readFully(InputStream is, byte[] b) throws IOException {
+        int offset = 0;
+
+        while (offset < b.length) {
+            int count = is.read(b, offset, b.length - offset);
+
+            if (count < 0) {
+                throw new EOFException();
+            }
+
+            offset += count;
+        }
+    }
+
+    // The header is well formed, it has been written by readHeaderBytes()
+    private void findSegments() {
+        int index = 2;
+
+        while (index + 4 <= bytes.length) {
+            int marker = bytes[index + 1] & 0xFF;
+
+            if (isStandaloneMarker(marker)) {
+                index += 2;
+                continue;
+            }
+
+            int length = ((bytes[index + 2] & 0xFF) << 8) | (bytes[index + 3] & 0xFF);
+            int dataOffset = index + 4;
+            int dataLength = length - 2;
+
+            if ((marker == MARKER_APP1) && (exifOffset < 0) && startsWith(dataOffset, dataLength, EXIF_IDENTIFIER)) {
+                exifOffset = dataOffset + EXIF_IDENTIFIER.length;
+                exifLength = dataLength - EXIF_IDENTIFIER.length;
+            } else if ((marker == MARKER_APP1) && (xmpOffset < 0) && startsWith(dataOffset, dataLength, XMP_IDENTIFIER)) {
+                xmpOffset = dataOffset + XMP_IDENTIFIER.length;
+                xmpLength = dataLength - XMP_IDENTIFIER.length;
+            } else if ((marker == MARKER_APP13) && (photoshopOffset < 0) && startsWith(dataOffset, dataLength, PHOTOSHOP_IDENTIFIER)) {
+                photoshopOffset = dataOffset;
+                photoshopLength = dataLength;
+            }
+
+            index = dataOffset + dataLength;
+        }
+    }
+
+    private boolean startsWith(int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the header as JPEG stream without image data, which can be
+     * parsed by JPEG metadata readers instead of the file.
+     *
+     * @return header bytes, must not be modified
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public boolean hasExif() {
+        return exifOffset >= 0;
+    }
+
+    public boolean hasXmp() {
+        return xmpOffset >= 0;
+    }
+
+    public boolean hasIptc() {
+        return photoshopOffset >= 0;
+    }
+
+    /**
+     * @return TIFF structure of the EXIF segment (IFDs) or null if the header
+     *         has no EXIF segment
+     */
+    public byte[] getExifTiffBytes() {
+        return hasExif()
+                ? Arrays.copyOfRange(bytes, exifOffset, exifOffset + exifLength)
+                : null;
+    }
+
+    /**
+     * @return XMP packet as UTF-8 string or null if the header has no XMP
+     *         segment
+     */
+    public String getXmp() {
+        return hasXmp()
+                ? new String(bytes, xmpOffset, xmpLength, StandardCharsets.UTF_8)
+                : null;
+    }
+
+    /**
+     * Returns the bytes of the JPEG thumbnail referenced by the second IFD
+     * (IFD1) of the EXIF segment.
+     *
+     * @return thumbnail or null if the EXIF segment has no JPEG thumbnail
+     */
+    public byte[] getEmbeddedThumbnailBytes() {
+        if (!hasExif() || (exifLength < 8)) {
+            return null;
+        }
+
+        boolean littleEndian = bytes[exifOffset] == 'I';
+        int ifd0Offset = readInt(4, 4, littleEndian);
+
+        if ((ifd0Offset < 8) || (ifd0Offset > exifLength - 2)) {
+            return null;
+        }
+
+        int ifd0EntryCount = readInt(ifd0Offset, 2, littleEndian);
+        int nextIfdPointerOffset = ifd0Offset + 2 + ifd0EntryCount * 12;
+
+        if ((nextIfdPointerOffset < 0) || (nextIfdPointerOffset > exifLength - 4)) {
+            return null;
+        }
+
+        int ifd1Offset = readInt(nextIfdPointerOffset, 4, littleEndian);
+
+        if ((ifd1Offset < 8) || (ifd1Offset > exifLength - 2)) {
+            return null;
+        }
+
+        int ifd1EntryCount = readInt(ifd1Offset, 2, littleEndian);
+        int thumbnailOffset = -1;
+        int thumbnailLength = -1;
+
+        for (int i = 0; i < ifd1EntryCount; i++) {
+            int entryOffset = ifd1Offset + 2 + i * 12;
+
+            if (entryOffset > exifLength - 12) {
+                return null;
+            }
+
+            int tag = readInt(entryOffset, 2, littleEndian);
+
+            if (tag == TIFF_TAG_JPEG_INTERCHANGE_FORMAT) {
+                thumbnailOffset = readInt(entryOffset + 8, 4, littleEndian);
+            } else if (tag == TIFF_TAG_JPEG_INTERCHANGE_FORMAT_LENGTH) {
+                thumbnailLength = readInt(entryOffset + 8, 4, littleEndian);
+            }
+        }
+
+        if ((thumbnailOffset < 8) || (thumbnailLength <= 0) || ((long) thumbnailOffset + thumbnailLength > exifLength)) {
+            return null;
+        }
+
+        return Arrays.copyOfRange(bytes, exifOffset + thumbnailOffset, exifOffset + thumbnailOffset + thumbnailLength);
+    }
+
+    // offset relative to the TIFF header
+    private int readInt(int offset, int byteCount, boolean littleEndian) {
+        int value = 0;
+
+        for (int i = 0; i < byteCount; i++) {
+            int b = bytes[exifOffset + offset + (littleEndian ? byteCount - 1 - i : i)] & 0xFF;
+
+            value = (value << 8) | b;
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes all cached headers.
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 import org.jphototagger.api.component.DisplayNameProvider;
+import org.jphototagger.lib.util.CompiledPatterns;
 
 /**
  * @author Elmar Baumann
@@ -15,6 +16,7 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
     private static final long serialVersionUID = 1L;
     private final Set<String> acceptedPatterns = new HashSet<>();
     private String displayname;
+    private transient volatile CompiledPatterns compiledPatterns;
 
     public RegexFileFilter(RegexFileFilter other) {
         set(other);
@@ -28,6 +30,7 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         acceptedPatterns.clear();
         displayname = other.displayname;
         acceptedPatterns.addAll(other.acceptedPatterns);
+        compiledPatterns = null;
     }
 
     /**
@@ -55,6 +58,8 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         while (token.hasMoreElements()) {
             acceptedPatterns.add(token.nextToken());
         }
+
+        compiledPatterns = null;
     }
 
     public void addAcceptPatternsOf(RegexFileFilter other) {
@@ -67,6 +72,7 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         }
 
         acceptedPatterns.addAll(other.acceptedPatterns);
+        compiledPatterns = null;
     }
 
     public void removeAcceptPatternsOf(RegexFileFilter other) {
@@ -79,6 +85,7 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         }
 
         acceptedPatterns.removeAll(other.acceptedPatterns);
+        compiledPatterns = null;
     }
 
     public void addAcceptPattern(String pattern) {
@@ -87,6 +94,7 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         }
 
         acceptedPatterns.add(pattern);
+        compiledPatterns = null;
     }
 
     public void removeAcceptPattern(String pattern) {
@@ -95,19 +103,24 @@ public final class RegexFileFilter implements java.io.FileFilter, Serializable,
         }
 
         acceptedPatterns.remove(pattern);
+        compiledPatterns = null;
     }
 
     @Override
     public boolean accept(File file) {
-        String pathname = file.getName();
+        return getCompiledPatterns().matchesAny(file.getName());
+    }
+
+    // Compiled once after changing the accepted patterns instead of on every accept() call
+    private CompiledPatterns getCompiledPatterns() {
+        CompiledPatterns patterns = compiledPatterns;
 
-        for (String pattern : acceptedPatterns) {
-            if (pathname.matches(pattern)) {
-                return true;
-            }
+        if (patterns == null) {
+            patterns = CompiledPatterns.compile(acceptedPatterns);
+            compiledPatterns = patterns;
         }
 
-        return false;
+        return patterns;
     }
 
     public void setDisplayname(String displayname) {
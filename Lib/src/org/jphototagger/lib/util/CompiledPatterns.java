@@ -0,0 +1,147 @@
+package org.jphototagger.lib.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable set of regular expressions compiled once, e.g. file exclude
+ * patterns matched against many file paths.
+ * <p>
+ * Matching is the same as <code>java.lang.String.matches(java.lang.String)</code>:
+ * the whole string has to match a pattern. Instances are thread safe. The
+ * patterns are compiled through {@link RegexUtil#getPattern(java.lang.String)},
+ * so that compiling the same regular expressions again reuses the patterns.
+ *
+ * @author Elmar Baumann
+ */
+public final class CompiledPatterns {
+
+    public static final CompiledPatterns EMPTY = new CompiledPatterns(Collections.<String>emptyList(), Collections.<Pattern>emptyList());
+    private static final Logger LOGGER = Logger.getLogger(CompiledPatterns.class.getName());
+    private final List<String> regexes;
+    private final List<Pattern> patterns;
+
+    private CompiledPatterns(List<String> regexes, List<Pattern> patterns) {
+        this.regexes = Collections.unmodifiableList(regexes);
+        this.patterns = patterns;
+    }
+
+    /**
+     * Compiles regular expressions.
+     *
+     * @param  regexes regular expressions
+     * @return         compiled patterns
+     * @throws PatternSyntaxException if the syntax of a regular expression is
+     *         invalid
+     */
+    public static CompiledPatterns compile(Collection<String> regexes) {
+        if (regexes == null) {
+            throw new NullPointerException("regexes == null");
+        }
+
+        List<String> compiledRegexes = new ArrayList<>(regexes.size());
+        List<Pattern> patterns = new ArrayList<>(regexes.size());
+
+        for (String regex : regexes) {
+            patterns.add(RegexUtil.getPattern(regex));
+            compiledRegexes.add(regex);
+        }
+
+        return new CompiledPatterns(compiledRegexes, patterns);
+    }
+
+    /**
+     * Compiles regular expressions and logs and ignores invalid regular
+     * expressions, e.g. patterns stored in a repository or in the preferences.
+     *
+     * @param  regexes regular expressions
+     * @return         compiled valid patterns
+     */
+    public static CompiledPatterns compileValid(Collection<String> regexes) {
+        if (regexes == null) {
+            throw new NullPointerException("regexes == null");
+        }
+
+        List<String> compiledRegexes = new ArrayList<>(regexes.size());
+        List<Pattern> patterns = new ArrayList<>(regexes.size());
+
+        for (String regex : regexes) {
+            try {
+                patterns.add(RegexUtil.getPattern(regex));
+                compiledRegexes.add(regex);
+            } catch (PatternSyntaxException ex) {
+                LOGGER.log(Level.WARNING, "Ignoring invalid regular expression ''{0}'': {1}", new Object[]{regex, ex.getDescription()});
+            }
+        }
+
+        return new CompiledPatterns(compiledRegexes, patterns);
+    }
+
+    /**
+     * Returns, whether a string matches at least one pattern.
+     *
+     * @param  string string
+     * @return        true, if the whole string matches at least one pattern
+     */
+    public boolean matchesAny(CharSequence string) {
+        if (string == null) {
+            throw new NullPointerException("string == null");
+        }
+
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(string).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns from a collection all strings matching at least one pattern.
+     *
+     * @param  strings strings
+     * @return         matching strings in the iteration order of the collection
+     */
+    public List<String> getMatches(Collection<String> strings) {
+        if (strings == null) {
+            throw new NullPointerException("strings == null");
+        }
+
+        List<String> matches = new ArrayList<>();
+
+        for (String string : strings) {
+            if (matchesAny(string)) {
+                matches.add(string);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * @return compiled regular expressions, unmodifiable
+     */
+    public List<String> getRegexes() {
+        return regexes;
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    @Override
+    public String toString() {
+        return regexes.toString();
+    }
+}
@@ -2,14 +2,57 @@ package org.jphototagger.lib.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
+ * Compiled patterns will be reused, for matching many strings against the same
+ * patterns use {@link CompiledPatterns}.
+ *
  * @author Elmar Baumann
  */
 public final class RegexUtil {
 
+    private static final int MAX_CACHED_PATTERNS = 256;
+    private static final Map<String, Pattern> PATTERN_OF_REGEX = new LinkedHashMap<String, Pattern>(MAX_CACHED_PATTERNS, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            return size() > MAX_CACHED_PATTERNS;
+        }
+    };
+
+    /**
+     * Returns a compiled regular expression. The last recently used patterns
+     * are cached.
+     *
+     * @param  regex regular expression
+     * @return       pattern
+     * @throws PatternSyntaxException if the syntax of the regular expression
+     *         is invalid
+     */
+    public static Pattern getPattern(String regex) {
+        if (regex == null) {
+            throw new NullPointerException("regex == null");
+        }
+
+        synchronized (PATTERN_OF_REGEX) {
+            Pattern pattern = PATTERN_OF_REGEX.get(regex);
+
+            if (pattern == null) {
+                pattern = Pattern.compile(regex);
+                PATTERN_OF_REGEX.put(regex, pattern);
+            }
+
+            return pattern;
+        }
+    }
+
     /**
      * Returns from a collection all strings matching a pattern.
      *
@@ -27,9 +70,10 @@ public final class RegexUtil {
         }
 
         List<String> stringsMatches = new ArrayList<>();
+        Pattern compiledPattern = getPattern(pattern);
 
         for (String string : strings) {
-            if (string.matches(pattern)) {
+            if (compiledPattern.matcher(string).matches()) {
                 stringsMatches.add(string);
             }
         }
@@ -41,7 +85,8 @@ public final class RegexUtil {
      * Returns, whether a string matches at least one pattern in a collection
      * with regular expressions.
      *
-     * Uses <code>java.lang.String.matches(java.lang.String)</code>.
+     * Matches like <code>java.lang.String.matches(java.lang.String)</code>
+     * without recompiling already compiled patterns.
      *
      * @param  patterns  collection of string patterns
      * @param  string    string
@@ -60,7 +105,7 @@ public final class RegexUtil {
         }
 
         for (String pattern : patterns) {
-            if (string.matches(pattern)) {
+            if (getPattern(pattern).matcher(string).matches()) {
                 return true;
             }
         }
@@ -0,0 +1,105 @@
+package org.jphototagger.lib.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * @author Elmar Baumann
+ */
+public class InitTaskGraphTest {
+
+    @Test
+    public void testIndependentTasksRunConcurrently() throws Exception {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable awaitingOther = new Runnable() {
+
+            @Override
+            public void run() {
+                bothStarted.countDown();
+                try {
+                    if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Not executed concurrently");
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        InitTaskGraph graph = new InitTaskGraph("Test");
+        graph.add("a", awaitingOther);
+        graph.add("b", awaitingOther);
+        graph.start();
+
+        assertTrue(graph.awaitAll().isEmpty());
+        assertEquals(2, graph.getTimeline().size());
+        assertTrue(graph.getElapsedNanos() >= graph.getDurationNanos("a"));
+    }
+
+    @Test
+    public void testDependentTaskRunsAfterDependencies() throws Exception {
+        final StringBuffer order = new StringBuffer();
+        InitTaskGraph graph = new InitTaskGraph("Test");
+        graph.add("a", new Appender(order, "a"));
+        graph.add("b", new Appender(order, "b"), "a");
+        graph.add("c", new Appender(order, "c"), "b");
+        graph.start();
+
+        graph.await("c");
+
+        assertEquals("abc", order.toString());
+    }
+
+    @Test
+    public void testFailureIsPropagatedToDependentTasks() throws Exception {
+        final StringBuffer order = new StringBuffer();
+        InitTaskGraph graph = new InitTaskGraph("Test");
+        graph.add("failing", new Runnable() {
+
+            @Override
+            public void run() {
+                throw new IllegalStateException("failing");
+            }
+        });
+        graph.add("dependent", new Appender(order, "dependent"), "failing");
+        graph.start();
+
+        try {
+            graph.await("dependent");
+            fail("Failure not propagated");
+        } catch (IllegalStateException ex) {
+            assertEquals("failing", ex.getMessage());
+        }
+        Map<String, Throwable> failures = graph.awaitAll();
+
+        assertEquals(2, failures.size());
+        assertEquals("", order.toString());
+        assertEquals(-1, graph.getDurationMillis("dependent"));
+        assertEquals(-1, graph.getDurationNanos("dependent"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDependency() {
+        new InitTaskGraph("Test").add("a", new Appender(new StringBuffer(), "a"), "b");
+    }
+
+    private static final class Appender implements Runnable {
+
+        private final StringBuffer sb;
+        private final String string;
+
+        private Appender(StringBuffer sb, String string) {
+            this.sb = sb;
+            this.string = string;
+        }
+
+        @Override
+        public void run() {
+            sb.append(string);
+        }
+    }
+}
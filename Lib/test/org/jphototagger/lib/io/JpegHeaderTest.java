@@ -0,0 +1,168 @@
+package org.jphototagger.lib.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * @author Elmar Baumann
+ */
+public class JpegHeaderTest {
+
+    private static final byte[] THUMBNAIL = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+    private static final String XMP = "<?xpacket begin=\"\" id=\"W5M0MpCehiHzreSzNTczkc9d\"?><x:xmpmeta xmlns:x=\"adobe:ns:meta/\"></x:xmpmeta><?xpacket end=\"w\"?>";
+
+    @Test
+    public void testSegments() throws Exception {
+        File file = createJpegFile(true);
+
+        try {
+            JpegHeader header = JpegHeader.get(file);
+
+            assertTrue(header.hasExif());
+            assertTrue(header.hasXmp());
+            assertTrue(header.hasIptc());
+            assertEquals(XMP, header.getXmp());
+            assertArrayEquals(THUMBNAIL, header.getEmbeddedThumbnailBytes());
+            assertEquals('I', header.getExifTiffBytes()[0]);
+            assertTrue(header.getBytes().length < file.length());
+            assertEquals((byte) 0xE1, header.getBytes()[3]); // APP1 follows SOI
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testWithoutMetadata() throws Exception {
+        File file = createJpegFile(false);
+
+        try {
+            JpegHeader header = JpegHeader.get(file);
+
+            assertFalse(header.hasExif());
+            assertFalse(header.hasXmp());
+            assertFalse(header.hasIptc());
+            assertNull(header.getXmp());
+            assertNull(header.getEmbeddedThumbnailBytes());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        File file = createJpegFile(true);
+
+        try {
+            JpegHeader header = JpegHeader.get(file);
+
+            assertSame(header, JpegHeader.get(file));
+            file.setLastModified(file.lastModified() - 10000);
+            assertNotSame(header, JpegHeader.get(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testNoJpegFile() throws Exception {
+        File file = File.createTempFile("JpegHeaderTest", ".txt");
+
+        try {
+            try (OutputStream os = new FileOutputStream(file)) {
+                os.write("no JPEG".getBytes(StandardCharsets.US_ASCII));
+            }
+            assertNull(JpegHeader.get(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static File createJpegFile(boolean withMetadata) throws IOException {
+        File file = File.createTempFile("JpegHeaderTest", ".jpg");
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+
+        jpeg.write(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        if (withMetadata) {
+            writeSegment(jpeg, 0xE1, concat("Exif\0\0".getBytes(StandardCharsets.US_ASCII), createTiffWithThumbnail()));
+            writeSegment(jpeg, 0xE1, concat("http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.US_ASCII), XMP.getBytes(StandardCharsets.UTF_8)));
+            writeSegment(jpeg, 0xED, concat("Photoshop 3.0\0".getBytes(StandardCharsets.US_ASCII), new byte[]{'8', 'B', 'I', 'M', 4, 4}));
+        }
+        writeSegment(jpeg, 0xDB, new byte[65]); // quantization table
+        writeSegment(jpeg, 0xDA, new byte[10]); // start of scan
+        byte[] imageData = new byte[10000];
+        Arrays.fill(imageData, (byte) 0x55);
+        jpeg.write(imageData);
+        jpeg.write(new byte[]{(byte) 0xFF, (byte) 0xD9});
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(jpeg.toByteArray());
+        }
+
+        return file;
+    }
+
+    private static void writeSegment(ByteArrayOutputStream os, int marker, byte[] data) {
+        int length = data.length + 2;
+
+        os.write(0xFF);
+        os.write(marker);
+        os.write(length >> 8);
+        os.write(length & 0xFF);
+        os.write(data, 0, data.length);
+    }
+
+    // Little endian TIFF: header, IFD0 without entries, IFD1 referencing the thumbnail
+    private static byte[] createTiffWithThumbnail() {
+        int ifd0Offset = 8;
+        int ifd1Offset = ifd0Offset + 2 + 4;
+        int thumbnailOffset = ifd1Offset + 2 + 2 * 12 + 4;
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+
+        tiff.write('I');
+        tiff.write('I');
+        writeLittleEndian(tiff, 42, 2);
+        writeLittleEndian(tiff, ifd0Offset, 4);
+        writeLittleEndian(tiff, 0, 2);
+        writeLittleEndian(tiff, ifd1Offset, 4);
+        writeLittleEndian(tiff, 2, 2);
+        writeIfdEntry(tiff, 0x0201, thumbnailOffset);
+        writeIfdEntry(tiff, 0x0202, THUMBNAIL.length);
+        writeLittleEndian(tiff, 0, 4);
+        tiff.write(THUMBNAIL, 0, THUMBNAIL.length);
+
+        return tiff.toByteArray();
+    }
+
+    private static void writeIfdEntry(ByteArrayOutputStream os, int tag, int value) {
+        writeLittleEndian(os, tag, 2);
+        writeLittleEndian(os, 4, 2); // LONG
+        writeLittleEndian(os, 1, 4);
+        writeLittleEndian(os, value, 4);
+    }
+
+    private static void writeLittleEndian(ByteArrayOutputStream os, int value, int byteCount) {
+        for (int i = 0; i < byteCount; i++) {
+            os.write((value >> (8 * i)) & 0xFF);
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+
+        System.arraycopy(b, 0, result, a.length, b.length);
+
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package org.jphototagger.maintainance;
+
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import org.jdesktop.swingx.JXLabel;
+import org.jphototagger.domain.repository.RepositoryConnectionsStatistics;
+import org.jphototagger.lib.swing.PanelExt;
+import org.jphototagger.lib.swing.util.MnemonicUtil;
+import org.jphototagger.lib.util.Bundle;
+import org.jphototagger.resources.UiFactory;
+import org.openide.util.Lookup;
+
+/**
+ * Displays the usage of the connections to the repository, e.g. how long threads had to wait for a free connection.
+ *
+ * @author Elmar Baumann
+ */
+public final class RepositoryConnectionsPanel extends PanelExt {
+
+    private static final long serialVersionUID = 1L;
+
+    public RepositoryConnectionsPanel() {
+        initComponents();
+        postInitComponents();
+    }
+
+    private void postInitComponents() {
+        MnemonicUtil.setMnemonics(this);
+    }
+
+    public void update() {
+        RepositoryConnectionsStatistics statistics = Lookup.getDefault().lookup(RepositoryConnectionsStatistics.class);
+        labelStatistics.setText(statistics == null
+                ? Bundle.getString(RepositoryConnectionsPanel.class, "RepositoryConnectionsPanel.Info.NotAvailable")
+                : createStatisticsText(statistics));
+    }
+
+    private static String createStatisticsText(RepositoryConnectionsStatistics statistics) {
+        return Bundle.getString(RepositoryConnectionsPanel.class, "RepositoryConnectionsPanel.Info.Statistics",
+                Integer.toString(statistics.getOpenConnectionCount()),
+                Integer.toString(statistics.getAvailableConnectionCount()),
+                Integer.toString(statistics.getMinConnectionCount()),
+                Integer.toString(statistics.getMaxConnectionCount()),
+                Long.toString(statistics.getBorrowCount()),
+                Long.toString(statistics.getWaitCount()),
+                Long.toString(statistics.getTotalWaitMillis()),
+                Long.toString(statistics.getMaxWaitMillis()),
+                Long.toString(statistics.getTimeoutCount()),
+                Integer.toString(statistics.getLeakedConnectionCount()),
+                Long.toString(statistics.getInvalidConnectionCount()),
+                Long.toString(statistics.getStatementCacheHitCount()),
+                Long.toString(statistics.getStatementCacheMissCount()));
+    }
+
+    private void initComponents() {
+        GridBagConstraints gridBagConstraints;
+
+        labelStatistics = UiFactory.jxLabel();
+        buttonUpdate = UiFactory.button();
+        panelPadding = UiFactory.panel();
+
+        setName("RepositoryConnectionsPanel"); // NOI18N
+        setLayout(new GridBagLayout());
+
+        labelStatistics.setName("labelStatistics"); // NOI18N
+        gridBagConstraints = new GridBagConstraints();
+        gridBagConstraints.gridwidth = GridBagConstraints.REMAINDER;
+        gridBagConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gridBagConstraints.anchor = GridBagConstraints.NORTHWEST;
+        gridBagConstraints.weightx = 1.0;
+        gridBagConstraints.insets = UiFactory.insets(5, 5, 5, 5);
+        add(labelStatistics, gridBagConstraints);
+
+        buttonUpdate.setText(Bundle.getString(getClass(), "RepositoryConnectionsPanel.buttonUpdate.text")); // NOI18N
+        buttonUpdate.setName("buttonUpdate"); // NOI18N
+        buttonUpdate.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent evt) {
+                buttonUpdateActionPerformed(evt);
+            }
+        });
+        gridBagConstraints = new GridBagConstraints();
+        gridBagConstraints.gridwidth = GridBagConstraints.REMAINDER;
+        gridBagConstraints.anchor = GridBagConstraints.EAST;
+        gridBagConstraints.insets = UiFactory.insets(10, 5, 0, 5);
+        add(buttonUpdate, gridBagConstraints);
+
+        panelPadding.setName("panelPadding"); // NOI18N
+        gridBagConstraints = new GridBagConstraints();
+        gridBagConstraints.fill = GridBagConstraints.VERTICAL;
+        gridBagConstraints.weighty = 1.0;
+        add(panelPadding, gridBagConstraints);
+    }
+
+    private void buttonUpdateActionPerformed(ActionEvent evt) {
+        update();
+    }
+
+    private JButton buttonUpdate;
+    private JXLabel labelStatistics;
+    private JPanel panelPadding;
+}
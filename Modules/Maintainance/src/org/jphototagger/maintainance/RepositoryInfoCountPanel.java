@@ -16,15 +16,13 @@ import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.selections.RepositoryInfoCountOfMetaDataValues;
 import org.jphototagger.domain.repository.FileRepositoryProvider;
 import org.jphototagger.domain.repository.RepositoryStatistics;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectDeletedEvent;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectInsertedEvent;
-import org.jphototagger.domain.repository.event.exif.ExifDeletedEvent;
-import org.jphototagger.domain.repository.event.exif.ExifInsertedEvent;
-import org.jphototagger.domain.repository.event.exif.ExifUpdatedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileInsertedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.exif.ImageFilesExifChangedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesInsertedEvent;
+import org.jphototagger.domain.repository.event.xmp.ImageFilesXmpChangedEvent;
 import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.lib.swing.PanelExt;
 import org.jphototagger.lib.swing.TableModelExt;
@@ -119,7 +117,7 @@ public final class RepositoryInfoCountPanel extends PanelExt {
 
         private static final long serialVersionUID = 1L;
         private final LinkedHashMap<MetaDataValue, StringBuffer> bufferOfMetaDataValue = new LinkedHashMap<>();
-        private boolean listenToRepository;
+        private volatile boolean listenToRepository;
         private final RepositoryStatistics repo = Lookup.getDefault().lookup(RepositoryStatistics.class);
 
         private RepositoryInfoCountTableModel() {
@@ -176,18 +174,19 @@ public final class RepositoryInfoCountPanel extends PanelExt {
             new SetCountThread().start();
         }
 
-        @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-        public void imageFileDeleted(ImageFileDeletedEvent evt) {
+        // Batch events: one count of all metadata values after a bulk operation instead of one count per file
+        @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+        public void imageFilesDeleted(ImageFilesDeletedEvent evt) {
             update();
         }
 
-        @EventSubscriber(eventClass = ImageFileInsertedEvent.class)
-        public void imageFileInserted(ImageFileInsertedEvent evt) {
+        @EventSubscriber(eventClass = ImageFilesInsertedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+        public void imageFilesInserted(ImageFilesInsertedEvent evt) {
             update();
         }
 
-        @EventSubscriber(eventClass = XmpUpdatedEvent.class)
-        public void xmpUpdated(XmpUpdatedEvent evt) {
+        @EventSubscriber(eventClass = ImageFilesXmpChangedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+        public void xmpChanged(ImageFilesXmpChangedEvent evt) {
             update();
         }
 
@@ -201,23 +200,8 @@ public final class RepositoryInfoCountPanel extends PanelExt {
             update();
         }
 
-        @EventSubscriber(eventClass = XmpDeletedEvent.class)
-        public void xmpDeleted(XmpDeletedEvent evt) {
-            update();
-        }
-
-        @EventSubscriber(eventClass = ExifInsertedEvent.class)
-        public void exifInserted(ExifInsertedEvent evt) {
-            update();
-        }
-
-        @EventSubscriber(eventClass = ExifUpdatedEvent.class)
-        public void exifUpdated(ExifUpdatedEvent evt) {
-            update();
-        }
-
-        @EventSubscriber(eventClass = ExifDeletedEvent.class)
-        public void exifDeleted(ExifDeletedEvent evt) {
+        @EventSubscriber(eventClass = ImageFilesExifChangedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+        public void exifChanged(ImageFilesExifChangedEvent evt) {
             update();
         }
 
@@ -48,6 +48,9 @@ public final class RepositoryMaintainanceDialog extends DialogExt {
         }
         panelMaintainance.getsVisible(visible);
         panelCount.listenToRepositoryChanges(visible);
+        if (visible) {
+            panelConnections.update();
+        }
         super.setVisible(visible);
     }
 
@@ -79,6 +82,7 @@ public final class RepositoryMaintainanceDialog extends DialogExt {
         panelCount = new org.jphototagger.maintainance.RepositoryInfoCountPanel();
         panelMaintainance = new org.jphototagger.maintainance.RepositoryMaintainancePanel();
         panelRepositoryUpdate = new org.jphototagger.maintainance.RepositoryUpdatePanel();
+        panelConnections = new org.jphototagger.maintainance.RepositoryConnectionsPanel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
         setTitle(Bundle.getString(getClass(), "RepositoryMaintainanceDialog.title")); // NOI18N
@@ -102,6 +106,9 @@ public final class RepositoryMaintainanceDialog extends DialogExt {
         panelRepositoryUpdate.setName("panelRepositoryUpdate"); // NOI18N
         tabbedPane.addTab(Bundle.getString(getClass(), "RepositoryMaintainanceDialog.panelRepositoryUpdate.TabConstraints.tabTitle"), panelRepositoryUpdate); // NOI18N
 
+        panelConnections.setName("panelConnections"); // NOI18N
+        tabbedPane.addTab(Bundle.getString(getClass(), "RepositoryMaintainanceDialog.panelConnections.TabConstraints.tabTitle"), panelConnections); // NOI18N
+
         gridBagConstraints = new java.awt.GridBagConstraints();
         gridBagConstraints.gridwidth = java.awt.GridBagConstraints.REMAINDER;
         gridBagConstraints.gridheight = java.awt.GridBagConstraints.REMAINDER;
@@ -118,6 +125,7 @@ public final class RepositoryMaintainanceDialog extends DialogExt {
         close();
     }
 
+    private org.jphototagger.maintainance.RepositoryConnectionsPanel panelConnections;
     private org.jphototagger.maintainance.RepositoryInfoCountPanel panelCount;
     private org.jphototagger.maintainance.RepositoryMaintainancePanel panelMaintainance;
     private org.jphototagger.maintainance.RepositoryUpdatePanel panelRepositoryUpdate;
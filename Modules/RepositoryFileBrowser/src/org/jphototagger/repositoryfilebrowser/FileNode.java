@@ -4,6 +4,8 @@ import java.io.File;
 import java.text.MessageFormat;
 import java.util.Collection;
 import java.util.Collections;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
 import org.jphototagger.lib.nodes.AbstractNode;
 
 /**
@@ -13,7 +15,10 @@ public final class FileNode extends AbstractNode {
 
     private static final MessageFormat DISPLAY_NAME_FORMAT = new MessageFormat("{0} [{1}]");
     private static final MessageFormat HTML_DISPLAY_NAME_FORMAT = new MessageFormat(createHtmlDisplayNamePattern());
+    private static final ImageIcon ICON_FILE_EXISTS = org.jphototagger.resources.Icons.getIcon("icon_file.png");
+    private static final ImageIcon ICON_FILE_NOT_EXISTS = org.jphototagger.resources.Icons.getIcon("icon_error.png");
     private final File file;
+    private volatile Boolean exists;
 
     public FileNode(File file) {
         if (file == null) {
@@ -32,6 +37,29 @@ public final class FileNode extends AbstractNode {
         return file;
     }
 
+    /**
+     * Checks whether the file exists in the file system. Call this from a background thread, accessing the file system
+     * can be slow, e.g. for files on network shares.
+     */
+    void resolveExists() {
+        exists = file.exists();
+    }
+
+    /**
+     * @return true, if the file exists or {@link #resolveExists()} was not called
+     */
+    public boolean isExists() {
+        return exists == null || exists;
+    }
+
+    /**
+     * @return icon of an existing file or of an error, if the file does not exist
+     */
+    @Override
+    public Icon getSmallIcon() {
+        return isExists() ? ICON_FILE_EXISTS : ICON_FILE_NOT_EXISTS;
+    }
+
     @Override
     public String toString() {
         return file.getAbsolutePath();
@@ -2,26 +2,27 @@ package org.jphototagger.repositoryfilebrowser;
 
 import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.io.File;
-import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.SwingWorker;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import org.jphototagger.api.applifecycle.generics.Functor;
 import org.jphototagger.api.branding.Branding;
 import org.jphototagger.api.preferences.Preferences;
 import org.jphototagger.domain.repository.ImageFilesRepository;
-import org.jphototagger.lib.lookup.NodesListModel;
 import org.jphototagger.lib.swing.DialogExt;
 import org.jphototagger.lib.swing.util.ComponentUtil;
 import org.jphototagger.lib.swing.util.MnemonicUtil;
 import org.jphototagger.lib.swingx.BusyPanel;
-import org.jphototagger.lib.swingx.ListTextFilter;
 import org.jphototagger.lib.util.Bundle;
 import org.jphototagger.resources.UiFactory;
 import org.openide.util.Lookup;
@@ -32,10 +33,13 @@ import org.openide.util.Lookup;
 public final class RepositoryFileBrowserDialog extends DialogExt {
 
     private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(RepositoryFileBrowserDialog.class.getName());
+    private static final String PROTOTYPE_FILE_PATH = File.separator + "Pictures" + File.separator + "2000"
+            + File.separator + "2000-01-01 Prototype Prototype Prototype" + File.separator + "IMG_0000.jpg";
     private RepositoryImageFileInfo imageFileInfo;
     private FileNode selectedFileNode;
-    private final NodesListModel nodesListModel = new NodesListModel();
-    private ListTextFilter listTextFilter;
+    private final transient ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+    private final RepositoryFilesListModel filesListModel = new RepositoryFilesListModel(repo);
     private final BusyPanel busyPanel = new BusyPanel(new Dimension(200, 200));
 
     public RepositoryFileBrowserDialog(java.awt.Frame parent) {
@@ -45,25 +49,39 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
     }
 
     private void postInitComponents() {
-        initFileFilter();
-        listFiles.addListSelectionListener(new FileSelectionListener());
+        initListFiles();
+        buttonApplyFilter.addActionListener(new ApplyFilterListener());
         MnemonicUtil.setMnemonics(this);
         panelContent.setGlassPane(busyPanel);
         busyPanel.setVisible(true);
     }
 
-    private void initFileFilter() {
-        listTextFilter = new ListTextFilter(listFiles);
-        listTextFilter.filterOnActionPerformed(buttonApplyFilter, textFieldFilter.getDocument());
+    // Without fixed cell sizes the list renders every row to compute it's size
+    // and thus would fetch all pages of the model. The sizes are computed like
+    // JList#setPrototypeCellValue() does, which can't be called on the raw
+    // LookupList without an unchecked call.
+    private void initListFiles() {
+        FileNode prototype = new FileNode(new File(PROTOTYPE_FILE_PATH));
+        Component prototypeCell = new FileNodeListCellRenderer().getListCellRendererComponent(listFiles, prototype, 0, false, false);
+        Dimension prototypeCellSize = prototypeCell.getPreferredSize();
+        listFiles.setFixedCellWidth(prototypeCellSize.width);
+        listFiles.setFixedCellHeight(prototypeCellSize.height);
+        listFiles.addListSelectionListener(new FileSelectionListener());
+        filesListModel.addListDataListener(new PageLoadedListener());
     }
 
     public void setSelectedFileNode(FileNode fileNode) {
-        RepositoryImageFileInfo oldImageFileInfo = this.imageFileInfo;
         FileNode oldSelectedFileNode = this.selectedFileNode;
         selectedFileNode = fileNode;
-        imageFileInfo = new RepositoryImageFileInfo(fileNode);
-        firePropertyChange("imageFileInfo", oldImageFileInfo, imageFileInfo);
         firePropertyChange("selectedFileNode", oldSelectedFileNode, selectedFileNode);
+        ImageFileInfoSwingWorker task = new ImageFileInfoSwingWorker(fileNode);
+        task.execute();
+    }
+
+    private void setImageFileInfo(RepositoryImageFileInfo imageFileInfo) {
+        RepositoryImageFileInfo oldImageFileInfo = this.imageFileInfo;
+        this.imageFileInfo = imageFileInfo;
+        firePropertyChange("imageFileInfo", oldImageFileInfo, imageFileInfo);
     }
 
     public RepositoryImageFileInfo getImageFileInfo() {
@@ -87,44 +105,97 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
         }
     }
 
-    private void insertImageFiles() {
-        LookupImageFilesSwingWorker task = new LookupImageFilesSwingWorker();
-        task.execute();
+    // The selected row's page may not have been loaded when it was selected
+    private class PageLoadedListener implements ListDataListener {
+
+        @Override
+        public void contentsChanged(ListDataEvent e) {
+            int selectedIndex = listFiles.getSelectedIndex();
+            if (selectedFileNode == null && selectedIndex >= e.getIndex0() && selectedIndex <= e.getIndex1()) {
+                setSelectedFileNode((FileNode) listFiles.getSelectedValue());
+            }
+        }
+
+        @Override
+        public void intervalAdded(ListDataEvent e) {
+            // ignore
+        }
+
+        @Override
+        public void intervalRemoved(ListDataEvent e) {
+            // ignore
+        }
     }
 
-    private class LookupImageFilesSwingWorker extends SwingWorker<Void, FileNode> {
+    private class ApplyFilterListener implements ActionListener {
 
         @Override
-        protected Void doInBackground() throws Exception {
-            ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+        public void actionPerformed(ActionEvent e) {
+            listFiles.clearSelection();
+            countImageFiles(textFieldFilter.getText().trim());
+        }
+    }
+
+    private void countImageFiles(String pathPrefix) {
+        CountImageFilesSwingWorker task = new CountImageFilesSwingWorker(pathPrefix);
+        task.execute();
+    }
 
-            repo.eachImage(new Functor<File>() {
+    private class CountImageFilesSwingWorker extends SwingWorker<Long, Void> {
 
-                @Override
-                public void execute(File file) {
-                    FileNode node = new FileNode(file);
-                    publish(node);
-                }
-            });
+        private final String pathPrefix;
 
-            return null;
+        private CountImageFilesSwingWorker(String pathPrefix) {
+            this.pathPrefix = pathPrefix;
         }
 
         @Override
-        protected void process(List<FileNode> chunks) {
-            nodesListModel.addNodes(chunks);
+        protected Long doInBackground() throws Exception {
+            return repo.getFileCountStartingWith(pathPrefix);
         }
 
         @Override
         protected void done() {
+            try {
+                long count = get();
+                filesListModel.setContent(pathPrefix, (int) Math.min(count, Integer.MAX_VALUE));
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
             panelListInfo.remove(progressBarGetFiles);
             updateFileCountLabel();
             busyPanel.setVisible(false);
         }
     }
 
+    private class ImageFileInfoSwingWorker extends SwingWorker<RepositoryImageFileInfo, Void> {
+
+        private final FileNode fileNode;
+
+        private ImageFileInfoSwingWorker(FileNode fileNode) {
+            this.fileNode = fileNode;
+        }
+
+        @Override
+        protected RepositoryImageFileInfo doInBackground() throws Exception {
+            return new RepositoryImageFileInfo(fileNode);
+        }
+
+        @Override
+        protected void done() {
+            if (fileNode != selectedFileNode) {
+                return;
+            }
+            try {
+                setImageFileInfo(get());
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        }
+    }
+
     private void updateFileCountLabel() {
-        int fileCount = nodesListModel.getSize();
+        int fileCount = filesListModel.getSize();
         labelFileCount.setText(Integer.toString(fileCount));
         ComponentUtil.forceRepaint(labelFileCount);
     }
@@ -132,7 +203,7 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
     @Override
     public void setVisible(boolean visible) {
         if (visible) {
-            insertImageFiles();
+            countImageFiles("");
         }
         super.setVisible(visible);
     }
@@ -152,7 +223,7 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
     }
 
     private static class FileNodeListCellRenderer extends DefaultListCellRenderer {
-        public static final ImageIcon ICON = org.jphototagger.resources.Icons.getIcon("icon_file.png");
+        private static final String LOADING_TEXT = "...";
         private static final long serialVersionUID = 1L;
 
         @Override
@@ -161,7 +232,10 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
             if (value instanceof FileNode) {
                 FileNode fileNode = (FileNode) value;
                 setText(fileNode.getDisplayName());
-                setIcon(ICON);
+                setIcon(fileNode.getSmallIcon());
+            } else if (value == null) {
+                setText(LOADING_TEXT);
+                setIcon(null);
             }
             return label;
         }
@@ -258,11 +332,9 @@ public final class RepositoryFileBrowserDialog extends DialogExt {
         scrollPaneFiles.setName("scrollPaneFiles"); // NOI18N
         scrollPaneFiles.setPreferredSize(UiFactory.dimension(400, 150));
 
-        listFiles.setModel(nodesListModel);
+        listFiles.setModel(filesListModel);
         listFiles.setSelectionMode(javax.swing.ListSelectionModel.SINGLE_SELECTION);
-        listFiles.setAutoCreateRowSorter(true);
         listFiles.setCellRenderer(new FileNodeListCellRenderer());
-        listFiles.setComparator(org.jphototagger.repositoryfilebrowser.FileNodeAscendingComparator.INSTANCE);
         listFiles.setName("listFiles"); // NOI18N
         scrollPaneFiles.setViewportView(listFiles);
 
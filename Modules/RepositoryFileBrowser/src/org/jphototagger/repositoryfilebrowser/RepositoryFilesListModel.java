@@ -0,0 +1,176 @@
+package org.jphototagger.repositoryfilebrowser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractListModel;
+import javax.swing.SwingWorker;
+import org.jphototagger.domain.repository.ImageFilesRepository;
+
+/**
+ * List model of the image files in the repository, which are fetched page by page when a row is requested.
+ * <p>
+ * The repository returns the pages already ordered by path, so that no client side sorting is neccessary. The files
+ * are ordered by their full paths and not by their names as the former sorted list did: Ordering by name would require
+ * to read all files before displaying the first page. Until a
+ * requested page has been loaded in the background, {@link #getElementAt(int)} returns null. Only a few pages are
+ * kept in memory, rows not displayed for a while will be fetched again.
+ * <p>
+ * All methods have to be called from the Event Dispatch Thread.
+ *
+ * @author Elmar Baumann
+ */
+final class RepositoryFilesListModel extends AbstractListModel<FileNode> {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(RepositoryFilesListModel.class.getName());
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 25;
+    private final transient ImageFilesRepository repo;
+    private final Map<Integer, List<FileNode>> pages = new LinkedHashMap<Integer, List<FileNode>>(MAX_CACHED_PAGES, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<FileNode>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private String pathPrefix = "";
+    private int size;
+    private int contentVersion;
+
+    RepositoryFilesListModel(ImageFilesRepository repo) {
+        if (repo == null) {
+            throw new NullPointerException("repo == null");
+        }
+
+        this.repo = repo;
+    }
+
+    /**
+     * Discards all loaded pages and sets new content.
+     *
+     * @param pathPrefix start of the paths of all files in this model
+     * @param size count of files starting with that prefix
+     */
+    void setContent(String pathPrefix, int size) {
+        if (pathPrefix == null) {
+            throw new NullPointerException("pathPrefix == null");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+
+        int oldSize = this.size;
+        contentVersion++;
+        pages.clear();
+        loadingPages.clear();
+        this.pathPrefix = pathPrefix;
+        this.size = 0;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        this.size = size;
+        if (size > 0) {
+            fireIntervalAdded(this, 0, size - 1);
+        }
+    }
+
+    String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param index index
+     * @return file node or null, if the page containing the index is not yet loaded
+     */
+    @Override
+    public FileNode getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+
+        int pageIndex = index / PAGE_SIZE;
+        List<FileNode> page = pages.get(pageIndex);
+
+        if (page == null) {
+            loadPage(pageIndex);
+            return null;
+        }
+
+        int indexInPage = index % PAGE_SIZE;
+
+        return indexInPage < page.size()
+                ? page.get(indexInPage)
+                : null;
+    }
+
+    private void loadPage(int pageIndex) {
+        if (loadingPages.add(pageIndex)) {
+            new PageLoader(pageIndex).execute();
+        }
+    }
+
+    private void setPage(int pageIndex, List<FileNode> page) {
+        loadingPages.remove(pageIndex);
+        pages.put(pageIndex, page);
+        int firstIndex = pageIndex * PAGE_SIZE;
+        int lastIndex = Math.min(firstIndex + PAGE_SIZE, size) - 1;
+        if (firstIndex <= lastIndex) {
+            fireContentsChanged(this, firstIndex, lastIndex);
+        }
+    }
+
+    /**
+     * Fetches a page and resolves the existence of it's files. Pages are requested only for displayed rows, so the
+     * file system will not be accessed for files never displayed.
+     */
+    private final class PageLoader extends SwingWorker<List<FileNode>, Void> {
+
+        private final int pageIndex;
+        private final int version = contentVersion;
+        private final String prefix = pathPrefix;
+
+        private PageLoader(int pageIndex) {
+            this.pageIndex = pageIndex;
+        }
+
+        @Override
+        protected List<FileNode> doInBackground() throws Exception {
+            List<File> files = repo.findImageFilesStartingWith(prefix, pageIndex * PAGE_SIZE, PAGE_SIZE);
+            List<FileNode> page = new ArrayList<>(files.size());
+            for (File file : files) {
+                FileNode node = new FileNode(file);
+                node.resolveExists();
+                page.add(node);
+            }
+            return page;
+        }
+
+        @Override
+        protected void done() {
+            if (version != contentVersion) {
+                return;
+            }
+            try {
+                setPage(pageIndex, get());
+            } catch (Throwable t) {
+                loadingPages.remove(pageIndex);
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        }
+    }
+}
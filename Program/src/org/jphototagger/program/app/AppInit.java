@@ -2,6 +2,7 @@ package org.jphototagger.program.app;
 
 import com.imagero.reader.AbstractImageReader;
 import java.awt.Toolkit;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.EventBus;
@@ -10,6 +11,7 @@ import org.jphototagger.domain.repository.DatabaseBackend;
 import org.jphototagger.domain.repository.DatabaseBackendPreference;
 import org.jphototagger.domain.repository.Repository;
 import org.jphototagger.lib.awt.EventQueueUtil;
+import org.jphototagger.lib.concurrent.InitTaskGraph;
 import org.jphototagger.lib.swing.LongMessageDialog;
 import org.jphototagger.lib.swing.MessageDisplayer;
 import org.jphototagger.lib.util.Bundle;
@@ -25,11 +27,22 @@ import org.jphototagger.program.resource.ImageProperties;
 import org.openide.util.Lookup;
 
 /**
+ * Initializes the application.
+ * <p>
+ * After locking and displaying the splash screen, independent initialization tasks are executed concurrently: The
+ * main window will be shown as soon as the repository and the image readers are initialized, while the caches are
+ * initialized in parallel. The start and duration of each task will be logged.
+ *
  * @author Elmar Baumann
  */
 public final class AppInit {
 
     public static final AppInit INSTANCE = new AppInit();
+    private static final Logger LOGGER = Logger.getLogger(AppInit.class.getName());
+    private static final String TASK_CACHES = "Caches";
+    private static final String TASK_REPOSITORY = "Repository";
+    private static final String TASK_IMAGE_READERS = "Image readers";
+    private static final String TASK_MAIN_WINDOW = "Main window";
     private AppCommandLineOptions commandLineOptions;
     private volatile boolean init;
 
@@ -55,22 +68,68 @@ public final class AppInit {
             lock();
             showSplashScreen();
             EventBus.publish(new AppWillInitEvent(this));
-            CacheUtil.initCaches();
-            SplashScreen.INSTANCE.setMessage(Bundle.getString(AppInit.class, "AppInit.Info.ConnectToRepository"));
-            initRepository();
-            SplashScreen.INSTANCE.setProgress(75);
-            AbstractImageReader.install(ImageProperties.class);
-            hideSplashScreen();
-            checkXmx();
-            showMainWindow();
+            InitTaskGraph initTasks = createInitTasks();
+            initTasks.start();
+            initTasks.await(TASK_MAIN_WINDOW);
             setJptEventQueue();
+            logInitTasks(initTasks);
         } catch (Throwable t) {
-            Logger.getLogger(AppInit.class.getName()).log(Level.SEVERE, null, t);
+            LOGGER.log(Level.SEVERE, null, t);
             showErrorMessage(t);
             AppLifeCycle.quitBeforeGuiWasCreated();
         }
     }
 
+    private InitTaskGraph createInitTasks() {
+        InitTaskGraph initTasks = new InitTaskGraph("Initializing application");
+        initTasks.add(TASK_CACHES, new Runnable() {
+
+            @Override
+            public void run() {
+                CacheUtil.initCaches();
+            }
+        });
+        initTasks.add(TASK_REPOSITORY, new Runnable() {
+
+            @Override
+            public void run() {
+                SplashScreen.INSTANCE.setMessage(Bundle.getString(AppInit.class, "AppInit.Info.ConnectToRepository"));
+                initRepository();
+                SplashScreen.INSTANCE.setProgress(75);
+            }
+        });
+        initTasks.add(TASK_IMAGE_READERS, new Runnable() {
+
+            @Override
+            public void run() {
+                AbstractImageReader.install(ImageProperties.class);
+            }
+        });
+        initTasks.add(TASK_MAIN_WINDOW, new Runnable() {
+
+            @Override
+            public void run() {
+                hideSplashScreen();
+                checkXmx();
+                showMainWindow();
+            }
+        }, TASK_REPOSITORY, TASK_IMAGE_READERS);
+        return initTasks;
+    }
+
+    // Waits for tasks not required by the main window, e.g. the caches
+    private static void logInitTasks(InitTaskGraph initTasks) throws InterruptedException {
+        Map<String, Throwable> failures = initTasks.awaitAll();
+        for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+            LOGGER.log(Level.SEVERE, "Initialization task '" + failure.getKey() + "' failed", failure.getValue());
+        }
+        StringBuilder sb = new StringBuilder("Startup timeline, total ").append(initTasks.getElapsedMillis()).append(" ms");
+        for (String task : initTasks.getTimeline()) {
+            sb.append('\n').append(task);
+        }
+        LOGGER.log(Level.INFO, sb.toString());
+    }
+
     private void initRepository() {
         DatabaseBackend backend = DatabaseBackendPreference.getPreference();
         Logger logger = Logger.getLogger(AppInit.class.getName());
@@ -9,6 +9,7 @@ import org.jphototagger.lib.util.Bundle;
 import org.jphototagger.program.app.AppCommandLineOptions;
 import org.jphototagger.program.app.AppInit;
 import org.jphototagger.program.module.thumbnails.ThumbnailsPopupMenu;
+import org.jphototagger.program.tasks.AutoBackupJptData;
 import org.jphototagger.program.tasks.ScheduledTasks;
 import org.openide.util.Lookup;
 
@@ -37,6 +38,7 @@ public final class TerminateFactory {
                 Support.setStatusbarInfo(message);
                 ThumbnailsPopupMenu.INSTANCE.setOtherPrograms();
                 ScheduledTasks.INSTANCE.run();
+                AutoBackupJptData.startIdleTimeBackups();
                 checkImportImageFiles();
                 message = Bundle.getString(TerminateFactory.class, "MiscFactory.Init.Finished");
                 Support.setStatusbarInfo(message);
@@ -2,8 +2,17 @@ package org.jphototagger.program.misc;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.jphototagger.api.concurrent.Cancelable;
 import org.jphototagger.api.concurrent.SerialTaskExecutor;
 import org.jphototagger.api.progress.ProgressEvent;
@@ -22,11 +31,17 @@ import org.openide.util.Lookup;
 /**
  * Writes {@code Xmp} objects to XMP files and inserts or updates them into the
  * repository.
+ * <p>
+ * The XMP files are written in parallel, the repository will be updated in
+ * batches of written files while the other files are written.
  *
  * @author Elmar Baumann
  */
 public final class SaveXmp extends Thread implements Cancelable {
 
+    private static final Logger LOGGER = Logger.getLogger(SaveXmp.class.getName());
+    private static final int WRITER_THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int REPOSITORY_UPDATE_BATCH_SIZE = 50;
     private static final String PROGRESSBAR_STRING = Bundle.getString(SaveXmp.class, "SaveXmp.ProgressBar.String");
     private final Collection<FileXmp> imageFilesXmp;
     private volatile boolean cancel;
@@ -59,30 +74,91 @@ public final class SaveXmp extends Thread implements Cancelable {
     @Override
     public void run() {
         int fileIndex = 0;
+        boolean interrupted = false;
+        List<File> writtenImageFiles = new ArrayList<>(REPOSITORY_UPDATE_BATCH_SIZE);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_THREAD_COUNT, writerThreadFactory);
+        CompletionService<File> writes = new ExecutorCompletionService<>(executor);
         progressHandle = Lookup.getDefault().lookup(ProgressHandleFactory.class).createProgressHandle(this);
         progressHandle.progressStarted(createProgressEvent(0));
-        // Ignore isInterrupted() because saving user input has high priority
-        for (FileXmp fileXmp : imageFilesXmp) {
+        try {
+            for (FileXmp fileXmp : imageFilesXmp) {
+                writes.submit(new WriteSidecarFile(fileXmp));
+            }
+            // Ignore isInterrupted() because saving user input has high priority
+            while (fileIndex < imageFilesXmp.size()) {
+                File writtenImageFile;
+                try {
+                    writtenImageFile = writes.take().get();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    continue;
+                } catch (ExecutionException ex) {
+                    LOGGER.log(Level.SEVERE, null, ex);
+                    writtenImageFile = null;
+                }
+                if (writtenImageFile != null) {
+                    writtenImageFiles.add(writtenImageFile);
+                    if (writtenImageFiles.size() >= REPOSITORY_UPDATE_BATCH_SIZE) {
+                        updateRepository(writtenImageFiles);
+                    }
+                }
+                fileIndex++;
+                progressHandle.progressPerformed(createProgressEvent(fileIndex));
+            }
+            updateRepository(writtenImageFiles);
+        } finally {
+            executor.shutdown();
+            progressHandle.progressEnded();
+            AppLifeCycle.INSTANCE.removeSaveObject(this);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class WriteSidecarFile implements Callable<File> {
+
+        private final FileXmp fileXmp;
+
+        private WriteSidecarFile(FileXmp fileXmp) {
+            this.fileXmp = fileXmp;
+        }
+
+        /**
+         * @return image file or null, if the sidecar file was not written
+         */
+        @Override
+        public File call() {
             if (cancel) {
-                break;
+                return null;
             }
             File imageFile = fileXmp.getFile();
             Xmp xmp = fileXmp.getXmp();
             File sidecarFile = xmpSidecarFileResolver.suggestXmpSidecarFile(imageFile);
-            if (XmpMetadata.writeXmpToSidecarFile(xmp, sidecarFile)) {
-                updateRepository(imageFile);
-            }
-            fileIndex++;
-            progressHandle.progressPerformed(createProgressEvent(fileIndex));
+            return XmpMetadata.writeXmpToSidecarFile(xmp, sidecarFile)
+                    ? imageFile
+                    : null;
         }
-        progressHandle.progressEnded();
-        AppLifeCycle.INSTANCE.removeSaveObject(this);
     }
 
-    private void updateRepository(File imageFile) {
+    private final ThreadFactory writerThreadFactory = new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "JPhotoTagger: Writing XMP sidecar files");
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private void updateRepository(List<File> imageFiles) {
+        if (imageFiles.isEmpty()) {
+            return;
+        }
         SaveToOrUpdateFilesInRepositoryImpl updater = new SaveToOrUpdateFilesInRepositoryImpl(
-                Arrays.asList(imageFile), SaveOrUpdate.XMP);
+                imageFiles, SaveOrUpdate.XMP);
         ThreadUtil.runInThisThread(updater);
+        imageFiles.clear();
     }
 
     private ProgressEvent createProgressEvent(int value) {
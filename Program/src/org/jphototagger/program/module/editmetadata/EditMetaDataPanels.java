@@ -21,8 +21,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JComponent;
@@ -46,9 +54,11 @@ import org.jphototagger.domain.metadata.xmp.Xmp;
 import org.jphototagger.domain.metadata.xmp.XmpDcSubjectsSubjectMetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpRatingMetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpSidecarFileResolver;
+import org.jphototagger.domain.repository.ImageFilesRepository;
 import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpValueRenamedEvent;
 import org.jphototagger.domain.templates.MetadataTemplate;
 import org.jphototagger.domain.text.TextEntry;
 import org.jphototagger.domain.thumbnails.event.ThumbnailsSelectionChangedEvent;
@@ -74,6 +84,9 @@ import org.openide.util.Lookup;
 final class EditMetaDataPanels implements FocusListener {
 
     private static final Logger LOGGER = Logger.getLogger(EditMetaDataPanels.class.getName());
+    private static final int FILES_PER_REPOSITORY_QUERY = 500;
+    private static final int SIDECAR_FILES_READER_THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final long CANCEL_CHECK_INTERVAL_MILLIS = 100;
     private static final String DIFFERENT_VALUES = Bundle.getString(EditMetaDataPanels.class, "EditMetadataPanels.DisableIfMultipleValues.Info.TextEntry");
     private final List<TextEntry> textEntries = new ArrayList<>();
     private final List<FileXmp> filesXmp = new CopyOnWriteArrayList<>();
@@ -223,8 +236,10 @@ final class EditMetaDataPanels implements FocusListener {
     private class SetFilesThread extends Thread implements Cancelable {
 
         private volatile boolean cancelled;
-        private final Collection<File> threadFiles;
+        private volatile ExecutorService sidecarFilesReader;
+        private final List<File> threadFiles;
         private final List<FileXmp> threadFilesXmp;
+        private final CommonXmp commonXmp = new CommonXmp();
 
         private SetFilesThread(Collection<File> files) {
             super("JPhotoTagger: Set File's XMP to Edit Panel");
@@ -239,7 +254,7 @@ final class EditMetaDataPanels implements FocusListener {
             if (!cancelled) {
                 synchronized (monitor) {
                     List<Xmp> xmps = getXmpOfFilesXmp(threadFilesXmp);
-                    setXmpToEditPanels(xmps);
+                    setXmpToEditPanels(xmps, commonXmp);
                     addXmpAsListenerToAllTextEntries(xmps);
                     filesXmp.clear();
                     filesXmp.addAll(threadFilesXmp);
@@ -255,14 +270,152 @@ final class EditMetaDataPanels implements FocusListener {
             }
         }
 
-        // Profiling detected that the reading of the XMP files is the most time consuming task
+        // Profiling detected that the reading of the XMP files is the most time consuming task, therefore the XMP
+        // of sidecar files not modified since their last import will be taken from the repository and only the other
+        // sidecar files will be read - in parallel. The common values are computed while the XMP arrives.
         private void setFilesXmp() {
-            for (File file : threadFiles) {
-                if (cancelled) {
-                    return;
+            long startMillis = System.currentTimeMillis();
+            FileXmp[] filesXmpOfThread = new FileXmp[threadFiles.size()];
+            CompletionService<Integer> sidecarFilesRead = null;
+            int pendingSidecarFileCount = 0;
+            int readSidecarFileCount = 0;
+            ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+            try {
+                for (int startIndex = 0; startIndex < threadFiles.size(); startIndex += FILES_PER_REPOSITORY_QUERY) {
+                    if (cancelled) {
+                        return;
+                    }
+                    int endIndex = Math.min(startIndex + FILES_PER_REPOSITORY_QUERY, threadFiles.size());
+                    List<Integer> indicesOfModifiedSidecarFiles = new ArrayList<>();
+                    Map<File, Integer> indicesOfUnmodifiedSidecarFiles = new HashMap<>();
+                    Map<File, Long> repoTimestamps = repo.findXmpFilesLastModifiedTimestamps(threadFiles.subList(startIndex, endIndex));
+                    for (int index = startIndex; index < endIndex; index++) {
+                        File file = threadFiles.get(index);
+                        File sidecarFile = xmpSidecarFileResolver.getXmpSidecarFileOrNullIfNotExists(file);
+                        Long repoTimestamp = repoTimestamps.get(file);
+                        if (sidecarFile == null) {
+                            setFileXmp(filesXmpOfThread, index, new FileXmp(file, new Xmp()));
+                        } else if (repoTimestamp != null && repoTimestamp == sidecarFile.lastModified()) {
+                            indicesOfUnmodifiedSidecarFiles.put(file, index);
+                        } else {
+                            indicesOfModifiedSidecarFiles.add(index);
+                        }
+                    }
+                    if (!indicesOfUnmodifiedSidecarFiles.isEmpty()) {
+                        for (FileXmp fileXmp : repo.findXmpOfImageFiles(indicesOfUnmodifiedSidecarFiles.keySet())) {
+                            Integer index = indicesOfUnmodifiedSidecarFiles.remove(fileXmp.getFile());
+                            if (index != null) {
+                                setFileXmp(filesXmpOfThread, index, fileXmp);
+                            }
+                        }
+                        indicesOfModifiedSidecarFiles.addAll(indicesOfUnmodifiedSidecarFiles.values()); // Not found in the repository
+                    }
+                    if (!indicesOfModifiedSidecarFiles.isEmpty() && sidecarFilesRead == null) {
+                        sidecarFilesRead = new ExecutorCompletionService<>(createSidecarFilesReader());
+                    }
+                    for (Integer index : indicesOfModifiedSidecarFiles) {
+                        sidecarFilesRead.submit(new ReadSidecarFile(index, filesXmpOfThread));
+                        pendingSidecarFileCount++;
+                    }
+                    for (Future<Integer> read = poll(sidecarFilesRead); read != null; read = poll(sidecarFilesRead)) {
+                        addReadSidecarFile(filesXmpOfThread, read);
+                        pendingSidecarFileCount--;
+                        readSidecarFileCount++;
+                    }
                 }
+                while (pendingSidecarFileCount > 0) {
+                    if (cancelled) { // Cancelling removes not started reads, the count will not be decremented to 0
+                        return;
+                    }
+                    Future<Integer> read = sidecarFilesRead.poll(CANCEL_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (read != null) {
+                        addReadSidecarFile(filesXmpOfThread, read);
+                        pendingSidecarFileCount--;
+                        readSidecarFileCount++;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+                return;
+            } finally {
+                ExecutorService reader = sidecarFilesReader;
+                if (reader != null) {
+                    reader.shutdownNow();
+                }
+            }
+            for (int index = 0; index < filesXmpOfThread.length; index++) {
+                FileXmp fileXmp = filesXmpOfThread[index];
+                threadFilesXmp.add(fileXmp == null // Duplicate file
+                        ? new FileXmp(threadFiles.get(index), new Xmp())
+                        : fileXmp);
+            }
+            LOGGER.log(Level.FINE, "XMP of {0} files set to edit panel after {1} milliseconds, {2} sidecar files read",
+                    new Object[]{filesXmpOfThread.length, System.currentTimeMillis() - startMillis, readSidecarFileCount});
+        }
+
+        private void setFileXmp(FileXmp[] filesXmpOfThread, int index, FileXmp fileXmp) {
+            filesXmpOfThread[index] = fileXmp;
+            commonXmp.add(fileXmp.getXmp());
+        }
+
+        private void addReadSidecarFile(FileXmp[] filesXmpOfThread, Future<Integer> read) throws InterruptedException {
+            try {
+                int index = read.get();
+                commonXmp.add(filesXmpOfThread[index].getXmp());
+            } catch (ExecutionException ex) {
+                LOGGER.log(Level.SEVERE, null, ex);
+            }
+        }
+
+        private Future<Integer> poll(CompletionService<Integer> completionService) {
+            return completionService == null
+                    ? null
+                    : completionService.poll();
+        }
+
+        private ExecutorService createSidecarFilesReader() {
+            ExecutorService reader = Executors.newFixedThreadPool(SIDECAR_FILES_READER_THREAD_COUNT, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "JPhotoTagger: Reading XMP sidecar files for the edit panel");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            sidecarFilesReader = reader;
+            if (cancelled) {
+                reader.shutdownNow();
+            }
+            return reader;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            ExecutorService reader = sidecarFilesReader;
+            if (reader != null) {
+                reader.shutdownNow();
+            }
+            LOGGER.log(Level.INFO, "Cancelled setting XMP to edit panel from that files: {0}", threadFiles);
+        }
+
+        private final class ReadSidecarFile implements Callable<Integer> {
+
+            private final int index;
+            private final FileXmp[] filesXmpOfThread;
+
+            private ReadSidecarFile(int index, FileXmp[] filesXmpOfThread) {
+                this.index = index;
+                this.filesXmpOfThread = filesXmpOfThread;
+            }
+
+            @Override
+            public Integer call() {
+                File file = threadFiles.get(index);
                 Xmp xmp = null;
-                if (xmpSidecarFileResolver.hasXmpSidecarFile(file)) {
+                if (!cancelled) {
                     try {
                         xmp = XmpMetadata.getXmpFromSidecarFileOf(file);
                     } catch (Throwable t) {
@@ -272,24 +425,24 @@ final class EditMetaDataPanels implements FocusListener {
                 if (xmp == null) {
                     xmp = new Xmp();
                 }
-                FileXmp fileXmp = new FileXmp(file, xmp);
-                threadFilesXmp.add(fileXmp);
+                filesXmpOfThread[index] = new FileXmp(file, xmp);
+                return index;
             }
         }
+    }
 
-        @Override
-        public void cancel() {
-            cancelled = true;
-            LOGGER.log(Level.INFO, "Cancelled setting XMP to edit panel from that files: {0}", threadFiles);
+    private void setXmpToEditPanels(List<? extends Xmp> xmps) {
+        CommonXmp commonXmp = new CommonXmp();
+        for (Xmp xmp : xmps) {
+            commonXmp.add(xmp);
         }
+        setXmpToEditPanels(xmps, commonXmp);
     }
 
-    private void setXmpToEditPanels(final List<? extends Xmp> xmps) {
+    private void setXmpToEditPanels(final List<? extends Xmp> xmps, final CommonXmp commonXmp) {
         if (xmps.isEmpty()) {
             return;
         }
-        final Map<MetaDataValue, Collection<String>> commonXmpOfRepeatableMetaDataValues = getCommonXmpOfRepeatableMetaDataValues(xmps);
-        final Map<MetaDataValue, String> commonXmpOfNotRepeatableMetaDataValues = getCommonXmpOfNotRepeatableMetaDataValues(xmps);
 
         EventQueueUtil.invokeInDispatchThread(new Runnable() {
 
@@ -301,12 +454,12 @@ final class EditMetaDataPanels implements FocusListener {
                     MetaDataValue metaDataValue = textEntry.getMetaDataValue();
                     if (textEntry instanceof EditRepeatableTextEntryPanel) {
                         EditRepeatableTextEntryPanel panel = (EditRepeatableTextEntryPanel) textEntry;
-                        Collection<String> commonXmp = commonXmpOfRepeatableMetaDataValues.get(metaDataValue);
-                        panel.setTexts(commonXmp);
+                        Collection<String> commonXmpValues = commonXmp.getRepeatableValues(metaDataValue);
+                        panel.setTexts(commonXmpValues);
                     } else {
-                        String commonText = commonXmpOfNotRepeatableMetaDataValues.get(metaDataValue);
+                        String commonText = commonXmp.getNotRepeatableValue(metaDataValue);
                         textEntry.setText(commonText);
-                        if (containsMultipleFilesForEdit && commonText.isEmpty() && oneOfXmpsContainsMetaDataValue(xmps, metaDataValue)) {
+                        if (containsMultipleFilesForEdit && commonText.isEmpty() && commonXmp.isContainedInOneXmp(metaDataValue)) {
                             textEntriesWithDifferentValues.add(textEntry);
                         }
                     }
@@ -320,93 +473,78 @@ final class EditMetaDataPanels implements FocusListener {
         });
     }
 
-    private Map<MetaDataValue, Collection<String>> getCommonXmpOfRepeatableMetaDataValues(List<? extends Xmp> xmps) {
-        Map<MetaDataValue, Collection<String>> commonXmp = new HashMap<>();
-        for (MetaDataValue metaDataValue : repeatableMetaDataValuesOfTextEntries) {
-            Collection<String> commonXmpAsStrings = getCommonXmpValuesAsStrings(xmps, metaDataValue);
-            commonXmp.put(metaDataValue, commonXmpAsStrings);
-        }
-        return commonXmp;
-    }
+    /**
+     * Values of the text entries common to all added XMP, computed incrementally for each added XMP.
+     */
+    private final class CommonXmp {
 
-    private Map<MetaDataValue, String> getCommonXmpOfNotRepeatableMetaDataValues(List<? extends Xmp> xmps) {
-        Map<MetaDataValue, String> commonXmp = new HashMap<>();
-        for (MetaDataValue metaDataValue : notRepeatableMetaDataValuesOfTextEntries) {
-            String commonXmpAsString = getCommonXmpString(xmps, metaDataValue);
-            commonXmp.put(metaDataValue, commonXmpAsString);
-        }
-        return commonXmp;
-    }
+        private final Map<MetaDataValue, List<String>> commonRepeatableValues = new HashMap<>();
+        private final Map<MetaDataValue, String> commonNotRepeatableValues = new HashMap<>();
+        private final Set<MetaDataValue> metaDataValuesContainedInOneXmp = new HashSet<>();
+        private int xmpCount;
 
-    @SuppressWarnings("unchecked")
-    private Collection<String> getCommonXmpValuesAsStrings(List<? extends Xmp> xmps, MetaDataValue metaDataValue) {
-        if (xmps.size() == 1) {
-            Xmp xmp = xmps.get(0);
-            Object currentXmpValue = xmp.getValue(metaDataValue);
-            if (currentXmpValue instanceof List<?>) {
-                return (List<String>) currentXmpValue;
-            } else {
-                return new ArrayList<>(1);
+        private void add(Xmp xmp) {
+            for (MetaDataValue metaDataValue : repeatableMetaDataValuesOfTextEntries) {
+                addRepeatableValue(xmp, metaDataValue);
             }
+            for (MetaDataValue metaDataValue : notRepeatableMetaDataValuesOfTextEntries) {
+                addNotRepeatableValue(xmp, metaDataValue);
+            }
+            xmpCount++;
         }
-        // more then 1 file
-        Stack<List<String>> lists = new Stack<>();
-        for (Xmp xmp : xmps) {
+
+        @SuppressWarnings("unchecked")
+        private void addRepeatableValue(Xmp xmp, MetaDataValue metaDataValue) {
             Object xmpValue = xmp.getValue(metaDataValue);
-            if (xmpValue instanceof List<?>) {
-                lists.push((List<String>) xmpValue);
+            List<String> values = xmpValue instanceof List<?>
+                    ? (List<String>) xmpValue
+                    : Collections.<String>emptyList();
+            if (xmpCount == 0) {
+                commonRepeatableValues.put(metaDataValue, new ArrayList<>(values));
+            } else {
+                List<String> commonValues = commonRepeatableValues.get(metaDataValue);
+                if (!commonValues.isEmpty()) {
+                    commonValues.retainAll(new HashSet<>(values));
+                }
             }
         }
-        if (lists.size() != xmps.size()) {
-            // 1 ore more files without metadata
-            return new ArrayList<>(1);
-        }
-        List<String> coll = lists.pop();
-        while (!lists.isEmpty() && (coll.size() > 0)) {
-            coll.retainAll(lists.pop());
-        }
-        return coll;
-    }
 
-    private String getCommonXmpString(List<? extends Xmp> xmps, MetaDataValue metaDataValue) {
-        if (xmps.size() == 1) {
-            Xmp xmp = xmps.get(0);
-            Object currentXmpValue = xmp.getValue(metaDataValue);
-            String currentXmpValueAsString = valueToString(currentXmpValue);
-            return (currentXmpValueAsString == null)
-                    ? ""
-                    : currentXmpValueAsString.trim();
-        }
-        // more then 1 file
-        Stack<String> strings = new Stack<>();
-        for (Xmp xmp : xmps) {
-            Object xmpValue = xmp.getValue(metaDataValue);
-            String xmpValueAsString = valueToString(xmpValue);
-            if (xmpValueAsString != null) {
-                strings.push(xmpValueAsString.trim());
+        // null: Different values or a XMP without a value
+        private void addNotRepeatableValue(Xmp xmp, MetaDataValue metaDataValue) {
+            String xmpValueAsString = valueToString(xmp.getValue(metaDataValue));
+            if (StringUtil.hasContent(xmpValueAsString)) {
+                metaDataValuesContainedInOneXmp.add(metaDataValue);
+            }
+            String value = xmpValueAsString == null
+                    ? null
+                    : xmpValueAsString.trim();
+            if (xmpCount == 0) {
+                commonNotRepeatableValues.put(metaDataValue, value);
+            } else {
+                String commonValue = commonNotRepeatableValues.get(metaDataValue);
+                if (commonValue != null && (value == null || !commonValue.equalsIgnoreCase(value))) {
+                    commonNotRepeatableValues.put(metaDataValue, null);
+                }
             }
         }
-        if (strings.size() != xmps.size()) {
-            return "";
+
+        private Collection<String> getRepeatableValues(MetaDataValue metaDataValue) {
+            List<String> commonValues = commonRepeatableValues.get(metaDataValue);
+            return commonValues == null
+                    ? new ArrayList<String>(1)
+                    : commonValues;
         }
-        String string = strings.pop();
-        while (!strings.empty()) {
-            if (!strings.pop().equalsIgnoreCase(string)) {
-                return "";
-            }
+
+        private String getNotRepeatableValue(MetaDataValue metaDataValue) {
+            String commonValue = commonNotRepeatableValues.get(metaDataValue);
+            return commonValue == null
+                    ? ""
+                    : commonValue;
         }
-        return string;
-    }
 
-    private boolean oneOfXmpsContainsMetaDataValue(Collection<? extends Xmp> xmps, MetaDataValue metaDataValue) {
-        for (Xmp xmp : xmps) {
-            Object xmpValue = xmp.getValue(metaDataValue);
-            String xmpValueAsString = valueToString(xmpValue);
-            if (StringUtil.hasContent(xmpValueAsString)) {
-                return true;
-            }
+        private boolean isContainedInOneXmp(MetaDataValue metaDataValue) {
+            return metaDataValuesContainedInOneXmp.contains(metaDataValue);
         }
-        return false;
     }
 
     private String valueToString(Object value) {
@@ -990,6 +1128,32 @@ final class EditMetaDataPanels implements FocusListener {
         insertValuesOfExternalUpdatedXmp(evt.getImageFile(), evt.getXmp());
     }
 
+    // Renaming the value within the XMP in edit, else saving would write back the old value
+    @EventSubscriber(eventClass = XmpValueRenamedEvent.class)
+    public void xmpValueRenamed(XmpValueRenamedEvent evt) {
+        MetaDataValue mdValue = evt.getMetaDataValue();
+        String fromValue = evt.getFromValue();
+        String toValue = evt.getToValue();
+        synchronized (monitor) {
+            boolean renamed = false;
+            for (FileXmp fileXmp : filesXmp) {
+                Xmp xmp = fileXmp.getXmp();
+                Object value = xmp.getValue(mdValue);
+                if (value != null && value.toString().trim().equalsIgnoreCase(fromValue)) {
+                    if (toValue.isEmpty()) {
+                        xmp.removeValue(mdValue, value);
+                    } else {
+                        xmp.setValue(mdValue, toValue);
+                    }
+                    renamed = true;
+                }
+            }
+            if (renamed && !isDirty()) {
+                setXmpToEditPanels(getXmpOfFilesXmp(filesXmp));
+            }
+        }
+    }
+
     private void insertValuesOfExternalUpdatedXmp(final File file, final Xmp xmp) {
         synchronized (monitor) {
             if (!isAsSingleFileInEdit(file) || isDirty()) {
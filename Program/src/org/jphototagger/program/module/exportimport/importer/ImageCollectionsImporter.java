@@ -1,7 +1,12 @@
 package org.jphototagger.program.module.exportimport.importer;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
@@ -81,17 +86,42 @@ public final class ImageCollectionsImporter implements RepositoryDataImporter {
         @Override
         public void run() {
             ImageCollectionsRepository repo = Lookup.getDefault().lookup(ImageCollectionsRepository.class);
+            List<ImageCollection> newImageCollections = getNewImageCollections(repo);
+
+            if (newImageCollections.isEmpty()) {
+                return;
+            }
+
+            insertIntoDbMissingFiles(getImageFiles(newImageCollections));
+            repo.saveNewImageCollections(newImageCollections);
+        }
+
+        private List<ImageCollection> getNewImageCollections(ImageCollectionsRepository repo) {
+            Set<String> existingNames = new HashSet<>(repo.findAllImageCollectionNames());
+            List<ImageCollection> newImageCollections = new ArrayList<>(imageCollections.size());
 
             for (ImageCollection imageCollection : imageCollections) {
-                if (!repo.existsImageCollection(imageCollection.getName())) {
-                    insertIntoDbMissingFiles(imageCollection);
-                    repo.saveImageCollection(imageCollection);
+                if (existingNames.add(imageCollection.getName())) {
+                    newImageCollections.add(imageCollection);
                 }
             }
+
+            return newImageCollections;
+        }
+
+        // Files contained in more than one collection will be processed only once
+        private Collection<File> getImageFiles(Collection<ImageCollection> imageCollections) {
+            Set<File> imageFiles = new LinkedHashSet<>();
+
+            for (ImageCollection imageCollection : imageCollections) {
+                imageFiles.addAll(imageCollection.getFiles());
+            }
+
+            return imageFiles;
         }
 
-        private void insertIntoDbMissingFiles(ImageCollection imageCollection) {
-            SaveToOrUpdateFilesInRepositoryImpl inserter = new SaveToOrUpdateFilesInRepositoryImpl(imageCollection.getFiles(),
+        private void insertIntoDbMissingFiles(Collection<File> imageFiles) {
+            SaveToOrUpdateFilesInRepositoryImpl inserter = new SaveToOrUpdateFilesInRepositoryImpl(imageFiles,
                     SaveOrUpdate.OUT_OF_DATE);
             inserter.addProgressListener(new ProgressBarUpdater(inserter,
                     Bundle.getString(ImportThread.class, "ImageCollectionsImporter.ProgressBar.String")));
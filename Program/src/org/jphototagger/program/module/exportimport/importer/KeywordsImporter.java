@@ -2,6 +2,7 @@ package org.jphototagger.program.module.exportimport.importer;
 
 import java.awt.EventQueue;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import javax.swing.JTree;
@@ -16,8 +17,9 @@ import org.jphototagger.api.progress.ProgressHandle;
 import org.jphototagger.api.progress.ProgressHandleFactory;
 import org.jphototagger.api.windows.MainWindowManager;
 import org.jphototagger.domain.DomainPreferencesKeys;
+import org.jphototagger.domain.metadata.keywords.Keyword;
+import org.jphototagger.domain.repository.KeywordsRepository;
 import org.jphototagger.lib.util.Bundle;
-import org.jphototagger.lib.util.StringUtil;
 import org.jphototagger.program.factory.ModelFactory;
 import org.jphototagger.program.module.keywords.tree.KeywordsTreeModel;
 import org.jphototagger.program.resource.GUI;
@@ -72,6 +74,7 @@ public abstract class KeywordsImporter {
 
     private static class ImporterImpl implements Cancelable {
 
+        private static final int PATHS_PER_TRANSACTION = 1000;
         private final Collection<List<KeywordString>> paths;
         private final TreeModel treeModel = ModelFactory.INSTANCE.getModel(KeywordsTreeModel.class);
         private volatile boolean cancel;
@@ -93,35 +96,23 @@ public abstract class KeywordsImporter {
                 boolean autocompletePersisted = isAutocompletePersisted();
                 boolean autoComplete = getPersistedAutocomplete();
                 persistAutoComplete(false); // If auto complete is enabled, it takes a huge amount of time to insert sorted keywords
-                KeywordsTreeModel modelForRepoInsert = new KeywordsTreeModel(); // Copy avoids redrawing the UI (speeds up importing)
-                modelForRepoInsert.setSortEnabled(false);
-                modelForRepoInsert.setInsertDcSubjects(false);
+                KeywordsRepository repo = Lookup.getDefault().lookup(KeywordsRepository.class);
                 progressHandle = Lookup.getDefault().lookup(ProgressHandleFactory.class).createProgressHandle(this);
                 progressHandle.progressStarted(createProgressEventWithValue(0));
                 int progressValue = 0;
                 int importCount = 0;
+                List<List<Keyword>> keywordPaths = new ArrayList<>(Math.min(paths.size(), PATHS_PER_TRANSACTION));
                 for (List<KeywordString> path : paths) {
                     if (cancel) {
                         break;
                     }
-                    DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) modelForRepoInsert.getRoot();
-                    DefaultMutableTreeNode parentNode = rootNode;
-                    for (KeywordString keyword : path) {
-                        String keywordString = keyword.getKeyword();
-                        DefaultMutableTreeNode childNode = modelForRepoInsert.findChildByName(parentNode, keywordString);
-                        if (childNode == null) {
-                            boolean isRootNode = importCount == 0 && !StringUtil.hasContent(keywordString);
-                            if (!isRootNode) {
-                                modelForRepoInsert.insert(parentNode, keywordString, keyword.isReal(), false);
-                                importCount++;
-                            }
-                            parentNode = modelForRepoInsert.findChildByName(parentNode, keywordString);
-                        } else {
-                            parentNode = childNode;
-                        }
-                    }
+                    keywordPaths.add(toKeywordPath(path));
                     progressValue++;
-                    progressHandle.progressPerformed(createProgressEventWithValue(progressValue));
+                    if (keywordPaths.size() == PATHS_PER_TRANSACTION || progressValue == paths.size()) {
+                        importCount += repo.saveKeywordPaths(keywordPaths);
+                        keywordPaths.clear();
+                        progressHandle.progressPerformed(createProgressEventWithValue(progressValue));
+                    }
                 }
                 if (importCount > 0) {
                     recreateTreeInEdt();
@@ -137,6 +128,14 @@ public abstract class KeywordsImporter {
             }
         }
 
+        private List<Keyword> toKeywordPath(List<KeywordString> path) {
+            List<Keyword> keywordPath = new ArrayList<>(path.size());
+            for (KeywordString keyword : path) {
+                keywordPath.add(new Keyword(null, null, keyword.getKeyword(), keyword.isReal()));
+            }
+            return keywordPath;
+        }
+
         private void recreateTreeInEdt() {
             EventQueue.invokeLater(new Runnable() {
                 @Override
@@ -7,7 +7,6 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Stack;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
@@ -60,76 +59,45 @@ public final class KeywordsImporterJpt extends KeywordsImporter implements Repos
 
     private List<List<KeywordString>> getPaths(Node rootNode) {
         List<List<KeywordString>> paths = new ArrayList<>();
-        List<Node> leafs = getAllLeafs(rootNode);
-        List<Stack<Node>> pathStacks = new ArrayList<>();
 
-        for (Node leaf : leafs) {
-            Stack<Node> stack = new Stack<>();
-
-            stack.push(leaf);
-            pushParents(stack, leaf);
-            pathStacks.add(stack);
-        }
-
-        for (Stack<Node> stack : pathStacks) {
-            List<KeywordString> path = new ArrayList<>(stack.size());
-
-            while (!stack.isEmpty()) {
-                path.add(getKeyword(stack.pop()));
-            }
-
-            paths.add(path);
-        }
+        addPaths(paths, new ArrayList<KeywordString>(), rootNode.getChildNodes());
 
         return paths;
     }
 
-    private KeywordString getKeyword(Node node) {
-        NamedNodeMap attr = node.getAttributes();
-        String name = attr.getNamedItem(KeywordsExporterJpt.ATTRIBUTE_NAME).getNodeValue();
-        Boolean real = attr.getNamedItem(KeywordsExporterJpt.ATTRIBUTE_TYPE).getNodeValue().equals(KeywordsExporterJpt.VALUE_OF_ATTRIBUTE_TYPE.get(true));
+    /**
+     * Walks depth first through the keyword nodes and adds for every leaf it's
+     * path - the keywords from the root to the leaf.
+     */
+    private void addPaths(List<List<KeywordString>> paths, List<KeywordString> parentPath, NodeList nodes) {
+        int length = nodes.getLength();
 
-        return new KeywordString(name, real);
-    }
+        for (int i = 0; i < length; i++) {
+            Node node = nodes.item(i);
 
-    private void pushParents(Stack<Node> nodes, Node node) {
-        Node parent = node.getParentNode();
+            if (node.getNodeName().equals(KeywordsExporterJpt.TAGNAME_KEYWORD)) {
+                List<KeywordString> path = new ArrayList<>(parentPath.size() + 1);
 
-        if ((parent != null) && !parent.getNodeName().equals(KeywordsExporterJpt.TAGNAME_ROOT)) {
-            nodes.push(parent);
-            pushParents(nodes, parent);    // recursive
-        }
-    }
+                path.addAll(parentPath);
+                path.add(getKeyword(node));
 
-    private List<Node> getAllLeafs(Node rootNode) {
-        List<Node> leafs = new ArrayList<>();
-        NodeList nl = rootNode.getChildNodes();
-        int length = nl.getLength();
+                NodeList children = node.getChildNodes();
 
-        for (int i = 0; i < length; i++) {
-            addLeaf(leafs, nl.item(i));
+                if (children.getLength() <= 0) {
+                    paths.add(path);
+                } else {
+                    addPaths(paths, path, children);    // recursive
+                }
+            }
         }
-
-        return leafs;
     }
 
-    private void addLeaf(Collection<Node> leafs, Node node) {
-        if (!node.getNodeName().equals(KeywordsExporterJpt.TAGNAME_KEYWORD)) {
-            return;
-        }
-
-        NodeList nl = node.getChildNodes();
-        int length = nl.getLength();
-
-        if (length <= 0) {
-            leafs.add(node);
-
-            return;
-        }
+    private KeywordString getKeyword(Node node) {
+        NamedNodeMap attr = node.getAttributes();
+        String name = attr.getNamedItem(KeywordsExporterJpt.ATTRIBUTE_NAME).getNodeValue();
+        Boolean real = attr.getNamedItem(KeywordsExporterJpt.ATTRIBUTE_TYPE).getNodeValue().equals(KeywordsExporterJpt.VALUE_OF_ATTRIBUTE_TYPE.get(true));
 
-        for (int i = 0; i < length; i++) {
-            addLeaf(leafs, nl.item(i));    // recursive
-        }
+        return new KeywordString(name, real);
     }
 
     @Override
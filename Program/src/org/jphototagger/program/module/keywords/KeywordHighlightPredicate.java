@@ -2,41 +2,30 @@ package org.jphototagger.program.module.keywords;
 
 import java.awt.Color;
 import java.awt.Component;
-import java.io.File;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import org.bushe.swing.event.annotation.AnnotationProcessor;
-import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jdesktop.swingx.decorator.ColorHighlighter;
 import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.HighlightPredicate;
 import org.jdesktop.swingx.decorator.Highlighter;
-import org.jphototagger.domain.repository.ImageFilesRepository;
-import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
-import org.jphototagger.domain.thumbnails.event.ThumbnailsSelectionChangedEvent;
 import org.jphototagger.program.app.ui.AppLookAndFeel;
 import org.jphototagger.program.module.keywords.list.KeywordsListCellRenderer;
 import org.jphototagger.program.resource.GUI;
-import org.openide.util.Lookup;
 
 /**
  * @author Elmar Baumann
  */
-public final class KeywordHighlightPredicate implements HighlightPredicate {
+public final class KeywordHighlightPredicate implements HighlightPredicate, KeywordsOfSelectedImages.Listener {
 
     private static final Highlighter HIGHLIGHTER = createHighlighter();
-    private final ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
     private final Set<String> keywordsOfSelectedImages = new HashSet<>();
-    private final List<File> selectedFiles = new ArrayList<>();
 
     public KeywordHighlightPredicate() {
         listen();
     }
 
     private void listen() {
-        AnnotationProcessor.process(this);
+        KeywordsOfSelectedImages.INSTANCE.addListener(this);
     }
 
     private static Highlighter createHighlighter() {
@@ -80,23 +69,10 @@ public final class KeywordHighlightPredicate implements HighlightPredicate {
         return false;
     }
 
-    @EventSubscriber(eventClass = ThumbnailsSelectionChangedEvent.class)
-    public void thumbnailsSelectionChanged(final ThumbnailsSelectionChangedEvent evt) {
-        selectedFiles.clear();
-        selectedFiles.addAll(evt.getSelectedFiles());
-        setKeywords();
-        }
-
-    @EventSubscriber(eventClass = XmpUpdatedEvent.class)
-    public void xmpUpdated(XmpUpdatedEvent evt) {
-        setKeywords();
-    }
-
-    private void setKeywords() {
+    @Override
+    public void keywordsOfSelectedImagesChanged(Set<String> keywords) {
         keywordsOfSelectedImages.clear();
-        for (File file : selectedFiles) {
-            keywordsOfSelectedImages.addAll(repo.findDcSubjectsOfImageFile(file));
-        }
+        keywordsOfSelectedImages.addAll(keywords);
         repaintLists();
     }
 
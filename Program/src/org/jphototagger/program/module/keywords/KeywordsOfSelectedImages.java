@@ -0,0 +1,160 @@
+package org.jphototagger.program.module.keywords;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.Timer;
+import org.bushe.swing.event.annotation.AnnotationProcessor;
+import org.bushe.swing.event.annotation.EventSubscriber;
+import org.jphototagger.api.concurrent.Cancelable;
+import org.jphototagger.domain.repository.ImageFilesRepository;
+import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.thumbnails.event.ThumbnailsSelectionChangedEvent;
+import org.jphototagger.lib.awt.EventQueueUtil;
+import org.jphototagger.program.tasks.ReplaceableThread;
+import org.openide.util.Lookup;
+
+/**
+ * Keywords of the image files selected in the thumbnails panel.
+ * <p>
+ * Selection changes and XMP updates of selected image files are debounced. The keywords will be read in a background
+ * thread with one repository query per chunk of image files. Changing the selection again cancels the reading.
+ *
+ * @author Elmar Baumann
+ */
+public final class KeywordsOfSelectedImages {
+
+    public static final KeywordsOfSelectedImages INSTANCE = new KeywordsOfSelectedImages();
+    private static final int DEBOUNCE_MILLIS = 150;
+    private static final int FILES_PER_QUERY = 1000;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ReplaceableThread readKeywordsThread = new ReplaceableThread();
+    private final Timer debounceTimer;
+    private List<File> selectedFiles = Collections.emptyList();
+    private Set<File> selectedFilesSet = Collections.emptySet();
+    private Set<String> keywords = Collections.emptySet();
+
+    /**
+     * Notified in the Event Dispatch Thread.
+     */
+    public interface Listener {
+
+        void keywordsOfSelectedImagesChanged(Set<String> keywords);
+    }
+
+    private KeywordsOfSelectedImages() {
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, new ActionListener() {
+
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                readKeywordsThread.setTask(new ReadKeywords(selectedFiles));
+            }
+        });
+        debounceTimer.setRepeats(false);
+        AnnotationProcessor.process(this);
+    }
+
+    public void addListener(Listener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener == null");
+        }
+
+        listeners.add(listener);
+    }
+
+    /**
+     * Has to be called in the Event Dispatch Thread.
+     *
+     * @return keywords, unmodifiable
+     */
+    public Set<String> getKeywords() {
+        return keywords;
+    }
+
+    @EventSubscriber(eventClass = ThumbnailsSelectionChangedEvent.class)
+    public void thumbnailsSelectionChanged(final ThumbnailsSelectionChangedEvent evt) {
+        final List<File> files = new ArrayList<>(evt.getSelectedFiles());
+
+        EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+            @Override
+            public void run() {
+                selectedFiles = files;
+                selectedFilesSet = new HashSet<>(files);
+                readKeywordsThread.cancelCurrentThread();
+                setKeywords(Collections.<String>emptySet());
+                if (files.isEmpty()) {
+                    debounceTimer.stop();
+                } else {
+                    debounceTimer.restart();
+                }
+            }
+        });
+    }
+
+    @EventSubscriber(eventClass = XmpUpdatedEvent.class)
+    public void xmpUpdated(final XmpUpdatedEvent evt) {
+        EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+            @Override
+            public void run() {
+                if (selectedFilesSet.contains(evt.getImageFile())) {
+                    debounceTimer.restart();
+                }
+            }
+        });
+    }
+
+    private void setKeywords(Set<String> keywords) {
+        if (this.keywords.isEmpty() && keywords.isEmpty()) {
+            return;
+        }
+        this.keywords = Collections.unmodifiableSet(keywords);
+        for (Listener listener : listeners) {
+            listener.keywordsOfSelectedImagesChanged(this.keywords);
+        }
+    }
+
+    private final class ReadKeywords implements Runnable, Cancelable {
+
+        private final List<File> files;
+        private volatile boolean cancel;
+
+        private ReadKeywords(List<File> files) {
+            this.files = files;
+        }
+
+        @Override
+        public void run() {
+            ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+            final Set<String> keywordsOfFiles = new HashSet<>();
+            for (int index = 0; index < files.size(); index += FILES_PER_QUERY) {
+                if (cancel) {
+                    return;
+                }
+                List<File> chunk = files.subList(index, Math.min(index + FILES_PER_QUERY, files.size()));
+                keywordsOfFiles.addAll(repo.findDcSubjectsOfImageFiles(chunk));
+            }
+            EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (!cancel) {
+                        setKeywords(keywordsOfFiles);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void cancel() {
+            cancel = true;
+        }
+    }
+}
@@ -3,10 +3,15 @@ package org.jphototagger.program.module.keywords.list;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Enumeration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
-import javax.swing.DefaultListModel;
+import java.util.TreeSet;
+import javax.swing.AbstractListModel;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.domain.metadata.xmp.Xmp;
@@ -23,11 +28,32 @@ import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
 import org.openide.util.Lookup;
 
 /**
+ * Keywords sorted case insensitive.
+ * <p>
+ * Whether a keyword is contained will be looked up in a hash index. Keywords of an event will be inserted into or
+ * removed from the sorted keywords at once, listeners will be notified once per range of adjacent keywords. The
+ * repository will be asked once per event whether keywords still exist.
+ *
  * @author Elmar Baumann
  */
-public final class KeywordsListModel extends DefaultListModel<Object> {
+public final class KeywordsListModel extends AbstractListModel<Object> {
 
     private static final long serialVersionUID = 1L;
+    // Case insensitive, keywords differing only in case are ordered case sensitive
+    private static final Comparator<String> KEYWORD_ORDER = new Comparator<String>() {
+
+        @Override
+        public int compare(String o1, String o2) {
+            int result = String.CASE_INSENSITIVE_ORDER.compare(o1, o2);
+
+            return result == 0
+                    ? o1.compareTo(o2)
+                    : result;
+        }
+    };
+    private final List<String> keywords = new ArrayList<>();
+    private final Set<String> keywordSet = new HashSet<>();
+    private final Map<String, Integer> keywordCountOfLowerCaseKeyword = new HashMap<>();
     private final ImageFilesRepository imageFileRepo = Lookup.getDefault().lookup(ImageFilesRepository.class);
 
     public KeywordsListModel() {
@@ -46,45 +72,164 @@ public final class KeywordsListModel extends DefaultListModel<Object> {
             return;
         }
 
-        Set<String> keywords = imageFileRepo.findAllDcSubjects();
+        for (String keyword : imageFileRepo.findAllDcSubjects()) {
+            if (keywordSet.add(keyword)) {
+                keywords.add(keyword);
+                index(keyword);
+            }
+        }
+
+        Collections.sort(keywords, KEYWORD_ORDER);
+    }
 
-        for (String keyword : keywords) {
-            addElement(keyword);
+    @Override
+    public int getSize() {
+        return keywords.size();
+    }
+
+    @Override
+    public Object getElementAt(int index) {
+        return keywords.get(index);
+    }
+
+    public boolean contains(String keyword) {
+        return keywordSet.contains(keyword);
+    }
+
+    private boolean containsKeywordIgnoreCase(String keyword) {
+        return keywordCountOfLowerCaseKeyword.containsKey(toLowerCase(keyword));
+    }
+
+    private static String toLowerCase(String keyword) {
+        return keyword.toLowerCase(Locale.ROOT);
+    }
+
+    private void index(String keyword) {
+        String lowerCaseKeyword = toLowerCase(keyword);
+        Integer count = keywordCountOfLowerCaseKeyword.get(lowerCaseKeyword);
+
+        keywordCountOfLowerCaseKeyword.put(lowerCaseKeyword, count == null ? 1 : count + 1);
+    }
+
+    private void unindex(String keyword) {
+        String lowerCaseKeyword = toLowerCase(keyword);
+        Integer count = keywordCountOfLowerCaseKeyword.get(lowerCaseKeyword);
+
+        if (count == null || count <= 1) {
+            keywordCountOfLowerCaseKeyword.remove(lowerCaseKeyword);
+        } else {
+            keywordCountOfLowerCaseKeyword.put(lowerCaseKeyword, count - 1);
         }
     }
 
-    private void addNewKeywords(Collection<? extends String> keywords) {
-        for (String keyword : keywords) {
-            if (!containsKeyword(keyword)) {
-                addElement(keyword);
+    private void addNewKeywords(Collection<? extends String> keywordsToAdd) {
+        List<String> newKeywords = new ArrayList<>();
+
+        for (String keyword : keywordsToAdd) {
+            if (!containsKeywordIgnoreCase(keyword)) {
+                newKeywords.add(keyword);
+                index(keyword);
             }
         }
-    }
 
-    private boolean containsKeyword(String keyword) {
-        for (Enumeration<?> e = elements(); e.hasMoreElements();) {
-            Object element = e.nextElement();
-            if (element instanceof String) {
-                if (((String) element).equalsIgnoreCase(keyword)) {
-                    return true;
-                }
+        if (newKeywords.isEmpty()) {
+            return;
+        }
+
+        Collections.sort(newKeywords, KEYWORD_ORDER);
+        keywordSet.addAll(newKeywords);
+
+        // Ascending: The index of a range is valid after inserting the previous ranges
+        int newIndex = 0;
+
+        while (newIndex < newKeywords.size()) {
+            int insertIndex = getInsertIndex(newKeywords.get(newIndex));
+            int rangeEndIndex = newIndex + 1;
+
+            // Adjacent, if not greater than the keyword at the insertion index
+            while (rangeEndIndex < newKeywords.size()
+                    && (insertIndex >= keywords.size() || KEYWORD_ORDER.compare(newKeywords.get(rangeEndIndex), keywords.get(insertIndex)) < 0)) {
+                rangeEndIndex++;
             }
+
+            keywords.addAll(insertIndex, newKeywords.subList(newIndex, rangeEndIndex));
+            fireIntervalAdded(this, insertIndex, insertIndex + rangeEndIndex - newIndex - 1);
+            newIndex = rangeEndIndex;
         }
-        return false;
     }
 
-    private void removeKeywordsNotInDb(Collection<? extends String> keywords) {
-        for (String keyword : keywords) {
-            if (contains(keyword) && !repositoryHasKeyword(keyword)) {
-                removeElement(keyword);
+    private int getInsertIndex(String keyword) {
+        int index = Collections.binarySearch(keywords, keyword, KEYWORD_ORDER);
+
+        return index < 0
+                ? -(index + 1)
+                : index;
+    }
+
+    private void removeKeywords(Collection<? extends String> keywordsToRemove) {
+        List<Integer> indices = new ArrayList<>();
+
+        for (String keyword : keywordsToRemove) {
+            if (keywordSet.remove(keyword)) {
+                unindex(keyword);
+                indices.add(Collections.binarySearch(keywords, keyword, KEYWORD_ORDER));
+            }
+        }
+
+        Collections.sort(indices);
+
+        // Descending: The indices of a range are valid after removing the following ranges
+        int rangeEndIndex = indices.size() - 1;
+
+        while (rangeEndIndex >= 0) {
+            int rangeStartIndex = rangeEndIndex;
+
+            while (rangeStartIndex > 0 && indices.get(rangeStartIndex - 1) == indices.get(rangeStartIndex) - 1) {
+                rangeStartIndex--;
             }
+
+            int firstIndex = indices.get(rangeStartIndex);
+            int lastIndex = indices.get(rangeEndIndex);
+
+            keywords.subList(firstIndex, lastIndex + 1).clear();
+            fireIntervalRemoved(this, firstIndex, lastIndex);
+            rangeEndIndex = rangeStartIndex - 1;
         }
     }
 
-    boolean repositoryHasKeyword(String keyword) {
+    private void removeKeywordsNotInDb(Collection<? extends String> keywordsToCheck) {
+        Set<String> containedKeywords = new HashSet<>();
+
+        for (String keyword : keywordsToCheck) {
+            if (contains(keyword)) {
+                containedKeywords.add(keyword);
+            }
+        }
+
+        if (containedKeywords.isEmpty()) {
+            return;
+        }
+
         RepositoryStatistics repoStatistics = Lookup.getDefault().lookup(RepositoryStatistics.class);
+        Set<String> existingKeywords = repoStatistics.findExistingMetaDataValues(XmpDcSubjectsSubjectMetaDataValue.INSTANCE, containedKeywords);
+
+        removeKeywords(getKeywordsNotIn(containedKeywords, existingKeywords));
+    }
+
+    // The repository compares DC subjects case insensitive and returns them as stored, possibly in another case
+    static Set<String> getKeywordsNotIn(Collection<String> keywords, Collection<? extends String> existingKeywords) {
+        Set<String> existingKeywordsIgnoreCase = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Set<String> keywordsNotIn = new HashSet<>();
+
+        existingKeywordsIgnoreCase.addAll(existingKeywords);
 
-        return repoStatistics.existsMetaDataValue(XmpDcSubjectsSubjectMetaDataValue.INSTANCE, keyword);
+        for (String keyword : keywords) {
+            if (!existingKeywordsIgnoreCase.contains(keyword)) {
+                keywordsNotIn.add(keyword);
+            }
+        }
+
+        return keywordsNotIn;
     }
 
     @SuppressWarnings("unchecked")
@@ -99,13 +244,12 @@ public final class KeywordsListModel extends DefaultListModel<Object> {
     }
 
     private void renameKeyword(String fromName, String toName) {
-        int count = getSize();
-        for (int index = 0; index < count; index++) {
-            String keyword = (String) getElementAt(index);
-            if (fromName.equals(keyword)) {
-                set(index, toName);
-            }
+        if (!contains(fromName)) {
+            return;
         }
+
+        removeKeywords(Collections.singleton(fromName));
+        addNewKeywords(Collections.singleton(toName));
     }
 
     @EventSubscriber(eventClass = XmpInsertedEvent.class)
@@ -118,10 +262,15 @@ public final class KeywordsListModel extends DefaultListModel<Object> {
         removeKeywordsNotInDb(getKeywords(evt.getXmp()));
     }
 
+    // Only keywords not contained in the updated XMP may have been removed from the repository
     @EventSubscriber(eventClass = XmpUpdatedEvent.class)
     public void xmpUpdated(final XmpUpdatedEvent evt) {
-        addNewKeywords(getKeywords(evt.getUpdatedXmp()));
-        removeKeywordsNotInDb(getKeywords(evt.getOldXmp()));
+        List<String> updatedKeywords = getKeywords(evt.getUpdatedXmp());
+        List<String> oldKeywords = getKeywords(evt.getOldXmp());
+
+        oldKeywords.removeAll(updatedKeywords);
+        addNewKeywords(updatedKeywords);
+        removeKeywordsNotInDb(oldKeywords);
     }
 
     @EventSubscriber(eventClass = DcSubjectDeletedEvent.class)
@@ -135,7 +284,7 @@ public final class KeywordsListModel extends DefaultListModel<Object> {
     }
 
     @EventSubscriber(eventClass = DcSubjectRenamedEvent.class)
-    public void dcSubjectInserted(final DcSubjectRenamedEvent evt) {
+    public void dcSubjectRenamed(final DcSubjectRenamedEvent evt) {
         renameKeyword(evt.getFromName(), evt.getToName());
     }
 }
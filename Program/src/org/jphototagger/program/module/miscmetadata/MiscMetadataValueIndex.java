@@ -0,0 +1,413 @@
+package org.jphototagger.program.module.miscmetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bushe.swing.event.annotation.AnnotationProcessor;
+import org.bushe.swing.event.annotation.EventSubscriber;
+import org.jphototagger.domain.metadata.MetaDataValue;
+import org.jphototagger.domain.metadata.exif.Exif;
+import org.jphototagger.domain.metadata.exif.ExifFocalLengthMetaDataValue;
+import org.jphototagger.domain.metadata.exif.ExifIsoSpeedRatingsMetaDataValue;
+import org.jphototagger.domain.metadata.exif.ExifLensMetaDataValue;
+import org.jphototagger.domain.metadata.exif.ExifRecordingEquipmentMetaDataValue;
+import org.jphototagger.domain.metadata.xmp.Xmp;
+import org.jphototagger.domain.repository.ImageFilesRepository;
+import org.jphototagger.domain.repository.event.exif.ExifDeletedEvent;
+import org.jphototagger.domain.repository.event.exif.ExifInsertedEvent;
+import org.jphototagger.domain.repository.event.exif.ExifUpdatedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedAtOnceEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpValueRenamedEvent;
+import org.openide.util.Lookup;
+
+/**
+ * Distinct values of the metadata values displayed in a {@code MiscMetadataTreeModel} and how many image files have
+ * them.
+ * <p>
+ * The values will be read once from the repository, afterwards the image counts will be adjusted by the old and new
+ * values of the XMP and EXIF events without querying the repository.
+ *
+ * @author Elmar Baumann
+ */
+final class MiscMetadataValueIndex {
+
+    static final MiscMetadataValueIndex INSTANCE = new MiscMetadataValueIndex();
+    private static final Logger LOGGER = Logger.getLogger(MiscMetadataValueIndex.class.getName());
+    private final Map<MetaDataValue, Map<Object, Integer>> imageCountsOfValues = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private boolean loaded;
+
+    /**
+     * Notified within the thread publishing the repository events.
+     */
+    interface Listener {
+
+        /**
+         * Called for every image file having a value after an insert or update.
+         *
+         * @param mdValue metadata value
+         * @param value   value
+         */
+        void valueReferenced(MetaDataValue mdValue, Object value);
+
+        /**
+         * Called if no image file has a value anymore.
+         *
+         * @param mdValue metadata value
+         * @param value   value
+         */
+        void valueUnreferenced(MetaDataValue mdValue, Object value);
+    }
+
+    private MiscMetadataValueIndex() {
+    }
+
+    void addListener(Listener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener == null");
+        }
+
+        listeners.add(listener);
+    }
+
+    /**
+     * @param mdValue metadata value
+     * @return distinct values having the data type of the metadata value, the values read from the repository
+     *         ordered, or empty list
+     */
+    synchronized List<Object> getValues(MetaDataValue mdValue) {
+        if (mdValue == null) {
+            throw new NullPointerException("mdValue == null");
+        }
+
+        ensureLoaded();
+
+        Map<Object, Integer> imageCounts = imageCountsOfValues.get(mdValue);
+
+        return imageCounts == null
+                ? Collections.emptyList()
+                : new ArrayList<>(imageCounts.keySet());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        long startMillis = System.currentTimeMillis();
+
+        imageCountsOfValues.putAll(readImageCountsOfValues());
+        AnnotationProcessor.process(this);
+        loaded = true;
+        LOGGER.log(Level.FINE, "Loaded distinct values of {0} metadata values in {1} milliseconds",
+                new Object[]{imageCountsOfValues.size(), System.currentTimeMillis() - startMillis});
+    }
+
+    private static Map<MetaDataValue, Map<Object, Integer>> readImageCountsOfValues() {
+        Set<MetaDataValue> mdValues = new LinkedHashSet<>(MiscMetadataTreeModel.getExifMetaDataValues());
+
+        mdValues.addAll(MiscMetadataTreeModel.getXmpMetaDataValues());
+
+        ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+        Map<MetaDataValue, Map<String, Integer>> imageCountsOfColumns = repo.findImageCountsOfDistinctMetaDataValues(mdValues);
+        Map<MetaDataValue, Map<Object, Integer>> imageCountsOfMdValues = new HashMap<>();
+
+        for (MetaDataValue mdValue : mdValues) {
+            Map<Object, Integer> imageCounts = new LinkedHashMap<>();
+            Map<String, Integer> imageCountsOfColumn = imageCountsOfColumns.get(mdValue);
+
+            if (imageCountsOfColumn != null) {
+                for (Map.Entry<String, Integer> entry : imageCountsOfColumn.entrySet()) {
+                    Object value = toValue(mdValue, entry.getKey());
+
+                    if (value != null) {
+                        Integer count = imageCounts.get(value);
+
+                        imageCounts.put(value, count == null ? entry.getValue() : count + entry.getValue());
+                    }
+                }
+            }
+
+            imageCountsOfMdValues.put(mdValue, imageCounts);
+        }
+
+        return imageCountsOfMdValues;
+    }
+
+    /**
+     * Converts a value into the data type of a metadata value, trims strings.
+     *
+     * @return value or null, if empty or not convertible
+     */
+    static Object toValue(MetaDataValue mdValue, Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        String string = value.toString().trim();
+
+        if (string.isEmpty()) {
+            return null;
+        }
+
+        MetaDataValue.ValueType valueType = mdValue.getValueType();
+
+        try {
+            if (valueType.equals(MetaDataValue.ValueType.STRING)) {
+                return string;
+            } else if (valueType.equals(MetaDataValue.ValueType.SMALLINT)) {
+                return value instanceof Number ? ((Number) value).shortValue() : Short.valueOf(string);
+            } else if (valueType.equals(MetaDataValue.ValueType.REAL)) {
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(string);
+            } else if (valueType.equals(MetaDataValue.ValueType.BIGINT)) {
+                return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(string);
+            }
+        } catch (NumberFormatException ex) {
+            LOGGER.log(Level.WARNING, null, ex);
+            return null;
+        }
+
+        assert false : "Unregognized data type: " + valueType;
+
+        return null;
+    }
+
+    private void adjustImageCounts(Map<MetaDataValue, Set<Object>> valuesOfMdValues, int delta) {
+        List<Notification> notifications = new ArrayList<>();
+
+        synchronized (this) {
+            for (Map.Entry<MetaDataValue, Set<Object>> entry : valuesOfMdValues.entrySet()) {
+                MetaDataValue mdValue = entry.getKey();
+                Map<Object, Integer> imageCounts = imageCountsOfValues.get(mdValue);
+
+                if (imageCounts == null) {
+                    continue;
+                }
+
+                for (Object value : entry.getValue()) {
+                    Integer count = imageCounts.get(value);
+                    int newCount = (count == null ? 0 : count) + delta;
+
+                    if (newCount > 0) {
+                        imageCounts.put(value, newCount);
+
+                        if (delta > 0) {
+                            notifications.add(new Notification(mdValue, value, true));
+                        }
+                    } else if (count != null) {
+                        imageCounts.remove(value);
+                        notifications.add(new Notification(mdValue, value, false));
+                    }
+                }
+            }
+        }
+
+        for (Notification notification : notifications) {
+            notification.notifyListeners();
+        }
+    }
+
+    private final class Notification {
+
+        private final MetaDataValue mdValue;
+        private final Object value;
+        private final boolean referenced;
+
+        private Notification(MetaDataValue mdValue, Object value, boolean referenced) {
+            this.mdValue = mdValue;
+            this.value = value;
+            this.referenced = referenced;
+        }
+
+        private void notifyListeners() {
+            for (Listener listener : listeners) {
+                if (referenced) {
+                    listener.valueReferenced(mdValue, value);
+                } else {
+                    listener.valueUnreferenced(mdValue, value);
+                }
+            }
+        }
+    }
+
+    private static Map<MetaDataValue, Set<Object>> getValues(Xmp xmp) {
+        Map<MetaDataValue, Set<Object>> valuesOfMdValues = new LinkedHashMap<>();
+
+        if (xmp == null) {
+            return valuesOfMdValues;
+        }
+
+        for (MetaDataValue mdValue : MiscMetadataTreeModel.getXmpMetaDataValues()) {
+            Object value = xmp.getValue(mdValue);
+
+            if (value instanceof Collection<?>) {
+                for (Object element : (Collection<?>) value) {
+                    addValue(valuesOfMdValues, mdValue, element);
+                }
+            } else {
+                addValue(valuesOfMdValues, mdValue, value);
+            }
+        }
+
+        return valuesOfMdValues;
+    }
+
+    private static Map<MetaDataValue, Set<Object>> getValues(Exif exif) {
+        Map<MetaDataValue, Set<Object>> valuesOfMdValues = new LinkedHashMap<>();
+
+        if (exif == null) {
+            return valuesOfMdValues;
+        }
+
+        addValue(valuesOfMdValues, ExifRecordingEquipmentMetaDataValue.INSTANCE, exif.getRecordingEquipment());
+        addValue(valuesOfMdValues, ExifIsoSpeedRatingsMetaDataValue.INSTANCE, exif.getIsoSpeedRatingsGreaterZeroOrNull());
+        addValue(valuesOfMdValues, ExifFocalLengthMetaDataValue.INSTANCE, exif.getFocalLengthGreaterZeroOrNull());
+        addValue(valuesOfMdValues, ExifLensMetaDataValue.INSTANCE, exif.getLens());
+
+        return valuesOfMdValues;
+    }
+
+    private static void addValue(Map<MetaDataValue, Set<Object>> valuesOfMdValues, MetaDataValue mdValue, Object value) {
+        Object convertedValue = toValue(mdValue, value);
+
+        if (convertedValue != null) {
+            Set<Object> values = valuesOfMdValues.get(mdValue);
+
+            if (values == null) {
+                values = new LinkedHashSet<>();
+                valuesOfMdValues.put(mdValue, values);
+            }
+
+            values.add(convertedValue);
+        }
+    }
+
+    // Values contained in the old and the new metadata remain unchanged
+    private void adjustImageCounts(Map<MetaDataValue, Set<Object>> oldValues, Map<MetaDataValue, Set<Object>> newValues) {
+        for (Map.Entry<MetaDataValue, Set<Object>> entry : oldValues.entrySet()) {
+            Set<Object> newValuesOfMdValue = newValues.get(entry.getKey());
+
+            if (newValuesOfMdValue != null) {
+                Set<Object> oldValuesOfMdValue = entry.getValue();
+                Set<Object> unchangedValues = new LinkedHashSet<>(oldValuesOfMdValue);
+
+                unchangedValues.retainAll(newValuesOfMdValue);
+                oldValuesOfMdValue.removeAll(unchangedValues);
+                newValuesOfMdValue.removeAll(unchangedValues);
+            }
+        }
+
+        adjustImageCounts(oldValues, -1);
+        adjustImageCounts(newValues, 1);
+    }
+
+    @EventSubscriber(eventClass = XmpUpdatedEvent.class)
+    public void xmpUpdated(final XmpUpdatedEvent evt) {
+        adjustImageCounts(getValues(evt.getOldXmp()), getValues(evt.getUpdatedXmp()));
+    }
+
+    // The image counts of the old value are added to the image counts of the new value
+    @EventSubscriber(eventClass = XmpValueRenamedEvent.class)
+    public void xmpValueRenamed(final XmpValueRenamedEvent evt) {
+        MetaDataValue mdValue = evt.getMetaDataValue();
+        Object fromValue = toValue(mdValue, evt.getFromValue());
+        Object toValue = toValue(mdValue, evt.getToValue());
+        List<Notification> notifications = new ArrayList<>();
+
+        synchronized (this) {
+            Map<Object, Integer> imageCounts = imageCountsOfValues.get(mdValue);
+
+            if (imageCounts == null || fromValue == null) {
+                return;
+            }
+
+            Integer fromCount = imageCounts.remove(fromValue);
+
+            if (fromCount == null) {
+                fromCount = evt.getImageFileCount();
+            } else {
+                notifications.add(new Notification(mdValue, fromValue, false));
+            }
+
+            if (toValue != null) {
+                Integer toCount = imageCounts.get(toValue);
+
+                imageCounts.put(toValue, toCount == null ? fromCount : toCount + fromCount);
+                notifications.add(new Notification(mdValue, toValue, true));
+            }
+        }
+
+        for (Notification notification : notifications) {
+            notification.notifyListeners();
+        }
+    }
+
+    @EventSubscriber(eventClass = XmpInsertedEvent.class)
+    public void xmpInserted(final XmpInsertedEvent evt) {
+        adjustImageCounts(getValues(evt.getXmp()), 1);
+    }
+
+    @EventSubscriber(eventClass = XmpDeletedEvent.class)
+    public void xmpDeleted(final XmpDeletedEvent evt) {
+        adjustImageCounts(getValues(evt.getXmp()), -1);
+    }
+
+    @EventSubscriber(eventClass = ExifInsertedEvent.class)
+    public void exifInserted(final ExifInsertedEvent evt) {
+        adjustImageCounts(getValues(evt.getExif()), 1);
+    }
+
+    @EventSubscriber(eventClass = ExifUpdatedEvent.class)
+    public void exifUpdated(final ExifUpdatedEvent evt) {
+        adjustImageCounts(getValues(evt.getOldExif()), getValues(evt.getUpdatedExif()));
+    }
+
+    @EventSubscriber(eventClass = ExifDeletedEvent.class)
+    public void exifDeleted(final ExifDeletedEvent evt) {
+        adjustImageCounts(getValues(evt.getExif()), -1);
+    }
+
+    // The values of the deleted metadata are unknown, the image counts will be read again from the repository
+    @EventSubscriber(eventClass = ImageFilesDeletedAtOnceEvent.class)
+    public void imageFilesDeletedAtOnce(final ImageFilesDeletedAtOnceEvent evt) {
+        if (evt.getXmpCount() == 0 && evt.getExifCount() == 0) {
+            return;
+        }
+
+        Map<MetaDataValue, Map<Object, Integer>> imageCountsOfMdValues = readImageCountsOfValues();
+        List<Notification> notifications = new ArrayList<>();
+
+        synchronized (this) {
+            for (Map.Entry<MetaDataValue, Map<Object, Integer>> entry : imageCountsOfMdValues.entrySet()) {
+                MetaDataValue mdValue = entry.getKey();
+                Map<Object, Integer> oldImageCounts = imageCountsOfValues.get(mdValue);
+
+                if (oldImageCounts != null) {
+                    for (Object value : oldImageCounts.keySet()) {
+                        if (!entry.getValue().containsKey(value)) {
+                            notifications.add(new Notification(mdValue, value, false));
+                        }
+                    }
+                }
+
+                imageCountsOfValues.put(mdValue, entry.getValue());
+            }
+        }
+
+        for (Notification notification : notifications) {
+            notification.notifyListeners();
+        }
+    }
+}
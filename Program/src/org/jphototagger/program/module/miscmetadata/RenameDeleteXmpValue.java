@@ -2,8 +2,15 @@ package org.jphototagger.program.module.miscmetadata;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.api.concurrent.Cancelable;
@@ -15,12 +22,11 @@ import org.jphototagger.domain.metadata.xmp.XmpDcSubjectsSubjectMetaDataValue;
 import org.jphototagger.domain.metadata.xmp.XmpMetaDataValues;
 import org.jphototagger.domain.metadata.xmp.XmpSidecarFileResolver;
 import org.jphototagger.domain.repository.ImageFilesRepository;
-import org.jphototagger.domain.repository.SaveOrUpdate;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
+import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.lib.swing.MessageDisplayer;
 import org.jphototagger.lib.util.Bundle;
 import org.jphototagger.lib.util.ProgressBarUpdater;
-import org.jphototagger.lib.util.ThreadUtil;
-import org.jphototagger.program.misc.SaveToOrUpdateFilesInRepositoryImpl;
 import org.jphototagger.xmp.XmpMetadata;
 import org.openide.util.Lookup;
 
@@ -38,7 +44,8 @@ public final class RenameDeleteXmpValue {
      * Renames a XMP value in all XMP sidecar files containing that value in
      * associated with a specific metadata value.
      * <p>
-     * If renamed successfully, the repository will be updated.
+     * The repository will be updated at once, the XMP sidecar files in the
+     * background.
      *
      * @param metaDataValue   XMP metadata value, <em>not</em> {@code XmpDcSubjectsSubjectMetaDataValue}
      * @param oldValue old value, will be trimmed
@@ -75,7 +82,8 @@ public final class RenameDeleteXmpValue {
      * Deletes a XMP value from all XMP sidecar files containing that value in
      * associated with a specific metadata value.
      * <p>
-     * If renamed successfully, the repository will be updated.
+     * The repository will be updated at once, the XMP sidecar files in the
+     * background.
      *
      * @param mdValue XMP metadata value, <em>not</em> {@code XmpDcSubjectsSubjectMetaDataValue}
      * @param value  value to be deleted
@@ -112,21 +120,40 @@ public final class RenameDeleteXmpValue {
         }
     }
 
+    /**
+     * Renames the value in the repository with one set based update, afterwards the XMP sidecar files will be
+     * rewritten in parallel. Sidecar files not having the old value anymore will be skipped, so that rewriting can be
+     * retried with the failed image files.
+     */
     private static class Rename extends Thread implements Cancelable {
 
+        private static final Logger LOGGER = Logger.getLogger(Rename.class.getName());
+        private static final int WRITER_THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        private static final int AUTOMATIC_RETRY_COUNT = 1;
         private final ProgressBarUpdater pb = new ProgressBarUpdater(this, Bundle.getString(Rename.class, "RenameDeleteXmpValue.ProgressBar.String"));
         private final MetaDataValue metaDataValue;
         private final String newValue;
         private final String oldValue;
+        private final List<File> imageFilesToRewrite;
         private volatile boolean cancel;
         private final ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
         private final XmpSidecarFileResolver xmpSidecarFileResolver = Lookup.getDefault().lookup(XmpSidecarFileResolver.class);
 
         Rename(MetaDataValue metaDataValue, String oldValue, String newValue) {
+            this(metaDataValue, oldValue, newValue, null);
+        }
+
+        /**
+         * @param imageFilesToRewrite image files whose sidecar files shall be rewritten without updating the
+         *                            repository or null, if the repository shall be updated and all image files having
+         *                            the old value shall be rewritten
+         */
+        private Rename(MetaDataValue metaDataValue, String oldValue, String newValue, List<File> imageFilesToRewrite) {
             super("JPhotoTagger: Renaming XMP value");
             this.metaDataValue = metaDataValue;
             this.oldValue = oldValue.trim();
             this.newValue = newValue.trim();
+            this.imageFilesToRewrite = imageFilesToRewrite;
         }
 
         @Override
@@ -136,41 +163,152 @@ public final class RenameDeleteXmpValue {
 
         @Override
         public void run() {
-            List<File> imageFiles = repo.findImageFilesWhereMetaDataValueHasExactValue(metaDataValue, oldValue);
+            List<File> imageFiles = imageFilesToRewrite;
+            if (imageFiles == null) {
+                imageFiles = repo.findImageFilesWhereMetaDataValueHasExactValue(metaDataValue, oldValue);
+                repo.updateRenameXmpValue(metaDataValue, oldValue, newValue);
+            }
             int size = imageFiles.size();
-            int value = 0;
             notifyStarted(size);
-            for (File imageFile : imageFiles) {
-                if (cancel || isInterrupted()) {
-                    break;
+            List<File> notRewrittenImageFiles = rewriteSidecarFiles(imageFiles);
+            for (int retry = 0; retry < AUTOMATIC_RETRY_COUNT && !notRewrittenImageFiles.isEmpty() && !isCancelled(); retry++) {
+                notRewrittenImageFiles = rewriteSidecarFiles(notRewrittenImageFiles);
+            }
+            notifyEnded(size - notRewrittenImageFiles.size(), size);
+            if (!notRewrittenImageFiles.isEmpty()) {
+                if (isCancelled()) {
+                    invalidateRepositoryXmp(notRewrittenImageFiles);
+                } else {
+                    confirmRetry(notRewrittenImageFiles);
+                }
+            }
+        }
+
+        private boolean isCancelled() {
+            return cancel || isInterrupted();
+        }
+
+        /**
+         * @return image files whose sidecar files were not rewritten
+         */
+        private List<File> rewriteSidecarFiles(List<File> imageFiles) {
+            List<File> notRewrittenImageFiles = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(WRITER_THREAD_COUNT, writerThreadFactory);
+            CompletionService<File> rewrites = new ExecutorCompletionService<>(executor);
+            try {
+                for (File imageFile : imageFiles) {
+                    rewrites.submit(new RewriteSidecarFile(imageFile));
+                }
+                for (int index = 0; index < imageFiles.size(); index++) {
+                    File notRewrittenImageFile = takeRewrite(rewrites);
+                    if (notRewrittenImageFile != null) {
+                        notRewrittenImageFiles.add(notRewrittenImageFile);
+                    }
+                    notifyPerformed(index + 1, imageFiles.size());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            return notRewrittenImageFiles;
+        }
+
+        // Rewrites are not interruptable, after cancelling the rewrites not started return immediately
+        private File takeRewrite(CompletionService<File> rewrites) {
+            while (true) {
+                try {
+                    return rewrites.take().get();
+                } catch (InterruptedException ex) {
+                    cancel = true;
+                } catch (ExecutionException ex) {
+                    LOGGER.log(Level.SEVERE, null, ex);
+                    return null;
+                }
+            }
+        }
+
+        private final class RewriteSidecarFile implements Callable<File> {
+
+            private final File imageFile;
+
+            private RewriteSidecarFile(File imageFile) {
+                this.imageFile = imageFile;
+            }
+
+            /**
+             * @return image file, if it's sidecar file was not rewritten, else null
+             */
+            @Override
+            public File call() {
+                if (cancel) {
+                    return imageFile;
                 }
-                Xmp xmp = null;
+                Xmp xmp;
                 try {
                     xmp = XmpMetadata.getXmpFromSidecarFileOf(imageFile);
                 } catch (IOException ex) {
-                    Logger.getLogger(RenameDeleteXmpValue.class.getName()).log(Level.SEVERE, null, ex);
+                    LOGGER.log(Level.SEVERE, null, ex);
+                    return imageFile;
                 }
-                if (xmp != null) {
-                    rename(xmp);
-                    File xmpSidecarFile = xmpSidecarFileResolver.suggestXmpSidecarFile(imageFile);
-                    if (XmpMetadata.writeXmpToSidecarFile(xmp, xmpSidecarFile)) {
-                        SaveToOrUpdateFilesInRepositoryImpl insertImageFilesIntoRepository =
-                                new SaveToOrUpdateFilesInRepositoryImpl(Collections.singletonList(imageFile),
-                                SaveOrUpdate.XMP);
-                        ThreadUtil.runInThisThread(insertImageFilesIntoRepository);
-                    }
+                if (xmp == null || !hasOldValue(xmp)) {
+                    return null;
                 }
-                value++;
-                notifyPerformed(value, size);
+                xmp.setValue(metaDataValue, newValue);
+                File xmpSidecarFile = xmpSidecarFileResolver.suggestXmpSidecarFile(imageFile);
+                if (!XmpMetadata.writeXmpToSidecarFile(xmp, xmpSidecarFile)) {
+                    return imageFile;
+                }
+                // The repository already contains the new value
+                repo.setLastModifiedToXmpSidecarFileOfImageFile(imageFile, xmpSidecarFile.lastModified());
+                RepositoryEventCoalescer.INSTANCE.xmpChanged(imageFile);
+                return null;
+            }
+        }
+
+        private boolean hasOldValue(Xmp xmp) {
+            Object value = xmp.getValue(metaDataValue);
+            return value != null && value.toString().trim().equals(oldValue);
+        }
+
+        private final ThreadFactory writerThreadFactory = new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "JPhotoTagger: Rewriting XMP sidecar files");
+                thread.setDaemon(true);
+                return thread;
             }
+        };
 
-            repo.deleteValueOfJoinedMetaDataValue(metaDataValue, oldValue);
-            MiscMetadataUtil.removeChildValueFrom(metaDataValue, oldValue);
-            notifyEnded(value, size);
+        private void confirmRetry(final List<File> notRewrittenImageFiles) {
+            EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    String message = Bundle.getString(RenameDeleteXmpValue.class, "RenameDeleteXmpValue.Confirm.Retry", notRewrittenImageFiles.size());
+                    if (MessageDisplayer.confirmYesNo(null, message)) {
+                        SerialTaskExecutor executor = Lookup.getDefault().lookup(SerialTaskExecutor.class);
+                        executor.addTask(new Rename(metaDataValue, oldValue, newValue, notRewrittenImageFiles));
+                    } else {
+                        Thread thread = new Thread(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                invalidateRepositoryXmp(notRewrittenImageFiles);
+                            }
+                        }, "JPhotoTagger: Invalidating XMP of not rewritten sidecar files");
+                        thread.start();
+                    }
+                }
+            });
         }
 
-        private void rename(Xmp xmp) {
-            xmp.setValue(metaDataValue, newValue);
+        // The next update of the repository will read the sidecar files still having the old value
+        private void invalidateRepositoryXmp(List<File> notRewrittenImageFiles) {
+            LOGGER.log(Level.WARNING, "Value ''{0}'' of {1} was not renamed in the sidecar files of {2} image files",
+                    new Object[]{oldValue, metaDataValue, notRewrittenImageFiles.size()});
+            for (File imageFile : notRewrittenImageFiles) {
+                repo.setLastModifiedToXmpSidecarFileOfImageFile(imageFile, -1);
+            }
         }
 
         private void notifyStarted(int count) {
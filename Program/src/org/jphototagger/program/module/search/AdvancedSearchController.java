@@ -2,20 +2,13 @@ package org.jphototagger.program.module.search;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
-import java.util.List;
 import javax.swing.JButton;
-import org.jphototagger.api.windows.MainWindowManager;
-import org.jphototagger.api.windows.WaitDisplayer;
 import org.jphototagger.domain.metadata.search.ParamStatement;
 import org.jphototagger.domain.metadata.search.SavedSearch;
-import org.jphototagger.domain.repository.FindRepository;
-import org.jphototagger.domain.thumbnails.OriginOfDisplayedThumbnails;
 import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.lib.swing.util.TreeUtil;
 import org.jphototagger.lib.util.Bundle;
 import org.jphototagger.program.resource.GUI;
-import org.openide.util.Lookup;
 
 /**
  * Kontrolliert die Aktionen: Erweiterter Suchdialog soll angezeigt werden sowie
@@ -25,8 +18,6 @@ import org.openide.util.Lookup;
  */
 public final class AdvancedSearchController implements ActionListener {
 
-    private final FindRepository repo = Lookup.getDefault().lookup(FindRepository.class);
-
     public AdvancedSearchController() {
         listen();
     }
@@ -49,25 +40,17 @@ public final class AdvancedSearchController implements ActionListener {
             @Override
             public void run() {
                 assert savedSearch.isValid() : savedSearch;
-                WaitDisplayer waitDisplayer = Lookup.getDefault().lookup(WaitDisplayer.class);
-                waitDisplayer.show();
                 ParamStatement stmt = savedSearch.createParamStatement();
 
                 TreeUtil.clearSelection(GUI.getAppPanel().getSelectionTrees());
 
-                List<File> imageFiles = repo.findImageFiles(stmt);
-
-                setTitle(savedSearch.getName());
-                GUI.getThumbnailsPanel().setFiles(imageFiles, OriginOfDisplayedThumbnails.FILES_FOUND_BY_SAVED_SEARCH);
-                waitDisplayer.hide();
+                SavedSearchExecutor.INSTANCE.search(stmt, getTitle(savedSearch.getName()));
             }
 
-            private void setTitle(String name) {
+            private String getTitle(String name) {
                 String titleAdvancedSearch = Bundle.getString(AdvancedSearchController.class, "AdvancedSearchController.AppFrame.Title.AdvancedSearch");
                 String titleSavedSearch = Bundle.getString(AdvancedSearchController.class, "AdvancedSearchController.AppFrame.Title.AdvancedSearch.Saved", name);
-                String title = name == null ? titleAdvancedSearch : titleSavedSearch;
-                MainWindowManager mainWindowManager = Lookup.getDefault().lookup(MainWindowManager.class);
-                mainWindowManager.setMainWindowTitle(title);
+                return name == null ? titleAdvancedSearch : titleSavedSearch;
             }
         });
     }
@@ -0,0 +1,147 @@
+package org.jphototagger.program.module.search;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jphototagger.api.concurrent.Cancelable;
+import org.jphototagger.api.windows.MainWindowManager;
+import org.jphototagger.api.windows.WaitDisplayer;
+import org.jphototagger.domain.metadata.search.ParamStatement;
+import org.jphototagger.domain.repository.FindRepository;
+import org.jphototagger.domain.thumbnails.OriginOfDisplayedThumbnails;
+import org.jphototagger.lib.awt.EventQueueUtil;
+import org.jphototagger.program.resource.GUI;
+import org.jphototagger.program.tasks.ReplaceableThread;
+import org.openide.util.Lookup;
+
+/**
+ * Executes searches in a background thread and displays the found image files
+ * in the thumbnails panel while the repository is reading them.
+ * <p>
+ * A search cancels a previous search still running, also while the repository
+ * is executing the query. The thumbnails panel displays the first found image
+ * files immediately and all found image files when the search is completed, in
+ * between each time the count of found image files has been doubled.
+ *
+ * @author Elmar Baumann
+ */
+final class SavedSearchExecutor {
+
+    static final SavedSearchExecutor INSTANCE = new SavedSearchExecutor();
+    private static final Logger LOGGER = Logger.getLogger(SavedSearchExecutor.class.getName());
+    private final ReplaceableThread searchThread = new ReplaceableThread();
+
+    private SavedSearchExecutor() {
+    }
+
+    /**
+     * Starts a search and cancels a running search.
+     *
+     * @param stmt  statement of the search
+     * @param title title of the main window displaying the found image files
+     */
+    void search(ParamStatement stmt, String title) {
+        if (stmt == null) {
+            throw new NullPointerException("stmt == null");
+        }
+        if (title == null) {
+            throw new NullPointerException("title == null");
+        }
+
+        searchThread.setTask(new Search(stmt, title));
+    }
+
+    private static final class Search implements Runnable, Cancelable, FindRepository.ImageFilesFoundListener {
+
+        private final ParamStatement stmt;
+        private final String title;
+        private final List<File> foundImageFiles = new ArrayList<>();
+        private int displayedImageFilesCount;
+        private volatile Cancelable query;
+        private volatile boolean cancel;
+
+        private Search(ParamStatement stmt, String title) {
+            this.stmt = stmt;
+            this.title = title;
+        }
+
+        @Override
+        public void run() {
+            FindRepository repo = Lookup.getDefault().lookup(FindRepository.class);
+            setWaitDisplayerVisible(true);
+            long startMillis = System.currentTimeMillis();
+            boolean completed = repo.findImageFiles(stmt, this);
+            LOGGER.log(Level.FINE, "Search {0}completed after {1} milliseconds, found {2} image files",
+                    new Object[]{completed ? "" : "not ", System.currentTimeMillis() - startMillis, foundImageFiles.size()});
+            if (cancel) {
+                return; // The next search hides the wait displayer
+            }
+            if (!completed) {
+                foundImageFiles.clear(); // Repository error
+            }
+            if (foundImageFiles.isEmpty() || foundImageFiles.size() > displayedImageFilesCount) {
+                displayFoundImageFiles();
+            }
+            setWaitDisplayerVisible(false);
+        }
+
+        @Override
+        public void searchStarted(Cancelable query) {
+            this.query = query;
+            if (cancel) {
+                query.cancel();
+            }
+        }
+
+        @Override
+        public void imageFilesFound(List<File> imageFiles) {
+            foundImageFiles.addAll(imageFiles);
+            if (!cancel && foundImageFiles.size() >= 2 * displayedImageFilesCount) {
+                displayFoundImageFiles();
+            }
+        }
+
+        private void displayFoundImageFiles() {
+            final List<File> imageFiles = new ArrayList<>(foundImageFiles);
+            displayedImageFilesCount = imageFiles.size();
+            EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (cancel) {
+                        return;
+                    }
+                    MainWindowManager mainWindowManager = Lookup.getDefault().lookup(MainWindowManager.class);
+                    mainWindowManager.setMainWindowTitle(title);
+                    GUI.getThumbnailsPanel().setFiles(imageFiles, OriginOfDisplayedThumbnails.FILES_FOUND_BY_SAVED_SEARCH);
+                }
+            });
+        }
+
+        private void setWaitDisplayerVisible(final boolean visible) {
+            EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    WaitDisplayer waitDisplayer = Lookup.getDefault().lookup(WaitDisplayer.class);
+                    if (visible) {
+                        waitDisplayer.show();
+                    } else {
+                        waitDisplayer.hide();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void cancel() {
+            cancel = true;
+            Cancelable q = query;
+            if (q != null) {
+                q.cancel();
+            }
+        }
+    }
+}
@@ -4,14 +4,23 @@ import java.awt.Image;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JMenuItem;
 import org.jphototagger.domain.repository.ImageFilesRepository;
 import org.jphototagger.domain.repository.ThumbnailsRepository;
 import org.jphototagger.image.util.ImageTransform;
-import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.program.resource.GUI;
 import org.openide.util.Lookup;
 
@@ -19,13 +28,21 @@ import org.openide.util.Lookup;
  * Kontrolliert die Aktion: Rotiere ein Thumbnail,
  * ausgelöst von
  * {@code org.jphototagger.program.view.popupmenus.ThumbnailsPopupMenu}.
+ * <p>
+ * Die Thumbnails werden im Hintergrund parallel rotiert.
  *
  * @author Elmar Baumann
  */
 public final class RotateThumbnailsController implements ActionListener {
 
+    private static final Logger LOGGER = Logger.getLogger(RotateThumbnailsController.class.getName());
+    private static final int ROTATE_THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int BATCH_SIZE = 50;
     private final Map<JMenuItem, Float> angleOfItem = new HashMap<>();
     private final ThumbnailsRepository tnRepo = Lookup.getDefault().lookup(ThumbnailsRepository.class);
+    // One rotation after another: Rotating the same thumbnails twice rotates the result of the first rotation
+    private final ExecutorService rotationExecutor = Executors.newSingleThreadExecutor(createThreadFactory("JPhotoTagger: Rotating thumbnails"));
+    private final ExecutorService rotateThumbnailExecutor = Executors.newFixedThreadPool(ROTATE_THREAD_COUNT, createThreadFactory("JPhotoTagger: Rotating a thumbnail"));
 
     public RotateThumbnailsController() {
         initAngleOfItem();
@@ -67,29 +84,120 @@ public final class RotateThumbnailsController implements ActionListener {
         rotateSelectedImages(getRotateAngle(evt.getSource()));
     }
 
-    private void rotateSelectedImages(final float rotateAngle) {
-        EventQueueUtil.invokeInDispatchThread(new Runnable() {
+    // Called within the Event Dispatch Thread, the selected files are read before rotating in the background
+    private void rotateSelectedImages(float rotateAngle) {
+        List<File> selFiles = GUI.getSelectedImageFiles();
 
-            private final ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+        if (!selFiles.isEmpty()) {
+            rotationExecutor.execute(new RotateThumbnails(selFiles, rotateAngle));
+        }
+    }
 
-            @Override
-            public void run() {
-                List<File> selFiles = GUI.getSelectedImageFiles();
+    /**
+     * Rotates the thumbnails in batches, the thumbnails of a batch in
+     * parallel. Each batch will be stored at once.
+     */
+    private final class RotateThumbnails implements Runnable {
+
+        private final List<File> imageFiles;
+        private final float rotateAngle;
+        private final ImageFilesRepository repo = Lookup.getDefault().lookup(ImageFilesRepository.class);
+
+        private RotateThumbnails(List<File> imageFiles, float rotateAngle) {
+            this.imageFiles = new ArrayList<>(imageFiles);
+            this.rotateAngle = rotateAngle;
+        }
+
+        @Override
+        public void run() {
+            for (int index = 0; index < imageFiles.size(); index += BATCH_SIZE) {
+                List<File> batch = imageFiles.subList(index, Math.min(index + BATCH_SIZE, imageFiles.size()));
+                Map<File, Image> rotatedThumbnails = rotate(batch);
 
-                for (File imageFile : selFiles) {
-                    final Image unrotatedTn = tnRepo.findThumbnail(imageFile);
+                if (rotatedThumbnails == null) {
+                    return;
+                }
 
-                    if (unrotatedTn != null) {
-                        Image rotatedTn = ImageTransform.rotate(unrotatedTn, rotateAngle);
+                repo.updateThumbnails(rotatedThumbnails);
+            }
+        }
 
-                        if (rotatedTn != null) {
+        /**
+         * @return rotated thumbnails or null, if interrupted
+         */
+        private Map<File, Image> rotate(List<File> batch) {
+            List<Callable<Image>> rotations = new ArrayList<>(batch.size());
 
-                            // should fire an updateImageFile caught by cache
-                            repo.updateThumbnail(imageFile, rotatedTn);
-                        }
+            for (File imageFile : batch) {
+                rotations.add(new RotateThumbnail(imageFile, rotateAngle));
+            }
+
+            Map<File, Image> rotatedThumbnails = new LinkedHashMap<>();
+
+            try {
+                List<Future<Image>> rotatedThumbnailFutures = rotateThumbnailExecutor.invokeAll(rotations);
+
+                for (int i = 0; i < batch.size(); i++) {
+                    Image rotatedThumbnail = getRotatedThumbnail(rotatedThumbnailFutures.get(i));
+
+                    if (rotatedThumbnail != null) {
+                        rotatedThumbnails.put(batch.get(i), rotatedThumbnail);
                     }
                 }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+
+                return null;
+            }
+
+            return rotatedThumbnails;
+        }
+
+        private Image getRotatedThumbnail(Future<Image> future) throws InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException ex) {
+                LOGGER.log(Level.SEVERE, null, ex);
+
+                return null;
+            }
+        }
+    }
+
+    private final class RotateThumbnail implements Callable<Image> {
+
+        private final File imageFile;
+        private final float rotateAngle;
+
+        private RotateThumbnail(File imageFile, float rotateAngle) {
+            this.imageFile = imageFile;
+            this.rotateAngle = rotateAngle;
+        }
+
+        /**
+         * @return rotated thumbnail or null, if the image file has no thumbnail
+         */
+        @Override
+        public Image call() {
+            Image unrotatedTn = tnRepo.findThumbnail(imageFile);
+
+            return unrotatedTn == null
+                    ? null
+                    : ImageTransform.rotate(unrotatedTn, rotateAngle);
+        }
+    }
+
+    private static ThreadFactory createThreadFactory(final String threadName) {
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadName);
+
+                thread.setDaemon(true);
+
+                return thread;
             }
-        });
+        };
     }
 }
@@ -39,6 +39,7 @@ public class ThumbnailSizePanel extends PanelExt implements AWTEventListener, Ch
     private static final int MIN_MAGINFICATION_PERCENT = 10;
     private static final int MAX_MAGINFICATION_PERCENT = 100;
     private int currentValue = 100;
+    private boolean zooming;
 
     public ThumbnailSizePanel() {
         initComponents();
@@ -127,13 +128,18 @@ public class ThumbnailSizePanel extends PanelExt implements AWTEventListener, Ch
 
     private void handleSliderMoved() {
         int value = thumbnailSizeSlider.getValue();
+        boolean adjusting = thumbnailSizeSlider.getValueIsAdjusting();
 
         // value % STEP_WIDTH == 0 is not necessary as long as STEP_WIDTH == 1
         if ( /* value % STEP_WIDTH == 0 && */value != currentValue) {
             currentValue = value;
+            zooming = adjusting;
             writeProperties();
             setThumbnailWidth();
             EventBus.publish(new ThumbnailZoomChangedEvent(thumbnailSizeSlider, currentValue));
+        } else if (zooming && !adjusting) { // Dragging finished without changing the value
+            zooming = false;
+            setThumbnailWidth();
         }
     }
 
@@ -153,7 +159,7 @@ public class ThumbnailSizePanel extends PanelExt implements AWTEventListener, Ch
             public void run() {
                 int width = (int) ((double) getMaxTnWidth() * ((double) currentValue / 100.0));
 
-                GUI.getThumbnailsPanel().setThumbnailWidth(width);
+                GUI.getThumbnailsPanel().setThumbnailWidth(width, zooming);
             }
         });
     }
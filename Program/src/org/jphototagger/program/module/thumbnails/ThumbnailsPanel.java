@@ -59,13 +59,13 @@ import org.jphototagger.domain.event.listener.ThumbnailUpdateListener;
 import org.jphototagger.domain.filefilter.UserDefinedFileFilter;
 import org.jphototagger.domain.filefilter.UserDefinedFileFilter.RegexFileFilter;
 import org.jphototagger.domain.metadata.xmp.XmpSidecarFileResolver;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileInsertedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesInsertedEvent;
 import org.jphototagger.domain.repository.event.userdefinedfilefilters.UserDefinedFileFilterUpdatedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.xmp.ImageFilesXmpChangedEvent;
 import org.jphototagger.domain.thumbnails.MainWindowThumbnailsComponent;
 import org.jphototagger.domain.thumbnails.OriginOfDisplayedThumbnails;
 import org.jphototagger.domain.thumbnails.ThumbnailFlag;
@@ -252,6 +252,18 @@ public class ThumbnailsPanel extends PanelExt
     }
 
     public synchronized void setThumbnailWidth(int widthInPixels) {
+        setThumbnailWidth(widthInPixels, false);
+    }
+
+    /**
+     * @param widthInPixels width of the thumbnails
+     * @param zooming       true if the width is changed continuously, e.g.
+     *                      while dragging a slider: changed thumbnails will be
+     *                      displayed as quickly scaled previews until zooming
+     *                      has been finished
+     */
+    public synchronized void setThumbnailWidth(int widthInPixels, boolean zooming) {
+        renderedThumbnailCache.setZooming(zooming);
         if (widthInPixels != renderer.getThumbnailWidth()) {
             float oldPosition = getRelativeScrollPosition();
             renderer.setThumbnailWidth(widthInPixels);
@@ -1578,9 +1590,35 @@ public class ThumbnailsPanel extends PanelExt
         }
     }
 
-    @EventSubscriber(eventClass = ImageFileInsertedEvent.class)
-    public void imageFileInserted(ImageFileInsertedEvent evt) {
-        removeFilesNotAcceptedByFileFilter(evt.getImageFile());
+    /**
+     * Called with the files of a batch event outside the Event Dispatch Thread: the file filter may access the
+     * repository, the displayed files will be removed at once.
+     */
+    private void removeFilesNotAcceptedByFileFilter(Collection<? extends File> changedFiles) {
+        Set<File> displayedFiles;
+        synchronized (this) {
+            displayedFiles = new HashSet<>(files);
+        }
+        final List<File> notAcceptedFiles = new ArrayList<>();
+        for (File file : changedFiles) {
+            if (displayedFiles.contains(file) && !fileFilter.accept(file)) {
+                notAcceptedFiles.add(file);
+            }
+        }
+        if (!notAcceptedFiles.isEmpty()) {
+            EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+                @Override
+                public void run() {
+                    removeFiles(notAcceptedFiles);
+                }
+            });
+        }
+    }
+
+    @EventSubscriber(eventClass = ImageFilesInsertedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesInserted(ImageFilesInsertedEvent evt) {
+        removeFilesNotAcceptedByFileFilter(evt.getImageFiles());
     }
 
     @EventSubscriber(eventClass = ImageFileMovedEvent.class)
@@ -1589,24 +1627,34 @@ public class ThumbnailsPanel extends PanelExt
         removeFilesNotAcceptedByFileFilter(evt.getNewImageFile());
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileDeleted(ImageFileDeletedEvent evt) {
-        removeFilesNotAcceptedByFileFilter(evt.getImageFile());
-    }
-
-    @EventSubscriber(eventClass = XmpInsertedEvent.class)
-    public void xmpInserted(XmpInsertedEvent evt) {
-        removeFilesNotAcceptedByFileFilter(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesMovedEvent.class)
+    public void imageFilesMoved(ImageFilesMovedEvent evt) {
+        List<File> displayedFiles;
+        synchronized (this) {
+            displayedFiles = new ArrayList<>(files);
+        }
+        Map<File, File> movedImageFiles = evt.getMovedImageFiles();
+        List<File> movedDisplayedFiles = new ArrayList<>();
+        for (File displayedFile : displayedFiles) {
+            File newImageFile = movedImageFiles.get(displayedFile);
+            if (newImageFile != null) {
+                movedDisplayedFiles.add(displayedFile);
+                movedDisplayedFiles.add(newImageFile);
+            }
+        }
+        if (!movedDisplayedFiles.isEmpty()) {
+            removeFilesNotAcceptedByFileFilter(movedDisplayedFiles);
+        }
     }
 
-    @EventSubscriber(eventClass = XmpUpdatedEvent.class)
-    public void xmpUpdated(XmpUpdatedEvent evt) {
-        removeFilesNotAcceptedByFileFilter(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesDeleted(ImageFilesDeletedEvent evt) {
+        removeFilesNotAcceptedByFileFilter(evt.getImageFiles());
     }
 
-    @EventSubscriber(eventClass = XmpDeletedEvent.class)
-    public void xmpDeleted(XmpDeletedEvent evt) {
-        removeFilesNotAcceptedByFileFilter(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesXmpChangedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void xmpChanged(ImageFilesXmpChangedEvent evt) {
+        removeFilesNotAcceptedByFileFilter(evt.getImageFiles());
     }
 
     @EventSubscriber(eventClass = PreferencesChangedEvent.class)
@@ -1,13 +1,12 @@
 package org.jphototagger.program.module.thumbnails;
 
 import java.io.File;
-import java.util.Collections;
+import java.util.List;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
-import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.xmp.ImageFilesXmpChangedEvent;
 import org.jphototagger.domain.thumbnails.event.ThumbnailUpdatedEvent;
 import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.program.module.thumbnails.cache.ThumbnailCache;
@@ -27,30 +26,22 @@ public final class ThumbnailsRepositoryChangesController {
         AnnotationProcessor.process(this);
     }
 
-    private void updateXmpCache(final File imageFile) {
+    private void updateXmpCache(final List<File> imageFiles) {
         EventQueueUtil.invokeInDispatchThread(new Runnable() {
 
             @Override
             public void run() {
-                XmpCache.INSTANCE.remove(imageFile);
-                XmpCache.INSTANCE.notifyUpdate(imageFile);
+                for (File imageFile : imageFiles) {
+                    XmpCache.INSTANCE.remove(imageFile);
+                    XmpCache.INSTANCE.notifyUpdate(imageFile);
+                }
             }
         });
     }
 
-    @EventSubscriber(eventClass = XmpInsertedEvent.class)
-    public void xmpInserted(XmpInsertedEvent evt) {
-        updateXmpCache(evt.getImageFile());
-    }
-
-    @EventSubscriber(eventClass = XmpUpdatedEvent.class)
-    public void xmpUpdated(XmpUpdatedEvent evt) {
-        updateXmpCache(evt.getImageFile());
-    }
-
-    @EventSubscriber(eventClass = XmpDeletedEvent.class)
-    public void xmpDeleted(XmpDeletedEvent evt) {
-        updateXmpCache(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesXmpChangedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void xmpChanged(ImageFilesXmpChangedEvent evt) {
+        updateXmpCache(evt.getImageFiles());
     }
 
     @EventSubscriber(eventClass = ThumbnailUpdatedEvent.class)
@@ -61,8 +52,14 @@ public final class ThumbnailsRepositoryChangesController {
         ThumbnailCache.INSTANCE.notifyUpdate(imageFile);
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileDeleted(final ImageFileDeletedEvent evt) {
-        GUI.getThumbnailsPanel().removeFiles(Collections.singleton(evt.getImageFile()));
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesDeleted(final ImageFilesDeletedEvent evt) {
+        EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+            @Override
+            public void run() {
+                GUI.getThumbnailsPanel().removeFiles(evt.getImageFiles());
+            }
+        });
     }
 }
@@ -1,6 +1,10 @@
 package org.jphototagger.program.module.thumbnails.cache;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import org.jphototagger.domain.event.listener.ThumbnailUpdateListener;
@@ -75,6 +79,32 @@ public abstract class Cache<CI extends CacheIndirection> {
         notifyUpdate(oldFile);
     }
 
+    /**
+     * Moves the cached entries of renamed files to their new files without notifying the listeners, the entries
+     * themselves don't change.
+     *
+     * @param newFileOfOldFile new file of every renamed old file
+     */
+    public synchronized void updateFiles(Map<File, File> newFileOfOldFile) {
+        if (newFileOfOldFile == null) {
+            throw new NullPointerException("newFileOfOldFile == null");
+        }
+        List<File> oldFiles = new ArrayList<>();
+        for (File file : fileCache.keySet()) { // The cache is small, the renamed files may be many
+            if (newFileOfOldFile.containsKey(file)) {
+                oldFiles.add(file);
+            }
+        }
+        for (File oldFile : oldFiles) {
+            CI ci = fileCache.remove(oldFile);
+            if (ci != null) {
+                File newFile = newFileOfOldFile.get(oldFile);
+                ci.file = newFile;
+                fileCache.put(newFile, ci);
+            }
+        }
+    }
+
     public synchronized void remove(File file) {
         if (file == null) {
             throw new NullPointerException("file == null");
@@ -82,5 +112,14 @@ public abstract class Cache<CI extends CacheIndirection> {
         fileCache.remove(file);
     }
 
+    public synchronized void remove(Collection<? extends File> files) {
+        if (files == null) {
+            throw new NullPointerException("files == null");
+        }
+        for (File file : files) {
+            fileCache.remove(file);
+        }
+    }
+
     abstract protected void generateEntry(File file, boolean prefetch);
 }
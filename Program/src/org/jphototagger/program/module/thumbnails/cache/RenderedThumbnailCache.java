@@ -5,12 +5,17 @@ import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.bushe.swing.event.annotation.AnnotationProcessor;
+import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.domain.event.listener.ThumbnailUpdateListener;
+import org.jphototagger.domain.thumbnails.event.ThumbnailsUpdatedEvent;
 import org.jphototagger.domain.thumbnails.event.TypedThumbnailUpdateEvent;
 import org.jphototagger.lib.awt.EventQueueUtil;
 import org.jphototagger.lib.swing.IconUtil;
@@ -22,6 +27,12 @@ import org.jphototagger.program.module.thumbnails.ThumbnailPanelRenderer;
  * directly draw by the ThumbnailsPanel, they contain all kinds of markup and
  * overlays.
  *
+ * The thumbnails are scaled from the nearest tier of a
+ * {@link ThumbnailPyramid}. If the thumbnail size changes, e.g. while the
+ * user drags the thumbnail size slider, a preview quickly scaled from the
+ * nearest tier is delivered at once and rendered again in the background when
+ * zooming has been finished.
+ *
  * Fixme: refactor common stuff between this and Cache into a common ancestor
  *
  * @author Martin Pohlack
@@ -42,6 +53,7 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
      */
     private final SoftCacheMap<RenderedThumbnailCacheIndirection> fileCache = new SoftCacheMap<>(MAX_ENTRIES, workQueue);
     private ThumbnailPanelRenderer renderer = null;
+    private boolean zooming;
 
     private RenderedThumbnailCache() {
 
@@ -49,6 +61,7 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
         // request, as the jobs are assumed to be short
         thumbCache.addThumbnailUpdateListener(this);
         XmpCache.INSTANCE.addThumbnailUpdateListener(this);
+        AnnotationProcessor.process(this);
 
         Thread t = new Thread(new ThumbnailRenderer(workQueue, this), "JPhotoTagger: ThumbnailRenderer");
 
@@ -66,6 +79,7 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
         updateUsageTime(ci);
         ci.thumbnail = image;
         ci.length = length;
+        ci.preview = false;
         fileCache.maybeCleanupCache();
 
         if (repaint) {
@@ -130,22 +144,23 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
                     rtci = wq.fetch();
                     assert (rtci.file != null);
 
+                    int length = rtci.length;
                     Image im = cache.thumbCache.getThumbnail(rtci.file);
 
                     if (im == null) {    // no data available yet
                         if ((cache.scaledDummyThumbnail == null)
-                                || !cache.correctlyScaled(cache.scaledDummyThumbnail, rtci.length)) {
-                            cache.scaledDummyThumbnail = cache.computeScaled(cache.dummyThumbnail, rtci.length);
+                                || !cache.correctlyScaled(cache.scaledDummyThumbnail, length)) {
+                            cache.scaledDummyThumbnail = cache.computeScaled(cache.dummyThumbnail, length);
                         }
 
                         im = cache.scaledDummyThumbnail;
                         im = cache.renderer.getRenderedThumbnail(im, rtci, true);
                     } else {
-                        im = cache.computeScaled(im, rtci.length);
+                        im = cache.getPyramid(rtci, im).getScaled(length, false);
                         im = cache.renderer.getRenderedThumbnail(im, rtci, false);
                     }
 
-                    cache.update(im, rtci.file, rtci.length, true);
+                    cache.update(im, rtci.file, length, true);
                 } catch (Throwable t) {
                     Logger.getLogger(ThumbnailRenderer.class.getName()).log(Level.SEVERE, null, t);
                 }
@@ -154,6 +169,38 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
     }
 
 
+    private synchronized ThumbnailPyramid getPyramid(RenderedThumbnailCacheIndirection rtci, Image thumbnail) {
+        if ((rtci.pyramid == null) || !rtci.pyramid.isSource(thumbnail)) {
+            rtci.pyramid = new ThumbnailPyramid(thumbnail);
+        }
+
+        return rtci.pyramid;
+    }
+
+    /**
+     * Sets whether the thumbnail size is currently changed continuously, e.g.
+     * while the user drags the thumbnail size slider. While zooming, changed
+     * sizes are delivered as previews only. After zooming all previews will
+     * be rendered again.
+     *
+     * @param zooming true while zooming
+     */
+    public synchronized void setZooming(boolean zooming) {
+        boolean finished = this.zooming && !zooming;
+
+        this.zooming = zooming;
+
+        if (finished) {
+            for (File file : new ArrayList<>(fileCache.keySet())) {
+                RenderedThumbnailCacheIndirection ci = fileCache.get(file);
+
+                if ((ci != null) && ci.preview) {
+                    workQueue.push(ci);
+                }
+            }
+        }
+    }
+
     /*
      *  Set renderer object used for constructing the actual images
      */
@@ -244,6 +291,15 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
             return ci.thumbnail;    // we may return null, or the correct image
         }
 
+        // a preview of the requested size will be rendered again later
+        if (ci.preview && (ci.length == length)) {
+            return ci.thumbnail;
+        }
+
+        if ((ci.length != length) && (ci.pyramid != null)) {
+            return renderPreview(ci, length);
+        }
+
         // recreate, we had the wrong size or overlay type
         generateEntry(file, length, false);
 
@@ -257,12 +313,38 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
         return null;
     }
 
+    /**
+     * Scales the nearest tier of the pyramid quickly and renders it within
+     * the calling thread, so that changed thumbnail sizes are displayed at
+     * once. The preview will be rendered again in the background after
+     * zooming has been finished.
+     */
+    private Image renderPreview(RenderedThumbnailCacheIndirection ci, int length) {
+        Image preview = renderer.getRenderedThumbnail(ci.pyramid.getScaled(length, true), ci, false);
+
+        workQueue.remove(ci);    // the request for the previous size is obsolete
+        ci.thumbnail = preview;
+        ci.length = length;
+        ci.preview = true;
+
+        if (!zooming) {
+            workQueue.push(ci);
+        }
+
+        return preview;
+    }
+
     private synchronized void generateEntry(File file, int length, boolean prefetch) {
         if (file == null) {
             throw new NullPointerException("file == null");
         }
 
         RenderedThumbnailCacheIndirection ci = new RenderedThumbnailCacheIndirection(file, length);
+        RenderedThumbnailCacheIndirection previousCi = fileCache.get(file);
+
+        if (previousCi != null) {
+            ci.pyramid = previousCi.pyramid;
+        }
 
         fileCache.put(file, ci);
         updateUsageTime(ci);
@@ -339,6 +421,25 @@ public final class RenderedThumbnailCache implements ThumbnailUpdateListener {
         notifyUpdate(event);
     }
 
+    /**
+     * Drops the cached and rendered thumbnails of all updated image files
+     * before notifying the listeners, so that the listeners can refresh once
+     * for the whole batch.
+     *
+     * @param evt event
+     */
+    @EventSubscriber(eventClass = ThumbnailsUpdatedEvent.class)
+    public void thumbnailsUpdated(ThumbnailsUpdatedEvent evt) {
+        List<File> imageFiles = evt.getImageFiles();
+
+        thumbCache.remove(imageFiles);
+        remove(imageFiles);
+
+        for (File imageFile : imageFiles) {
+            notifyUpdate(new TypedThumbnailUpdateEvent(imageFile, TypedThumbnailUpdateEvent.Type.THUMBNAIL_UPDATE));
+        }
+    }
+
     public void updateFiles(File oldFile, File newFile) {
         if (oldFile == null) {
             throw new NullPointerException("oldFile == null");
@@ -13,6 +13,8 @@ public class RenderedThumbnailCacheIndirection extends CacheIndirection {
     public int length = 0;
     public boolean hasKeywords;    // actually contains keywords
     public boolean renderedForKeywords;    // was rendered for keywords
+    public boolean preview;    // quickly scaled, will be rendered again
+    public ThumbnailPyramid pyramid;    // tiers of the unscaled thumbnail
 
     public RenderedThumbnailCacheIndirection(File _file, int _length) {
         super(_file);
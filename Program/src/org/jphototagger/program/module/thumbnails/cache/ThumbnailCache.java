@@ -8,9 +8,11 @@ import java.util.logging.Logger;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.domain.event.listener.ThumbnailUpdateListener;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileInsertedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesInsertedEvent;
 import org.jphototagger.domain.thumbnails.event.ThumbnailUpdatedEvent;
 import org.jphototagger.domain.thumbnails.event.TypedThumbnailUpdateEvent;
 import org.jphototagger.lib.awt.EventQueueUtil;
@@ -66,14 +68,27 @@ public final class ThumbnailCache extends Cache<ThumbnailCacheIndirection> {
         AnnotationProcessor.process(this);
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileDeleted(ImageFileDeletedEvent evt) {
-        fileCache.remove(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesDeleted(ImageFilesDeletedEvent evt) {
+        synchronized (this) {
+            for (File imageFile : evt.getImageFiles()) {
+                fileCache.remove(imageFile);
+            }
+        }
     }
 
-    @EventSubscriber(eventClass = ImageFileInsertedEvent.class)
-    public void imageFileInserted(ImageFileInsertedEvent evt) {
-        notifyUpdate(evt.getImageFile());
+    @EventSubscriber(eventClass = ImageFilesInsertedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesInserted(ImageFilesInsertedEvent evt) {
+        final List<File> imageFiles = evt.getImageFiles();
+        EventQueueUtil.invokeInDispatchThread(new Runnable() {
+
+            @Override
+            public void run() {
+                for (File imageFile : imageFiles) {
+                    notifyUpdate(imageFile);
+                }
+            }
+        });
     }
 
     @EventSubscriber(eventClass = ImageFileMovedEvent.class)
@@ -82,6 +97,11 @@ public final class ThumbnailCache extends Cache<ThumbnailCacheIndirection> {
         notifyUpdate(evt.getNewImageFile());
     }
 
+    @EventSubscriber(eventClass = ImageFilesMovedEvent.class)
+    public void imageFilesMoved(ImageFilesMovedEvent evt) {
+        updateFiles(evt.getMovedImageFiles());
+    }
+
     @EventSubscriber(eventClass = ThumbnailUpdatedEvent.class)
     public void thumbnailUpdated(ThumbnailUpdatedEvent evt) {
         File imageFile = evt.getImageFile();
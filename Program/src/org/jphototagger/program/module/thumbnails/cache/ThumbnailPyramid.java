@@ -0,0 +1,131 @@
+package org.jphototagger.program.module.thumbnails.cache;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-scaled tiers of a thumbnail: The thumbnail itself, half, a quarter, ...
+ * of it's size. The tiers are created on demand, each from the next larger
+ * tier.
+ *
+ * A thumbnail of arbitrary size is scaled from the smallest tier not smaller
+ * than the requested size, so that the final resampling shrinks at most by
+ * the factor 2 and is cheap.
+ *
+ * @author Elmar Baumann
+ */
+public final class ThumbnailPyramid {
+
+    /**
+     * Tiers with a longer edge below this length will not be created.
+     */
+    static final int MIN_TIER_LENGTH = 32;
+    private final Image source;
+    private final List<BufferedImage> tiers = new ArrayList<>(); // Guarded by this
+
+    public ThumbnailPyramid(Image source) {
+        if (source == null) {
+            throw new NullPointerException("source == null");
+        }
+
+        this.source = source;
+    }
+
+    /**
+     * @param image image
+     * @return true if this pyramid has been created from that image
+     */
+    public boolean isSource(Image image) {
+        return source == image;
+    }
+
+    /**
+     * Returns the thumbnail scaled to a length.
+     *
+     * @param length length of the longer edge
+     * @param fast   true for bilinear interpolation, e.g. while zooming,
+     *               false for bicubic interpolation
+     * @return scaled thumbnail, the tier itself if it has that length
+     */
+    public Image getScaled(int length, boolean fast) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+
+        BufferedImage tier = getTier(length);
+
+        if (getLength(tier) == length) {
+            return tier;
+        }
+
+        return scale(tier, length, fast
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR
+                : RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    /**
+     * @param length length of the longer edge
+     * @return smallest tier not smaller than length or the largest tier if
+     *         length is greater than the thumbnail
+     */
+    synchronized BufferedImage getTier(int length) {
+        if (tiers.isEmpty()) {
+            tiers.add(toBufferedImage(source));
+        }
+
+        BufferedImage tier = tiers.get(0);
+        int index = 0;
+
+        while (getLength(tier) / 2 >= Math.max(length, MIN_TIER_LENGTH)) {
+            index++;
+
+            if (index == tiers.size()) {
+                tiers.add(scale(tier, getLength(tier) / 2, RenderingHints.VALUE_INTERPOLATION_BILINEAR));
+            }
+
+            tier = tiers.get(index);
+        }
+
+        return tier;
+    }
+
+    synchronized int getTierCount() {
+        return tiers.size();
+    }
+
+    private static int getLength(Image image) {
+        return Math.max(image.getWidth(null), image.getHeight(null));
+    }
+
+    private static BufferedImage toBufferedImage(Image image) {
+        if ((image instanceof BufferedImage) && (((BufferedImage) image).getType() == BufferedImage.TYPE_INT_RGB)) {
+            return (BufferedImage) image;
+        }
+
+        return scale(image, getLength(image), RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+
+    private static BufferedImage scale(Image image, int length, Object interpolation) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        double scaleFactor = (double) length / (double) Math.max(width, height);
+        int tw = (width > height)
+                ? length
+                : Math.max(1, (int) ((double) width * scaleFactor + 0.5));
+        int th = (height >= width)
+                ? length
+                : Math.max(1, (int) ((double) height * scaleFactor + 0.5));
+        BufferedImage scaled = new BufferedImage(tw, th, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = scaled.createGraphics();
+
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g2.drawImage(image, 0, 0, tw, th, null);
+        g2.dispose();
+
+        return scaled;
+    }
+}
@@ -2,6 +2,8 @@ package org.jphototagger.program.module.thumbnails.cache;
 
 import java.awt.Image;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -42,10 +44,18 @@ public final class ThumbnailsDb {
         return THUMBNAILS.deleteThumbnail(imageFile);
     }
 
+    static int deleteThumbnails(Collection<? extends File> imageFiles) {
+        return THUMBNAILS.deleteThumbnails(imageFiles);
+    }
+
     static void insertThumbnail(Image thumbnail, File imageFile) {
         THUMBNAILS.insertThumbnail(thumbnail, imageFile);
     }
 
+    static int insertThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        return THUMBNAILS.insertThumbnails(thumbnailsOfImageFiles);
+    }
+
     static boolean hasUpToDateThumbnail(File imageFile) {
         return THUMBNAILS.hasUpToDateThumbnail(imageFile);
     }
@@ -54,6 +64,10 @@ public final class ThumbnailsDb {
         return THUMBNAILS.renameThumbnail(fromImageFile, toImageFile);
     }
 
+    static int renameThumbnails(Map<File, File> newImageFileOfOldImageFile) {
+        return THUMBNAILS.renameThumbnails(newImageFileOfOldImageFile);
+    }
+
     static Set<String> getImageFilenames() {
         return THUMBNAILS.getImageFilenames();
     }
@@ -2,6 +2,8 @@ package org.jphototagger.program.module.thumbnails.cache;
 
 import java.awt.Image;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import org.jphototagger.domain.repository.ThumbnailsRepository;
 import org.openide.util.lookup.ServiceProvider;
@@ -17,6 +19,11 @@ public final class ThumbnailsRepositoryImpl implements ThumbnailsRepository {
         return ThumbnailsDb.deleteThumbnail(imageFile);
     }
 
+    @Override
+    public int deleteThumbnails(Collection<? extends File> imageFiles) {
+        return ThumbnailsDb.deleteThumbnails(imageFiles);
+    }
+
     @Override
     public boolean existsThumbnail(File imageFile) {
         return ThumbnailsDb.existsThumbnail(imageFile);
@@ -32,11 +39,21 @@ public final class ThumbnailsRepositoryImpl implements ThumbnailsRepository {
         return ThumbnailsDb.renameThumbnail(fromImageFile, toImageFile);
     }
 
+    @Override
+    public int renameThumbnails(Map<File, File> newImageFileOfOldImageFile) {
+        return ThumbnailsDb.renameThumbnails(newImageFileOfOldImageFile);
+    }
+
     @Override
     public void insertThumbnail(Image thumbnail, File imageFile) {
         ThumbnailsDb.insertThumbnail(thumbnail, imageFile);
     }
 
+    @Override
+    public int insertThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        return ThumbnailsDb.insertThumbnails(thumbnailsOfImageFiles);
+    }
+
     @Override
     public boolean hasUpToDateThumbnail(File imageFile) {
         return ThumbnailsDb.hasUpToDateThumbnail(imageFile);
@@ -1,18 +1,21 @@
 package org.jphototagger.program.module.thumbnails.cache;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.domain.event.listener.ThumbnailUpdateListener;
+import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.xmp.FileXmp;
 import org.jphototagger.domain.metadata.xmp.Xmp;
 import org.jphototagger.domain.repository.ImageFilesRepository;
 import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpValueRenamedEvent;
 import org.jphototagger.domain.thumbnails.event.TypedThumbnailUpdateEvent;
 import org.jphototagger.lib.awt.EventQueueUtil;
 import org.openide.util.Lookup;
@@ -26,10 +29,19 @@ public final class XmpCache extends Cache<XmpCacheIndirection> {
     public static final XmpCache INSTANCE = new XmpCache();
 
     private XmpCache() {
+        this(true);
+    }
+
+    /**
+     * @param fetchXmp false, if requested XMP shall not be fetched from the repository, e.g. in tests
+     */
+    XmpCache(boolean fetchXmp) {
         listen();
-        XmpFetcher xmpFetcher = new XmpFetcher(workQueue, this);
-        Thread xmpFetcherThread = new Thread(xmpFetcher, "JPhotoTagger: XmpFetcher");
-        xmpFetcherThread.start();
+        if (fetchXmp) {
+            XmpFetcher xmpFetcher = new XmpFetcher(workQueue, this);
+            Thread xmpFetcherThread = new Thread(xmpFetcher, "JPhotoTagger: XmpFetcher");
+            xmpFetcherThread.start();
+        }
     }
 
     private void listen() {
@@ -53,6 +65,35 @@ public final class XmpCache extends Cache<XmpCacheIndirection> {
         update(evt.getUpdatedXmp(), evt.getImageFile(), true);
     }
 
+    // No XmpUpdatedEvents will be published for the renamed values, the cached
+    // XMP having the old value will be fetched again from the repository
+    @EventSubscriber(eventClass = XmpValueRenamedEvent.class)
+    public void xmpValueRenamed(XmpValueRenamedEvent evt) {
+        MetaDataValue mdValue = evt.getMetaDataValue();
+        String fromValue = evt.getFromValue();
+        List<File> imageFilesWithFromValue = new ArrayList<>();
+
+        synchronized (this) {
+            for (File imageFile : fileCache.keySet()) {
+                XmpCacheIndirection ci = fileCache.get(imageFile);
+
+                if (ci != null && ci.xmp != null && hasValue(ci.xmp, mdValue, fromValue)) {
+                    imageFilesWithFromValue.add(imageFile);
+                }
+            }
+        }
+
+        for (File imageFile : imageFilesWithFromValue) {
+            update(imageFile);
+        }
+    }
+
+    private static boolean hasValue(Xmp xmp, MetaDataValue mdValue, String value) {
+        Object xmpValue = xmp.getValue(mdValue);
+
+        return xmpValue != null && xmpValue.toString().trim().equalsIgnoreCase(value);
+    }
+
     private void update(File imageFile) {
         fileCache.remove(imageFile);
         notifyUpdate(imageFile);
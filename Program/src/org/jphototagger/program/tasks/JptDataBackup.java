@@ -0,0 +1,481 @@
+package org.jphototagger.program.tasks;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bushe.swing.event.EventBus;
+import org.bushe.swing.event.EventService;
+import org.bushe.swing.event.EventSubscriber;
+import org.jphototagger.domain.repository.Repository;
+import org.jphototagger.domain.repository.RepositoryDataExporter;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
+import org.jphototagger.domain.repository.event.autoscandirectories.AutoscanDirectoryDeletedEvent;
+import org.jphototagger.domain.repository.event.autoscandirectories.AutoscanDirectoryInsertedEvent;
+import org.jphototagger.domain.repository.event.favorites.FavoriteDeletedEvent;
+import org.jphototagger.domain.repository.event.favorites.FavoriteInsertedEvent;
+import org.jphototagger.domain.repository.event.favorites.FavoriteUpdatedEvent;
+import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternDeletedEvent;
+import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternInsertedEvent;
+import org.jphototagger.domain.repository.event.imagecollections.ImageCollectionDeletedEvent;
+import org.jphototagger.domain.repository.event.imagecollections.ImageCollectionImagesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagecollections.ImageCollectionImagesInsertedEvent;
+import org.jphototagger.domain.repository.event.imagecollections.ImageCollectionInsertedEvent;
+import org.jphototagger.domain.repository.event.imagecollections.ImageCollectionRenamedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
+import org.jphototagger.domain.repository.event.keywords.KeywordsChangedEvent;
+import org.jphototagger.domain.repository.event.metadatatemplates.MetadataTemplateDeletedEvent;
+import org.jphototagger.domain.repository.event.metadatatemplates.MetadataTemplateInsertedEvent;
+import org.jphototagger.domain.repository.event.metadatatemplates.MetadataTemplateRenamedEvent;
+import org.jphototagger.domain.repository.event.metadatatemplates.MetadataTemplateUpdatedEvent;
+import org.jphototagger.domain.repository.event.programs.DefaultProgramDeletedEvent;
+import org.jphototagger.domain.repository.event.programs.DefaultProgramInsertedEvent;
+import org.jphototagger.domain.repository.event.programs.DefaultProgramUpdatedEvent;
+import org.jphototagger.domain.repository.event.programs.ProgramDeletedEvent;
+import org.jphototagger.domain.repository.event.programs.ProgramInsertedEvent;
+import org.jphototagger.domain.repository.event.programs.ProgramUpdatedEvent;
+import org.jphototagger.domain.repository.event.renametemplates.RenameTemplateDeletedEvent;
+import org.jphototagger.domain.repository.event.renametemplates.RenameTemplateInsertedEvent;
+import org.jphototagger.domain.repository.event.renametemplates.RenameTemplateUpdatedEvent;
+import org.jphototagger.domain.repository.event.search.SavedSearchDeletedEvent;
+import org.jphototagger.domain.repository.event.search.SavedSearchInsertedEvent;
+import org.jphototagger.domain.repository.event.search.SavedSearchRenamedEvent;
+import org.jphototagger.domain.repository.event.search.SavedSearchUpdatedEvent;
+import org.jphototagger.domain.repository.event.synonyms.SynonymInsertedEvent;
+import org.jphototagger.domain.repository.event.synonyms.SynonymOfWordDeletedEvent;
+import org.jphototagger.domain.repository.event.synonyms.SynonymOfWordRenamedEvent;
+import org.jphototagger.domain.repository.event.synonyms.SynonymRenamedEvent;
+import org.jphototagger.domain.repository.event.synonyms.WordDeletedEvent;
+import org.jphototagger.domain.repository.event.synonyms.WordRenamedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfilefilters.UserDefinedFileFilterDeletedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfilefilters.UserDefinedFileFilterInsertedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfilefilters.UserDefinedFileFilterUpdatedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfiletypes.UserDefinedFileTypeDeletedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfiletypes.UserDefinedFileTypeInsertedEvent;
+import org.jphototagger.domain.repository.event.userdefinedfiletypes.UserDefinedFileTypeUpdatedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetInsertedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetRemovedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetRenamedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetUpdatedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetWordAddedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetWordRemovedEvent;
+import org.jphototagger.domain.repository.event.wordsets.WordsetWordRenamedEvent;
+import org.jphototagger.lib.io.FileUtil;
+import org.openide.util.Lookup;
+
+/**
+ * Backups the JPhotoTagger data, e.g. keywords and image collections, into the auto backup directory.
+ * <p>
+ * Only changed data will be backed up: After {@link #startMonitoring()} the repository events changing a data set are
+ * counted and the exporter of a data set runs only if it's count changed since it's last backup. Exporters of data
+ * sets not known here and data sets without a previous backup are always exported. The exported content is compared
+ * with the fingerprint of the last backup and a new version will be written only if the fingerprints differ, so that
+ * unchanged data does not rotate out older versions. The exporters run in parallel.
+ * <p>
+ * Changed data will be backed up in the background when no data was changed for a while, so that usually nothing is
+ * left to do on exit.
+ *
+ * @author Elmar Baumann
+ */
+final class JptDataBackup {
+
+    static final JptDataBackup INSTANCE = new JptDataBackup();
+    private static final Logger LOGGER = Logger.getLogger(JptDataBackup.class.getName());
+    private static final int MAX_VERSIONS = 9;
+    private static final String FINGERPRINTS_FILENAME = "Fingerprints.properties";
+    private static final String TEMP_FILE_PREFIX = "~";
+    private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long IDLE_CHECK_INTERVAL_MINUTES = 1;
+    private static final Map<String, Collection<Class<?>>> CHANGE_EVENTS_OF_FILENAME = createChangeEventsOfFilename();
+    private static final Collection<Class<?>> COALESCED_CHANGE_EVENTS = Arrays.<Class<?>>asList(ImageFilesDeletedEvent.class);
+    private final Map<String, AtomicLong> changeCountOfFilename = createChangeCountOfFilename();
+    private final Map<String, Long> backedUpChangeCountOfFilename = new HashMap<>();
+    private volatile boolean monitoring;
+    private volatile long lastChangeMillis;
+    private ScheduledExecutorService idleTimeScheduler;
+
+    private JptDataBackup() {
+    }
+
+    /**
+     * Default filenames of the JPhotoTagger data exporters with the repository events changing their data. The events
+     * in {@link #COALESCED_CHANGE_EVENTS} are published by the {@link RepositoryEventCoalescer}, all others by the
+     * {@link EventBus}.
+     */
+    private static Map<String, Collection<Class<?>>> createChangeEventsOfFilename() {
+        Map<String, Collection<Class<?>>> changeEventsOfFilename = new HashMap<>();
+        changeEventsOfFilename.put("JptAutoscanDirectories.xml", Arrays.<Class<?>>asList(
+                AutoscanDirectoryDeletedEvent.class, AutoscanDirectoryInsertedEvent.class));
+        changeEventsOfFilename.put("JptFavorites.xml", Arrays.<Class<?>>asList(
+                FavoriteDeletedEvent.class, FavoriteInsertedEvent.class, FavoriteUpdatedEvent.class));
+        changeEventsOfFilename.put("JptFileExludePatterns.xml", Arrays.<Class<?>>asList(
+                FileExcludePatternDeletedEvent.class, FileExcludePatternInsertedEvent.class));
+        changeEventsOfFilename.put("JptFileFilters.xml", Arrays.<Class<?>>asList(
+                UserDefinedFileFilterDeletedEvent.class, UserDefinedFileFilterInsertedEvent.class,
+                UserDefinedFileFilterUpdatedEvent.class));
+        changeEventsOfFilename.put("JptImageCollections.xml", Arrays.<Class<?>>asList(
+                ImageCollectionDeletedEvent.class, ImageCollectionImagesDeletedEvent.class,
+                ImageCollectionImagesInsertedEvent.class, ImageCollectionInsertedEvent.class,
+                ImageCollectionRenamedEvent.class, ImageFileDeletedEvent.class, ImageFileMovedEvent.class,
+                ImageFilesDeletedEvent.class, ImageFilesMovedEvent.class));
+        changeEventsOfFilename.put("JptKeywords.xml", Arrays.<Class<?>>asList(KeywordsChangedEvent.class));
+        changeEventsOfFilename.put("JptMetadataTemplates.xml", Arrays.<Class<?>>asList(
+                MetadataTemplateDeletedEvent.class, MetadataTemplateInsertedEvent.class,
+                MetadataTemplateRenamedEvent.class, MetadataTemplateUpdatedEvent.class));
+        changeEventsOfFilename.put("JptPrograms.xml", Arrays.<Class<?>>asList(
+                DefaultProgramDeletedEvent.class, DefaultProgramInsertedEvent.class, DefaultProgramUpdatedEvent.class,
+                ProgramDeletedEvent.class, ProgramInsertedEvent.class, ProgramUpdatedEvent.class));
+        changeEventsOfFilename.put("JptRenameTemplates.xml", Arrays.<Class<?>>asList(
+                RenameTemplateDeletedEvent.class, RenameTemplateInsertedEvent.class, RenameTemplateUpdatedEvent.class));
+        changeEventsOfFilename.put("JptSavedSearches.xml", Arrays.<Class<?>>asList(
+                SavedSearchDeletedEvent.class, SavedSearchInsertedEvent.class, SavedSearchRenamedEvent.class,
+                SavedSearchUpdatedEvent.class));
+        changeEventsOfFilename.put("JptSynonyms.xml", Arrays.<Class<?>>asList(
+                SynonymInsertedEvent.class, SynonymOfWordDeletedEvent.class, SynonymOfWordRenamedEvent.class,
+                SynonymRenamedEvent.class, WordDeletedEvent.class, WordRenamedEvent.class));
+        changeEventsOfFilename.put("JptUserDefinedFileTypes.xml", Arrays.<Class<?>>asList(
+                UserDefinedFileTypeDeletedEvent.class, UserDefinedFileTypeInsertedEvent.class,
+                UserDefinedFileTypeUpdatedEvent.class));
+        changeEventsOfFilename.put("JptWordsets.xml", Arrays.<Class<?>>asList(
+                WordsetInsertedEvent.class, WordsetRemovedEvent.class, WordsetRenamedEvent.class,
+                WordsetUpdatedEvent.class, WordsetWordAddedEvent.class, WordsetWordRemovedEvent.class,
+                WordsetWordRenamedEvent.class));
+        return Collections.unmodifiableMap(changeEventsOfFilename);
+    }
+
+    private static Map<String, AtomicLong> createChangeCountOfFilename() {
+        Map<String, AtomicLong> changeCountOfFilename = new HashMap<>();
+        for (String filename : CHANGE_EVENTS_OF_FILENAME.keySet()) {
+            changeCountOfFilename.put(filename, new AtomicLong());
+        }
+        return Collections.unmodifiableMap(changeCountOfFilename);
+    }
+
+    /**
+     * Starts counting repository changes to backup changed data in the background when no data was changed for a
+     * while.
+     */
+    synchronized void startMonitoring() {
+        if (monitoring) {
+            return;
+        }
+        subscribeToChangeEvents();
+        idleTimeScheduler = Executors.newSingleThreadScheduledExecutor(createThreadFactory("JPhotoTagger: Idle time backup of JPhotoTagger data", Thread.MIN_PRIORITY));
+        idleTimeScheduler.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                backupIfIdle();
+            }
+        }, IDLE_CHECK_INTERVAL_MINUTES, IDLE_CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        monitoring = true;
+    }
+
+    private void subscribeToChangeEvents() {
+        Set<Class<?>> changeEvents = new LinkedHashSet<>();
+        for (Collection<Class<?>> changeEventsOfFilename : CHANGE_EVENTS_OF_FILENAME.values()) {
+            changeEvents.addAll(changeEventsOfFilename);
+        }
+        EventService coalescerEventService = RepositoryEventCoalescer.INSTANCE.getEventService();
+        for (Class<?> changeEvent : changeEvents) {
+            if (COALESCED_CHANGE_EVENTS.contains(changeEvent)) {
+                coalescerEventService.subscribeStrongly(changeEvent, repositoryEventSubscriber);
+            } else {
+                EventBus.subscribeStrongly(changeEvent, repositoryEventSubscriber);
+            }
+        }
+    }
+
+    private final EventSubscriber<Object> repositoryEventSubscriber = new EventSubscriber<Object>() {
+
+        @Override
+        public void onEvent(Object event) {
+            Class<?> eventClass = event.getClass();
+            for (Map.Entry<String, Collection<Class<?>>> entry : CHANGE_EVENTS_OF_FILENAME.entrySet()) {
+                if (entry.getValue().contains(eventClass)) {
+                    changeCountOfFilename.get(entry.getKey()).incrementAndGet();
+                    lastChangeMillis = System.currentTimeMillis();
+                }
+            }
+        }
+    };
+
+    private synchronized boolean isChangeSinceLastBackup() {
+        for (String filename : CHANGE_EVENTS_OF_FILENAME.keySet()) {
+            if (!isBackedUp(filename, changeCountOfFilename.get(filename).get())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBackedUp(String filename, long changeCount) {
+        Long backedUpChangeCount = backedUpChangeCountOfFilename.get(filename);
+        return changeCount == (backedUpChangeCount == null ? 0 : backedUpChangeCount);
+    }
+
+    private void backupIfIdle() {
+        long idleMillis = System.currentTimeMillis() - lastChangeMillis;
+        if (idleMillis >= IDLE_MILLIS && isChangeSinceLastBackup() && isRepositoryInit()) {
+            LOGGER.info("Backup of JPhotoTagger data while no data is changed");
+            backup();
+        }
+    }
+
+    private static boolean isRepositoryInit() {
+        Repository repo = Lookup.getDefault().lookup(Repository.class);
+        return repo != null && repo.isInit();
+    }
+
+    /**
+     * Backups changed data, waits for a running background backup.
+     */
+    synchronized void backupOnExit() {
+        if (idleTimeScheduler != null) {
+            idleTimeScheduler.shutdown();
+        }
+        backup();
+    }
+
+    private synchronized void backup() {
+        long startMillis = System.currentTimeMillis();
+        File backupDir = AutoBackupJptData.getAutoBackupDir();
+        if (!ensureDirExists(backupDir)) {
+            return;
+        }
+        Properties fingerprints = readFingerprints(backupDir);
+        Map<String, Long> changeCountOfExporter = new HashMap<>();
+        List<RepositoryDataExporter> jptExporters = getChangedJptExporters(fingerprints, changeCountOfExporter);
+        if (jptExporters.isEmpty()) {
+            LOGGER.info("No backup of JPhotoTagger data: Nothing changed since the last backup");
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(jptExporters.size(), Runtime.getRuntime().availableProcessors()),
+                createThreadFactory("JPhotoTagger: Backup of JPhotoTagger data", Thread.NORM_PRIORITY));
+        try {
+            List<Future<String>> fingerprintsOfExporters = new ArrayList<>(jptExporters.size());
+            for (RepositoryDataExporter exporter : jptExporters) {
+                fingerprintsOfExporters.add(executor.submit(new Backup(exporter, backupDir, fingerprints.getProperty(exporter.getDefaultFilename()))));
+            }
+            boolean changed = false;
+            for (int i = 0; i < jptExporters.size(); i++) {
+                String filename = jptExporters.get(i).getDefaultFilename();
+                String fingerprint = getQuietly(fingerprintsOfExporters.get(i));
+                if (fingerprint == null) {
+                    continue;
+                }
+                Long changeCount = changeCountOfExporter.get(filename);
+                if (changeCount != null) {
+                    backedUpChangeCountOfFilename.put(filename, changeCount);
+                }
+                if (!fingerprint.equals(fingerprints.getProperty(filename))) {
+                    fingerprints.setProperty(filename, fingerprint);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                writeFingerprints(backupDir, fingerprints);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        LOGGER.log(Level.INFO, "Backup of JPhotoTagger data took {0} milliseconds", System.currentTimeMillis() - startMillis);
+    }
+
+    private static String getQuietly(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, null, ex);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the JPhotoTagger data exporters whose data has to be backed up and puts the change count of every
+     * returned exporter with known change events, taken before exporting, into <code>changeCountOfExporter</code>.
+     */
+    private List<RepositoryDataExporter> getChangedJptExporters(Properties fingerprints, Map<String, Long> changeCountOfExporter) {
+        Collection<? extends RepositoryDataExporter> allExporters = Lookup.getDefault().lookupAll(RepositoryDataExporter.class);
+        List<RepositoryDataExporter> jptExporters = new ArrayList<>(allExporters.size());
+        for (RepositoryDataExporter exporter : allExporters) {
+            if (!exporter.isJPhotoTaggerData()) {
+                continue;
+            }
+            String filename = exporter.getDefaultFilename();
+            AtomicLong changeCount = changeCountOfFilename.get(filename);
+            if (changeCount == null) {
+                jptExporters.add(exporter);
+                continue;
+            }
+            long count = changeCount.get();
+            if (monitoring && fingerprints.getProperty(filename) != null && isBackedUp(filename, count)) {
+                LOGGER.log(Level.FINE, "JPhotoTagger data of ''{0}'' unchanged since the last backup", filename);
+            } else {
+                changeCountOfExporter.put(filename, count);
+                jptExporters.add(exporter);
+            }
+        }
+        return jptExporters;
+    }
+
+    /**
+     * Exports the data of one exporter, returns the fingerprint of the exported content or null, if the export
+     * failed.
+     */
+    private static final class Backup implements Callable<String> {
+
+        private final RepositoryDataExporter exporter;
+        private final File backupDir;
+        private final String lastFingerprint;
+
+        private Backup(RepositoryDataExporter exporter, File backupDir, String lastFingerprint) {
+            this.exporter = exporter;
+            this.backupDir = backupDir;
+            this.lastFingerprint = lastFingerprint;
+        }
+
+        @Override
+        public String call() throws Exception {
+            String filename = exporter.getDefaultFilename();
+            File tempFile = File.createTempFile(TEMP_FILE_PREFIX + FileUtil.getPrefix(new File(filename)), ".tmp", backupDir);
+            try {
+                exporter.exportToFile(tempFile);
+                if (tempFile.length() == 0) {
+                    LOGGER.log(Level.WARNING, "JPhotoTagger data of ''{0}'' could not be exported", filename);
+                    return null;
+                }
+                String fingerprint = FileUtil.getMd5OfFileContent(tempFile);
+                if (fingerprint.equals(lastFingerprint)) {
+                    LOGGER.log(Level.FINE, "JPhotoTagger data of ''{0}'' unchanged since the last backup", filename);
+                    return fingerprint;
+                }
+                File file = createVersionedFile(backupDir, filename);
+                LOGGER.log(Level.INFO, "Backing up JPhotoTagger data to file {0}", file);
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return fingerprint;
+            } finally {
+                if (tempFile.exists() && !tempFile.delete()) {
+                    LOGGER.log(Level.WARNING, "Temporary file ''{0}'' could not be deleted", tempFile);
+                }
+            }
+        }
+    }
+
+    private static class PrefixFilter implements FileFilter {
+
+        private final String prefix;
+
+        private PrefixFilter(String filename) {
+            prefix = FileUtil.getPrefix(new File(filename));
+        }
+
+        @Override
+        public boolean accept(File pathname) {
+            return pathname.getName().startsWith(prefix);
+        }
+    }
+
+    private static File createVersionedFile(File backupDir, String filename) {
+        File fileWithoutVersion = new File(backupDir.getAbsolutePath() + File.separator + filename);
+        File[] files = backupDir.listFiles(new PrefixFilter(filename));
+        if (files == null) {
+            return getVersionedName(fileWithoutVersion, 0);
+        }
+        if (files.length < MAX_VERSIONS) {
+            return getVersionedName(fileWithoutVersion, files.length);
+        }
+        File oldestFile = files[0];
+        long oldestLastModified = oldestFile.lastModified();
+        for (File file : files) {
+            long lastModified = file.lastModified();
+            if (lastModified < oldestLastModified) {
+                oldestFile = file;
+                oldestLastModified = lastModified;
+            }
+        }
+        return oldestFile;
+    }
+
+    private static File getVersionedName(File file, int version) {
+        String prefix = FileUtil.getAbsolutePathnamePrefix(file.getAbsolutePath());
+        String suffix = FileUtil.getSuffix(file);
+        return new File(prefix + '-' + Integer.toString(version) + '.' + suffix);
+    }
+
+    private static Properties readFingerprints(File backupDir) {
+        Properties fingerprints = new Properties();
+        File file = new File(backupDir, FINGERPRINTS_FILENAME);
+        if (file.isFile()) {
+            try (InputStream is = new FileInputStream(file)) {
+                fingerprints.load(is);
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        }
+        return fingerprints;
+    }
+
+    private static void writeFingerprints(File backupDir, Properties fingerprints) {
+        File file = new File(backupDir, FINGERPRINTS_FILENAME);
+        try (OutputStream os = new FileOutputStream(file)) {
+            fingerprints.store(os, "Fingerprints of the latest backup of JPhotoTagger data");
+        } catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, null, ex);
+        }
+    }
+
+    private static boolean ensureDirExists(File dir) {
+        if (!dir.isDirectory()) {
+            if (!dir.mkdirs()) {
+                LOGGER.log(Level.WARNING, "Auto backup directory could not be created: {0}", dir);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ThreadFactory createThreadFactory(final String threadName, final int priority) {
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                thread.setPriority(priority);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package org.jphototagger.program.module.keywords.list;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KeywordsListModelTest {
+
+    @Test
+    @DisplayName("a keyword existing in the repository in another case is not removed")
+    void keepsKeywordExistingInOtherCase() {
+        assertThat(KeywordsListModel.getKeywordsNotIn(Arrays.asList("Tree", "tree"), Collections.singleton("TREE"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a keyword not existing in the repository is removed")
+    void removesKeywordNotExisting() {
+        assertThat(KeywordsListModel.getKeywordsNotIn(Arrays.asList("Tree", "Forest"), Collections.singleton("tree")))
+                .containsExactly("Forest");
+    }
+}
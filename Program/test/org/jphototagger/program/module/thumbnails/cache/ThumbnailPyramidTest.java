@@ -0,0 +1,53 @@
+package org.jphototagger.program.module.thumbnails.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ThumbnailPyramidTest {
+
+    private final BufferedImage source = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    @DisplayName("the source is returned if it has the requested length")
+    void returnsSourceForItsLength() {
+        ThumbnailPyramid pyramid = new ThumbnailPyramid(source);
+
+        assertThat(pyramid.getScaled(300, false)).isSameAs(source);
+        assertThat(pyramid.isSource(source)).isTrue();
+    }
+
+    @Test
+    @DisplayName("scaling uses the smallest tier not smaller than the length")
+    void scalesFromNearestLargerTier() {
+        ThumbnailPyramid pyramid = new ThumbnailPyramid(source);
+
+        assertThat(pyramid.getTier(100).getWidth()).isEqualTo(150);
+        assertThat(pyramid.getTier(40).getWidth()).isEqualTo(75);
+        assertThat(pyramid.getTier(400).getWidth()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("scaled thumbnails keep the aspect ratio")
+    void keepsAspectRatio() {
+        Image scaled = new ThumbnailPyramid(source).getScaled(100, true);
+
+        assertThat(scaled.getWidth(null)).isEqualTo(100);
+        assertThat(scaled.getHeight(null)).isEqualTo(67);
+    }
+
+    @Test
+    @DisplayName("tiers are created on demand and not below the minimum length")
+    void createsTiersOnDemand() {
+        ThumbnailPyramid pyramid = new ThumbnailPyramid(source);
+
+        pyramid.getScaled(150, false);
+        assertThat(pyramid.getTierCount()).isEqualTo(2);
+
+        pyramid.getScaled(1, false);
+        assertThat(pyramid.getTier(1).getWidth()).isGreaterThanOrEqualTo(ThumbnailPyramid.MIN_TIER_LENGTH);
+    }
+}
@@ -0,0 +1,48 @@
+package org.jphototagger.program.module.thumbnails.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import org.jphototagger.domain.metadata.xmp.Xmp;
+import org.jphototagger.domain.metadata.xmp.XmpDcTitleMetaDataValue;
+import org.jphototagger.domain.repository.event.xmp.XmpValueRenamedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class XmpCacheTest {
+
+    private final XmpCache cache = new XmpCache(false);
+    private final File imageFile = new File("image.jpg");
+    private final File otherImageFile = new File("other.jpg");
+
+    @Test
+    @DisplayName("a cached XMP having the renamed value is fetched again")
+    void invalidatesXmpHavingRenamedValue() {
+        cacheXmpWithTitle(imageFile, "Old Title");
+        cacheXmpWithTitle(otherImageFile, "Other Title");
+
+        cache.xmpValueRenamed(new XmpValueRenamedEvent(this, XmpDcTitleMetaDataValue.INSTANCE, "old title", "New Title", 1));
+
+        assertThat(cache.getXmp(imageFile)).isNull();
+        assertThat(cache.getXmp(otherImageFile).getValue(XmpDcTitleMetaDataValue.INSTANCE)).isEqualTo("Other Title");
+    }
+
+    @Test
+    @DisplayName("a cached XMP having the deleted value is fetched again")
+    void invalidatesXmpHavingDeletedValue() {
+        cacheXmpWithTitle(imageFile, "Old Title");
+
+        cache.xmpValueRenamed(new XmpValueRenamedEvent(this, XmpDcTitleMetaDataValue.INSTANCE, "Old Title", "", 1));
+
+        assertThat(cache.getXmp(imageFile)).isNull();
+    }
+
+    private void cacheXmpWithTitle(File file, String title) {
+        Xmp xmp = new Xmp();
+
+        xmp.setValue(XmpDcTitleMetaDataValue.INSTANCE, title);
+        assertThat(cache.getXmp(file)).isNull();
+        cache.update(xmp, file, false);
+        assertThat(cache.getXmp(file)).isSameAs(xmp);
+    }
+}
@@ -1,8 +1,13 @@
 package org.jphototagger.repository.hsqldb;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 import org.jphototagger.api.branding.AppProperties;
 import org.jphototagger.domain.repository.ApplicationPropertiesRepository;
 import org.jphototagger.domain.thumbnails.ThumbnailsDirectoryProvider;
@@ -11,14 +16,24 @@ import org.jphototagger.lib.swing.MessageDisplayer;
 import org.jphototagger.lib.util.Bundle;
 import org.jphototagger.lib.util.Version;
 import org.jphototagger.repository.hsqldb.update.tables.DatabaseUpdate;
+import org.jphototagger.repository.hsqldb.update.tables.DatabaseUpdateTask;
 import org.openide.util.Lookup;
 
 /**
+ * Initializes the database.
+ * <p>
+ * Creating tables, executing update tasks and database fixes is done only, if the persisted schema stamp differs
+ * from the current one: The stamp consists of the database version, the application version and a fingerprint of
+ * the available update tasks, so that the full verification runs once after every upgrade. Setting the system
+ * property {@code jphototagger.repository.verifySchema} to {@code true} forces the full verification.
+ *
  * @author Elmar Baumann
  */
 public final class AppDatabase {
 
     private static final String KEY_DATABASE_VERSION = "VersionLastDbUpdate";
+    private static final String KEY_SCHEMA_STAMP = "SchemaStamp";
+    private static final String PROPERTY_VERIFY_SCHEMA = "jphototagger.repository.verifySchema";
     private static boolean init;
     // Is the JPhotoTagger version where the database structure was changed (newest change)
     static final Version DATABASE_VERSION = new Version(0, 25, 0);
@@ -33,17 +48,26 @@ public final class AppDatabase {
         if (!init) {
             DatabaseFixes dbFixes = new DatabaseFixes();
             try {
-                dbFixes.preConnect();
+                long startMillis = System.currentTimeMillis();
+                dbFixes.preConnect(); // Has to be done before connecting, reads only a file
                 ConnectionPool.INSTANCE.init();
                 ensureAppIsNotTooOld();
                 ensureThumbnailDirExists();
-                DatabaseUpdate databaseUpdate = new DatabaseUpdate();
-                databaseUpdate.preCreateTables();
-                DatabaseTables.INSTANCE.createTables();
-                databaseUpdate.postCreateTables();
-                persistDatabaseVersion();
-                dbFixes.postConnect();
+                String schemaStamp = createSchemaStamp();
+                boolean verifySchema = isVerifySchema(schemaStamp);
+                if (verifySchema) {
+                    DatabaseUpdate databaseUpdate = new DatabaseUpdate();
+                    databaseUpdate.preCreateTables();
+                    DatabaseTables.INSTANCE.createTables();
+                    databaseUpdate.postCreateTables();
+                    persistDatabaseVersion();
+                    dbFixes.postConnect();
+                    persistSchemaStamp(schemaStamp); // Persisted only after success, else verifying on next start again
+                }
+                LOGGER.log(Level.INFO, "Database initialized within {0} milliseconds, schema {1}",
+                        new Object[]{System.currentTimeMillis() - startMillis, verifySchema ? "verified" : "unchanged"});
                 init = true;
+                DatabaseCheckpoints.INSTANCE.start();
             } catch (Throwable t) {
                 throw new RuntimeException(t);
             }
@@ -73,6 +97,39 @@ public final class AppDatabase {
                 : new Version(0, 0, 0);
     }
 
+    private static boolean isVerifySchema(String schemaStamp) {
+        if (Boolean.getBoolean(PROPERTY_VERIFY_SCHEMA)) {
+            LOGGER.log(Level.INFO, "Verifying the database schema as requested by system property {0}", PROPERTY_VERIFY_SCHEMA);
+            return true;
+        }
+        ApplicationPropertiesRepository appPropertiesRepo = Lookup.getDefault().lookup(ApplicationPropertiesRepository.class);
+        String persistedSchemaStamp = appPropertiesRepo.existsKey(KEY_SCHEMA_STAMP)
+                ? appPropertiesRepo.getString(KEY_SCHEMA_STAMP)
+                : null;
+        return !schemaStamp.equals(persistedSchemaStamp);
+    }
+
+    private static void persistSchemaStamp(String schemaStamp) {
+        ApplicationPropertiesRepository appPropertiesRepo = Lookup.getDefault().lookup(ApplicationPropertiesRepository.class);
+        appPropertiesRepo.setString(KEY_SCHEMA_STAMP, schemaStamp);
+    }
+
+    // Changes on every new database version, application version and on added or removed update tasks
+    private static String createSchemaStamp() {
+        List<String> updateTasks = new ArrayList<>();
+        for (DatabaseUpdateTask updateTask : Lookup.getDefault().lookupAll(DatabaseUpdateTask.class)) {
+            updateTasks.add(updateTask.getClass().getName() + "=" + updateTask.getUpdatesToDatabaseVersion().toString3());
+        }
+        Collections.sort(updateTasks);
+        CRC32 updateTasksFingerprint = new CRC32();
+        for (String updateTask : updateTasks) {
+            updateTasksFingerprint.update(updateTask.getBytes(StandardCharsets.UTF_8));
+        }
+        return DATABASE_VERSION.toString3()
+                + ";" + getAppVersion().toString3()
+                + ";" + Long.toHexString(updateTasksFingerprint.getValue());
+    }
+
     private static void persistDatabaseVersion() {
         ApplicationPropertiesRepository appPropertiesRepo = Lookup.getDefault().lookup(ApplicationPropertiesRepository.class);
         String versionString = DATABASE_VERSION.toString3();
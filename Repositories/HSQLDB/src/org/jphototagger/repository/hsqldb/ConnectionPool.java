@@ -3,11 +3,20 @@ package org.jphototagger.repository.hsqldb;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.api.file.FilenameTokens;
+import org.jphototagger.api.preferences.Preferences;
 import org.jphototagger.domain.repository.FileRepositoryProvider;
 import org.openide.util.Lookup;
 
@@ -16,35 +25,55 @@ import org.openide.util.Lookup;
  * <p />
  * <b>Usage</b>
  * <pre>
- * ConnectionPool pool = ConnectionPool.getInstance();
- * Connection con = pool.getConnection();
- * Statement st = con.createStatement();
- * ResultSet result = st.executeQuery("select * from users");
- * result.close();
- * st.close();
- * pool.free(con.close());
+ * Connection con = ConnectionPool.INSTANCE.getConnection();
+ * PreparedStatement stmt = con.prepareStatement("SELECT * FROM files WHERE filename = ?");
+ * ...
+ * stmt.close();
+ * ConnectionPool.INSTANCE.free(con);
  * </pre>
  * <p />
- * <b>Notice:</b><br />
- * Compatible with J2SE 1.6.0 and above</b>
+ * Borrowing and freeing a connection does not lock the pool: Free connections are kept in a concurrent deque and the
+ * maximum count of borrowed connections is limited by a semaphore. A thread waits for a free connection at most
+ * {@link #KEY_MAX_WAIT_SECONDS} seconds, then {@link #getConnection()} throws a {@link SQLException}. Connections are
+ * validated when borrowed and prepared statements are reused per connection, see {@link PooledConnection}.
+ * <p />
+ * The sizes can be configured through the {@link Preferences} keys {@link #KEY_MIN_CONNECTIONS} and
+ * {@link #KEY_MAX_CONNECTIONS}.
  *
  * @author Tobias Stening
  */
-public final class ConnectionPool implements Runnable {
+public final class ConnectionPool {
 
     public static final ConnectionPool INSTANCE = new ConnectionPool();
+    public static final String KEY_MIN_CONNECTIONS = "ConnectionPool.MinConnections";
+    public static final String KEY_MAX_CONNECTIONS = "ConnectionPool.MaxConnections";
+    public static final String KEY_MAX_WAIT_SECONDS = "ConnectionPool.MaxWaitSeconds";
     private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
-    private static final int INITIAL_CONNECTIONS = 3;
-    private static final int MAX_CONNECTIONS = 15;
-    private final LinkedList<Connection> availableConnections = new LinkedList<>();
-    private final LinkedList<Connection> busyConnections = new LinkedList<>();
-    private final boolean waitForFreeConnectionIfBusy = true;
-    private boolean connectionPending = false;
+    private static final int DEFAULT_MIN_CONNECTIONS = 3;
+    private static final int DEFAULT_MAX_CONNECTIONS = 15;
+    private static final int DEFAULT_MAX_WAIT_SECONDS = 60;
+    private static final long LEAK_THRESHOLD_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private final ConcurrentLinkedDeque<PooledConnection> availableConnections = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> busyConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openConnectionCount = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder invalidConnectionCount = new LongAdder();
+    private final LongAdder statementCacheHitCount = new LongAdder();
+    private final LongAdder statementCacheMissCount = new LongAdder();
+    private volatile Semaphore permits;
     private volatile boolean init;
     private String driver;
     private String url;
     private String password;
     private String username;
+    private int minConnections;
+    private int maxConnections;
+    private long maxWaitMillis;
+    private final boolean sizesFixed;
 
     synchronized boolean isInit() {
         return init;
@@ -55,8 +84,9 @@ public final class ConnectionPool implements Runnable {
             return;
         }
         setConnectionUrlTokens();
+        setSizes();
         try {
-            for (int i = 0; i < INITIAL_CONNECTIONS; i++) {
+            for (int i = 0; i < minConnections; i++) {
                 availableConnections.add(makeNewConnection());
             }
         } catch (SQLException e) {
@@ -68,7 +98,7 @@ public final class ConnectionPool implements Runnable {
 
     private void setConnectionUrlTokens() {
         driver = "org.hsqldb.jdbcDriver";
-        url = createUrl();
+        url = url == null ? createUrl() : url;
         username = "sa";
         password = "";
     }
@@ -79,124 +109,109 @@ public final class ConnectionPool implements Runnable {
         return "jdbc:hsqldb:file:" + file + ";shutdown=true";
     }
 
-    /**
-     * This method returns a availabel connection.
-     *
-     * @return Returns a connection
-     *
-     * @throws SQLException
-     */
-    synchronized Connection getConnection() throws SQLException {
-        ensureInit();
-        if (!availableConnections.isEmpty()) {
-            Connection existingConnection = availableConnections.pollLast();
-            // If connection on available list is closed (e.g.,
-            // it timed out), then remove it from available list
-            // and repeat the process of obtaining a connection.
-            // Also wake up threads that were waiting for a
-            // connection because maxConnection limit was reached.
-            if (existingConnection.isClosed()) {
-                notifyAll();    // Freed up a spot for anybody waiting
-                return (getConnection());
-            } else {
-                busyConnections.add(existingConnection);
-                return (existingConnection);
-            }
-        } else {
-            // Three possible cases:
-            // 1) You haven't reached maxConnections limit. So
-            // establish one in the background if there isn't
-            // already one pending, then wait for
-            // the next available connection (whether or not
-            // it was the newly established one).
-            // 2) You reached maxConnections limit and waitIfBusy
-            // flag is false. Throw SQLException in such a case.
-            // 3) You reached maxConnections limit and waitIfBusy
-            // flag is true. Then do the same thing as in second
-            // part of step 1: wait for next available connection.
-            if ((totalConnections() < MAX_CONNECTIONS) && !connectionPending) {
-                makeBackgroundConnection();
-            } else if (!waitForFreeConnectionIfBusy) {
-                throw new SQLException("Connection limit reached");
-            }
-            // Wait for either a new connection to be established
-            // (if you called makeBackgroundConnection) or for
-            // an existing connection to be freed up.
-            while (availableConnections.isEmpty()) {
-                try {
-                    wait();
-                } catch (InterruptedException ex) {
-                    LOGGER.log(Level.SEVERE, null, ex);
-                }
-            }
-            // Someone freed up a connection, so try again.
-            return (getConnection());
+    private void setSizes() {
+        if (!sizesFixed) {
+            Preferences prefs = Lookup.getDefault().lookup(Preferences.class);
+            maxConnections = getPositiveInt(prefs, KEY_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+            minConnections = Math.min(getPositiveInt(prefs, KEY_MIN_CONNECTIONS, DEFAULT_MIN_CONNECTIONS), maxConnections);
+            maxWaitMillis = TimeUnit.SECONDS.toMillis(getPositiveInt(prefs, KEY_MAX_WAIT_SECONDS, DEFAULT_MAX_WAIT_SECONDS));
         }
+        permits = new Semaphore(maxConnections, true);
     }
 
-    private void ensureInit() {
-        if (!init) {
-            throw new IllegalStateException("Connection is not established (init == false)!");
+    private static int getPositiveInt(Preferences prefs, String key, int defaultValue) {
+        if (prefs == null || !prefs.containsKey(key)) {
+            return defaultValue;
         }
+        int value = prefs.getInt(key);
+        return value > 0
+                ? value
+                : defaultValue;
     }
 
-    /*
-     *  NOTICE
-     *
-     * You can't just make a new connection in the foreground
-     * when none are available, since this can take several
-     * seconds with a slow network connection. Instead,
-     * start a thread that establishes a new connection,
-     * then wait. You get woken up either when the new connection
-     * is established or if someone finishes with an existing
-     * connection.
-     */
     /**
-     * This method starts a thread for creating a connection in the background.
+     * Returns an available connection. If no connection is available and less than the maximum count of connections
+     * are open, a new connection will be opened, else waits until a connection is freed.
+     *
+     * @return connection, free it via {@link #free(java.sql.Connection)}
+     * @throws SQLException if no connection could be opened or if no connection was freed within the maximum wait
+     *                      time
      */
-    private void makeBackgroundConnection() {
-        connectionPending = true;
+    Connection getConnection() throws SQLException {
+        ensureInit();
+        Semaphore borrowPermits = permits;
+        acquire(borrowPermits);
         try {
-            Thread connectThread = new Thread(this, "JPhotoTagger: Making background JDBC connection");
-
-            connectThread.start();
-        } catch (OutOfMemoryError oome) {
-            // Give up on new connection
+            PooledConnection con = pollValidConnection();
+            if (con == null) {
+                con = makeNewConnection();
+            }
+            con.borrowed(LOGGER.isLoggable(Level.FINE));
+            busyConnections.add(con);
+            borrowCount.increment();
+            return con.getProxy();
+        } catch (SQLException | RuntimeException e) {
+            borrowPermits.release();
+            throw e;
         }
     }
 
-    /**
-     * This method is the main method of this Thread. It creates a connection
-     * and makes it available.
-     */
-    @Override
-    public void run() {
+    private void acquire(Semaphore borrowPermits) throws SQLException {
+        if (borrowPermits.tryAcquire()) {
+            return;
+        }
+        waitCount.increment();
+        long startNanos = System.nanoTime();
+        boolean acquired = false;
         try {
-            Connection con = makeNewConnection();
-            synchronized (this) {
-                availableConnections.add(con);
-                connectionPending = false;
-                notifyAll();
+            acquired = borrowPermits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a free connection");
+        } finally {
+            long waitedNanos = System.nanoTime() - startNanos;
+            waitNanos.add(waitedNanos);
+            maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+        }
+        if (!acquired) {
+            timeoutCount.increment();
+            getLeakedConnectionCount();
+            throw new SQLException("No connection was freed within " + maxWaitMillis + " milliseconds: " + this);
+        }
+    }
+
+    // Validation runs outside of any lock, a closed connection (e.g. timed out) will be discarded
+    private PooledConnection pollValidConnection() {
+        PooledConnection con;
+        while ((con = availableConnections.pollLast()) != null) {
+            if (con.isValid()) {
+                return con;
             }
-        } catch (SQLException ex) {    // SQLException
-            // Give up on new connection and wait for existing one
-            // to free up.
-            LOGGER.log(Level.SEVERE, null, ex);
+            invalidConnectionCount.increment();
+            discard(con);
+        }
+        return null;
+    }
+
+    private void ensureInit() {
+        if (!init) {
+            throw new IllegalStateException("Connection is not established (init == false)!");
         }
     }
 
     /**
      * This explicitly makes a new connection. Called in the foreground when
-     * initializing the ConnectionPool, and called in the background when
-     * running.
+     * initializing the ConnectionPool and by the borrowing thread if no
+     * connection is available.
      */
-    private Connection makeNewConnection() throws SQLException {
+    private PooledConnection makeNewConnection() throws SQLException {
         try {
             // Load database driver if not already loaded
             Class.forName(driver);
             // Establish network connection to database
             Connection con = DriverManager.getConnection(url, username, password);
-            return (con);
+            openConnectionCount.incrementAndGet();
+            return new PooledConnection(this, con);
         } catch (ClassNotFoundException cnfe) {
             throw new SQLException("Can't find class for driver: " + driver);
         } catch (Throwable t) {
@@ -204,29 +219,36 @@ public final class ConnectionPool implements Runnable {
         }
     }
 
+    private void discard(PooledConnection con) {
+        con.closeQuietly();
+        openConnectionCount.decrementAndGet();
+    }
+
     /**
      * Releases a specific connection
      *
      * @param con The connection to be released.
      */
-    synchronized void free(Connection con) {
+    void free(Connection con) {
         ensureInit();
         if (con == null) {
             throw new NullPointerException("con == null");
         }
-        busyConnections.remove(con);
-        availableConnections.add(con);
-        // Wake up threads that are waiting for a connection
-        notifyAll();
+        PooledConnection pooledCon = PooledConnection.of(con);
+        if (!busyConnections.remove(pooledCon)) {
+            LOGGER.log(Level.WARNING, "Freeing a connection not borrowed from the pool", new Throwable());
+            return;
+        }
+        availableConnections.offerLast(pooledCon);
+        permits.release();
     }
 
-    /**
-     * Returns the number of total connections in this connection pool.
-     *
-     * @return The number of connections in this connection pool.
-     */
-    private synchronized int totalConnections() {
-        return (availableConnections.size() + busyConnections.size());
+    void statementCacheHit() {
+        statementCacheHitCount.increment();
+    }
+
+    void statementCacheMiss() {
+        statementCacheMissCount.increment();
     }
 
     /**
@@ -237,32 +259,89 @@ public final class ConnectionPool implements Runnable {
      * regarding when the connections are closed.
      */
     synchronized void closeAllConnections() {
-        closeConnections(availableConnections);
-        availableConnections.clear();
-        closeConnections(busyConnections);
+        PooledConnection con;
+        while ((con = availableConnections.pollLast()) != null) {
+            discard(con);
+        }
+        Collection<PooledConnection> busy = new ArrayList<>(busyConnections);
         busyConnections.clear();
+        for (PooledConnection busyCon : busy) {
+            discard(busyCon);
+        }
+    }
+
+    int getOpenConnectionCount() {
+        return openConnectionCount.get();
+    }
+
+    int getAvailableConnectionCount() {
+        return availableConnections.size();
+    }
+
+    int getBusyConnectionCount() {
+        return busyConnections.size();
+    }
+
+    int getMinConnectionCount() {
+        return minConnections;
+    }
+
+    int getMaxConnectionCount() {
+        return maxConnections;
+    }
+
+    long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    long getInvalidConnectionCount() {
+        return invalidConnectionCount.sum();
+    }
+
+    long getStatementCacheHitCount() {
+        return statementCacheHitCount.sum();
+    }
+
+    long getStatementCacheMissCount() {
+        return statementCacheMissCount.sum();
     }
 
     /**
-     * Closes one or more specific connections.
+     * Counts the connections not freed for a long time and logs a warning for each of them.
      *
-     * @param connections The connections to be closed.
+     * @return count of probably leaked connections
      */
-    private void closeConnections(List<Connection> connections) {
-        try {
-            for (int i = 0; i < connections.size(); i++) {
-                Connection con = connections.get(i);
-                if (!con.isClosed()) {
-                    con.close();
-                }
+    int getLeakedConnectionCount() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (PooledConnection con : busyConnections) {
+            long borrowedMillis = now - con.getBorrowTimeMillis();
+            if (borrowedMillis > LEAK_THRESHOLD_MILLIS) {
+                con.reportLeak(borrowedMillis);
+                count++;
             }
-        } catch (Throwable t) {
-            // Ignore errors; garbage collect anyhow
         }
+        return count;
     }
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
         StringBuilder info = new StringBuilder();
         info.append("ConnectionPool(")
                 .append(url)
@@ -273,7 +352,7 @@ public final class ConnectionPool implements Runnable {
                 .append(availableConnections.size())
                 .append(", busy=")
                 .append(busyConnections.size())
-                .append(", max=").append(MAX_CONNECTIONS);
+                .append(", max=").append(maxConnections);
         return info.toString();
     }
 
@@ -281,6 +360,23 @@ public final class ConnectionPool implements Runnable {
         init = false;
     }
 
+    /**
+     * For tests: Connects to an other database than the file repository and ignores the preferences.
+     *
+     * @param url JDBC URL of a HSQLDB database
+     * @param minConnections count of connections opened by {@link #init()}
+     * @param maxConnections maximum count of borrowed connections
+     * @param maxWaitMillis maximum time to wait for a free connection
+     */
+    ConnectionPool(String url, int minConnections, int maxConnections, long maxWaitMillis) {
+        this.url = url;
+        this.minConnections = minConnections;
+        this.maxConnections = maxConnections;
+        this.maxWaitMillis = maxWaitMillis;
+        sizesFixed = true;
+    }
+
     private ConnectionPool() {
+        sizesFixed = false;
     }
 }
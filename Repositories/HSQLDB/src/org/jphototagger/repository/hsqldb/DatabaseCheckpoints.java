@@ -0,0 +1,312 @@
+package org.jphototagger.repository.hsqldb;
+
+import java.awt.AWTEvent;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jphototagger.api.concurrent.Cancelable;
+import org.jphototagger.api.file.FilenameTokens;
+import org.jphototagger.api.progress.ProgressEvent;
+import org.jphototagger.api.progress.ProgressHandle;
+import org.jphototagger.api.progress.ProgressHandleFactory;
+import org.jphototagger.domain.repository.FileRepositoryProvider;
+import org.jphototagger.lib.util.Bundle;
+import org.openide.util.Lookup;
+
+/**
+ * Writes the changes logged by the database into the data file while the user
+ * and the database are idle, so that the log stays small and closing the
+ * database on exit has little to do.
+ * <p>
+ * Every {@link #CHECK_INTERVAL_SECONDS} seconds the size of the database log
+ * file will be checked. A <code>CHECKPOINT</code> will be executed if the log
+ * is larger than {@link #MIN_LOG_BYTES}, it did not grow since the last check,
+ * no connection is in use and there was no mouse or keyboard input for
+ * {@link #USER_IDLE_MILLIS} milliseconds, regardless of the user input if the
+ * log is larger than {@link #FORCE_LOG_BYTES}. If the data file grew by more
+ * than half of it's size after the last defragmentation and the user is idle
+ * for {@link #DEFRAG_USER_IDLE_MILLIS} milliseconds,
+ * <code>CHECKPOINT DEFRAG</code> will be executed instead.
+ * <p>
+ * Canceling the progress postpones further checkpoints for
+ * {@link #POSTPONE_MINUTES} minutes, a running checkpoint can't be canceled.
+ *
+ * @author Elmar Baumann
+ */
+final class DatabaseCheckpoints implements Cancelable {
+
+    static final DatabaseCheckpoints INSTANCE = new DatabaseCheckpoints();
+    private static final Logger LOGGER = Logger.getLogger(DatabaseCheckpoints.class.getName());
+    private static final long CHECK_INTERVAL_SECONDS = 30;
+    private static final long MIN_LOG_BYTES = 1024L * 1024L;
+    private static final long FORCE_LOG_BYTES = 50L * 1024L * 1024L;
+    private static final long USER_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final long DEFRAG_USER_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long MIN_DEFRAG_GROWTH_BYTES = 20L * 1024L * 1024L;
+    private static final long POSTPONE_MINUTES = 30;
+    private static final String KEY_DATA_SIZE_AFTER_DEFRAG = "DatabaseCheckpoints.DataSizeAfterDefrag";
+    private final Object monitor = new Object();
+    private volatile long lastUserInputMillis = System.currentTimeMillis();
+    private volatile long postponedUntilMillis;
+    private ScheduledExecutorService executor; // Guarded by monitor
+    private File logFile;
+    private long previousLogBytes = -1;
+    private long previousCheckMillis;
+    // Metrics, guarded by monitor
+    private int checkpointCount;
+    private int defragCount;
+    private long totalCheckpointMillis;
+    private long maxCheckpointMillis;
+    private long maxLogBytes;
+    private long maxLogGrowthBytesPerMinute;
+
+    private DatabaseCheckpoints() {
+    }
+
+    void start() {
+        synchronized (monitor) {
+            if (executor != null) {
+                return;
+            }
+            FileRepositoryProvider provider = Lookup.getDefault().lookup(FileRepositoryProvider.class);
+            if (provider == null) {
+                return;
+            }
+            logFile = new File(provider.getFileRepositoryFileName(FilenameTokens.FULL_PATH_NO_SUFFIX) + ".log");
+            listenToUserInput();
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "JPhotoTagger: Database checkpoints");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    checkpointIfIdle();
+                }
+            }, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void listenToUserInput() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return;
+        }
+        Toolkit.getDefaultToolkit().addAWTEventListener(new AWTEventListener() {
+
+            @Override
+            public void eventDispatched(AWTEvent event) {
+                lastUserInputMillis = System.currentTimeMillis();
+            }
+        }, AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+    }
+
+    /**
+     * Stops checking and waits until a running checkpoint is completed, has
+     * to be called before the database will be shut down. A running
+     * checkpoint will not be interrupted: Interrupting a thread doing NIO file
+     * I/O closes the channel and lets the checkpoint fail.
+     */
+    void stop() {
+        ScheduledExecutorService stoppedExecutor;
+        synchronized (monitor) {
+            stoppedExecutor = executor;
+            executor = null;
+        }
+        if (stoppedExecutor == null) {
+            return;
+        }
+        stoppedExecutor.shutdown();
+        try {
+            if (!stoppedExecutor.awaitTermination(2, TimeUnit.MINUTES)) {
+                LOGGER.log(Level.WARNING, "Checkpoint not completed within 2 minutes");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        postponedUntilMillis = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(POSTPONE_MINUTES);
+        LOGGER.log(Level.INFO, "Database checkpoints postponed for {0} minutes", POSTPONE_MINUTES);
+    }
+
+    /**
+     * Has to be called after the database was defragmented by others.
+     */
+    void defragmented() {
+        long dataBytes = getDataBytes();
+        if (dataBytes > 0) {
+            ApplicationPropertiesDatabase.INSTANCE.setString(KEY_DATA_SIZE_AFTER_DEFRAG, Long.toString(dataBytes));
+        }
+    }
+
+    private void checkpointIfIdle() {
+        try {
+            if (!ConnectionPool.INSTANCE.isInit()) {
+                return;
+            }
+            long nowMillis = System.currentTimeMillis();
+            long logBytes = logFile.length();
+            boolean logGrew = logBytes > previousLogBytes && previousLogBytes >= 0;
+            recordLogGrowth(logBytes, nowMillis);
+            if (logBytes < MIN_LOG_BYTES || nowMillis < postponedUntilMillis) {
+                return;
+            }
+            long userIdleMillis = nowMillis - lastUserInputMillis;
+            boolean databaseIdle = !logGrew && ConnectionPool.INSTANCE.getBusyConnectionCount() == 0;
+            boolean idle = databaseIdle && userIdleMillis >= USER_IDLE_MILLIS;
+            if (!idle && logBytes < FORCE_LOG_BYTES) {
+                return;
+            }
+            boolean defrag = idle && userIdleMillis >= DEFRAG_USER_IDLE_MILLIS && isFragmented();
+            checkpoint(defrag, logBytes);
+            previousLogBytes = logFile.length();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        }
+    }
+
+    private void recordLogGrowth(long logBytes, long nowMillis) {
+        synchronized (monitor) {
+            if (previousLogBytes >= 0 && logBytes > previousLogBytes && nowMillis > previousCheckMillis) {
+                long bytesPerMinute = (logBytes - previousLogBytes) * TimeUnit.MINUTES.toMillis(1) / (nowMillis - previousCheckMillis);
+                maxLogGrowthBytesPerMinute = Math.max(maxLogGrowthBytesPerMinute, bytesPerMinute);
+            }
+            maxLogBytes = Math.max(maxLogBytes, logBytes);
+        }
+        previousLogBytes = logBytes;
+        previousCheckMillis = nowMillis;
+    }
+
+    private boolean isFragmented() {
+        long dataBytes = getDataBytes();
+        if (dataBytes <= 0) {
+            return false;
+        }
+        String sizeAfterDefrag = ApplicationPropertiesDatabase.INSTANCE.getString(KEY_DATA_SIZE_AFTER_DEFRAG);
+        if (sizeAfterDefrag == null) {
+            ApplicationPropertiesDatabase.INSTANCE.setString(KEY_DATA_SIZE_AFTER_DEFRAG, Long.toString(dataBytes));
+            return false;
+        }
+        try {
+            long bytesAfterDefrag = Long.parseLong(sizeAfterDefrag);
+            long growthBytes = dataBytes - bytesAfterDefrag;
+            return growthBytes >= MIN_DEFRAG_GROWTH_BYTES && growthBytes > bytesAfterDefrag / 2;
+        } catch (NumberFormatException ex) {
+            LOGGER.log(Level.WARNING, "Invalid data size after defragmentation: ''{0}''", sizeAfterDefrag);
+            return false;
+        }
+    }
+
+    /**
+     * @return used bytes of the data file or -1 if unknown
+     */
+    private long getDataBytes() {
+        long dataBytes = -1;
+        Connection con = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = ConnectionPool.INSTANCE.getConnection();
+            stmt = con.createStatement();
+            rs = stmt.executeQuery("SELECT FILE_FREE_POS FROM INFORMATION_SCHEMA.SYSTEM_CACHEINFO");
+            if (rs.next()) {
+                dataBytes = rs.getLong(1);
+            }
+        } catch (Throwable t) {
+            // Not supported by every HSQLDB version
+            LOGGER.log(Level.FINE, null, t);
+        } finally {
+            Database.close(rs, stmt);
+            if (con != null) {
+                ConnectionPool.INSTANCE.free(con);
+            }
+        }
+        return dataBytes;
+    }
+
+    private void checkpoint(boolean defrag, long logBytes) throws Exception {
+        ProgressHandle progressHandle = createProgressHandle();
+        if (progressHandle != null) {
+            progressHandle.progressStarted(new ProgressEvent.Builder()
+                    .source(this)
+                    .indeterminate(true)
+                    .stringPainted(true)
+                    .stringToPaint(Bundle.getString(DatabaseCheckpoints.class, defrag
+                            ? "DatabaseCheckpoints.Progress.Defrag"
+                            : "DatabaseCheckpoints.Progress.Checkpoint"))
+                    .build());
+        }
+        Connection con = null;
+        Statement stmt = null;
+        try {
+            con = ConnectionPool.INSTANCE.getConnection();
+            con.setAutoCommit(true);
+            stmt = con.createStatement();
+            String sql = defrag ? "CHECKPOINT DEFRAG" : "CHECKPOINT";
+            long startMillis = System.currentTimeMillis();
+            stmt.executeUpdate(sql);
+            long millis = System.currentTimeMillis() - startMillis;
+            synchronized (monitor) {
+                checkpointCount++;
+                if (defrag) {
+                    defragCount++;
+                }
+                totalCheckpointMillis += millis;
+                maxCheckpointMillis = Math.max(maxCheckpointMillis, millis);
+            }
+            LOGGER.log(Level.INFO, "{0} of {1} log bytes within {2} milliseconds", new Object[]{sql, logBytes, millis});
+        } finally {
+            Database.close(stmt);
+            if (con != null) {
+                ConnectionPool.INSTANCE.free(con);
+            }
+            if (progressHandle != null) {
+                progressHandle.progressEnded();
+            }
+        }
+        if (defrag) {
+            defragmented();
+        }
+    }
+
+    private ProgressHandle createProgressHandle() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        ProgressHandleFactory factory = Lookup.getDefault().lookup(ProgressHandleFactory.class);
+        return factory == null
+                ? null
+                : factory.createProgressHandle(this);
+    }
+
+    @Override
+    public String toString() {
+        synchronized (monitor) {
+            return "checkpoints: " + checkpointCount
+                    + ", defragmentations: " + defragCount
+                    + ", checkpoint milliseconds total: " + totalCheckpointMillis
+                    + ", max: " + maxCheckpointMillis
+                    + ", log bytes max: " + maxLogBytes
+                    + ", log bytes per minute max: " + maxLogGrowthBytesPerMinute;
+        }
+    }
+}
@@ -25,6 +25,7 @@ final class DatabaseMaintainance extends Database {
         if (!ConnectionPool.INSTANCE.isInit()) {
             return;
         }
+        DatabaseCheckpoints.INSTANCE.stop();
         Connection con = null;
         Statement stmt = null;
         boolean shutdown = false;
@@ -32,8 +33,10 @@ final class DatabaseMaintainance extends Database {
             con = getConnection();
             con.setAutoCommit(true);
             stmt = con.createStatement();
-            LOGGER.log(Level.INFO, "Closing the database");
+            LOGGER.log(Level.INFO, "Closing the database, {0}", DatabaseCheckpoints.INSTANCE);
+            long startMillis = System.currentTimeMillis();
             stmt.executeUpdate("SHUTDOWN");
+            LOGGER.log(Level.INFO, "Database closed within {0} milliseconds", System.currentTimeMillis() - startMillis);
             shutdown = true;
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
@@ -64,6 +67,7 @@ final class DatabaseMaintainance extends Database {
             stmt = con.createStatement();
             stmt.executeUpdate("CHECKPOINT DEFRAG");
             success = true;
+            DatabaseCheckpoints.INSTANCE.defragmented();
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
@@ -134,6 +138,9 @@ final class DatabaseMaintainance extends Database {
                 LOGGER.log(Level.FINER, sql);
                 deleted += stmt.executeUpdate(sql);
             }
+            if (deleted > 0) {
+                DatabaseStatistics.INSTANCE.metaDataChanged();
+            }
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
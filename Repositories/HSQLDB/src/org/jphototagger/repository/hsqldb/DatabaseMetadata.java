@@ -7,7 +7,10 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * @author Elmar Baumann
@@ -40,6 +43,30 @@ public final class DatabaseMetadata extends Database {
         return exists;
     }
 
+    /**
+     * Returns the names of all tables with one metadata query.
+     *
+     * @param  con connection
+     * @return     lowercase table names
+     * @throws     SQLException
+     */
+    public Set<String> getTableNames(Connection con) throws SQLException {
+        if (con == null) {
+            throw new NullPointerException("con == null");
+        }
+
+        Set<String> tableNames = new HashSet<>();
+        DatabaseMetaData dbm = con.getMetaData();
+        String[] names = {"TABLE"};
+        try (ResultSet rs = dbm.getTables(null, "%", "%", names)) {
+            while (rs.next()) {
+                tableNames.add(rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return tableNames;
+    }
+
     public boolean existsColumn(Connection con, String tableName, String columnName) throws SQLException {
         if (con == null) {
             throw new NullPointerException("con == null");
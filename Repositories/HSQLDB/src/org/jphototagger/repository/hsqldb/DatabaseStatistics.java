@@ -3,19 +3,68 @@ package org.jphototagger.repository.hsqldb;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jphototagger.domain.metadata.MetaDataValue;
+import org.jphototagger.domain.metadata.xmp.Xmp;
+import org.jphototagger.domain.metadata.xmp.XmpMetaDataValues;
 
 /**
+ * Counts and existing values of the database, kept in memory.
+ * <p>
+ * Counts will be read once and then adjusted by the changes reported by the
+ * database classes through the package private <code>...Inserted()</code>,
+ * <code>...Deleted()</code> and <code>...Changed()</code> methods, which are
+ * called synchronously after the changes, so that no change is missed or
+ * counted twice as with coalesced events. Changes reported within a
+ * transaction are deferred until it is committed, see
+ * {@link #deferAdjustments()}. The distinct values of a metadata
+ * value are read once on the first existence check and then complemented
+ * with inserted XMP values. After values may have been removed, a cached value
+ * is verified in the database, a value not cached doesn't exist. Columns with
+ * more than {@link #MAX_CACHED_VALUES} distinct values or longer values than
+ * {@link #MAX_CACHED_VALUE_LENGTH} are not cached.
+ * <p>
+ * Periodically the counts and values will be reconciled with the database in
+ * a background thread if they were adjusted since the last reconciliation.
+ *
  * @author Elmar Baumann
  */
 final class DatabaseStatistics extends Database {
 
     static final DatabaseStatistics INSTANCE = new DatabaseStatistics();
     private static final Logger LOGGER = Logger.getLogger(DatabaseStatistics.class.getName());
+    private static final int VALUES_PER_QUERY = 1000;
+    private static final int MAX_CACHED_VALUES = 20000;
+    private static final int MAX_CACHED_VALUE_LENGTH = 256;
+    private static final long RECONCILIATION_INTERVAL_MINUTES = 10;
+    private static final String SQL_FILE_COUNT = "SELECT COUNT(*) FROM files";
+    private static final String SQL_XMP_COUNT = "SELECT COUNT(*) FROM xmp LEFT JOIN files ON xmp.id_file = files.id";
+    private final Object monitor = new Object();
+    private final CachedCount fileCount = new CachedCount(SQL_FILE_COUNT);
+    private final CachedCount xmpCount = new CachedCount(SQL_XMP_COUNT);
+    private final Map<MetaDataValue, Integer> countOfMetaDataValue = new HashMap<>(); // Guarded by monitor
+    private final Map<MetaDataValue, CachedValues> valuesOfMetaDataValue = new HashMap<>(); // Guarded by monitor
+    private final AtomicBoolean adjustedSinceReconciliation = new AtomicBoolean();
+    private final AtomicBoolean reconciliationScheduled = new AtomicBoolean();
+    private final ThreadLocal<List<Adjustment>> deferredAdjustments = new ThreadLocal<>();
+    private long version; // Guarded by monitor, incremented on every change
 
     private DatabaseStatistics() {
     }
@@ -32,25 +81,23 @@ final class DatabaseStatistics extends Database {
         if (metaDataValue == null) {
             throw new NullPointerException("metaDataValue == null");
         }
-        int count = -1;
-        Connection con = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-        try {
-            con = getConnection();
-            stmt = con.createStatement();
-            String sql = "SELECT COUNT(*) FROM " + metaDataValue.getCategory()
-                    + " WHERE " + metaDataValue.getValueName() + " IS NOT NULL";
-            LOGGER.log(Level.FINEST, sql);
-            rs = stmt.executeQuery(sql);
-            if (rs.next()) {
-                count = rs.getInt(1);
+        long loadVersion;
+        synchronized (monitor) {
+            Integer count = countOfMetaDataValue.get(metaDataValue);
+            if (count != null) {
+                return count;
             }
-        } catch (Throwable t) {
-            LOGGER.log(Level.SEVERE, null, t);
-        } finally {
-            close(rs, stmt);
-            free(con);
+            loadVersion = version;
+        }
+        int count = queryCount("SELECT COUNT(*) FROM " + metaDataValue.getCategory()
+                + " WHERE " + metaDataValue.getValueName() + " IS NOT NULL");
+        if (count >= 0) {
+            synchronized (monitor) {
+                if (version == loadVersion) {
+                    countOfMetaDataValue.put(metaDataValue, count);
+                }
+            }
+            scheduleReconciliation();
         }
         return count;
     }
@@ -61,26 +108,7 @@ final class DatabaseStatistics extends Database {
      * @return Dateianzahl oder -1 bei Fehlern
      */
     int getFileCount() {
-        int count = -1;
-        Connection con = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-        try {
-            con = getConnection();
-            stmt = con.createStatement();
-            String sql = "SELECT COUNT(*) FROM files";
-            LOGGER.log(Level.FINEST, sql);
-            rs = stmt.executeQuery(sql);
-            if (rs.next()) {
-                count = rs.getInt(1);
-            }
-        } catch (Throwable t) {
-            LOGGER.log(Level.SEVERE, null, t);
-        } finally {
-            close(rs, stmt);
-            free(con);
-        }
-        return count;
+        return fileCount.get();
     }
 
     /**
@@ -89,26 +117,7 @@ final class DatabaseStatistics extends Database {
      * @return Dateianzahl oder -1 bei Fehlern
      */
     int getXmpCount() {
-        int count = -1;
-        Connection con = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-        try {
-            con = getConnection();
-            stmt = con.createStatement();
-            String sql = "SELECT COUNT(*) FROM xmp LEFT JOIN files ON xmp.id_file = files.id";
-            LOGGER.log(Level.FINEST, sql);
-            rs = stmt.executeQuery(sql);
-            if (rs.next()) {
-                count = rs.getInt(1);
-            }
-        } catch (Throwable t) {
-            LOGGER.log(Level.SEVERE, null, t);
-        } finally {
-            close(rs, stmt);
-            free(con);
-        }
-        return count;
+        return xmpCount.get();
     }
 
     /**
@@ -122,30 +131,30 @@ final class DatabaseStatistics extends Database {
         if (metaDataValues == null) {
             throw new NullPointerException("columns == null");
         }
+        List<MetaDataValue> uncertainMetaDataValues = new ArrayList<>(metaDataValues.size());
+        for (MetaDataValue metaDataValue : metaDataValues) {
+            Existence existence = getCachedExistence(metaDataValue, value);
+            if (existence == Existence.EXISTS) {
+                return true;
+            }
+            if (existence == Existence.UNKNOWN) {
+                uncertainMetaDataValues.add(metaDataValue);
+            }
+        }
+        if (uncertainMetaDataValues.isEmpty()) {
+            return false;
+        }
         boolean exists = false;
         Connection con = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
         try {
             con = getConnection();
-            int size = metaDataValues.size();
+            int size = uncertainMetaDataValues.size();
             for (int i = 0; !exists && (i < size); i++) {
-                MetaDataValue column = metaDataValues.get(i);
-                stmt = con.prepareStatement("SELECT COUNT(*) FROM " + column.getCategory()
-                        + " WHERE " + column.getValueName() + " = ?");
-                stmt.setString(1, value);
-                LOGGER.log(Level.FINEST, stmt.toString());
-                rs = stmt.executeQuery();
-                if (rs.next()) {
-                    exists = rs.getInt(1) > 0;
-                }
-                rs.close();
-                stmt.close();
+                exists = existsInDatabase(con, uncertainMetaDataValues.get(i), value);
             }
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
-            close(rs, stmt);
             free(con);
         }
         return exists;
@@ -162,12 +171,28 @@ final class DatabaseStatistics extends Database {
         if (metaDataValue == null) {
             throw new NullPointerException("metaDataValue == null");
         }
-        int count = 0;
+        Existence existence = getCachedExistence(metaDataValue, value);
+        if (existence != Existence.UNKNOWN) {
+            return existence == Existence.EXISTS;
+        }
+        boolean exists = false;
         Connection con = null;
+        try {
+            con = getConnection();
+            exists = existsInDatabase(con, metaDataValue, value);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            free(con);
+        }
+        return exists;
+    }
+
+    private boolean existsInDatabase(Connection con, MetaDataValue metaDataValue, String value) throws SQLException {
+        int count = 0;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         try {
-            con = getConnection();
             stmt = con.prepareStatement("SELECT COUNT(*) FROM " + metaDataValue.getCategory()
                     + " WHERE " + metaDataValue.getValueName() + " = ?");
             stmt.setString(1, value);
@@ -176,12 +201,547 @@ final class DatabaseStatistics extends Database {
             if (rs.next()) {
                 count = rs.getInt(1);
             }
+        } finally {
+            close(rs, stmt);
+        }
+        return count > 0;
+    }
+
+    /**
+     * Returns which values exist in the column of a metadata value, querying
+     * up to 1000 values at once.
+     *
+     * @param  metaDataValue metadata value
+     * @param  values        values
+     * @return existing values
+     */
+    Set<String> findExistingMetaDataValues(MetaDataValue metaDataValue, Collection<? extends String> values) {
+        if (metaDataValue == null) {
+            throw new NullPointerException("metaDataValue == null");
+        }
+        if (values == null) {
+            throw new NullPointerException("values == null");
+        }
+        Set<String> existingValues = new HashSet<>();
+        List<String> valueList = new ArrayList<>(values.size());
+        for (String value : new HashSet<String>(values)) {
+            Existence existence = getCachedExistence(metaDataValue, value);
+            if (existence == Existence.EXISTS) {
+                existingValues.add(value);
+            } else if (existence == Existence.UNKNOWN) {
+                valueList.add(value);
+            }
+        }
+        if (valueList.isEmpty()) {
+            return existingValues;
+        }
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            for (int index = 0; index < valueList.size(); index += VALUES_PER_QUERY) {
+                List<String> chunk = valueList.subList(index, Math.min(index + VALUES_PER_QUERY, valueList.size()));
+                stmt = con.prepareStatement("SELECT DISTINCT " + metaDataValue.getValueName()
+                        + " FROM " + metaDataValue.getCategory()
+                        + " WHERE " + metaDataValue.getValueName() + " IN (" + getPlaceholder(chunk.size()) + ")");
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                LOGGER.log(Level.FINEST, stmt.toString());
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    existingValues.add(rs.getString(1));
+                }
+                close(rs, stmt);
+                rs = null;
+                stmt = null;
+            }
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
             close(rs, stmt);
             free(con);
         }
-        return count > 0;
+        return existingValues;
+    }
+
+    private static String getPlaceholder(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i > 0 ? ", ?" : "?");
+        }
+        return sb.toString();
+    }
+
+    private Existence getCachedExistence(MetaDataValue metaDataValue, String value) {
+        if (value == null) { // "column = NULL" is never true
+            return Existence.NOT_EXISTS;
+        }
+        CachedValues cachedValues = getCachedValues(metaDataValue);
+        if (cachedValues == null || cachedValues.values == null) {
+            return Existence.UNKNOWN;
+        }
+        synchronized (monitor) {
+            if (!cachedValues.values.contains(value)) {
+                return Existence.NOT_EXISTS;
+            }
+            return cachedValues.complete
+                    ? Existence.EXISTS
+                    : Existence.UNKNOWN;
+        }
+    }
+
+    private CachedValues getCachedValues(MetaDataValue metaDataValue) {
+        long loadVersion;
+        synchronized (monitor) {
+            CachedValues cachedValues = valuesOfMetaDataValue.get(metaDataValue);
+            if (cachedValues != null) {
+                return cachedValues;
+            }
+            loadVersion = version;
+        }
+        CachedValues cachedValues = loadValues(metaDataValue);
+        if (cachedValues != null) {
+            synchronized (monitor) {
+                if (version == loadVersion) {
+                    valuesOfMetaDataValue.put(metaDataValue, cachedValues);
+                }
+            }
+            scheduleReconciliation();
+        }
+        return cachedValues;
+    }
+
+    /**
+     * @return values, values of the returned object are null if the column
+     *         is not a character column or has too many distinct values;
+     *         null on errors
+     */
+    private CachedValues loadValues(MetaDataValue metaDataValue) {
+        if (metaDataValue.getValueLength() > MAX_CACHED_VALUE_LENGTH) {
+            return new CachedValues(null);
+        }
+        Connection con = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            stmt = con.createStatement();
+            stmt.setMaxRows(MAX_CACHED_VALUES + 1);
+            String sql = "SELECT DISTINCT " + metaDataValue.getValueName()
+                    + " FROM " + metaDataValue.getCategory()
+                    + " WHERE " + metaDataValue.getValueName() + " IS NOT NULL";
+            LOGGER.log(Level.FINEST, sql);
+            rs = stmt.executeQuery(sql);
+            String typeName = rs.getMetaData().getColumnTypeName(1);
+            if (typeName == null || !typeName.toUpperCase().startsWith("VARCHAR")) {
+                return new CachedValues(null);
+            }
+            // VARCHAR_IGNORECASE columns compare "=" case insensitive
+            Set<String> values = typeName.toUpperCase().contains("IGNORECASE")
+                    ? new TreeSet<String>(String.CASE_INSENSITIVE_ORDER)
+                    : new HashSet<String>();
+            while (rs.next()) {
+                if (values.size() >= MAX_CACHED_VALUES) {
+                    LOGGER.log(Level.FINE, "Not caching values of {0}: More than {1} values", new Object[]{metaDataValue, MAX_CACHED_VALUES});
+                    return new CachedValues(null);
+                }
+                values.add(rs.getString(1));
+            }
+            return new CachedValues(values);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            return null;
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+    }
+
+    private int queryCount(String sql) {
+        int count = -1;
+        Connection con = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            stmt = con.createStatement();
+            LOGGER.log(Level.FINEST, sql);
+            rs = stmt.executeQuery(sql);
+            if (rs.next()) {
+                count = rs.getInt(1);
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+        return count;
+    }
+
+    /**
+     * Defers the adjustments reported by the calling thread until
+     * {@link #applyDeferredAdjustments()}, has to be called before a
+     * transaction reporting changes, so that changes rolled back are never
+     * adjusted. {@link #discardDeferredAdjustments()} has to be called after
+     * the transaction in any case.
+     */
+    void deferAdjustments() {
+        deferredAdjustments.set(new ArrayList<Adjustment>());
+    }
+
+    /**
+     * Applies the adjustments deferred by the calling thread, has to be called
+     * after the transaction was committed.
+     */
+    void applyDeferredAdjustments() {
+        List<Adjustment> adjustments = deferredAdjustments.get();
+        deferredAdjustments.remove();
+        if (adjustments == null || adjustments.isEmpty()) {
+            return;
+        }
+        synchronized (monitor) {
+            for (Adjustment adjustment : adjustments) {
+                changed();
+                adjustment.apply();
+            }
+        }
+    }
+
+    /**
+     * Discards the adjustments deferred by the calling thread and not applied,
+     * e.g. after a rollback.
+     */
+    void discardDeferredAdjustments() {
+        deferredAdjustments.remove();
+    }
+
+    private void adjust(Adjustment adjustment) {
+        List<Adjustment> adjustments = deferredAdjustments.get();
+        if (adjustments != null) {
+            adjustments.add(adjustment);
+            return;
+        }
+        synchronized (monitor) {
+            changed();
+            adjustment.apply();
+        }
+    }
+
+    void imageFilesInserted(final int count) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                fileCount.add(count);
+                countOfMetaDataValue.clear();
+                removeNonXmpValues();
+            }
+        });
+    }
+
+    void imageFilesDeleted(final int count) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                fileCount.add(-count);
+                countOfMetaDataValue.clear();
+                removeNonXmpValues();
+                setValuesIncomplete();
+            }
+        });
+    }
+
+    /**
+     * Has to be called after image files were renamed.
+     */
+    void imageFilesMoved() {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                countOfMetaDataValue.clear();
+                removeNonXmpValues();
+            }
+        });
+    }
+
+    void xmpInserted(final Xmp xmp) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                xmpCount.add(1);
+                countOfMetaDataValue.clear();
+                addValues(xmp);
+            }
+        });
+    }
+
+    void xmpUpdated(final Xmp updatedXmp) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                countOfMetaDataValue.clear();
+                addValues(updatedXmp);
+                setValuesIncomplete();
+            }
+        });
+    }
+
+    void xmpDeleted() {
+        xmpDeleted(1);
+    }
+
+    void xmpDeleted(final int count) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                xmpCount.add(-count);
+                countOfMetaDataValue.clear();
+                setValuesIncomplete();
+            }
+        });
+    }
+
+    void exifChanged() {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                countOfMetaDataValue.clear();
+                removeNonXmpValues();
+            }
+        });
+    }
+
+    void valueInserted(final MetaDataValue metaDataValue, final String value) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                countOfMetaDataValue.remove(metaDataValue);
+                CachedValues cachedValues = valuesOfMetaDataValue.get(metaDataValue);
+                if (cachedValues != null && cachedValues.values != null && value != null) {
+                    cachedValues.values.add(value);
+                }
+            }
+        });
+    }
+
+    void valueDeleted(final MetaDataValue metaDataValue) {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                countOfMetaDataValue.remove(metaDataValue);
+                CachedValues cachedValues = valuesOfMetaDataValue.get(metaDataValue);
+                if (cachedValues != null) {
+                    cachedValues.complete = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Has to be called after changes not reported otherwise, e.g. renamed
+     * values or deleted image files whose XMP metadata was not reported as
+     * deleted. Everything except the file count will be reread.
+     */
+    void metaDataChanged() {
+        adjust(new Adjustment() {
+
+            @Override
+            public void apply() {
+                xmpCount.reset();
+                countOfMetaDataValue.clear();
+                valuesOfMetaDataValue.clear();
+            }
+        });
+    }
+
+    // Guarded by monitor
+    private void changed() {
+        version++;
+        adjustedSinceReconciliation.set(true);
+    }
+
+    // Guarded by monitor
+    @SuppressWarnings("unchecked")
+    private void addValues(Xmp xmp) {
+        if (xmp == null) {
+            return;
+        }
+        for (Map.Entry<MetaDataValue, CachedValues> entry : valuesOfMetaDataValue.entrySet()) {
+            MetaDataValue metaDataValue = entry.getKey();
+            Set<String> values = entry.getValue().values;
+            if (values == null || !xmp.contains(metaDataValue)) {
+                continue;
+            }
+            Object value = xmp.getValue(metaDataValue);
+            if (value instanceof String) {
+                values.add((String) value);
+            } else if (value instanceof Collection<?>) {
+                for (Object element : (Collection<Object>) value) {
+                    if (element instanceof String) {
+                        values.add((String) element);
+                    }
+                }
+            }
+        }
+    }
+
+    // Guarded by monitor. Values of other tables than XMP tables, e.g. file names and EXIF values, are not reported.
+    private void removeNonXmpValues() {
+        for (Iterator<MetaDataValue> it = valuesOfMetaDataValue.keySet().iterator(); it.hasNext();) {
+            if (!XmpMetaDataValues.isXmpMetaDataValue(it.next())) {
+                it.remove();
+            }
+        }
+    }
+
+    // Guarded by monitor
+    private void setValuesIncomplete() {
+        for (CachedValues cachedValues : valuesOfMetaDataValue.values()) {
+            cachedValues.complete = false;
+        }
+    }
+
+    private void scheduleReconciliation() {
+        if (reconciliationScheduled.compareAndSet(false, true)) {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "JPhotoTagger: Reconciling repository statistics");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    reconcileIfAdjusted();
+                }
+            }, RECONCILIATION_INTERVAL_MINUTES, RECONCILIATION_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    private void reconcileIfAdjusted() {
+        if (!adjustedSinceReconciliation.getAndSet(false)) {
+            return;
+        }
+        LOGGER.log(Level.FINE, "Reconciling repository statistics");
+        fileCount.reconcile();
+        xmpCount.reconcile();
+        List<MetaDataValue> incompleteMetaDataValues = new ArrayList<>();
+        synchronized (monitor) {
+            countOfMetaDataValue.clear();
+            for (Map.Entry<MetaDataValue, CachedValues> entry : valuesOfMetaDataValue.entrySet()) {
+                if (!entry.getValue().complete) {
+                    incompleteMetaDataValues.add(entry.getKey());
+                }
+            }
+            valuesOfMetaDataValue.keySet().removeAll(incompleteMetaDataValues);
+        }
+        for (MetaDataValue metaDataValue : incompleteMetaDataValues) {
+            getCachedValues(metaDataValue);
+        }
+    }
+
+    // Applied while holding the monitor
+    private interface Adjustment {
+
+        void apply();
+    }
+
+    private enum Existence {
+        EXISTS,
+        NOT_EXISTS,
+        UNKNOWN
+    }
+
+    private static final class CachedValues {
+
+        private final Set<String> values; // null if not cached, guarded by monitor
+        private boolean complete = true; // Guarded by monitor, false if values may have been removed
+
+        private CachedValues(Set<String> values) {
+            this.values = values;
+        }
+    }
+
+    private final class CachedCount {
+
+        private final String sql;
+        private int count = -1; // Guarded by monitor, -1 if not read
+
+        private CachedCount(String sql) {
+            this.sql = sql;
+        }
+
+        private int get() {
+            long loadVersion;
+            synchronized (monitor) {
+                if (count >= 0) {
+                    return count;
+                }
+                loadVersion = version;
+            }
+            int loadedCount = queryCount(sql);
+            if (loadedCount >= 0) {
+                synchronized (monitor) {
+                    if (version == loadVersion) {
+                        count = loadedCount;
+                    }
+                }
+                scheduleReconciliation();
+            }
+            return loadedCount;
+        }
+
+        // Guarded by monitor
+        private void add(int delta) {
+            if (count >= 0) {
+                count = Math.max(0, count + delta);
+            }
+        }
+
+        // Guarded by monitor
+        private void reset() {
+            count = -1;
+        }
+
+        private void reconcile() {
+            long loadVersion;
+            int cachedCount;
+            synchronized (monitor) {
+                if (count < 0) {
+                    return;
+                }
+                cachedCount = count;
+                loadVersion = version;
+            }
+            int loadedCount = queryCount(sql);
+            if (loadedCount < 0) {
+                return;
+            }
+            synchronized (monitor) {
+                if (version == loadVersion) {
+                    count = loadedCount;
+                } else {
+                    count = -1; // Changed while counting
+                }
+            }
+            if (loadedCount != cachedCount) {
+                LOGGER.log(Level.FINE, "Corrected {0}: {1} instead of {2}", new Object[]{sql, loadedCount, cachedCount});
+            }
+        }
     }
 }
@@ -3,6 +3,9 @@ package org.jphototagger.repository.hsqldb;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * All database tables.
@@ -46,6 +49,7 @@ final class DatabaseTables extends Database {
 
     static final DatabaseTables INSTANCE = new DatabaseTables();
     private static final String BLOB_COLUMN = "VARBINARY(" + Integer.MAX_VALUE + ")";
+    private Set<String> existingTables = Collections.emptySet();
 
     private DatabaseTables() {
     }
@@ -58,6 +62,7 @@ final class DatabaseTables extends Database {
             con = getConnection();
             con.setAutoCommit(true);
             stmt = con.createStatement();
+            existingTables = DatabaseMetadata.INSTANCE.getTableNames(con); // Once instead of per table
             // Do not forget updating AppDatabase.DATABASE_VERSION!
             createAppTable(con, stmt);    // prior to all other tables!
             createFilesTable(con, stmt);
@@ -80,13 +85,18 @@ final class DatabaseTables extends Database {
             createWordsetTables(con, stmt);
             // Do not forget updating AppDatabase.DATABASE_VERSION!
         } finally {
+            existingTables = Collections.emptySet();
             close(stmt);
             free(con);
         }
     }
 
+    private boolean existsTable(String tablename) {
+        return existingTables.contains(tablename.toLowerCase(Locale.ROOT));
+    }
+
     private void createFilesTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "files")) {
+        if (!existsTable("files")) {
             stmt.execute("CREATE CACHED TABLE files"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", filename VARCHAR_IGNORECASE(512) NOT NULL"
@@ -110,7 +120,7 @@ final class DatabaseTables extends Database {
         create1nTable(con, stmt, "photoshop_sources", "source", 32);
         create1nTable(con, stmt, "photoshop_states", "state", 32);
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "dc_subjects")) {
+        if (!existsTable("dc_subjects")) {
             stmt.execute("CREATE CACHED TABLE dc_subjects"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", subject VARCHAR_IGNORECASE(64)"
@@ -119,7 +129,7 @@ final class DatabaseTables extends Database {
             stmt.execute("CREATE UNIQUE INDEX idx_dc_subjects_subject ON dc_subjects (subject)");
         }
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "xmp")) {
+        if (!existsTable("xmp")) {
             stmt.execute("CREATE CACHED TABLE xmp"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", id_file BIGINT NOT NULL"
@@ -170,7 +180,7 @@ final class DatabaseTables extends Database {
             stmt.execute("CREATE INDEX idx_iptc4xmpcore_datecreated ON xmp (iptc4xmpcore_datecreated)");
         }
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "xmp_dc_subject")) {
+        if (!existsTable("xmp_dc_subject")) {
             stmt.execute("CREATE CACHED TABLE xmp_dc_subject"
                     + " (id_xmp BIGINT"
                     + ", id_dc_subject BIGINT"
@@ -186,7 +196,7 @@ final class DatabaseTables extends Database {
 
     private void create1nTable(Connection con, Statement stmt, String tablename, String columnname, int length)
             throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, tablename)) {
+        if (!existsTable(tablename)) {
             stmt.execute("CREATE CACHED TABLE " + tablename
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY, "
                     + columnname + " VARCHAR_IGNORECASE(" + Integer.toString(length)
@@ -200,7 +210,7 @@ final class DatabaseTables extends Database {
         create1nTable(con, stmt, "exif_recording_equipment", "equipment", 125);
         create1nTable(con, stmt, "exif_lenses", "lens", 256);
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "exif")) {
+        if (!existsTable("exif")) {
             stmt.execute("CREATE CACHED TABLE exif"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", id_file BIGINT NOT NULL"
@@ -226,7 +236,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createCollectionsTables(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "collection_names")) {
+        if (!existsTable("collection_names")) {
             stmt.execute("CREATE CACHED TABLE collection_names"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", name VARCHAR_IGNORECASE(256)"
@@ -235,7 +245,7 @@ final class DatabaseTables extends Database {
             stmt.execute("CREATE INDEX idx_collection_names_name ON collection_names (name)");
         }
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "collections")) {
+        if (!existsTable("collections")) {
             stmt.execute("CREATE CACHED TABLE collections"
                     + " (id_collectionnname BIGINT"
                     + ", id_file BIGINT"
@@ -250,7 +260,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createSavedSearchesTables(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "saved_searches")) {
+        if (!existsTable("saved_searches")) {
             stmt.execute("CREATE CACHED TABLE saved_searches"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", name VARCHAR_IGNORECASE(125)"
@@ -261,7 +271,7 @@ final class DatabaseTables extends Database {
             stmt.execute("CREATE UNIQUE INDEX idx_saved_searches_name ON saved_searches (name)");
         }
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "saved_searches_panels")) {
+        if (!existsTable("saved_searches_panels")) {
             stmt.execute("CREATE CACHED TABLE saved_searches_panels"
                     + " (id_saved_search BIGINT"
                     + ", panel_index INTEGER"
@@ -278,7 +288,7 @@ final class DatabaseTables extends Database {
             stmt.execute("CREATE INDEX idx_saved_searches_panels_panel_index ON saved_searches_panels (panel_index)");
         }
 
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "saved_searches_keywords")) {
+        if (!existsTable("saved_searches_keywords")) {
             stmt.execute("CREATE CACHED TABLE saved_searches_keywords"
                     + " (id_saved_search BIGINT"
                     + ", keyword VARCHAR_IGNORECASE(64)"
@@ -289,7 +299,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createAutoScanDirectoriesTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "autoscan_directories")) {
+        if (!existsTable("autoscan_directories")) {
             stmt.execute("CREATE CACHED TABLE autoscan_directories"
                     + " (directory VARCHAR_IGNORECASE(1024)"
                     + ");");
@@ -298,7 +308,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createMetadataTemplateTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "metadata_edit_templates")) {
+        if (!existsTable("metadata_edit_templates")) {
             stmt.execute("CREATE CACHED TABLE metadata_edit_templates"
                     + " (name VARCHAR_IGNORECASE(256)"
                     + ", dcSubjects " + BLOB_COLUMN
@@ -325,7 +335,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createFavoriteDirectoriesTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "favorite_directories")) {
+        if (!existsTable("favorite_directories")) {
             stmt.execute("CREATE CACHED TABLE favorite_directories"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", favorite_name VARCHAR_IGNORECASE(256)"
@@ -337,7 +347,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createFileExcludePatternsTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "file_exclude_patterns")) {
+        if (!existsTable("file_exclude_patterns")) {
             stmt.execute("CREATE CACHED TABLE file_exclude_patterns"
                     + " (pattern VARCHAR_IGNORECASE(256)"
                     + ");");
@@ -346,7 +356,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createProgramsTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "programs")) {
+        if (!existsTable("programs")) {
             stmt.execute("CREATE CACHED TABLE programs"
                     + " (id BIGINT NOT NULL"
                     + ", action BOOLEAN"
@@ -371,7 +381,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createActionsAfterDbInsertionTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "actions_after_db_insertion")) {
+        if (!existsTable("actions_after_db_insertion")) {
             stmt.execute("CREATE CACHED TABLE actions_after_db_insertion"
                     + " (id_program BIGINT NOT NULL"
                     + ", action_order INTEGER"
@@ -382,7 +392,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createDefaultProgramsTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "default_programs")) {
+        if (!existsTable("default_programs")) {
             stmt.execute("CREATE CACHED TABLE default_programs"
                     + " (id_program BIGINT NOT NULL"
                     + " , filename_suffix VARCHAR_IGNORECASE(64)"
@@ -393,7 +403,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createHierarchicalSubjectsTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "hierarchical_subjects")) {
+        if (!existsTable("hierarchical_subjects")) {
             stmt.execute("CREATE CACHED TABLE hierarchical_subjects"
                     + " (id BIGINT NOT NULL"
                     + ", id_parent BIGINT"
@@ -408,7 +418,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createAppTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "application")) {
+        if (!existsTable("application")) {
             stmt.execute("CREATE CACHED TABLE application"
                     + " (key VARCHAR(128) PRIMARY KEY"
                     + ", value " + BLOB_COLUMN
@@ -417,7 +427,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createSynonymsTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "synonyms")) {
+        if (!existsTable("synonyms")) {
             stmt.execute("CREATE CACHED TABLE synonyms"
                     + " (word VARCHAR(128)"
                     + ", synonym VARCHAR(128)"
@@ -430,7 +440,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createRenameTemplatesTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "rename_templates")) {
+        if (!existsTable("rename_templates")) {
             stmt.execute("CREATE CACHED TABLE rename_templates"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", name VARCHAR(128) NOT NULL"
@@ -453,7 +463,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createUserDefinedFileFiltersTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "user_defined_file_filters")) {
+        if (!existsTable("user_defined_file_filters")) {
             stmt.execute("CREATE CACHED TABLE user_defined_file_filters"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", is_not BOOLEAN, type INTEGER"
@@ -466,7 +476,7 @@ final class DatabaseTables extends Database {
     }
 
     private void createUserDefinedFileTypesTable(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "user_defined_file_types")) {
+        if (!existsTable("user_defined_file_types")) {
             stmt.execute("CREATE CACHED TABLE user_defined_file_types"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", suffix VARCHAR_IGNORECASE(45) NOT NULL"
@@ -478,14 +488,14 @@ final class DatabaseTables extends Database {
     }
 
     private void createWordsetTables(Connection con, Statement stmt) throws SQLException {
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "wordsets")) {
+        if (!existsTable("wordsets")) {
             stmt.execute("CREATE CACHED TABLE wordsets"
                     + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1, INCREMENT BY 1) PRIMARY KEY"
                     + ", name VARCHAR_IGNORECASE(255)"
                     + ");");
             stmt.execute("CREATE UNIQUE INDEX idx_wordsets_name ON wordsets (name)");
         }
-        if (!DatabaseMetadata.INSTANCE.existsTable(con, "wordsets_words")) {
+        if (!existsTable("wordsets_words")) {
             stmt.execute("CREATE CACHED TABLE wordsets_words"
                     + " (id_wordsets BIGINT"
                     + ", word VARCHAR_IGNORECASE(255)"
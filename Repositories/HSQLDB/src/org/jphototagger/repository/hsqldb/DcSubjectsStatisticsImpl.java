@@ -1,12 +1,22 @@
 package org.jphototagger.repository.hsqldb;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.domain.event.listener.ListenerSupport;
@@ -16,49 +26,76 @@ import org.jphototagger.domain.repository.DcSubjectsStatistics;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectDeletedEvent;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectInsertedEvent;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectRenamedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedAtOnceEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
-import org.jphototagger.lib.concurrent.SerialExecutor;
 import org.openide.util.lookup.ServiceProvider;
 
 /**
+ * Keeps the image counts of all DC subjects in memory.
+ * <p>
+ * The counts will be read once from the database and then adjusted by the
+ * differences between the old and new DC subjects of inserted, updated and
+ * deleted XMP metadata without querying the database. Renamed, inserted and
+ * deleted DC subjects will be counted in the database in a background thread.
+ * Periodically the counts will be reconciled with the database if they were
+ * adjusted since the last reconciliation.
+ * <p>
+ * Listeners will be notified in a background thread shortly after the changes,
+ * once per changed DC subject.
+ *
  * @author Elmar Baumann
  */
 @ServiceProvider(service = DcSubjectsStatistics.class)
 public final class DcSubjectsStatisticsImpl implements DcSubjectsStatistics {
 
-
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
 
         @Override
         public Thread newThread(Runnable r) {
             Thread thread = new Thread(r);
             thread.setName("JPhotoTagger: DC Subject change notification");
+            thread.setDaemon(true);
             return thread;
         }
     };
 
-    private static final Map<String, Integer> IMAGE_COUNT_OF_DC_SUBJECTS = new HashMap<String, Integer>();
+    private static final Logger LOGGER = Logger.getLogger(DcSubjectsStatisticsImpl.class.getName());
+    private static final long NOTIFICATION_DELAY_MILLIS = 250;
+    private static final long RECONCILIATION_INTERVAL_MINUTES = 10;
+    private static final ConcurrentMap<String, Integer> IMAGE_COUNT_OF_DC_SUBJECTS = new ConcurrentHashMap<>();
+    private static final Set<String> CHANGED_DC_SUBJECTS = new LinkedHashSet<>();
+    private static final AtomicBoolean ADJUSTED_SINCE_RECONCILIATION = new AtomicBoolean();
     private static final ListenerSupport<DcSubjectsStatistics.Listener> LS = new ListenerSupport<>();
-    private static final SerialExecutor LISTENERS_EXECUTOR = new SerialExecutor(Executors.newFixedThreadPool(1, THREAD_FACTORY));
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+    private static boolean notificationScheduled; // Guarded by CHANGED_DC_SUBJECTS
     private static volatile boolean INIT;
 
     private synchronized void checkInit() {
         if (!INIT) {
             IMAGE_COUNT_OF_DC_SUBJECTS.putAll(ImageFilesDatabase.INSTANCE.getImageCountOfDcSubjects());
             AnnotationProcessor.process(DcSubjectsStatisticsImpl.this);
+            EXECUTOR.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    reconcileIfAdjusted();
+                }
+            }, RECONCILIATION_INTERVAL_MINUTES, RECONCILIATION_INTERVAL_MINUTES, TimeUnit.MINUTES);
             INIT = true;
         }
     }
 
     @Override
-    public synchronized int getImageCountOfDcSubject(String dcSubject) {
+    public int getImageCountOfDcSubject(String dcSubject) {
         if (dcSubject == null) {
             return 0;
         }
 
-        checkInit();
+        if (!INIT) {
+            checkInit();
+        }
 
         Integer count = IMAGE_COUNT_OF_DC_SUBJECTS.get(dcSubject);
 
@@ -80,85 +117,164 @@ public final class DcSubjectsStatisticsImpl implements DcSubjectsStatistics {
     }
 
     @EventSubscriber(eventClass = XmpInsertedEvent.class)
-    public synchronized void xmpInsertedEvent(XmpInsertedEvent evt) {
-        notify(getDcSubjects(evt.getXmp()));
+    public void xmpInsertedEvent(XmpInsertedEvent evt) {
+        adjustImageCounts(getDcSubjects(evt.getXmp()), 1);
     }
 
     @EventSubscriber(eventClass = XmpUpdatedEvent.class)
-    public synchronized void xmpUpdated(final XmpUpdatedEvent evt) {
-        Collection <String> dcSubjects = new HashSet<>(getDcSubjects(evt.getOldXmp()));
-        dcSubjects.addAll(getDcSubjects(evt.getUpdatedXmp()));
-        notify(dcSubjects);
+    public void xmpUpdated(final XmpUpdatedEvent evt) {
+        Set<String> oldDcSubjects = getDcSubjects(evt.getOldXmp());
+        Set<String> updatedDcSubjects = getDcSubjects(evt.getUpdatedXmp());
+        Set<String> removedDcSubjects = new HashSet<>(oldDcSubjects);
+        removedDcSubjects.removeAll(updatedDcSubjects);
+        updatedDcSubjects.removeAll(oldDcSubjects);
+        adjustImageCounts(removedDcSubjects, -1);
+        adjustImageCounts(updatedDcSubjects, 1);
     }
 
     @EventSubscriber(eventClass = XmpDeletedEvent.class)
-    public synchronized void xmpDeletedEvent(XmpDeletedEvent evt) {
-        notify(getDcSubjects(evt.getXmp()));
+    public void xmpDeletedEvent(XmpDeletedEvent evt) {
+        adjustImageCounts(getDcSubjects(evt.getXmp()), -1);
+    }
+
+    // The DC subjects of the deleted XMP are unknown
+    @EventSubscriber(eventClass = ImageFilesDeletedAtOnceEvent.class)
+    public void imageFilesDeletedAtOnce(ImageFilesDeletedAtOnceEvent evt) {
+        if (evt.getXmpCount() > 0) {
+            ADJUSTED_SINCE_RECONCILIATION.set(true);
+            EXECUTOR.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    reconcileIfAdjusted();
+                }
+            });
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private Collection<String> getDcSubjects(Xmp xmp) {
+    private Set<String> getDcSubjects(Xmp xmp) {
         if (xmp == null) {
-            return Collections.emptyList();
+            return Collections.emptySet();
         }
 
         Object value = xmp.getValue(XmpDcSubjectsSubjectMetaDataValue.INSTANCE);
 
         return value instanceof Collection
-                ? (Collection<String>) value
-                : Collections.<String>emptyList();
+                ? new HashSet<>((Collection<String>) value)
+                : Collections.<String>emptySet();
     }
 
-    private void notify(Collection<String> dcSubjects) {
+    private void adjustImageCounts(Collection<String> dcSubjects, int delta) {
         for (String dcSubject : dcSubjects) {
-            setImageCount(dcSubject);
+            if (dcSubject != null) {
+                adjustImageCount(dcSubject, delta);
+                dcSubjectChanged(dcSubject);
+            }
+        }
+        if (!dcSubjects.isEmpty()) {
+            ADJUSTED_SINCE_RECONCILIATION.set(true);
         }
     }
 
+    private static void adjustImageCount(String dcSubject, final int delta) {
+        IMAGE_COUNT_OF_DC_SUBJECTS.compute(dcSubject, new BiFunction<String, Integer, Integer>() {
+
+            @Override
+            public Integer apply(String dcSubject, Integer count) {
+                int newCount = (count == null ? 0 : count) + delta;
+                return newCount > 0 ? newCount : null; // null removes the DC subject
+            }
+        });
+    }
+
     @EventSubscriber(eventClass = DcSubjectDeletedEvent.class)
-    public synchronized void dcSubjectDeleted(final DcSubjectDeletedEvent evt) {
-        setImageCount(evt.getDcSubject());
+    public void dcSubjectDeleted(final DcSubjectDeletedEvent evt) {
+        countInRepository(evt.getDcSubject());
     }
 
     @EventSubscriber(eventClass = DcSubjectInsertedEvent.class)
-    public synchronized void dcSubjectInserted(final DcSubjectInsertedEvent evt) {
-        setImageCount(evt.getDcSubject());
+    public void dcSubjectInserted(final DcSubjectInsertedEvent evt) {
+        countInRepository(evt.getDcSubject());
     }
 
     @EventSubscriber(eventClass = DcSubjectRenamedEvent.class)
-    public synchronized void dcSubjectRenamed(final DcSubjectRenamedEvent evt) {
-        setImageCount(evt.getFromName());
-        setImageCount(evt.getToName());
+    public void dcSubjectRenamed(final DcSubjectRenamedEvent evt) {
+        countInRepository(evt.getFromName(), evt.getToName());
+    }
+
+    private void countInRepository(final String... dcSubjects) {
+        EXECUTOR.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                for (String dcSubject : dcSubjects) {
+                    if (dcSubject != null) {
+                        setImageCount(dcSubject, ImageFilesDatabase.INSTANCE.getImageCountOfDcSubject(dcSubject));
+                    }
+                }
+            }
+        });
     }
 
-    private synchronized void setImageCount(String dcSubject) {
-        if (dcSubject != null) {
-            int count = ImageFilesDatabase.INSTANCE.getImageCountOfDcSubject(dcSubject);
-            IMAGE_COUNT_OF_DC_SUBJECTS.put(dcSubject, count);
-            notifyListeners(dcSubject, count);
+    private static void setImageCount(String dcSubject, int count) {
+        Integer oldCount = count > 0
+                ? IMAGE_COUNT_OF_DC_SUBJECTS.put(dcSubject, count)
+                : IMAGE_COUNT_OF_DC_SUBJECTS.remove(dcSubject);
+        if (oldCount == null ? count > 0 : oldCount != count) {
+            dcSubjectChanged(dcSubject);
         }
     }
 
-    private void notifyListeners(String dcSubject, int count) {
-        CountNotification countNotification = new CountNotification(dcSubject, count);
+    /**
+     * Reconciles the counts with the database, e.g. if XMP has been changed
+     * without notification. Does nothing if no count has been adjusted since
+     * the last reconciliation.
+     */
+    static void reconcileIfAdjusted() {
+        if (!INIT || !ADJUSTED_SINCE_RECONCILIATION.getAndSet(false)) {
+            return;
+        }
+        Map<String, Integer> imageCountOfDcSubjects = ImageFilesDatabase.INSTANCE.getImageCountOfDcSubjects();
+        if (imageCountOfDcSubjects.isEmpty()) { // Empty also on errors
+            return;
+        }
+        for (String dcSubject : IMAGE_COUNT_OF_DC_SUBJECTS.keySet()) {
+            if (!imageCountOfDcSubjects.containsKey(dcSubject)) {
+                setImageCount(dcSubject, 0);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : imageCountOfDcSubjects.entrySet()) {
+            setImageCount(entry.getKey(), entry.getValue());
+        }
+        LOGGER.log(Level.FINE, "Reconciled image counts of {0} DC subjects", imageCountOfDcSubjects.size());
+    }
 
-        LISTENERS_EXECUTOR.execute(countNotification);
+    private static void dcSubjectChanged(String dcSubject) {
+        synchronized (CHANGED_DC_SUBJECTS) {
+            CHANGED_DC_SUBJECTS.add(dcSubject);
+            if (!notificationScheduled) {
+                notificationScheduled = true;
+                EXECUTOR.schedule(new CountNotification(), NOTIFICATION_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
     }
 
     private static final class CountNotification implements Runnable {
 
-        private final String dcSubject;
-        private final int count;
-
-        private CountNotification(String dcSubject, int count) {
-            this.dcSubject = dcSubject;
-            this.count = count;
-        }
-
         @Override
         public void run() {
-            for (Listener listener : LS.get()) {
-                listener.imageCountContainingDcSubjectChanged(dcSubject, count);
+            Collection<String> dcSubjects;
+            synchronized (CHANGED_DC_SUBJECTS) {
+                dcSubjects = new ArrayList<>(CHANGED_DC_SUBJECTS);
+                CHANGED_DC_SUBJECTS.clear();
+                notificationScheduled = false;
+            }
+            for (String dcSubject : dcSubjects) {
+                Integer count = IMAGE_COUNT_OF_DC_SUBJECTS.get(dcSubject);
+                for (Listener listener : LS.get()) {
+                    listener.imageCountContainingDcSubjectChanged(dcSubject, count == null ? 0 : count);
+                }
             }
         }
     }
@@ -4,9 +4,13 @@ import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.EventBus;
@@ -14,9 +18,11 @@ import org.jphototagger.api.progress.ProgressEvent;
 import org.jphototagger.api.progress.ProgressListener;
 import org.jphototagger.domain.repository.RepositoryStatistics;
 import org.jphototagger.domain.repository.ThumbnailsRepository;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternDeletedEvent;
 import org.jphototagger.domain.repository.event.fileexcludepattern.FileExcludePatternInsertedEvent;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedAtOnceEvent;
+import org.jphototagger.lib.util.CompiledPatterns;
 import org.openide.util.Lookup;
 
 /**
@@ -26,6 +32,8 @@ final class FileExcludePatternsDatabase extends Database {
 
     static final FileExcludePatternsDatabase INSTANCE = new FileExcludePatternsDatabase();
     private static final Logger LOGGER = Logger.getLogger(FileExcludePatternsDatabase.class.getName());
+    private static final int IDS_PER_DELETE = 1000;
+    private static final int PROGRESS_NOTIFY_INTERVAL = 100;
 
     private FileExcludePatternsDatabase() {
     }
@@ -162,9 +170,12 @@ final class FileExcludePatternsDatabase extends Database {
 
     /**
      * Deletes files from the database which matches against some patterns.
+     * <p>
+     * The patterns are compiled once, invalid patterns are ignored. The matching files are deleted within one
+     * transaction, their thumbnails at once after the commit and subscribers are notified with one batch event.
      *
      * @param   patterns  patterns
-     * @param   listener  progress listener or null, can cancel the action
+     * @param   listener  progress listener or null, can cancel the action before deleting
      * @return  count of deleted files
      */
     int deleteMatchingFiles(List<String> patterns, ProgressListener listener) {
@@ -173,65 +184,106 @@ final class FileExcludePatternsDatabase extends Database {
         }
         int count = 0;
         Connection con = null;
-        PreparedStatement stmtUpdate = null;
         Statement stmtQuery = null;
         ResultSet rs = null;
         try {
-            int patternCount = patterns.size();
-            int progress = 0;
+            CompiledPatterns compiledPatterns = CompiledPatterns.compileValid(patterns);
             RepositoryStatistics repoStatistics = Lookup.getDefault().lookup(RepositoryStatistics.class);
             ProgressEvent event = new ProgressEvent.Builder()
                     .source(this)
                     .minimum(0)
-                    .maximum(repoStatistics.getFileCount() * patternCount)
+                    .maximum(repoStatistics.getFileCount())
                     .value(0)
                     .build();
             con = getConnection();
             con.setAutoCommit(false);
-            String sqlUpdate = "DELETE FROM files WHERE filename = ?";
-            String sqlQuery = "SELECT filename FROM files";
+            String sqlQuery = "SELECT id, filename FROM files";
             stmtQuery = con.createStatement();
-            stmtUpdate = con.prepareStatement(sqlUpdate);
             LOGGER.log(Level.FINEST, sqlQuery);
             rs = stmtQuery.executeQuery(sqlQuery);
-            ThumbnailsRepository tnRepo = Lookup.getDefault().lookup(ThumbnailsRepository.class); // NO AUTOCOMMIT: ThumbnailsRepository should be a different database
-            notifyProgressListenerStart(listener, event);
-            boolean cancel = event.isCancel();
+            List<Long> idsOfMatchingFiles = new ArrayList<>();
+            Set<File> matchingFiles = new LinkedHashSet<>();
+            boolean cancel = notifyProgressListenerStart(listener, event);
+            int progress = 0;
             while (!cancel && rs.next()) {
-                String filepath = rs.getString(1);
-                for (int i = 0; !cancel && (i < patternCount); i++) {
-                    progress++;
-                    String pattern = patterns.get(i);
-                    if (filepath.matches(pattern)) {
-                        stmtUpdate.setString(1, filepath);
-                        LOGGER.log(Level.FINER, stmtUpdate.toString());
-                        int affectedRows = stmtUpdate.executeUpdate();
-                        count += affectedRows;
-                        if (affectedRows > 0) {
-                            File imageFile = new File(filepath);
-                            tnRepo.deleteThumbnail(imageFile);
-                            EventBus.publish(new ImageFileDeletedEvent(this, imageFile));
-                        }
-                        cancel = event.isCancel();
-                    }
+                String filepath = rs.getString(2);
+                if (compiledPatterns.matchesAny(filepath)) {
+                    idsOfMatchingFiles.add(rs.getLong(1));
+                    matchingFiles.add(new File(filepath));
+                }
+                progress++;
+                if (progress % PROGRESS_NOTIFY_INTERVAL == 0) {
                     event.setInfo(filepath);
                     event.setValue(progress);
-                    notifyProgressListenerPerformed(listener, event);
+                    cancel = notifyProgressListenerPerformed(listener, event);
                 }
             }
-            con.commit();
+            if (!cancel && !idsOfMatchingFiles.isEmpty()) {
+                int xmpCount = countRowsWithFileIds(con, "xmp", idsOfMatchingFiles);
+                int exifCount = countRowsWithFileIds(con, "exif", idsOfMatchingFiles);
+                count = deleteFilesWithIds(con, idsOfMatchingFiles);
+                con.commit();
+                ThumbnailsRepository tnRepo = Lookup.getDefault().lookup(ThumbnailsRepository.class);
+                tnRepo.deleteThumbnails(matchingFiles);
+                DatabaseStatistics.INSTANCE.imageFilesDeleted(count);
+                if (xmpCount > 0) {
+                    DatabaseStatistics.INSTANCE.xmpDeleted(xmpCount);
+                }
+                EventBus.publish(new ImageFilesDeletedAtOnceEvent(this, matchingFiles, xmpCount, exifCount));
+                RepositoryEventCoalescer.INSTANCE.imageFilesDeleted(matchingFiles);
+            }
+            event.setValue(progress);
             notifyProgressListenerEnd(listener, event);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
+            count = 0;
         } finally {
             close(rs, stmtQuery);
-            close(stmtUpdate);
             free(con);
         }
         return count;
     }
 
+    // Rows of the table referencing the files through the column id_file, which will be deleted with the files
+    private int countRowsWithFileIds(Connection con, String table, List<Long> ids) throws SQLException {
+        int count = 0;
+        for (int index = 0; index < ids.size(); index += IDS_PER_DELETE) {
+            List<Long> chunk = ids.subList(index, Math.min(index + IDS_PER_DELETE, ids.size()));
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = con.prepareStatement("SELECT COUNT(*) FROM " + table + " WHERE id_file IN (" + createParametersString(chunk.size()) + ")");
+                setParameters(stmt, chunk, 1);
+                LOGGER.log(Level.FINEST, "Counting {0} rows of {1} files matching file exclude patterns", new Object[]{table, chunk.size()});
+                rs = stmt.executeQuery();
+                if (rs.next()) {
+                    count += rs.getInt(1);
+                }
+            } finally {
+                close(rs, stmt);
+            }
+        }
+        return count;
+    }
+
+    private int deleteFilesWithIds(Connection con, List<Long> ids) throws SQLException {
+        int count = 0;
+        for (int index = 0; index < ids.size(); index += IDS_PER_DELETE) {
+            List<Long> chunk = ids.subList(index, Math.min(index + IDS_PER_DELETE, ids.size()));
+            PreparedStatement stmt = null;
+            try {
+                stmt = con.prepareStatement("DELETE FROM files WHERE id IN (" + createParametersString(chunk.size()) + ")");
+                setParameters(stmt, chunk, 1);
+                LOGGER.log(Level.FINER, "Deleting {0} files matching file exclude patterns", chunk.size());
+                count += stmt.executeUpdate();
+            } finally {
+                close(stmt);
+            }
+        }
+        return count;
+    }
+
     private void notifyInserted(String pattern) {
         EventBus.publish(new FileExcludePatternInsertedEvent(this, pattern));
     }
@@ -0,0 +1,99 @@
+package org.jphototagger.repository.hsqldb;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Statements on the filenames of the table <code>files</code> starting with a path prefix, e.g. the files of a
+ * directory and it's subdirectories.
+ * <p>
+ * The column <code>files.filename</code> ignores the case, so a prefix matches all paths starting with it ignoring the
+ * case.
+ *
+ * @author Elmar Baumann
+ */
+final class FilenamePrefixes {
+
+    private static final Logger LOGGER = Logger.getLogger(FilenamePrefixes.class.getName());
+
+    /**
+     * @param prefix path prefix
+     * @return pattern for <code>LIKE ? ESCAPE '\'</code> matching all paths starting with the prefix, '%' and '_' of
+     *         the prefix are matched literally
+     */
+    static String toLikePattern(String prefix) {
+        if (prefix == null) {
+            throw new NullPointerException("prefix == null");
+        }
+
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * Renames all filenames starting with a prefix with one statement. Does not commit.
+     *
+     * @param con    connection
+     * @param before start substring of the old filenames
+     * @param after  new start substring
+     * @return new file of every renamed old file, the new path is <code>after</code> followed by the remainder of the
+     *         old path as stored, so that it is also correct for paths matching <code>before</code> ignoring the case
+     * @throws SQLException on database errors
+     */
+    static Map<File, File> rename(Connection con, String before, String after) throws SQLException {
+        if (con == null) {
+            throw new NullPointerException("con == null");
+        }
+        if (before == null) {
+            throw new NullPointerException("before == null");
+        }
+        if (after == null) {
+            throw new NullPointerException("after == null");
+        }
+
+        Map<File, File> newFileOfOldFile = new LinkedHashMap<>();
+        String likePattern = toLikePattern(before);
+        int beforeLength = before.length();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            stmt = con.prepareStatement("SELECT filename FROM files WHERE filename LIKE ? ESCAPE '\\'");
+            stmt.setString(1, likePattern);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                String oldPath = rs.getString(1);
+                newFileOfOldFile.put(new File(oldPath), new File(after + oldPath.substring(beforeLength)));
+            }
+        } finally {
+            Database.close(rs, stmt);
+        }
+
+        if (newFileOfOldFile.isEmpty()) {
+            return newFileOfOldFile;
+        }
+
+        try {
+            stmt = con.prepareStatement("UPDATE files SET filename = ? || SUBSTRING(filename, ?) WHERE filename LIKE ? ESCAPE '\\'");
+            stmt.setString(1, after);
+            stmt.setInt(2, beforeLength + 1);
+            stmt.setString(3, likePattern);
+            LOGGER.log(Level.FINER, stmt.toString());
+            stmt.executeUpdate();
+        } finally {
+            Database.close(stmt);
+        }
+
+        return newFileOfOldFile;
+    }
+
+    private FilenamePrefixes() {
+    }
+}
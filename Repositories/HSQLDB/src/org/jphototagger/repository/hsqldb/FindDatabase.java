@@ -12,11 +12,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.jphototagger.api.concurrent.Cancelable;
 import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.metadata.search.Join;
 import org.jphototagger.domain.metadata.search.Join.Type;
 import org.jphototagger.domain.metadata.search.ParamStatement;
 import org.jphototagger.domain.metadata.xmp.XmpDcSubjectsSubjectMetaDataValue;
+import org.jphototagger.domain.repository.FindRepository.ImageFilesFoundListener;
 import org.jphototagger.domain.repository.SynonymsRepository;
 import org.openide.util.Lookup;
 
@@ -27,6 +29,7 @@ final class FindDatabase extends Database {
 
     static final FindDatabase INSTANCE = new FindDatabase();
     private static final Logger LOGGER = Logger.getLogger(FindDatabase.class.getName());
+    private static final int FOUND_IMAGE_FILES_CHUNK_SIZE = 500;
 
     private FindDatabase() {
     }
@@ -63,6 +66,90 @@ final class FindDatabase extends Database {
         return imageFiles;
     }
 
+    boolean findImageFiles(ParamStatement paramStatement, ImageFilesFoundListener listener) {
+        if (paramStatement == null) {
+            throw new NullPointerException("paramStatement == null");
+        }
+        if (listener == null) {
+            throw new NullPointerException("listener == null");
+        }
+        CancelableQuery query = new CancelableQuery();
+        listener.searchStarted(query);
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            stmt = con.prepareStatement(paramStatement.getSql());
+            List<String> values = paramStatement.getValues();
+            int size = values.size();
+            for (int i = 0; i < size; i++) {
+                stmt.setObject(i + 1, values.get(i));
+            }
+            if (!query.setStatement(stmt)) {
+                return false;
+            }
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            List<File> imageFiles = new ArrayList<>(FOUND_IMAGE_FILES_CHUNK_SIZE);
+            while (!query.isCanceled() && rs.next()) {
+                imageFiles.add(new File(rs.getString(1)));
+                if (imageFiles.size() == FOUND_IMAGE_FILES_CHUNK_SIZE) {
+                    listener.imageFilesFound(imageFiles);
+                    imageFiles = new ArrayList<>(FOUND_IMAGE_FILES_CHUNK_SIZE);
+                }
+            }
+            if (query.isCanceled()) {
+                return false;
+            }
+            if (!imageFiles.isEmpty()) {
+                listener.imageFilesFound(imageFiles);
+            }
+            return true;
+        } catch (Throwable t) {
+            if (query.isCanceled()) {
+                LOGGER.log(Level.FINE, "Canceled query {0}", paramStatement);
+            } else {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        } finally {
+            query.setStatement(null);
+            close(rs, stmt);
+            free(con);
+        }
+        return false;
+    }
+
+    private static final class CancelableQuery implements Cancelable {
+
+        private boolean canceled;
+        private PreparedStatement stmt;
+
+        /**
+         * @return false if the query has been canceled
+         */
+        private synchronized boolean setStatement(PreparedStatement stmt) {
+            this.stmt = stmt;
+            return !canceled;
+        }
+
+        private synchronized boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public synchronized void cancel() {
+            canceled = true;
+            if (stmt != null) {
+                try {
+                    stmt.cancel();
+                } catch (Throwable t) {
+                    LOGGER.log(Level.FINE, null, t);
+                }
+            }
+        }
+    }
+
     /**
      * Liefert alle Dateien, der Metadaten bestimmte Suchbegriffe enthalten.
      * Gesucht wird in allen Spalten mit TabelleA.SpalteB LIKE '%Suchbegriff%'
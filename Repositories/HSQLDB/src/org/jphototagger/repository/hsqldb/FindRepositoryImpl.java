@@ -18,6 +18,11 @@ public final class FindRepositoryImpl implements FindRepository {
         return FindDatabase.INSTANCE.findImageFiles(paramStatement);
     }
 
+    @Override
+    public boolean findImageFiles(ParamStatement paramStatement, ImageFilesFoundListener listener) {
+        return FindDatabase.INSTANCE.findImageFiles(paramStatement, listener);
+    }
+
     @Override
     public List<File> findImageFilesLikeOr(List<MetaDataValue> metaDataValues, String searchString) {
         return FindDatabase.INSTANCE.findImageFilesLikeOr(metaDataValues, searchString);
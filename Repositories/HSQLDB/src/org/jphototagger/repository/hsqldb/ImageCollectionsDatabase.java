@@ -7,8 +7,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.EventBus;
@@ -21,11 +28,21 @@ import org.jphototagger.domain.repository.event.imagecollections.ImageCollection
 import org.jphototagger.lib.util.StringUtil;
 
 /**
+ * Image collections (photo albums).
+ * <p>
+ * The order of the images is defined by sparse sequence numbers with a gap of {@link #SEQUENCE_NUMBER_GAP} between
+ * adjacent images. Appending, removing and moving images updates only the affected rows, a moved or inserted image
+ * gets a sequence number between the numbers of it's neighbours. Only if there is no gap left or appended images would
+ * exceed the integer range, all sequence numbers of a collection are renumbered. Dense sequence numbers of older
+ * databases are renumbered on the first move.
+ *
  * @author Elmar Baumann
  */
 final class ImageCollectionsDatabase extends Database {
 
     static final ImageCollectionsDatabase INSTANCE = new ImageCollectionsDatabase();
+    private static final int SEQUENCE_NUMBER_GAP = 1024;
+    private static final int IDS_PER_STATEMENT = 1000;
     private static final Logger LOGGER = Logger.getLogger(ImageCollectionsDatabase.class.getName());
     private final ImageFilesDatabase repo = ImageFilesDatabase.INSTANCE;
 
@@ -182,8 +199,8 @@ final class ImageCollectionsDatabase extends Database {
     /**
      * Inserts an image collection into the database.
      * <p>
-     * If an image collection of that name already exists, it will be deleted
-     * before insertion without notification to delete listeners.
+     * If an image collection of that name already exists, it will be updated: Only the sequence numbers of moved
+     * images will be updated, removed images deleted and new images inserted.
      *
      * @param collectionName name of the image collection
      * @param imageFiles     ordered image files
@@ -197,50 +214,331 @@ final class ImageCollectionsDatabase extends Database {
             throw new NullPointerException("imageFiles == null");
         }
         boolean added = false;
-        if (existsImageCollection(collectionName)) {
-            deleteImageCollection(collectionName, true, false);
+        Connection con = null;
+        PreparedStatement stmtName = null;
+        try {
+            con = getConnection();
+            con.setAutoCommit(false);
+            long[] idsImageFiles = findIdsImageFiles(con, imageFiles);
+            if (idsImageFiles == null) {
+                LOGGER.log(Level.WARNING, "Not all files of photo album ''{0}'' are in the database! No photo album will be created!", collectionName);
+                rollback(con);
+                return false;
+            }
+            long idCollectionName = findId(con, collectionName);
+            if (idCollectionName < 0) {
+                stmtName = con.prepareStatement("INSERT INTO collection_names (name) VALUES (?)");
+                stmtName.setString(1, collectionName);
+                LOGGER.log(Level.FINER, stmtName.toString());
+                stmtName.executeUpdate();
+                idCollectionName = findId(con, collectionName);
+                insertImages(con, idCollectionName, idsImageFiles, 0);
+            } else {
+                updateImages(con, idCollectionName, idsImageFiles);
+            }
+            con.commit();
+            added = true;
+            notifyCollectionInserted(collectionName, imageFiles);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            rollback(con);
+        } finally {
+            close(stmtName);
+            free(con);
+        }
+        return added;
+    }
+
+    // Updates only the rows of moved images, anchors are the longest subsequence of images keeping their order
+    private void updateImages(Connection con, long idCollectionName, long[] idsImageFiles) throws SQLException {
+        List<long[]> members = findMembers(con, idCollectionName);
+        Map<Long, Integer> sequenceNumberOfIdFile = new HashMap<>(members.size() * 2);
+        for (long[] member : members) {
+            sequenceNumberOfIdFile.put(member[0], (int) member[1]);
+        }
+        Set<Long> newIdsImageFiles = new HashSet<>(idsImageFiles.length * 2);
+        for (long idImageFile : idsImageFiles) {
+            newIdsImageFiles.add(idImageFile);
         }
+        if (sequenceNumberOfIdFile.size() != members.size() || newIdsImageFiles.size() != idsImageFiles.length) {
+            // Duplicates can't be identified by the file ID
+            deleteImages(con, idCollectionName, null);
+            insertImages(con, idCollectionName, idsImageFiles, 0);
+            return;
+        }
+        List<Long> removedIdsImageFiles = new ArrayList<>();
+        for (long[] member : members) {
+            if (!newIdsImageFiles.contains(member[0])) {
+                removedIdsImageFiles.add(member[0]);
+            }
+        }
+        deleteImages(con, idCollectionName, removedIdsImageFiles);
+        Integer[] oldSequenceNumbers = new Integer[idsImageFiles.length];
+        for (int i = 0; i < idsImageFiles.length; i++) {
+            oldSequenceNumbers[i] = sequenceNumberOfIdFile.get(idsImageFiles[i]);
+        }
+        int[] sequenceNumbers = SequenceNumbers.create(oldSequenceNumbers, SEQUENCE_NUMBER_GAP);
+        PreparedStatement stmtUpdate = null;
+        PreparedStatement stmtInsert = null;
+        try {
+            stmtUpdate = con.prepareStatement("UPDATE collections SET sequence_number = ?"
+                    + " WHERE id_collectionnname = ? AND id_file = ?");
+            stmtInsert = con.prepareStatement("INSERT INTO collections"
+                    + " (id_collectionnname, id_file, sequence_number)"
+                    + " VALUES (?, ?, ?)");
+            int updateCount = 0;
+            int insertCount = 0;
+            for (int i = 0; i < idsImageFiles.length; i++) {
+                Integer oldSequenceNumber = oldSequenceNumbers[i];
+                if (oldSequenceNumber == null) {
+                    stmtInsert.setLong(1, idCollectionName);
+                    stmtInsert.setLong(2, idsImageFiles[i]);
+                    stmtInsert.setInt(3, sequenceNumbers[i]);
+                    stmtInsert.addBatch();
+                    insertCount++;
+                } else if (oldSequenceNumber != sequenceNumbers[i]) {
+                    stmtUpdate.setInt(1, sequenceNumbers[i]);
+                    stmtUpdate.setLong(2, idCollectionName);
+                    stmtUpdate.setLong(3, idsImageFiles[i]);
+                    stmtUpdate.addBatch();
+                    updateCount++;
+                }
+            }
+            LOGGER.log(Level.FINER, "Photo album {0}: {1} images removed, {2} moved, {3} inserted",
+                    new Object[]{idCollectionName, removedIdsImageFiles.size(), updateCount, insertCount});
+            if (updateCount > 0) {
+                stmtUpdate.executeBatch();
+            }
+            if (insertCount > 0) {
+                stmtInsert.executeBatch();
+            }
+        } finally {
+            close(stmtInsert);
+            close(stmtUpdate);
+        }
+    }
+
+    private void insertImages(Connection con, long idCollectionName, long[] idsImageFiles, int firstSequenceNumber) throws SQLException {
+        if (idsImageFiles.length == 0) {
+            return;
+        }
+        if (firstSequenceNumber + (long) SEQUENCE_NUMBER_GAP * idsImageFiles.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many images: " + idsImageFiles.length);
+        }
+        PreparedStatement stmt = null;
+        try {
+            stmt = con.prepareStatement("INSERT INTO collections"
+                    + " (id_collectionnname, id_file, sequence_number)"
+                    + " VALUES (?, ?, ?)");
+            int sequenceNumber = firstSequenceNumber;
+            for (long idImageFile : idsImageFiles) {
+                stmt.setLong(1, idCollectionName);
+                stmt.setLong(2, idImageFile);
+                stmt.setInt(3, sequenceNumber);
+                stmt.addBatch();
+                sequenceNumber += SEQUENCE_NUMBER_GAP;
+            }
+            LOGGER.log(Level.FINER, "Inserting {0} images into photo album {1}", new Object[]{idsImageFiles.length, idCollectionName});
+            stmt.executeBatch();
+        } finally {
+            close(stmt);
+        }
+    }
+
+    /**
+     * @param idsImageFiles IDs of the image files to delete or null for deleting all images
+     * @return              count of deleted images
+     */
+    private int deleteImages(Connection con, long idCollectionName, List<Long> idsImageFiles) throws SQLException {
+        if (idsImageFiles == null) {
+            PreparedStatement stmt = null;
+            try {
+                stmt = con.prepareStatement("DELETE FROM collections WHERE id_collectionnname = ?");
+                stmt.setLong(1, idCollectionName);
+                LOGGER.log(Level.FINER, stmt.toString());
+                return stmt.executeUpdate();
+            } finally {
+                close(stmt);
+            }
+        }
+        int count = 0;
+        for (int index = 0; index < idsImageFiles.size(); index += IDS_PER_STATEMENT) {
+            List<Long> chunk = idsImageFiles.subList(index, Math.min(index + IDS_PER_STATEMENT, idsImageFiles.size()));
+            PreparedStatement stmt = null;
+            try {
+                stmt = con.prepareStatement("DELETE FROM collections WHERE id_collectionnname = ?"
+                        + " AND id_file IN (" + createParametersString(chunk.size()) + ")");
+                stmt.setLong(1, idCollectionName);
+                setParameters(stmt, chunk, 2);
+                LOGGER.log(Level.FINER, "Deleting {0} images from photo album {1}", new Object[]{chunk.size(), idCollectionName});
+                count += stmt.executeUpdate();
+            } finally {
+                close(stmt);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return file ID and sequence number of each image ordered by the sequence number
+     */
+    private List<long[]> findMembers(Connection con, long idCollectionName) throws SQLException {
+        List<long[]> members = new ArrayList<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = con.prepareStatement("SELECT id_file, sequence_number FROM collections"
+                    + " WHERE id_collectionnname = ? ORDER BY sequence_number ASC");
+            stmt.setLong(1, idCollectionName);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                members.add(new long[]{rs.getLong(1), rs.getInt(2)});
+            }
+        } finally {
+            close(rs, stmt);
+        }
+        return members;
+    }
+
+    /**
+     * Inserts image collections within one transaction. Collections with the
+     * name of an already existing collection or containing image files not in
+     * the database will be skipped.
+     *
+     * @param  collections image collections
+     * @return             count of inserted image collections
+     */
+    int insertImageCollections(Collection<? extends ImageCollection> collections) {
+        if (collections == null) {
+            throw new NullPointerException("collections == null");
+        }
+        List<ImageCollection> insertedCollections = new ArrayList<>(collections.size());
+        Set<String> existingNames = new HashSet<>(getAllImageCollectionNames());
         Connection con = null;
         PreparedStatement stmtName = null;
         PreparedStatement stmtColl = null;
         try {
             con = getConnection();
             con.setAutoCommit(false);
+            Map<File, Long> idOfImageFile = new HashMap<>();
             stmtName = con.prepareStatement("INSERT INTO collection_names (name) VALUES (?)");
             stmtColl = con.prepareStatement("INSERT INTO collections"
                     + " (id_collectionnname, id_file, sequence_number)"
                     + " VALUES (?, ?, ?)");
-            stmtName.setString(1, collectionName);
-            LOGGER.log(Level.FINER, stmtName.toString());
-            stmtName.executeUpdate();
-            long idCollectionName = findId(con, collectionName);
-            int sequence_number = 0;
-            for (File imageFile : imageFiles) {
-                long idImageFile = repo.findIdImageFile(con, imageFile);
-                if (!repo.existsImageFile(con, imageFile)) {
-                    LOGGER.log(Level.WARNING, "File ''{0}'' is not in the database! No photo album will be created!", imageFile);
-                    rollback(con);
-                    return false;
+            for (ImageCollection collection : collections) {
+                String collectionName = collection.getName();
+                if (!existingNames.add(collectionName)) {
+                    continue;
+                }
+                List<File> imageFiles = collection.getFiles();
+                long[] idsImageFiles = findIdsImageFiles(con, imageFiles, idOfImageFile);
+                if (idsImageFiles == null) {
+                    LOGGER.log(Level.WARNING, "Not all files of photo album ''{0}'' are in the database! The photo album will not be created!", collectionName);
+                    continue;
                 }
-                stmtColl.setLong(1, idCollectionName);
-                stmtColl.setLong(2, idImageFile);
-                stmtColl.setInt(3, sequence_number);
-                LOGGER.log(Level.FINER, stmtColl.toString());
-                stmtColl.executeUpdate();
-                sequence_number++;
+                stmtName.setString(1, collectionName);
+                LOGGER.log(Level.FINER, stmtName.toString());
+                stmtName.executeUpdate();
+                long idCollectionName = findId(con, collectionName);
+                for (int sequenceNumber = 0; sequenceNumber < idsImageFiles.length; sequenceNumber++) {
+                    stmtColl.setLong(1, idCollectionName);
+                    stmtColl.setLong(2, idsImageFiles[sequenceNumber]);
+                    stmtColl.setInt(3, sequenceNumber * SEQUENCE_NUMBER_GAP);
+                    stmtColl.addBatch();
+                }
+                insertedCollections.add(collection);
             }
+            stmtColl.executeBatch();
             con.commit();
-            added = true;
-            notifyCollectionInserted(collectionName, imageFiles);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
+            insertedCollections.clear();
         } finally {
             close(stmtColl);
             close(stmtName);
             free(con);
         }
-        return added;
+        for (ImageCollection collection : insertedCollections) {
+            notifyCollectionInserted(collection.getName(), collection.getFiles());
+        }
+        return insertedCollections.size();
+    }
+
+    /**
+     * Returns the IDs of image files with one query per chunk of image files.
+     *
+     * @return IDs in the order of the image files or null, if an image file is
+     *         not in the database
+     */
+    private long[] findIdsImageFiles(Connection con, List<File> imageFiles) throws SQLException {
+        Map<String, Long> idOfFilename = findIdsOfFilenames(con, imageFiles);
+        long[] ids = new long[imageFiles.size()];
+        int index = 0;
+        for (File imageFile : imageFiles) {
+            Long id = idOfFilename.get(imageFile.getAbsolutePath());
+            if (id == null) {
+                return null;
+            }
+            ids[index++] = id;
+        }
+        return ids;
+    }
+
+    // The filename column ignores the case
+    private Map<String, Long> findIdsOfFilenames(Connection con, Collection<File> imageFiles) throws SQLException {
+        Map<String, Long> idOfFilename = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> filenames = new ArrayList<>(new LinkedHashSet<>(toFilenames(imageFiles)));
+        for (int index = 0; index < filenames.size(); index += IDS_PER_STATEMENT) {
+            List<String> chunk = filenames.subList(index, Math.min(index + IDS_PER_STATEMENT, filenames.size()));
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = con.prepareStatement("SELECT id, filename FROM files WHERE filename IN ("
+                        + createParametersString(chunk.size()) + ")");
+                setParameters(stmt, chunk, 1);
+                LOGGER.log(Level.FINEST, "Finding IDs of {0} files", chunk.size());
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    idOfFilename.put(rs.getString(2), rs.getLong(1));
+                }
+            } finally {
+                close(rs, stmt);
+            }
+        }
+        return idOfFilename;
+    }
+
+    private static List<String> toFilenames(Collection<File> files) {
+        List<String> filenames = new ArrayList<>(files.size());
+        for (File file : files) {
+            filenames.add(file.getAbsolutePath());
+        }
+        return filenames;
+    }
+
+    /**
+     * Returns the IDs of image files, looks up every file only once.
+     *
+     * @return IDs in the order of the image files or null, if an image file is
+     *         not in the database
+     */
+    private long[] findIdsImageFiles(Connection con, List<File> imageFiles, Map<File, Long> idOfImageFile) throws SQLException {
+        long[] ids = new long[imageFiles.size()];
+        int index = 0;
+        for (File imageFile : imageFiles) {
+            Long id = idOfImageFile.get(imageFile);
+            if (id == null) {
+                id = repo.findIdImageFile(con, imageFile);
+                idOfImageFile.put(imageFile, id);
+            }
+            if (id < 0) {
+                return null;
+            }
+            ids[index++] = id;
+        }
+        return ids;
     }
 
     /**
@@ -293,37 +591,57 @@ final class ImageCollectionsDatabase extends Database {
         }
         int delCount = 0;
         Connection con = null;
-        PreparedStatement stmt = null;
         try {
             con = getConnection();
             con.setAutoCommit(false);
-            stmt = con.prepareStatement("DELETE FROM collections WHERE id_collectionnname = ? AND id_file = ?");
+            long idCollectionName = findId(con, collectionName);
+            Map<String, Long> idOfFilename = findIdsOfFilenames(con, imageFiles);
+            Set<Long> idsOfMembers = findIdsOfMembers(con, idCollectionName, idOfFilename.values());
             List<File> deletedFiles = new ArrayList<>(imageFiles.size());
+            Set<Long> idsToDelete = new HashSet<>();
             for (File imageFile : imageFiles) {
-                int prevDelCount = delCount;
-                long idCollectionName = findId(con, collectionName);
-                long idFile = repo.findIdImageFile(con, imageFile);
-                stmt.setLong(1, idCollectionName);
-                stmt.setLong(2, idFile);
-                LOGGER.log(Level.FINER, stmt.toString());
-                delCount += stmt.executeUpdate();
-                if (prevDelCount < delCount) {
+                Long idFile = idOfFilename.get(imageFile.getAbsolutePath());
+                if (idFile != null && idsOfMembers.contains(idFile) && idsToDelete.add(idFile)) {
                     deletedFiles.add(imageFile);
                 }
-                reorderSequenceNumber(con, collectionName);
             }
+            delCount = deleteImages(con, idCollectionName, new ArrayList<>(idsToDelete));
             con.commit();
             notifyImagesDeleted(collectionName, deletedFiles);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
+            delCount = 0;
         } finally {
-            close(stmt);
             free(con);
         }
         return delCount;
     }
 
+    private Set<Long> findIdsOfMembers(Connection con, long idCollectionName, Collection<Long> idsImageFiles) throws SQLException {
+        Set<Long> idsOfMembers = new HashSet<>();
+        List<Long> ids = new ArrayList<>(idsImageFiles);
+        for (int index = 0; index < ids.size(); index += IDS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(index, Math.min(index + IDS_PER_STATEMENT, ids.size()));
+            PreparedStatement stmt = null;
+            ResultSet rs = null;
+            try {
+                stmt = con.prepareStatement("SELECT id_file FROM collections WHERE id_collectionnname = ?"
+                        + " AND id_file IN (" + createParametersString(chunk.size()) + ")");
+                stmt.setLong(1, idCollectionName);
+                setParameters(stmt, chunk, 2);
+                LOGGER.log(Level.FINEST, "Finding {0} images in photo album {1}", new Object[]{chunk.size(), idCollectionName});
+                rs = stmt.executeQuery();
+                while (rs.next()) {
+                    idsOfMembers.add(rs.getLong(1));
+                }
+            } finally {
+                close(rs, stmt);
+            }
+        }
+        return idsOfMembers;
+    }
+
     /**
      * Adds image files to an image collection.
      *
@@ -340,62 +658,88 @@ final class ImageCollectionsDatabase extends Database {
         if (imageFiles == null) {
             throw new NullPointerException("imageFiles == null");
         }
+        if (!existsImageCollection(collectionName)) {
+            return insertImageCollection(collectionName, imageFiles);
+        }
         boolean added = false;
         Connection con = null;
-        PreparedStatement stmt = null;
         try {
-            if (existsImageCollection(collectionName)) {
-                con = getConnection();
-                con.setAutoCommit(false);
-                stmt = con.prepareStatement("INSERT INTO collections"
-                        + " (id_file, id_collectionnname, sequence_number)"
-                        + " VALUES (?, ?, ?)");
-                long idCollectionNames = findId(con, collectionName);
-                int sequence_number = getMaxSequenceNumber(con, collectionName) + 1;
-                List<File> insertedFiles = new ArrayList<>(imageFiles.size());
-                for (File imageFile : imageFiles) {
-                    if (!isImageIn(con, collectionName, imageFile)) {
-                        long idFiles = repo.findIdImageFile(con, imageFile);
-                        stmt.setLong(1, idFiles);
-                        stmt.setLong(2, idCollectionNames);
-                        stmt.setInt(3, sequence_number);
-                        LOGGER.log(Level.FINER, stmt.toString());
-                        stmt.executeUpdate();
-                        insertedFiles.add(imageFile);
-                        sequence_number++;
-                    }
+            con = getConnection();
+            con.setAutoCommit(false);
+            long idCollectionNames = findId(con, collectionName);
+            Map<String, Long> idOfFilename = findIdsOfFilenames(con, imageFiles);
+            Set<Long> idsOfMembers = findIdsOfMembers(con, idCollectionNames, idOfFilename.values());
+            List<File> insertedFiles = new ArrayList<>(imageFiles.size());
+            List<Long> idsToInsert = new ArrayList<>(imageFiles.size());
+            for (File imageFile : imageFiles) {
+                Long idFile = idOfFilename.get(imageFile.getAbsolutePath());
+                if (idFile == null) {
+                    LOGGER.log(Level.WARNING, "File ''{0}'' is not in the database! No image will be added to the photo album!", imageFile);
+                    rollback(con);
+                    return false;
                 }
-                reorderSequenceNumber(con, collectionName);
-                notifyImagesInserted(collectionName, insertedFiles);
-            } else {
-                return insertImageCollection(collectionName, imageFiles);
+                if (idsOfMembers.add(idFile)) {
+                    idsToInsert.add(idFile);
+                    insertedFiles.add(imageFile);
+                }
+            }
+            long[] idsImageFiles = new long[idsToInsert.size()];
+            for (int i = 0; i < idsImageFiles.length; i++) {
+                idsImageFiles[i] = idsToInsert.get(i);
             }
+            appendImages(con, idCollectionNames, idsImageFiles);
             con.commit();
             added = true;
+            notifyImagesInserted(collectionName, insertedFiles);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
         } finally {
-            close(stmt);
             free(con);
         }
         return added;
     }
 
-    private int getMaxSequenceNumber(Connection con, String collectionName) throws SQLException {
-        int max = -1;
+    // Deletes never renumber, so the maximum sequence number only grows; renumbers all images if it would overflow
+    private void appendImages(Connection con, long idCollectionName, long[] idsImageFiles) throws SQLException {
+        if (idsImageFiles.length == 0) {
+            return;
+        }
+        Integer maxSequenceNumber = getMaxSequenceNumber(con, idCollectionName);
+        long firstSequenceNumber = maxSequenceNumber == null
+                ? 0
+                : (long) maxSequenceNumber + SEQUENCE_NUMBER_GAP;
+        if (firstSequenceNumber + (long) SEQUENCE_NUMBER_GAP * (idsImageFiles.length - 1) <= Integer.MAX_VALUE) {
+            insertImages(con, idCollectionName, idsImageFiles, (int) firstSequenceNumber);
+            return;
+        }
+        List<long[]> members = findMembers(con, idCollectionName);
+        long[] idsAllImageFiles = new long[members.size() + idsImageFiles.length];
+        for (int i = 0; i < members.size(); i++) {
+            idsAllImageFiles[i] = members.get(i)[0];
+        }
+        System.arraycopy(idsImageFiles, 0, idsAllImageFiles, members.size(), idsImageFiles.length);
+        LOGGER.log(Level.FINE, "Renumbering photo album {0} to append {1} images", new Object[]{idCollectionName, idsImageFiles.length});
+        updateImages(con, idCollectionName, idsAllImageFiles);
+    }
+
+    /**
+     * @return maximum sequence number or null, if the image collection is empty
+     */
+    private Integer getMaxSequenceNumber(Connection con, long idCollectionName) throws SQLException {
+        Integer max = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         try {
-            stmt = con.prepareStatement("SELECT MAX(collections.sequence_number)"
-                    + " FROM collections INNER JOIN collection_names"
-                    + " ON collections.id_collectionnname = collection_names.id"
-                    + " AND collection_names.name = ?");
-            stmt.setString(1, collectionName);
+            stmt = con.prepareStatement("SELECT MAX(sequence_number) FROM collections WHERE id_collectionnname = ?");
+            stmt.setLong(1, idCollectionName);
             LOGGER.log(Level.FINEST, stmt.toString());
             rs = stmt.executeQuery();
             if (rs.next()) {
-                max = rs.getInt(1);
+                int value = rs.getInt(1);
+                if (!rs.wasNull()) {
+                    max = value;
+                }
             }
         } finally {
             close(rs, stmt);
@@ -403,38 +747,6 @@ final class ImageCollectionsDatabase extends Database {
         return max;
     }
 
-    private void reorderSequenceNumber(Connection con, String collectionName) throws SQLException {
-        long idCollectionName = findId(con, collectionName);
-        PreparedStatement stmtIdFiles = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        try {
-            stmtIdFiles = con.prepareStatement("SELECT id_file FROM collections WHERE id_collectionnname = ?"
-                    + " ORDER BY collections.sequence_number ASC");
-            stmtIdFiles.setLong(1, idCollectionName);
-            rs = stmtIdFiles.executeQuery();
-            List<Long> idFiles = new ArrayList<>();
-            while (rs.next()) {
-                idFiles.add(rs.getLong(1));
-            }
-            stmt = con.prepareStatement("UPDATE collections SET sequence_number = ?"
-                    + " WHERE id_collectionnname = ? AND id_file = ?");
-            LOGGER.log(Level.FINEST, stmt.toString());
-            int sequenceNumer = 0;
-            for (Long idFile : idFiles) {
-                stmt.setInt(1, sequenceNumer);
-                stmt.setLong(2, idCollectionName);
-                stmt.setLong(3, idFile);
-                LOGGER.log(Level.FINER, stmt.toString());
-                stmt.executeUpdate();
-                sequenceNumer++;
-            }
-        } finally {
-            close(rs, stmtIdFiles);
-            close(stmt);
-        }
-    }
-
     /**
      * Returns whether an image collection of a specific name does exist.
      *
@@ -523,29 +835,6 @@ final class ImageCollectionsDatabase extends Database {
         return count;
     }
 
-    private boolean isImageIn(Connection con, String collectionName, File imageFile) throws SQLException {
-        boolean isInCollection = false;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        try {
-            stmt = con.prepareStatement("SELECT COUNT(*) FROM"
-                    + " collections INNER JOIN collection_names"
-                    + " ON collections.id_collectionnname = collection_names.id"
-                    + " INNER JOIN files on collections.id_file = files.id"
-                    + " WHERE collection_names.name = ? AND files.filename = ?");
-            stmt.setString(1, collectionName);
-            stmt.setString(2, imageFile.getAbsolutePath());
-            LOGGER.log(Level.FINEST, stmt.toString());
-            rs = stmt.executeQuery();
-            if (rs.next()) {
-                isInCollection = rs.getInt(1) > 0;
-            }
-        } finally {
-            close(rs, stmt);
-        }
-        return isInCollection;
-    }
-
     private long findId(Connection con, String collectionname) throws SQLException {
         long id = -1;
         PreparedStatement stmt = null;
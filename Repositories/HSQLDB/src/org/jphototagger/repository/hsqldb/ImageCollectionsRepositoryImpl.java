@@ -1,6 +1,7 @@
 package org.jphototagger.repository.hsqldb;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import org.jphototagger.domain.imagecollections.ImageCollection;
 import org.jphototagger.domain.repository.ImageCollectionsRepository;
@@ -67,6 +68,11 @@ public final class ImageCollectionsRepositoryImpl implements ImageCollectionsRep
         return ImageCollectionsDatabase.INSTANCE.insertImageCollection(collection);
     }
 
+    @Override
+    public int saveNewImageCollections(Collection<? extends ImageCollection> collections) {
+        return ImageCollectionsDatabase.INSTANCE.insertImageCollections(collections);
+    }
+
     @Override
     public boolean insertImagesIntoImageCollection(String collectionName, List<File> imageFiles) {
         return ImageCollectionsDatabase.INSTANCE.insertImagesIntoImageCollection(collectionName, imageFiles);
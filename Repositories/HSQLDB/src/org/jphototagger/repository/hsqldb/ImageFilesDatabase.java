@@ -12,9 +12,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +64,7 @@ import org.jphototagger.domain.repository.browse.ResultSetBrowserEvent;
 import org.jphototagger.domain.repository.browse.RsColumnNamesEvent;
 import org.jphototagger.domain.repository.browse.RsFinishedEvent;
 import org.jphototagger.domain.repository.browse.RsRowEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectDeletedEvent;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectInsertedEvent;
 import org.jphototagger.domain.repository.event.dcsubjects.DcSubjectRenamedEvent;
@@ -71,10 +74,13 @@ import org.jphototagger.domain.repository.event.exif.ExifUpdatedEvent;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileInsertedEvent;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpDeletedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpInsertedEvent;
 import org.jphototagger.domain.repository.event.xmp.XmpUpdatedEvent;
+import org.jphototagger.domain.repository.event.xmp.XmpValueRenamedEvent;
 import org.jphototagger.domain.thumbnails.event.ThumbnailUpdatedEvent;
+import org.jphototagger.domain.thumbnails.event.ThumbnailsUpdatedEvent;
 import org.jphototagger.domain.timeline.Timeline;
 import org.jphototagger.image.util.ThumbnailCreatorService;
 import org.jphototagger.lib.util.Bundle;
@@ -181,14 +187,77 @@ final class ImageFilesDatabase extends Database {
         }
     }
 
+    long getFileCountStartingWith(String pathPrefix) {
+        if (pathPrefix == null) {
+            throw new NullPointerException("pathPrefix == null");
+        }
+        Connection con = null;
+        try {
+            con = getConnection();
+            return getFileCountNameStartingWith(con, pathPrefix);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            return 0;
+        } finally {
+            free(con);
+        }
+    }
+
+    /**
+     * Uses the index of <code>files.filename</code> for ordering, so that a page can be fetched without reading all
+     * image files.
+     *
+     * @param pathPrefix start of the paths
+     * @param offset index of the first file
+     * @param limit maximum count of files
+     * @return files ordered ascending by path
+     */
+    List<File> getImageFilesStartingWith(String pathPrefix, int offset, int limit) {
+        if (pathPrefix == null) {
+            throw new NullPointerException("pathPrefix == null");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Negative offset: " + offset);
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        List<File> files = new ArrayList<>(limit);
+        if (limit == 0) {
+            return files;
+        }
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            String sql = "SELECT filename FROM files WHERE filename LIKE ? ESCAPE '\\' ORDER BY filename ASC LIMIT ? OFFSET ?";
+            stmt = con.prepareStatement(sql);
+            stmt.setString(1, FilenamePrefixes.toLikePattern(pathPrefix));
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                files.add(new File(rs.getString(1)));
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+        return files;
+    }
+
     private long getFileCountNameStartingWith(Connection con, String start) throws SQLException {
         long count = 0;
-        String sql = "SELECT COUNT(*) FROM files WHERE filename LIKE ?";
+        String sql = "SELECT COUNT(*) FROM files WHERE filename LIKE ? ESCAPE '\\'";
         PreparedStatement stmt = null;
         ResultSet rs = null;
         try {
             stmt = con.prepareStatement(sql);
-            stmt.setString(1, start + "%");
+            stmt.setString(1, FilenamePrefixes.toLikePattern(start));
             LOGGER.log(Level.FINEST, stmt.toString());
             rs = stmt.executeQuery();
             if (rs.next()) {
@@ -203,12 +272,16 @@ final class ImageFilesDatabase extends Database {
     }
 
     /**
-     * Renames filenames starting with a substring. Usage: Renaming a directory in the filesystem.
+     * Renames filenames starting with a substring with one statement within one transaction. Usage: Renaming a
+     * directory in the filesystem.
+     * <p>
+     * The thumbnails are renamed at once and one {@link ImageFilesMovedEvent} will be published instead of an
+     * {@link ImageFileMovedEvent} for each file.
      *
-     * @param before start substring of the old filenames
+     * @param before start substring of the old filenames, matched ignoring the case
      * @param after new start substring
      * @param progressListener null or progress listener. The progress listener can cancel renaming via
-     *                         {@code ProgressEvent#setCancel(boolean)} (no rollback).
+     *                         {@code ProgressEvent#setCancel(boolean)} before the files are renamed.
      * @return count of renamed files
      */
     public synchronized int updateRenameFilenamesStartingWith(final String before, final String after, final ProgressListener progressListener) {
@@ -218,60 +291,37 @@ final class ImageFilesDatabase extends Database {
         if (after == null) {
             throw new NullPointerException("after == null");
         }
-        if (before.equals(after)) {
+        if (before.isEmpty() || before.equals(after)) {
             return 0;
         }
-        int countRenamed = 0;
-        int startLength = before.length();
+        Map<File, File> newFileOfOldFile = Collections.emptyMap();
         Connection con = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
         ProgressEvent progressEvent = new ProgressEvent.Builder().source(this).minimum(0).maximum(0).value(0).build();
         try {
             con = getConnection();
-            con.setAutoCommit(true);
-            stmt = con.prepareStatement("SELECT filename FROM files WHERE filename LIKE ?");
-            stmt.setString(1, before + "%");
-            LOGGER.log(Level.FINEST, stmt.toString());
-            rs = stmt.executeQuery();
+            con.setAutoCommit(false);
             progressEvent.setMaximum((int) getFileCountNameStartingWith(con, before));
-            boolean cancel = notifyProgressListenerStart(progressListener, progressEvent);
-            while (!cancel && rs.next()) {
-                String from = rs.getString(1);
-                String to = after + from.substring(startLength);
-                updateImageFilename(con, new File(from), new File(to));
-                countRenamed++;
-                progressEvent.setValue(countRenamed);
-                cancel = notifyProgressListenerPerformed(progressListener, progressEvent);
+            if (progressEvent.getMaximum() == 0 || notifyProgressListenerStart(progressListener, progressEvent)) {
+                con.rollback();
+                return 0;
             }
+            newFileOfOldFile = FilenamePrefixes.rename(con, before, after);
+            con.commit();
+            progressEvent.setValue(newFileOfOldFile.size());
+            notifyProgressListenerPerformed(progressListener, progressEvent);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
+            newFileOfOldFile = Collections.emptyMap();
         } finally {
-            close(rs, stmt);
             free(con);
             notifyProgressListenerEnd(progressListener, null);
         }
-        return countRenamed;
-    }
-
-    private void updateImageFilename(Connection con, File fromImageFile, File toImageFile) throws SQLException {
-        if (fromImageFile.equals(toImageFile)) {
-            return;
-        }
-        PreparedStatement stmt = null;
-        try {
-            String sql = "UPDATE files SET filename = ? WHERE filename = ?";
-            stmt = con.prepareStatement(sql);
-            stmt.setString(1, toImageFile.getAbsolutePath());
-            stmt.setString(2, fromImageFile.getAbsolutePath());
-            LOGGER.log(Level.FINER, stmt.toString());
-            stmt.executeUpdate();
-            notifyImageFileMoved(fromImageFile, toImageFile);
-            tnRepo.renameThumbnail(fromImageFile, toImageFile);
-        } finally {
-            close(stmt);
+        if (!newFileOfOldFile.isEmpty()) {
+            tnRepo.renameThumbnails(newFileOfOldFile);
+            notifyImageFilesMoved(before, after, newFileOfOldFile);
         }
+        return newFileOfOldFile.size();
     }
 
     private int deleteRowWithFilename(Connection con, File imageFile) {
@@ -325,6 +375,7 @@ final class ImageFilesDatabase extends Database {
         try {
             con = getConnection();
             con.setAutoCommit(false);
+            DatabaseStatistics.INSTANCE.deferAdjustments();
             long idFile = findIdImageFile(con, imageFile);
             if (idFile < 0) {
                 return false;
@@ -334,10 +385,12 @@ final class ImageFilesDatabase extends Database {
                     ? (Long) xmp.getValue(XmpLastModifiedMetaDataValue.INSTANCE)
                     : -1);
             con.commit();
+            DatabaseStatistics.INSTANCE.applyDeferredAdjustments();
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
         } finally {
+            DatabaseStatistics.INSTANCE.discardDeferredAdjustments();
             free(con);
         }
         return true;
@@ -366,6 +419,7 @@ final class ImageFilesDatabase extends Database {
         try {
             con = getConnection();
             con.setAutoCommit(false);
+            DatabaseStatistics.INSTANCE.deferAdjustments();
             String sqlWithXmpLastModified = "INSERT INTO files (filename, size_in_bytes, lastmodified, xmp_lastmodified) VALUES (?, ?, ?, ?)";
             String sqlWithoutXmpLastModified = "INSERT INTO files (filename, size_in_bytes, lastmodified) VALUES (?, ?, ?)";
             boolean insertXmpIntoDb = imageFile.isSaveXmpIntoRepository();
@@ -390,12 +444,14 @@ final class ImageFilesDatabase extends Database {
                 insertExif(con, file, idFile, imageFile.getExif());
             }
             con.commit();
+            DatabaseStatistics.INSTANCE.applyDeferredAdjustments();
             success = true;
             notifyImageFileInserted(file);
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
         } finally {
+            DatabaseStatistics.INSTANCE.discardDeferredAdjustments();
             close(stmt);
             free(con);
         }
@@ -421,6 +477,7 @@ final class ImageFilesDatabase extends Database {
         try {
             con = getConnection();
             con.setAutoCommit(false);
+            DatabaseStatistics.INSTANCE.deferAdjustments();
             String sqlWithXmpLastModified = "UPDATE files SET size_in_bytes = ?, lastmodified = ?, xmp_lastmodified = ? WHERE id = ?";
             String sqlWithoutXmpLastModified = "UPDATE files SET size_in_bytes = ?, lastmodified = ? WHERE id = ?";
             boolean insertXmpIntoDb = imageFile.isSaveXmpIntoRepository();
@@ -445,11 +502,13 @@ final class ImageFilesDatabase extends Database {
                 insertOrUpdateExif(con, imgFile, idFile, imageFile.getExif());
             }
             con.commit();
+            DatabaseStatistics.INSTANCE.applyDeferredAdjustments();
             success = true;
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             rollback(con);
         } finally {
+            DatabaseStatistics.INSTANCE.discardDeferredAdjustments();
             close(stmt);
             free(con);
         }
@@ -529,6 +588,20 @@ final class ImageFilesDatabase extends Database {
         return false;
     }
 
+    public int updateThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        if (thumbnailsOfImageFiles == null) {
+            throw new NullPointerException("thumbnailsOfImageFiles == null");
+        }
+        if (thumbnailsOfImageFiles.isEmpty()) {
+            return 0;
+        }
+        int count = tnRepo.insertThumbnails(thumbnailsOfImageFiles);
+        if (count > 0) {
+            EventBus.publish(new ThumbnailsUpdatedEvent(this, thumbnailsOfImageFiles.keySet()));
+        }
+        return count;
+    }
+
     private void updateThumbnailFile(File imageFile, Image thumbnail) {
         if (thumbnail != null) {
             tnRepo.insertThumbnail(thumbnail, imageFile);
@@ -645,7 +718,8 @@ final class ImageFilesDatabase extends Database {
             con.setAutoCommit(true);
             stmt = con.prepareStatement("DELETE FROM files WHERE filename = ?");
             for (File imageFile : imageFiles) {
-                Xmp xmp = getXmpOfImageFile(imageFile);
+                // getXmpOfImageFile() returns an empty XMP also for files without XMP
+                Xmp xmp = existsXmpForFile(con, imageFile) ? getXmpOfImageFile(con, imageFile) : null;
                 Exif exif = getExifOfImageFile(imageFile, con);
                 stmt.setString(1, imageFile.getAbsolutePath());
                 LOGGER.log(Level.FINER, stmt.toString());
@@ -690,7 +764,7 @@ final class ImageFilesDatabase extends Database {
                 File imgFile = new File(rs.getString(1));
                 event.setInfo(null);
                 if (!imgFile.exists()) {
-                    Xmp xmp = getXmpOfImageFile(imgFile);
+                    Xmp xmp = existsXmpForFile(con, imgFile) ? getXmpOfImageFile(con, imgFile) : null;
                     Exif exif = getExifOfImageFile(imgFile, con);
                     int deletedRows = deleteRowWithFilename(con, imgFile);
                     countDeleted += deletedRows;
@@ -771,6 +845,42 @@ final class ImageFilesDatabase extends Database {
         return lastModified;
     }
 
+    /**
+     * Returns the last modification times of the XMP data of image files with one query.
+     *
+     * @param imageFiles <em>image</em> files (<em>not</em> sidecar files)
+     * @return last modification times in milliseconds since 1970 of the image files having XMP data
+     */
+    public Map<File, Long> getXmpFilesLastModifiedTimestamps(Collection<? extends File> imageFiles) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+        Map<File, Long> lastModifiedOfFiles = new HashMap<>(imageFiles.size());
+        if (imageFiles.isEmpty()) {
+            return lastModifiedOfFiles;
+        }
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            stmt = con.prepareStatement("SELECT filename, xmp_lastmodified FROM files WHERE filename IN ("
+                    + getPlaceholder(imageFiles.size()) + ") AND xmp_lastmodified IS NOT NULL");
+            setStrings(stmt, imageFiles.toArray(new File[0]), 1);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                lastModifiedOfFiles.put(new File(rs.getString(1)), rs.getLong(2));
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+        return lastModifiedOfFiles;
+    }
+
     /**
      * Sets the last modification time of XMP metadata.
      *
@@ -1035,12 +1145,26 @@ final class ImageFilesDatabase extends Database {
             throw new NullPointerException("file == null");
         }
         Connection con = null;
+        try {
+            con = getConnection();
+            return existsXmpForFile(con, file);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            return false;
+        } finally {
+            free(con);
+        }
+    }
+
+    boolean existsXmpForFile(Connection con, File file) {
+        if (file == null) {
+            throw new NullPointerException("file == null");
+        }
         PreparedStatement stmt = null;
         ResultSet rs = null;
         String sql = "SELECT COUNT(*) FROM files INNER JOIN xmp ON files.id = xmp.id_file WHERE files.filename = ?";
         long count = 0;
         try {
-            con = getConnection();
             stmt = con.prepareStatement(sql);
             stmt.setString(1, file.getAbsolutePath());
             LOGGER.log(Level.FINEST, stmt.toString());
@@ -1052,7 +1176,6 @@ final class ImageFilesDatabase extends Database {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
             close(rs, stmt);
-            free(con);
         }
         return count > 0;
     }
@@ -1139,7 +1262,7 @@ final class ImageFilesDatabase extends Database {
             Xmp xmp = getXmpOfImageFile(imageFile);
             count = stmt.executeUpdate();
             if (count > 0) {
-                EventBus.publish(new XmpDeletedEvent(this, imageFile, xmp));
+                notifyXmpDeleted(imageFile, xmp);
             }
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
@@ -1194,7 +1317,7 @@ final class ImageFilesDatabase extends Database {
                 + " ON xmp_dc_subject.id_dc_subject = dc_subjects.id"
                 + " WHERE files.filename IN ("
                 + getPlaceholder(fileCount)
-                + ")";
+                + ") ORDER BY files.filename";
     }
 
     /**
@@ -1490,6 +1613,7 @@ final class ImageFilesDatabase extends Database {
             LOGGER.log(Level.FINEST, sql);
             int count = stmt.executeUpdate();
             if (count > 0) {
+                DatabaseStatistics.INSTANCE.metaDataChanged();
                 EventBus.publish(new DcSubjectRenamedEvent(this, fromName, toName));
             }
             return count;
@@ -1537,6 +1661,48 @@ final class ImageFilesDatabase extends Database {
         return dcSubjects;
     }
 
+    /**
+     * Returns the distinct dc subjects of image files with one query.
+     *
+     * @param imageFiles image files
+     * @return dc subjects
+     */
+    public Set<String> getDcSubjectsOfImageFiles(Collection<? extends File> imageFiles) {
+        if (imageFiles == null) {
+            throw new NullPointerException("imageFiles == null");
+        }
+        Set<String> dcSubjects = new HashSet<>();
+        if (imageFiles.isEmpty()) {
+            return dcSubjects;
+        }
+        Connection con = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            String sql = "SELECT DISTINCT dc_subjects.subject FROM"
+                    + " files INNER JOIN xmp ON files.id = xmp.id_file"
+                    + " INNER JOIN xmp_dc_subject"
+                    + " ON xmp.id = xmp_dc_subject.id_xmp"
+                    + " INNER JOIN dc_subjects"
+                    + " ON xmp_dc_subject.id_dc_subject = dc_subjects.id"
+                    + " WHERE files.filename IN (" + getPlaceholder(imageFiles.size()) + ")";
+            stmt = con.prepareStatement(sql);
+            setStrings(stmt, imageFiles.toArray(new File[0]), 1);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                dcSubjects.add(rs.getString(1));
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+        return dcSubjects;
+    }
+
     public Set<File> getImageFilesContainingDcSubject(String dcSubject, boolean includeSynonyms) {
         if (dcSubject == null) {
             throw new NullPointerException("dcSubject == null");
@@ -2040,6 +2206,52 @@ final class ImageFilesDatabase extends Database {
         return values;
     }
 
+    /**
+     * Returns the distinct values of columns and how many image files have
+     * them, all columns read with one connection.
+     *
+     * @param columns columns
+     * @return        for each column it's distinct values not null and the
+     *                count of image files having the value. The values are
+     *                ordered.
+     */
+    public Map<MetaDataValue, Map<String, Integer>> getImageCountsOfDistinctValuesOfColumns(Collection<? extends MetaDataValue> columns) {
+        if (columns == null) {
+            throw new NullPointerException("columns == null");
+        }
+        Map<MetaDataValue, Map<String, Integer>> imageCountsOfColumns = new LinkedHashMap<>();
+        Connection con = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            con = getConnection();
+            stmt = con.createStatement();
+            for (MetaDataValue column : columns) {
+                String tablename = column.getCategory();
+                String columnName = tablename + "." + column.getValueName();
+                String sql = "SELECT " + columnName + ", COUNT(*) FROM files"
+                        + Join.getJoinToFiles(tablename, Join.Type.INNER)
+                        + " WHERE " + columnName + " IS NOT NULL"
+                        + " GROUP BY " + columnName
+                        + " ORDER BY " + columnName;
+                LOGGER.log(Level.FINEST, sql);
+                rs = stmt.executeQuery(sql);
+                Map<String, Integer> imageCounts = new LinkedHashMap<>();
+                while (rs.next()) {
+                    imageCounts.put(rs.getString(1), rs.getInt(2));
+                }
+                rs.close();
+                imageCountsOfColumns.put(column, imageCounts);
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+        } finally {
+            close(rs, stmt);
+            free(con);
+        }
+        return imageCountsOfColumns;
+    }
+
     private String getFilesNotNullInSql(String tablename, String columnName) {
         boolean isLink = !tablename.equals("xmp") && !tablename.equals("exif");
         return isLink
@@ -2399,7 +2611,9 @@ final class ImageFilesDatabase extends Database {
             stmt = con.prepareStatement(sql);
             stmt.setString(1, value);
             LOGGER.log(Level.FINER, stmt.toString());
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                DatabaseStatistics.INSTANCE.valueDeleted(column);
+            }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, null, ex);
         } finally {
@@ -2408,6 +2622,159 @@ final class ImageFilesDatabase extends Database {
         }
     }
 
+    /**
+     * Renames or deletes a value of a XMP column in all XMP records within one transaction. <p> Values of tables
+     * referenced 1:n by the XMP table are renamed with one update of the referenced record. If the referenced table
+     * already contains the new value, the XMP records will reference the existing record and the record of the old
+     * value will be deleted. Deleting a referenced record sets the references of the XMP records to NULL.
+     *
+     * @param column column of the XMP table or of a table referenced 1:n by the XMP table
+     * @param oldValue old value
+     * @param newValue new value, empty string deletes the value
+     * @return count of XMP records which had the old value
+     */
+    public int updateRenameXmpValue(MetaDataValue column, String oldValue, String newValue) {
+        if (column == null) {
+            throw new NullPointerException("column == null");
+        }
+        if (oldValue == null) {
+            throw new NullPointerException("oldValue == null");
+        }
+        if (newValue == null) {
+            throw new NullPointerException("newValue == null");
+        }
+        if (oldValue.equals(newValue)) {
+            return 0;
+        }
+        String tableName = column.getCategory();
+        Connection con = null;
+        int count = 0;
+        try {
+            con = getConnection();
+            con.setAutoCommit(false);
+            count = "xmp".equals(tableName)
+                    ? updateRenameValueOfXmpTable(con, column, oldValue, newValue)
+                    : updateRenameValueOfXmpReferencedTable(con, column, oldValue, newValue);
+            con.commit();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            rollback(con);
+            return 0;
+        } finally {
+            free(con);
+        }
+        if (count > 0) {
+            DatabaseStatistics.INSTANCE.metaDataChanged();
+            EventBus.publish(new XmpValueRenamedEvent(this, column, oldValue, newValue, count));
+        }
+        return count;
+    }
+
+    private int updateRenameValueOfXmpTable(Connection con, MetaDataValue column, String oldValue, String newValue) throws SQLException {
+        String columnName = column.getValueName();
+        String sql = newValue.isEmpty()
+                ? "UPDATE xmp SET " + columnName + " = NULL WHERE " + columnName + " = ?"
+                : "UPDATE xmp SET " + columnName + " = ? WHERE " + columnName + " = ?";
+        PreparedStatement stmt = null;
+        try {
+            stmt = con.prepareStatement(sql);
+            MetaDataValue.ValueType valueType = column.getValueType();
+            if (newValue.isEmpty()) {
+                stmt.setObject(1, valueType.parseString(oldValue));
+            } else {
+                stmt.setObject(1, valueType.parseString(newValue));
+                stmt.setObject(2, valueType.parseString(oldValue));
+            }
+            LOGGER.log(Level.FINER, stmt.toString());
+            return stmt.executeUpdate();
+        } finally {
+            close(stmt);
+        }
+    }
+
+    private int updateRenameValueOfXmpReferencedTable(Connection con, MetaDataValue column, String oldValue, String newValue) throws SQLException {
+        String tableName = column.getCategory();
+        String columnName = column.getValueName();
+        String referenceColumnName = Join.getXmpReferenceColumnOf(tableName);
+        long idOldValue = findIdOfValue(con, tableName, columnName, oldValue);
+        if (idOldValue < 0) {
+            return 0;
+        }
+        int count = countXmpReferencing(con, referenceColumnName, idOldValue);
+        long idNewValue = newValue.isEmpty()
+                ? -1
+                : findIdOfValue(con, tableName, columnName, newValue);
+        if (newValue.isEmpty() || idNewValue >= 0) {
+            if (idNewValue >= 0) {
+                executeUpdate(con, "UPDATE xmp SET " + referenceColumnName + " = ? WHERE " + referenceColumnName + " = ?",
+                        idNewValue, idOldValue);
+            }
+            executeUpdate(con, "DELETE FROM " + tableName + " WHERE id = ?", idOldValue);
+        } else {
+            PreparedStatement stmt = null;
+            try {
+                stmt = con.prepareStatement("UPDATE " + tableName + " SET " + columnName + " = ? WHERE id = ?");
+                stmt.setString(1, newValue);
+                stmt.setLong(2, idOldValue);
+                LOGGER.log(Level.FINER, stmt.toString());
+                stmt.executeUpdate();
+            } finally {
+                close(stmt);
+            }
+        }
+        return count;
+    }
+
+    private long findIdOfValue(Connection con, String tableName, String columnName, String value) throws SQLException {
+        long id = -1;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = con.prepareStatement("SELECT id FROM " + tableName + " WHERE " + columnName + " = ?");
+            stmt.setString(1, value);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            if (rs.next()) {
+                id = rs.getLong(1);
+            }
+        } finally {
+            close(rs, stmt);
+        }
+        return id;
+    }
+
+    private int countXmpReferencing(Connection con, String referenceColumnName, long id) throws SQLException {
+        int count = 0;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = con.prepareStatement("SELECT COUNT(*) FROM xmp WHERE " + referenceColumnName + " = ?");
+            stmt.setLong(1, id);
+            LOGGER.log(Level.FINEST, stmt.toString());
+            rs = stmt.executeQuery();
+            if (rs.next()) {
+                count = rs.getInt(1);
+            }
+        } finally {
+            close(rs, stmt);
+        }
+        return count;
+    }
+
+    private int executeUpdate(Connection con, String sql, long... params) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = con.prepareStatement(sql);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setLong(i + 1, params[i]);
+            }
+            LOGGER.log(Level.FINER, stmt.toString());
+            return stmt.executeUpdate();
+        } finally {
+            close(stmt);
+        }
+    }
+
     /**
      * Deletes a Dublin Core subject. <p> <em>Call this method only, if You are sure, that no image has that
      * subject!</em>
@@ -2540,39 +2907,61 @@ final class ImageFilesDatabase extends Database {
     }
 
     void notifyImageFileDeleted(File imageFile) {
+        DatabaseStatistics.INSTANCE.imageFilesDeleted(1);
         EventBus.publish(new ImageFileDeletedEvent(this, imageFile));
+        RepositoryEventCoalescer.INSTANCE.imageFileDeleted(imageFile);
     }
 
     private void notifyImageFileInserted(File imageFile) {
+        DatabaseStatistics.INSTANCE.imageFilesInserted(1);
         EventBus.publish(new ImageFileInsertedEvent(this, imageFile));
+        RepositoryEventCoalescer.INSTANCE.imageFileInserted(imageFile);
     }
 
     private void notifyImageFileMoved(File oldFile, File newFile) {
+        DatabaseStatistics.INSTANCE.imageFilesMoved();
         EventBus.publish(new ImageFileMovedEvent(this, oldFile, newFile));
     }
 
+    private void notifyImageFilesMoved(String oldPathPrefix, String newPathPrefix, Map<File, File> newFileOfOldFile) {
+        DatabaseStatistics.INSTANCE.imageFilesMoved();
+        EventBus.publish(new ImageFilesMovedEvent(this, oldPathPrefix, newPathPrefix, newFileOfOldFile));
+    }
+
     private void notifyXmpUpdated(File imageFile, Xmp oldXmp, Xmp updatedXmp) {
+        DatabaseStatistics.INSTANCE.xmpUpdated(updatedXmp);
         EventBus.publish(new XmpUpdatedEvent(this, imageFile, oldXmp, updatedXmp));
+        RepositoryEventCoalescer.INSTANCE.xmpChanged(imageFile);
     }
 
     private void notifyXmpInserted(File imageFile, Xmp xmp) {
+        DatabaseStatistics.INSTANCE.xmpInserted(xmp);
         EventBus.publish(new XmpInsertedEvent(this, imageFile, xmp));
+        RepositoryEventCoalescer.INSTANCE.xmpChanged(imageFile);
     }
 
     private void notifyXmpDeleted(File imageFile, Xmp xmp) {
+        DatabaseStatistics.INSTANCE.xmpDeleted();
         EventBus.publish(new XmpDeletedEvent(this, imageFile, xmp));
+        RepositoryEventCoalescer.INSTANCE.xmpChanged(imageFile);
     }
 
     private void notifyExifUpdated(File imageFile, Exif oldExif, Exif updatedExif) {
+        DatabaseStatistics.INSTANCE.exifChanged();
         EventBus.publish(new ExifUpdatedEvent(this, imageFile, oldExif, updatedExif));
+        RepositoryEventCoalescer.INSTANCE.exifChanged(imageFile);
     }
 
     private void notifyExifInserted(File imageFile, Exif eExif) {
+        DatabaseStatistics.INSTANCE.exifChanged();
         EventBus.publish(new ExifInsertedEvent(this, imageFile, eExif));
+        RepositoryEventCoalescer.INSTANCE.exifChanged(imageFile);
     }
 
     private void notifyExifDeleted(File imageFile, Exif exif) {
+        DatabaseStatistics.INSTANCE.exifChanged();
         EventBus.publish(new ExifDeletedEvent(exif, imageFile, exif));
+        RepositoryEventCoalescer.INSTANCE.exifChanged(imageFile);
     }
 
     private void notifyThumbnailUpdated(File imageFile) {
@@ -2580,10 +2969,12 @@ final class ImageFilesDatabase extends Database {
     }
 
     private void notifyDcSubjectInserted(String dcSubject) {
+        DatabaseStatistics.INSTANCE.valueInserted(XmpDcSubjectsSubjectMetaDataValue.INSTANCE, dcSubject);
         EventBus.publish(new DcSubjectInsertedEvent(this, dcSubject));
     }
 
     private void notifyDcSubjectDeleted(String dcSubject) {
+        DatabaseStatistics.INSTANCE.valueDeleted(XmpDcSubjectsSubjectMetaDataValue.INSTANCE);
         EventBus.publish(new DcSubjectDeletedEvent(this, dcSubject));
     }
 
@@ -5,6 +5,7 @@ import java.io.File;
 import java.sql.Date;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.jphototagger.api.applifecycle.generics.Functor;
 import org.jphototagger.api.progress.ProgressListener;
@@ -38,6 +39,16 @@ public final class ImageFilesRepositoryImpl implements ImageFilesRepository {
         ImageFilesDatabase.INSTANCE.eachImage(functor);
     }
 
+    @Override
+    public long getFileCountStartingWith(String pathPrefix) {
+        return ImageFilesDatabase.INSTANCE.getFileCountStartingWith(pathPrefix);
+    }
+
+    @Override
+    public List<File> findImageFilesStartingWith(String pathPrefix, int offset, int limit) {
+        return ImageFilesDatabase.INSTANCE.getImageFilesStartingWith(pathPrefix, offset, limit);
+    }
+
     @Override
     public long findImageFilesLastModifiedTimestamp(File imageFile) {
         return ImageFilesDatabase.INSTANCE.getImageFilesLastModifiedTimestamp(imageFile);
@@ -53,6 +64,11 @@ public final class ImageFilesRepositoryImpl implements ImageFilesRepository {
         return ImageFilesDatabase.INSTANCE.getXmpFilesLastModifiedTimestamp(imageFile);
     }
 
+    @Override
+    public Map<File, Long> findXmpFilesLastModifiedTimestamps(Collection<? extends File> imageFiles) {
+        return ImageFilesDatabase.INSTANCE.getXmpFilesLastModifiedTimestamps(imageFiles);
+    }
+
     @Override
     public int deleteImageFiles(List<File> imageFiles) {
         return ImageFilesDatabase.INSTANCE.deleteImageFiles(imageFiles);
@@ -113,11 +129,21 @@ public final class ImageFilesRepositoryImpl implements ImageFilesRepository {
         return ImageFilesDatabase.INSTANCE.getAllDistinctValuesOfColumn(mdValue);
     }
 
+    @Override
+    public Map<MetaDataValue, Map<String, Integer>> findImageCountsOfDistinctMetaDataValues(Collection<? extends MetaDataValue> values) {
+        return ImageFilesDatabase.INSTANCE.getImageCountsOfDistinctValuesOfColumns(values);
+    }
+
     @Override
     public List<String> findDcSubjectsOfImageFile(File imageFile) {
         return ImageFilesDatabase.INSTANCE.getDcSubjectsOfImageFile(imageFile);
     }
 
+    @Override
+    public Set<String> findDcSubjectsOfImageFiles(Collection<? extends File> imageFiles) {
+        return ImageFilesDatabase.INSTANCE.getDcSubjectsOfImageFiles(imageFiles);
+    }
+
     @Override
     public Exif findExifOfImageFile(File imageFile) {
         return ImageFilesDatabase.INSTANCE.getExifOfImageFile(imageFile);
@@ -228,6 +254,11 @@ public final class ImageFilesRepositoryImpl implements ImageFilesRepository {
         return ImageFilesDatabase.INSTANCE.updateThumbnail(imageFile, thumbnail);
     }
 
+    @Override
+    public int updateThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        return ImageFilesDatabase.INSTANCE.updateThumbnails(thumbnailsOfImageFiles);
+    }
+
     @Override
     public Long findIdDcSubject(String dcSubject) {
         return ImageFilesDatabase.INSTANCE.getIdDcSubject(dcSubject);
@@ -277,4 +308,9 @@ public final class ImageFilesRepositoryImpl implements ImageFilesRepository {
     public int updateRenameAllDcSubjects(String fromName, String toName) {
         return ImageFilesDatabase.INSTANCE.updateRenameAllDcSubjects(fromName, toName);
     }
+
+    @Override
+    public int updateRenameXmpValue(MetaDataValue mdValue, String oldValue, String newValue) {
+        return ImageFilesDatabase.INSTANCE.updateRenameXmpValue(mdValue, oldValue, newValue);
+    }
 }
@@ -8,11 +8,16 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.bushe.swing.event.EventBus;
 import org.jphototagger.domain.metadata.keywords.Keyword;
 import org.jphototagger.domain.metadata.keywords.KeywordType;
+import org.jphototagger.domain.repository.event.keywords.KeywordsChangedEvent;
 
 //Handling null:
 //ID: Can never be null
@@ -104,6 +109,9 @@ final class KeywordsDatabase extends Database {
             close(stmt);
             free(con);
         }
+        if (updated) {
+            notifyKeywordsChanged();
+        }
 
         return updated;
     }
@@ -160,9 +168,109 @@ final class KeywordsDatabase extends Database {
             close(stmt);
             free(con);
         }
+        if (inserted) {
+            notifyKeywordsChanged();
+        }
         return inserted;
     }
 
+    /**
+     * Inserts keyword paths within one transaction. Every path is a list of
+     * keywords starting with a root keyword, each following keyword is a child
+     * of it's predecessor. Only the name and {@code Keyword#isReal()} of the
+     * path elements are relevant.
+     * <p>
+     * A keyword will be inserted only if it's parent has no child with an equal
+     * name ignoring the case, the existing child will be taken as parent of the
+     * next path element. Path elements without a name will be skipped.
+     *
+     * @param  paths keyword paths
+     * @return       count of inserted keywords; 0 if no keyword was inserted
+     *               or on errors
+     */
+    synchronized int insertKeywordPaths(Collection<? extends List<Keyword>> paths) {
+        if (paths == null) {
+            throw new NullPointerException("paths == null");
+        }
+        int insertCount = 0;
+        Connection con = null;
+        PreparedStatement stmt = null;
+        try {
+            con = getConnection();
+            con.setAutoCommit(false);
+            Map<String, Long> idOfParentChild = getIdOfParentChild(con);
+            long nextId = findNextId(con);
+            stmt = con.prepareStatement("INSERT INTO hierarchical_subjects"
+                    + " (id, id_parent, subject, real) VALUES (?, ?, ?, ?)");
+            for (List<Keyword> path : paths) {
+                Long idParent = null;
+                for (Keyword keyword : path) {
+                    String name = keyword.getName() == null
+                            ? ""
+                            : keyword.getName().trim();
+                    if (name.isEmpty()) {
+                        continue;
+                    }
+                    String parentChild = toParentChild(idParent, name);
+                    Long id = idOfParentChild.get(parentChild);
+                    if (id == null) {
+                        id = nextId++;
+                        stmt.setLong(1, id);
+                        setLong(idParent, stmt, 2);
+                        stmt.setString(3, name);
+                        setBoolean(keyword.isReal(), stmt, 4);
+                        stmt.addBatch();
+                        idOfParentChild.put(parentChild, id);
+                        insertCount++;
+                    }
+                    idParent = id;
+                }
+            }
+            if (insertCount > 0) {
+                LOGGER.log(Level.FINER, "Inserting {0} keywords", insertCount);
+                stmt.executeBatch();
+            }
+            con.commit();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            rollback(con);
+            insertCount = 0;
+        } finally {
+            close(stmt);
+            free(con);
+        }
+        if (insertCount > 0) {
+            notifyKeywordsChanged();
+        }
+        return insertCount;
+    }
+
+    private Map<String, Long> getIdOfParentChild(Connection con) throws SQLException {
+        Map<String, Long> idOfParentChild = new HashMap<>();
+        String sql = "SELECT id, id_parent, subject FROM hierarchical_subjects";
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = con.createStatement();
+            LOGGER.log(Level.FINEST, sql);
+            rs = stmt.executeQuery(sql);
+            while (rs.next()) {
+                Long idParent = rs.getLong(2);
+                if (rs.wasNull()) {
+                    idParent = null;
+                }
+                idOfParentChild.put(toParentChild(idParent, rs.getString(3)), rs.getLong(1));
+            }
+        } finally {
+            close(rs, stmt);
+        }
+        return idOfParentChild;
+    }
+
+    private static String toParentChild(Long idParent, String name) {
+        return idParent + ":" + name.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Deletes all keywords.
      *
@@ -186,6 +294,9 @@ final class KeywordsDatabase extends Database {
             close(stmt);
             free(con);
         }
+        if (countAffected > 0) {
+            notifyKeywordsChanged();
+        }
         return countAffected;
     }
 
@@ -222,6 +333,9 @@ final class KeywordsDatabase extends Database {
             close(stmt);
             free(con);
         }
+        if (deleted) {
+            notifyKeywordsChanged();
+        }
         return deleted;
     }
 
@@ -506,6 +620,9 @@ final class KeywordsDatabase extends Database {
             close(stmt);
             free(con);
         }
+        if (count > 0) {
+            notifyKeywordsChanged();
+        }
 
         return count;
     }
@@ -591,6 +708,9 @@ final class KeywordsDatabase extends Database {
             stmt = con.createStatement();
             LOGGER.log(Level.FINEST, sql);
             count = stmt.executeUpdate(sql);
+            if (count > 0) {
+                DatabaseStatistics.INSTANCE.metaDataChanged();
+            }
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
         } finally {
@@ -599,4 +719,8 @@ final class KeywordsDatabase extends Database {
         }
         return count;
     }
+
+    private void notifyKeywordsChanged() {
+        EventBus.publish(new KeywordsChangedEvent(this));
+    }
 }
@@ -68,6 +68,11 @@ public final class KeywordsRepositoryImpl implements KeywordsRepository {
         return KeywordsDatabase.INSTANCE.insertKeyword(keyword);
     }
 
+    @Override
+    public int saveKeywordPaths(Collection<? extends List<Keyword>> paths) {
+        return KeywordsDatabase.INSTANCE.insertKeywordPaths(paths);
+    }
+
     @Override
     public boolean updateKeyword(Keyword keyword) {
         return KeywordsDatabase.INSTANCE.updateKeyword(keyword);
@@ -0,0 +1,253 @@
+package org.jphototagger.repository.hsqldb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection of the {@link ConnectionPool}, handed out to the databases as a proxy.
+ * <p>
+ * Reuses prepared statements: {@link Connection#prepareStatement(String)} returns a cached statement of the same
+ * SQL, if one is not in use, and {@link PreparedStatement#close()} puts the statement back into the cache instead of
+ * closing it. The cache is bounded, least recently used statements will be closed.
+ * <p>
+ * A pooled connection is used by only one thread at the same time, so the statement cache is not synchronized.
+ *
+ * @author Elmar Baumann
+ */
+final class PooledConnection implements InvocationHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(PooledConnection.class.getName());
+    private static final int MAX_CACHED_STATEMENTS = 64;
+    private final ConnectionPool pool;
+    private final Connection delegate;
+    private final Connection proxy;
+    private final Map<String, Deque<PreparedStatement>> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+    private int idleStatementCount;
+    private volatile long borrowTimeMillis;
+    private volatile String borrowerThreadName;
+    private volatile Throwable borrowerStackTrace;
+    private volatile boolean leakReported;
+
+    PooledConnection(ConnectionPool pool, Connection delegate) {
+        this.pool = pool;
+        this.delegate = delegate;
+        this.proxy = (Connection) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, this);
+    }
+
+    /**
+     * @param con connection returned by {@link #getProxy()}
+     * @return pooled connection
+     * @throws IllegalArgumentException if the connection was not created by the pool
+     */
+    static PooledConnection of(Connection con) {
+        if (Proxy.isProxyClass(con.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(con);
+            if (handler instanceof PooledConnection) {
+                return (PooledConnection) handler;
+            }
+        }
+        throw new IllegalArgumentException("Not a connection of the connection pool: " + con);
+    }
+
+    Connection getProxy() {
+        return proxy;
+    }
+
+    void borrowed(boolean recordStackTrace) {
+        borrowTimeMillis = System.currentTimeMillis();
+        borrowerThreadName = Thread.currentThread().getName();
+        borrowerStackTrace = recordStackTrace
+                ? new Throwable("Borrower of the connection")
+                : null;
+        leakReported = false;
+    }
+
+    long getBorrowTimeMillis() {
+        return borrowTimeMillis;
+    }
+
+    /**
+     * Logs a warning once for each borrowing.
+     */
+    void reportLeak(long borrowedMillis) {
+        if (leakReported) {
+            return;
+        }
+        leakReported = true;
+        LOGGER.log(Level.WARNING, "Connection borrowed by thread ''{0}'' not freed since {1} ms",
+                new Object[]{borrowerThreadName, borrowedMillis});
+        if (borrowerStackTrace != null) {
+            LOGGER.log(Level.WARNING, null, borrowerStackTrace);
+        }
+    }
+
+    /**
+     * Validation is done without holding any lock of the pool.
+     *
+     * @return true if the connection can be used
+     */
+    boolean isValid() {
+        try {
+            return !delegate.isClosed();
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, null, t);
+            return false;
+        }
+    }
+
+    void closeQuietly() {
+        closeIdleStatements();
+        try {
+            if (!delegate.isClosed()) {
+                delegate.close();
+            }
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, null, t);
+        }
+    }
+
+    private void closeIdleStatements() {
+        for (Deque<PreparedStatement> statements : idleStatements.values()) {
+            for (PreparedStatement statement : statements) {
+                closeQuietly(statement);
+            }
+        }
+        idleStatements.clear();
+        idleStatementCount = 0;
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (Throwable t) {
+            LOGGER.log(Level.FINE, null, t);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        if ("prepareStatement".equals(methodName) && args != null && args.length == 1) {
+            return prepareStatement((String) args[0]);
+        } else if ("close".equals(methodName) && args == null) {
+            pool.free(this.proxy);
+            return null;
+        } else if ("equals".equals(methodName) && args != null && args.length == 1) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(methodName) && args == null) {
+            return System.identityHashCode(proxy);
+        }
+        return invokeDelegate(delegate, method, args);
+    }
+
+    private static Object invokeDelegate(Object delegate, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private PreparedStatement prepareStatement(String sql) throws SQLException {
+        Deque<PreparedStatement> statements = idleStatements.get(sql);
+        if (statements != null && !statements.isEmpty()) {
+            idleStatementCount--;
+            pool.statementCacheHit();
+            return createStatementProxy(sql, statements.pollLast());
+        }
+        pool.statementCacheMiss();
+        return createStatementProxy(sql, delegate.prepareStatement(sql));
+    }
+
+    private PreparedStatement createStatementProxy(String sql, PreparedStatement statement) {
+        return (PreparedStatement) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new CachedStatement(sql, statement));
+    }
+
+    private void putIdleStatement(String sql, PreparedStatement statement) {
+        Deque<PreparedStatement> statements = idleStatements.get(sql);
+        if (statements == null) {
+            statements = new ArrayDeque<>(2);
+            idleStatements.put(sql, statements);
+        }
+        statements.offerLast(statement);
+        idleStatementCount++;
+        evictLeastRecentlyUsedStatements();
+    }
+
+    private void evictLeastRecentlyUsedStatements() {
+        Iterator<Deque<PreparedStatement>> it = idleStatements.values().iterator();
+        while (idleStatementCount > MAX_CACHED_STATEMENTS && it.hasNext()) {
+            Deque<PreparedStatement> statements = it.next();
+            while (idleStatementCount > MAX_CACHED_STATEMENTS && !statements.isEmpty()) {
+                closeQuietly(statements.pollFirst());
+                idleStatementCount--;
+            }
+            if (statements.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+
+        private final String sql;
+        private final PreparedStatement statement;
+        private boolean closed;
+
+        private CachedStatement(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if ("close".equals(methodName) && args == null) {
+                close();
+                return null;
+            } else if ("isClosed".equals(methodName) && args == null) {
+                return closed || statement.isClosed();
+            } else if ("getConnection".equals(methodName) && args == null) {
+                return PooledConnection.this.proxy;
+            } else if ("equals".equals(methodName) && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            return invokeDelegate(statement, method, args);
+        }
+
+        private void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (statement.isClosed() || delegate.isClosed()) {
+                return;
+            }
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                putIdleStatement(sql, statement);
+            } catch (SQLException ex) {
+                LOGGER.log(Level.FINE, null, ex);
+                closeQuietly(statement);
+            }
+        }
+    }
+}
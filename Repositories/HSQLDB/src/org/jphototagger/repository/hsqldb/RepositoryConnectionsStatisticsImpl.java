@@ -0,0 +1,78 @@
+package org.jphototagger.repository.hsqldb;
+
+import org.jphototagger.domain.repository.RepositoryConnectionsStatistics;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * @author Elmar Baumann
+ */
+@ServiceProvider(service = RepositoryConnectionsStatistics.class)
+public final class RepositoryConnectionsStatisticsImpl implements RepositoryConnectionsStatistics {
+
+    private final ConnectionPool pool = ConnectionPool.INSTANCE;
+
+    @Override
+    public int getOpenConnectionCount() {
+        return pool.getOpenConnectionCount();
+    }
+
+    @Override
+    public int getAvailableConnectionCount() {
+        return pool.getAvailableConnectionCount();
+    }
+
+    @Override
+    public int getMinConnectionCount() {
+        return pool.getMinConnectionCount();
+    }
+
+    @Override
+    public int getMaxConnectionCount() {
+        return pool.getMaxConnectionCount();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return pool.getBorrowCount();
+    }
+
+    @Override
+    public long getWaitCount() {
+        return pool.getWaitCount();
+    }
+
+    @Override
+    public long getTotalWaitMillis() {
+        return pool.getTotalWaitMillis();
+    }
+
+    @Override
+    public long getMaxWaitMillis() {
+        return pool.getMaxWaitMillis();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return pool.getTimeoutCount();
+    }
+
+    @Override
+    public int getLeakedConnectionCount() {
+        return pool.getLeakedConnectionCount();
+    }
+
+    @Override
+    public long getInvalidConnectionCount() {
+        return pool.getInvalidConnectionCount();
+    }
+
+    @Override
+    public long getStatementCacheHitCount() {
+        return pool.getStatementCacheHitCount();
+    }
+
+    @Override
+    public long getStatementCacheMissCount() {
+        return pool.getStatementCacheMissCount();
+    }
+}
@@ -1,6 +1,8 @@
 package org.jphototagger.repository.hsqldb;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import org.jphototagger.domain.metadata.MetaDataValue;
 import org.jphototagger.domain.repository.RepositoryStatistics;
 import org.openide.util.lookup.ServiceProvider;
@@ -16,6 +18,11 @@ public final class RepositoryStatisticsImpl implements RepositoryStatistics {
         return DatabaseStatistics.INSTANCE.existsMetaDataValue(metaDataValue, value);
     }
 
+    @Override
+    public Set<String> findExistingMetaDataValues(MetaDataValue metaDataValue, Collection<? extends String> values) {
+        return DatabaseStatistics.INSTANCE.findExistingMetaDataValues(metaDataValue, values);
+    }
+
     @Override
     public boolean existsValueInMetaDataValues(String value, List<MetaDataValue> metaDataValues) {
         return DatabaseStatistics.INSTANCE.existsValueInMetaDataValues(value, metaDataValues);
@@ -0,0 +1,153 @@
+package org.jphototagger.repository.hsqldb;
+
+/**
+ * Sparse sequence numbers defining the order of items, e.g. of the images of a photo album.
+ * <p>
+ * Adjacent items are separated by a gap, so that moving or inserting items changes only the sequence numbers of
+ * these items.
+ *
+ * @author Elmar Baumann
+ */
+final class SequenceNumbers {
+
+    /**
+     * Creates sequence numbers for items in their new order. Items keeping their order relative to each other (the
+     * longest increasing subsequence of the current numbers) keep their sequence numbers, the other items get numbers
+     * between their neighbours. If there is no room between the neighbours, all items will be renumbered.
+     *
+     * @param  oldSequenceNumbers current distinct sequence numbers of the items in their new order, null for new items
+     * @param  gap                gap between appended and renumbered items
+     * @return                    strictly increasing sequence numbers in the new order
+     * @throws IllegalArgumentException if renumbering exceeds the integer range
+     */
+    static int[] create(Integer[] oldSequenceNumbers, int gap) {
+        if (oldSequenceNumbers == null) {
+            throw new NullPointerException("oldSequenceNumbers == null");
+        }
+        if (gap < 1) {
+            throw new IllegalArgumentException("Invalid gap: " + gap);
+        }
+
+        int count = oldSequenceNumbers.length;
+        boolean[] keep = findLongestIncreasingSubsequence(oldSequenceNumbers);
+        long[] sequenceNumbers = new long[count];
+        int index = 0;
+
+        while (index < count) {
+            if (keep[index]) {
+                sequenceNumbers[index] = oldSequenceNumbers[index];
+                index++;
+                continue;
+            }
+
+            int runStart = index;
+
+            while (index < count && !keep[index]) {
+                index++;
+            }
+
+            int runLength = index - runStart;
+            boolean hasLower = runStart > 0;
+            boolean hasUpper = index < count;
+            long lower = hasLower ? sequenceNumbers[runStart - 1] : 0;
+            long upper = hasUpper ? oldSequenceNumbers[index] : 0;
+
+            if (hasLower && hasUpper && upper - lower <= runLength) {
+                return renumber(count, gap);
+            }
+
+            for (int i = 0; i < runLength; i++) {
+                long sequenceNumber;
+
+                if (hasLower && hasUpper) {
+                    sequenceNumber = lower + (upper - lower) * (i + 1) / (runLength + 1);
+                } else if (hasLower) {
+                    sequenceNumber = lower + (long) gap * (i + 1);
+                } else if (hasUpper) {
+                    sequenceNumber = upper - (long) gap * (runLength - i);
+                } else {
+                    sequenceNumber = (long) gap * i;
+                }
+
+                if (sequenceNumber < Integer.MIN_VALUE || sequenceNumber > Integer.MAX_VALUE) {
+                    return renumber(count, gap);
+                }
+
+                sequenceNumbers[runStart + i] = sequenceNumber;
+            }
+        }
+
+        int[] result = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            result[i] = (int) sequenceNumbers[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * @param  count count of items
+     * @param  gap   gap between adjacent items
+     * @return       0, gap, 2 * gap, ...
+     */
+    static int[] renumber(int count, int gap) {
+        if ((long) count * gap > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many items: " + count);
+        }
+
+        int[] sequenceNumbers = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            sequenceNumbers[i] = i * gap;
+        }
+
+        return sequenceNumbers;
+    }
+
+    // Strictly increasing, null values are never part of the subsequence
+    private static boolean[] findLongestIncreasingSubsequence(Integer[] values) {
+        int count = values.length;
+        int[] tailIndices = new int[count];
+        int[] predecessors = new int[count];
+        int length = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+
+            int value = values[i];
+            int low = 0;
+            int high = length;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (values[tailIndices[mid]] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            predecessors[i] = low > 0 ? tailIndices[low - 1] : -1;
+            tailIndices[low] = i;
+
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] inSubsequence = new boolean[count];
+
+        for (int i = length > 0 ? tailIndices[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            inSubsequence[i] = true;
+        }
+
+        return inSubsequence;
+    }
+
+    private SequenceNumbers() {
+    }
+}
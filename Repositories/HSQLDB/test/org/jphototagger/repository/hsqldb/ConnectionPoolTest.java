@@ -0,0 +1,100 @@
+package org.jphototagger.repository.hsqldb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = new ConnectionPool("jdbc:hsqldb:mem:" + UUID.randomUUID() + ";shutdown=true", 1, 2, 100);
+        pool.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.closeAllConnections();
+        pool.setShutdown();
+    }
+
+    @Test
+    void freedConnectionIsReused() throws SQLException {
+        Connection con = pool.getConnection();
+        pool.free(con);
+
+        Connection reused = pool.getConnection();
+        pool.free(reused);
+
+        assertThat(reused).isSameAs(con);
+        assertThat(pool.getOpenConnectionCount()).isEqualTo(1);
+        assertThat(pool.getBorrowCount()).isEqualTo(2);
+    }
+
+    @Test
+    void opensConnectionsUpToMaximum() throws SQLException {
+        Connection con1 = pool.getConnection();
+        Connection con2 = pool.getConnection();
+
+        assertThat(con2).isNotSameAs(con1);
+        assertThat(pool.getOpenConnectionCount()).isEqualTo(2);
+
+        pool.free(con1);
+        pool.free(con2);
+    }
+
+    @Test
+    void throwsExceptionIfNoConnectionIsFreedWithinMaxWait() throws SQLException {
+        Connection con1 = pool.getConnection();
+        Connection con2 = pool.getConnection();
+
+        assertThatThrownBy(() -> pool.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(pool.getWaitCount()).isEqualTo(1);
+        assertThat(pool.getTimeoutCount()).isEqualTo(1);
+
+        pool.free(con1);
+        pool.free(con2);
+    }
+
+    @Test
+    void closedConnectionIsDiscarded() throws SQLException {
+        Connection con = pool.getConnection();
+        PooledConnection.of(con).closeQuietly();
+        pool.free(con);
+
+        Connection other = pool.getConnection();
+        pool.free(other);
+
+        assertThat(other).isNotSameAs(con);
+        assertThat(pool.getInvalidConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void closedStatementIsReused() throws SQLException {
+        Connection con = pool.getConnection();
+        String sql = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_TABLES WHERE TABLE_NAME = ?";
+
+        PreparedStatement stmt1 = con.prepareStatement(sql);
+        stmt1.setString(1, "FILES");
+        stmt1.executeQuery().close();
+        stmt1.close();
+        PreparedStatement stmt2 = con.prepareStatement(sql);
+        stmt2.setString(1, "XMP");
+        stmt2.executeQuery().close();
+        stmt2.close();
+        pool.free(con);
+
+        assertThat(stmt2.getConnection()).isSameAs(con);
+        assertThat(pool.getStatementCacheMissCount()).isEqualTo(1);
+        assertThat(pool.getStatementCacheHitCount()).isEqualTo(1);
+    }
+}
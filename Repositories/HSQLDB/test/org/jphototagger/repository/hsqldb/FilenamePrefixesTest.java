@@ -0,0 +1,78 @@
+package org.jphototagger.repository.hsqldb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.jphototagger.testsupport.TestDatabase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FilenamePrefixesTest extends DatabaseTestBase {
+
+    @Override
+    protected void createSchema(TestDatabase db) throws SQLException {
+        db.executeSql("CREATE TABLE files (id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1) PRIMARY KEY,"
+                + " filename VARCHAR_IGNORECASE(512) NOT NULL UNIQUE)");
+    }
+
+    @Test
+    @DisplayName("'%' and '_' of the prefix are matched literally")
+    void matchesWildcardsLiterally() throws SQLException {
+        insertFiles("/a_b/x.jpg", "/aXb/y.jpg", "/a%/z.jpg");
+
+        Map<File, File> renamed = FilenamePrefixes.rename(getConnection(), "/a_b/", "/c/");
+
+        assertThat(renamed).containsOnlyKeys(new File("/a_b/x.jpg"));
+        assertThat(getFilenames()).containsExactlyInAnyOrder("/c/x.jpg", "/aXb/y.jpg", "/a%/z.jpg");
+    }
+
+    @Test
+    @DisplayName("paths matching the prefix ignoring the case are renamed and reported with their new paths")
+    void renamesPathsDifferingInCase() throws SQLException {
+        insertFiles("/a_b/w.jpg", "/A_B/sub/v.jpg");
+
+        Map<File, File> renamed = FilenamePrefixes.rename(getConnection(), "/a_b/", "/c/");
+
+        assertThat(renamed).hasSize(2);
+        assertThat(renamed.get(new File("/a_b/w.jpg"))).isEqualTo(new File("/c/w.jpg"));
+        assertThat(renamed.get(new File("/A_B/sub/v.jpg"))).isEqualTo(new File("/c/sub/v.jpg"));
+        assertThat(getFilenames()).containsExactlyInAnyOrder("/c/w.jpg", "/c/sub/v.jpg");
+    }
+
+    @Test
+    @DisplayName("nothing is renamed if no path starts with the prefix")
+    void renamesNothingWithoutMatch() throws SQLException {
+        insertFiles("/a/x.jpg");
+
+        assertThat(FilenamePrefixes.rename(getConnection(), "/b/", "/c/")).isEmpty();
+        assertThat(getFilenames()).containsExactly("/a/x.jpg");
+    }
+
+    private void insertFiles(String... filenames) throws SQLException {
+        try (PreparedStatement stmt = getConnection().prepareStatement("INSERT INTO files (filename) VALUES (?)")) {
+            for (String filename : filenames) {
+                stmt.setString(1, filename);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private List<String> getFilenames() throws SQLException {
+        List<String> filenames = new ArrayList<>();
+        Connection con = getConnection();
+        try (PreparedStatement stmt = con.prepareStatement("SELECT filename FROM files");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                filenames.add(rs.getString(1));
+            }
+        }
+        return filenames;
+    }
+}
@@ -35,9 +35,16 @@ class ImageFilesDatabaseTest extends DatabaseTestBase {
             "exif_lens VARCHAR(256), " +
             "FOREIGN KEY (id_file) REFERENCES files(id) ON DELETE CASCADE)";
 
+    private static final String CREATE_XMP_TABLE =
+            "CREATE TABLE xmp (" +
+            "id BIGINT GENERATED BY DEFAULT AS IDENTITY(START WITH 1) PRIMARY KEY, " +
+            "id_file BIGINT NOT NULL UNIQUE, " +
+            "dc_title VARCHAR(64), " +
+            "FOREIGN KEY (id_file) REFERENCES files(id) ON DELETE CASCADE)";
+
     @Override
     protected void createSchema(TestDatabase db) throws SQLException {
-        db.executeSql(CREATE_FILES_TABLE, CREATE_EXIF_TABLE);
+        db.executeSql(CREATE_FILES_TABLE, CREATE_EXIF_TABLE, CREATE_XMP_TABLE);
     }
 
     @Nested
@@ -102,6 +109,36 @@ class ImageFilesDatabaseTest extends DatabaseTestBase {
         }
     }
 
+    @Nested
+    @DisplayName("XMP existence")
+    class XmpExistence {
+
+        @Test
+        @DisplayName("a file without XMP is not reported as having XMP, so deleting it does not decrement the XMP count")
+        void fileWithoutXmpHasNoXmp() throws SQLException {
+            testDb.executeSql(
+                "INSERT INTO files (filename, lastmodified, size_in_bytes) VALUES ('/photos/no-xmp.jpg', 1000, 100)"
+            );
+
+            boolean exists = ImageFilesDatabase.INSTANCE.existsXmpForFile(getConnection(), new File("/photos/no-xmp.jpg"));
+
+            assertThat(exists).isFalse();
+        }
+
+        @Test
+        @DisplayName("a file with an XMP row is reported as having XMP, also if all values are empty")
+        void fileWithEmptyXmpHasXmp() throws SQLException {
+            testDb.executeSql(
+                "INSERT INTO files (filename, lastmodified, size_in_bytes) VALUES ('/photos/xmp.jpg', 1000, 100)",
+                "INSERT INTO xmp (id_file) SELECT id FROM files WHERE filename = '/photos/xmp.jpg'"
+            );
+
+            boolean exists = ImageFilesDatabase.INSTANCE.existsXmpForFile(getConnection(), new File("/photos/xmp.jpg"));
+
+            assertThat(exists).isTrue();
+        }
+    }
+
     // Helper methods
 
     private boolean fileExists(String filename) throws SQLException {
@@ -0,0 +1,75 @@
+package org.jphototagger.repository.hsqldb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SequenceNumbersTest {
+
+    private static final int GAP = 1024;
+
+    @Test
+    @DisplayName("new items are numbered with the gap")
+    void numbersNewItemsWithGap() {
+        assertThat(SequenceNumbers.create(new Integer[]{null, null, null}, GAP)).containsExactly(0, 1024, 2048);
+    }
+
+    @Test
+    @DisplayName("appended items follow the last item")
+    void appendsAfterLastItem() {
+        assertThat(SequenceNumbers.create(new Integer[]{0, 1024, null}, GAP)).containsExactly(0, 1024, 2048);
+    }
+
+    @Test
+    @DisplayName("all items are renumbered if appended items would exceed the integer range")
+    void renumbersIfAppendingExceedsIntegerRange() {
+        assertThat(SequenceNumbers.create(new Integer[]{0, Integer.MAX_VALUE - 100, null}, GAP)).containsExactly(0, 1024, 2048);
+    }
+
+    @Test
+    @DisplayName("a moved item gets a number between it's neighbours, the others keep their numbers")
+    void movesSingleItemBetweenNeighbours() {
+        assertThat(SequenceNumbers.create(new Integer[]{0, 2048, 1024, 3072}, GAP)).containsExactly(0, 512, 1024, 3072);
+        assertThat(SequenceNumbers.create(new Integer[]{2048, 0, 1024}, GAP)).containsExactly(-1024, 0, 1024);
+    }
+
+    @Test
+    @DisplayName("all items are renumbered if there is no gap between the neighbours")
+    void renumbersDenseNumbers() {
+        assertThat(SequenceNumbers.create(new Integer[]{0, 2, 1}, GAP)).containsExactly(0, 1024, 2048);
+    }
+
+    @Test
+    @DisplayName("numbers are strictly increasing for arbitrary permutations")
+    void strictlyIncreasingForPermutations() {
+        Random random = new Random(17);
+        for (int run = 0; run < 500; run++) {
+            List<Integer> numbers = new ArrayList<>();
+            int count = random.nextInt(40);
+            for (int i = 0; i < count; i++) {
+                numbers.add(random.nextInt(4) == 0 ? null : i * (random.nextBoolean() ? 1 : GAP));
+            }
+            Collections.shuffle(numbers, random);
+
+            int[] sequenceNumbers = SequenceNumbers.create(numbers.toArray(new Integer[numbers.size()]), GAP);
+
+            assertThat(sequenceNumbers).hasSize(count);
+            for (int i = 1; i < count; i++) {
+                assertThat(sequenceNumbers[i]).isGreaterThan(sequenceNumbers[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("renumbering beyond the integer range is rejected")
+    void rejectsTooManyItems() {
+        assertThatThrownBy(() -> SequenceNumbers.renumber(Integer.MAX_VALUE / GAP + 1, GAP))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
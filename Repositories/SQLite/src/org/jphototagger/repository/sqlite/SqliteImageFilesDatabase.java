@@ -84,6 +84,55 @@ public class SqliteImageFilesDatabase extends SqliteDatabase {
         return files;
     }
 
+    public long getFileCountStartingWith(String pathPrefix) {
+        if (pathPrefix == null) {
+            throw new NullPointerException("pathPrefix == null");
+        }
+        String sql = "SELECT COUNT(*) FROM files WHERE filename LIKE ? ESCAPE '\\'";
+        try (Connection con = getConnection();
+             PreparedStatement stmt = con.prepareStatement(sql)) {
+            stmt.setString(1, escapeLikePattern(pathPrefix) + "%");
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+            return 0;
+        }
+    }
+
+    public List<File> getImageFilesStartingWith(String pathPrefix, int offset, int limit) {
+        if (pathPrefix == null) {
+            throw new NullPointerException("pathPrefix == null");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Negative offset: " + offset);
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        List<File> files = new ArrayList<>(limit);
+        String sql = "SELECT filename FROM files WHERE filename LIKE ? ESCAPE '\\' ORDER BY filename ASC LIMIT ? OFFSET ?";
+        try (Connection con = getConnection();
+             PreparedStatement stmt = con.prepareStatement(sql)) {
+            stmt.setString(1, escapeLikePattern(pathPrefix) + "%");
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    files.add(new File(rs.getString(1)));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+        }
+        return files;
+    }
+
+    private static String escapeLikePattern(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     public int deleteImageFile(File imageFile) {
         if (imageFile == null) {
             throw new NullPointerException("imageFile == null");
@@ -6,6 +6,7 @@ import java.sql.Date;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.jphototagger.api.applifecycle.generics.Functor;
 import org.jphototagger.api.progress.ProgressListener;
@@ -45,6 +46,16 @@ public final class SqliteImageFilesRepositoryImpl implements ImageFilesRepositor
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    @Override
+    public long getFileCountStartingWith(String pathPrefix) {
+        return getDatabase().getFileCountStartingWith(pathPrefix);
+    }
+
+    @Override
+    public List<File> findImageFilesStartingWith(String pathPrefix, int offset, int limit) {
+        return getDatabase().getImageFilesStartingWith(pathPrefix, offset, limit);
+    }
+
     @Override
     public long findImageFilesLastModifiedTimestamp(File imageFile) {
         throw new UnsupportedOperationException("Not implemented yet");
@@ -60,6 +71,11 @@ public final class SqliteImageFilesRepositoryImpl implements ImageFilesRepositor
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    @Override
+    public Map<File, Long> findXmpFilesLastModifiedTimestamps(Collection<? extends File> imageFiles) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
     @Override
     public int deleteImageFiles(List<File> imageFiles) {
         int count = 0;
@@ -124,11 +140,21 @@ public final class SqliteImageFilesRepositoryImpl implements ImageFilesRepositor
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    @Override
+    public Map<MetaDataValue, Map<String, Integer>> findImageCountsOfDistinctMetaDataValues(Collection<? extends MetaDataValue> values) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
     @Override
     public List<String> findDcSubjectsOfImageFile(File imageFile) {
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    @Override
+    public Set<String> findDcSubjectsOfImageFiles(Collection<? extends File> imageFiles) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
     @Override
     public Exif findExifOfImageFile(File imageFile) {
         throw new UnsupportedOperationException("Not implemented yet");
@@ -239,6 +265,11 @@ public final class SqliteImageFilesRepositoryImpl implements ImageFilesRepositor
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    @Override
+    public int updateThumbnails(Map<File, ? extends Image> thumbnailsOfImageFiles) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
+
     @Override
     public Long findIdDcSubject(String dcSubject) {
         throw new UnsupportedOperationException("Not implemented yet");
@@ -288,4 +319,9 @@ public final class SqliteImageFilesRepositoryImpl implements ImageFilesRepositor
     public int updateRenameAllDcSubjects(String fromName, String toName) {
         throw new UnsupportedOperationException("Not implemented yet");
     }
+
+    @Override
+    public int updateRenameXmpValue(MetaDataValue mdValue, String oldValue, String newValue) {
+        throw new UnsupportedOperationException("Not implemented yet");
+    }
 }
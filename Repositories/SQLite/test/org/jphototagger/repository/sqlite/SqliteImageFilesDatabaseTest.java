@@ -99,4 +99,39 @@ class SqliteImageFilesDatabaseTest {
 
         assertThat(id).isEqualTo(-1);
     }
+
+    @Test
+    void getFileCountStartingWith_countsOnlyFilesWithPrefix() {
+        database.insertImageFile(new File("/test/a/image1.jpg"), 1000L, System.currentTimeMillis());
+        database.insertImageFile(new File("/test/a/image2.jpg"), 1000L, System.currentTimeMillis());
+        database.insertImageFile(new File("/test/b/image3.jpg"), 1000L, System.currentTimeMillis());
+
+        assertThat(database.getFileCountStartingWith("/test/a/")).isEqualTo(2);
+        assertThat(database.getFileCountStartingWith("")).isEqualTo(3);
+    }
+
+    @Test
+    void getFileCountStartingWith_matchesWildcardCharactersLiterally() {
+        database.insertImageFile(new File("/test/a_b/image1.jpg"), 1000L, System.currentTimeMillis());
+        database.insertImageFile(new File("/test/aXb/image2.jpg"), 1000L, System.currentTimeMillis());
+        database.insertImageFile(new File("/test/a%/image3.jpg"), 1000L, System.currentTimeMillis());
+
+        assertThat(database.getFileCountStartingWith("/test/a_b/")).isEqualTo(1);
+        assertThat(database.getFileCountStartingWith("/test/a%")).isEqualTo(1);
+        assertThat(database.getImageFilesStartingWith("/test/a_", 0, 10)).containsExactly(new File("/test/a_b/image1.jpg"));
+    }
+
+    @Test
+    void getImageFilesStartingWith_returnsOrderedPage() {
+        File file1 = new File("/test/image1.jpg");
+        File file2 = new File("/test/image2.jpg");
+        File file3 = new File("/test/image3.jpg");
+        database.insertImageFile(file3, 1000L, System.currentTimeMillis());
+        database.insertImageFile(file1, 1000L, System.currentTimeMillis());
+        database.insertImageFile(file2, 1000L, System.currentTimeMillis());
+
+        assertThat(database.getImageFilesStartingWith("/test/", 0, 2)).containsExactly(file1, file2);
+        assertThat(database.getImageFilesStartingWith("/test/", 2, 2)).containsExactly(file3);
+        assertThat(database.getImageFilesStartingWith("/test/", 3, 2)).isEmpty();
+    }
 }
@@ -3,14 +3,21 @@ package org.jphototagger.xmp;
 import com.adobe.xmp.properties.XMPPropertyInfo;
 import java.io.File;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bushe.swing.event.annotation.AnnotationProcessor;
 import org.bushe.swing.event.annotation.EventSubscriber;
 import org.jphototagger.api.storage.CacheDirectoryProvider;
-import org.jphototagger.domain.repository.event.imagefiles.ImageFileDeletedEvent;
+import org.jphototagger.domain.repository.event.RepositoryEventCoalescer;
 import org.jphototagger.domain.repository.event.imagefiles.ImageFileMovedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesDeletedEvent;
+import org.jphototagger.domain.repository.event.imagefiles.ImageFilesMovedEvent;
 import org.jphototagger.lib.io.FileUtil;
 import org.jphototagger.lib.io.IoUtil;
 import org.jphototagger.lib.util.StringUtil;
@@ -171,10 +178,31 @@ public final class EmbeddedXmpCache {
         renameCachedXmp(oldImageFile, newImageFile);
     }
 
-    @EventSubscriber(eventClass = ImageFileDeletedEvent.class)
-    public void imageFileRemoved(ImageFileDeletedEvent event) {
-        File deletedImageFile = event.getImageFile();
-        deleteCachedXmp(deletedImageFile);
+    @EventSubscriber(eventClass = ImageFilesMovedEvent.class)
+    public void imageFilesMoved(ImageFilesMovedEvent event) {
+        Set<String> cacheFilenames = getCacheFilenames();
+        if (cacheFilenames.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<File, File> movedImageFile : event.getMovedImageFiles().entrySet()) {
+            if (cacheFilenames.contains(getCacheFile(movedImageFile.getKey()).getName())) {
+                renameCachedXmp(movedImageFile.getKey(), movedImageFile.getValue());
+            }
+        }
+    }
+
+    private Set<String> getCacheFilenames() {
+        String[] cacheFilenames = CACHE_DIR.list();
+        return cacheFilenames == null
+                ? Collections.<String>emptySet()
+                : new HashSet<>(Arrays.asList(cacheFilenames));
+    }
+
+    @EventSubscriber(eventClass = ImageFilesDeletedEvent.class, eventServiceName = RepositoryEventCoalescer.EVENT_SERVICE_NAME)
+    public void imageFilesRemoved(ImageFilesDeletedEvent event) {
+        for (File deletedImageFile : event.getImageFiles()) {
+            deleteCachedXmp(deletedImageFile);
+        }
     }
 
     public void init() {
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.jphototagger.lib.io.JpegHeader;
 
 /**
  * Liest aus einer <em>Nicht</em>-XMP-Datei die XMP-Daten. Voraussetzung ist,
@@ -15,6 +16,10 @@ import java.util.logging.Logger;
  * Motivation: Das Adobe XMP SDK hat für Java (noch) nicht XMPFiles
  * implementiert.
  *
+ * JPEG-Dateien werden nicht durchsucht: Das XMP-Paket wird dem APP1-Segment
+ * des {@link JpegHeader} entnommen, den auch die anderen Metadaten-Leser
+ * verwenden.
+ *
  * <strong>Bug:</strong> Liest nur UTF-8-kodierte XMP-Pakete richtig.
  *
  * @author Elmar Baumann
@@ -55,6 +60,14 @@ public final class XmpFileReader {
             throw new NullPointerException("file == null");
         }
 
+        JpegHeader jpegHeader = JpegHeader.get(file);
+
+        if (jpegHeader != null) {
+            return jpegHeader.hasXmp()
+                    ? getXmpOfPacket(jpegHeader.getXmp())
+                    : null;
+        }
+
         RandomAccessFile raf = null;
 
         try {
@@ -86,6 +99,25 @@ public final class XmpFileReader {
         return null;
     }
 
+    private static String getXmpOfPacket(String packet) {
+        int xmpPacketStartIndex = packet.indexOf("<?xpacket begin=");
+
+        if (xmpPacketStartIndex >= 0) {
+            int xmpStartIndex = packet.indexOf("<x:xmpmeta", xmpPacketStartIndex);
+
+            if (xmpStartIndex > 0) {
+                String xmpEndMarker = "</x:xmpmeta>";
+                int xmpEndIndex = packet.indexOf(xmpEndMarker, xmpStartIndex);
+
+                if (xmpEndIndex > 0) {
+                    return packet.substring(xmpStartIndex, xmpEndIndex + xmpEndMarker.length());
+                }
+            }
+        }
+
+        return null;
+    }
+
     private static String getXmp(File file, int xmpStartIndex, int xmpEndIndex) {
         assert (xmpStartIndex >= 0) && (xmpStartIndex <= xmpEndIndex) : xmpStartIndex;
         assert xmpEndIndex >= xmpStartIndex : xmpEndIndex;
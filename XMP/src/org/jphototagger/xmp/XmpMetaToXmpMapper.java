@@ -0,0 +1,121 @@
+package org.jphototagger.xmp;
+
+import com.adobe.xmp.XMPException;
+import com.adobe.xmp.XMPIterator;
+import com.adobe.xmp.XMPMeta;
+import com.adobe.xmp.options.IteratorOptions;
+import com.adobe.xmp.properties.XMPProperty;
+import com.adobe.xmp.properties.XMPPropertyInfo;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jphototagger.domain.metadata.MetaDataValue;
+import org.jphototagger.domain.metadata.mapping.XmpMetaDataValueXmpArrayNameMapping;
+import org.jphototagger.domain.metadata.mapping.XmpMetaDataValuesNamespaceUriMapping;
+import org.jphototagger.domain.metadata.xmp.Xmp;
+
+/**
+ * Copies the values of an {@code XMPMeta} instance into a {@code Xmp} instance.
+ * <p>
+ * Only the properties mapped to XMP metadata values will be read, each through it's namespace and array name, instead
+ * of iterating over all properties of all namespaces and resolving their paths.
+ *
+ * @author Elmar Baumann
+ */
+final class XmpMetaToXmpMapper {
+
+    private static final Logger LOGGER = Logger.getLogger(XmpMetaToXmpMapper.class.getName());
+    private static final List<MappedProperty> MAPPED_PROPERTIES = createMappedProperties();
+    private static final IteratorOptions ARRAY_ITEMS_ITERATOR_OPTIONS = new IteratorOptions().setJustChildren(true).setJustLeafname(true).setOmitQualifiers(true);
+
+    static Xmp toXmp(XMPMeta xmpMeta) {
+        if (xmpMeta == null) {
+            throw new NullPointerException("xmpMeta == null");
+        }
+
+        Xmp xmp = new Xmp();
+
+        for (MappedProperty mappedProperty : MAPPED_PROPERTIES) {
+            try {
+                mappedProperty.copy(xmpMeta, xmp);
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        }
+
+        return xmp;
+    }
+
+    private static List<MappedProperty> createMappedProperties() {
+        List<MappedProperty> mappedProperties = new ArrayList<>();
+
+        for (MetaDataValue mdValue : XmpMetaDataValueXmpArrayNameMapping.getXmpMetaDataValues()) {
+            String namespaceUri = XmpMetaDataValuesNamespaceUriMapping.getNamespaceUriOfXmpMetaDataValue(mdValue);
+            String arrayName = XmpMetaDataValueXmpArrayNameMapping.getXmpArrayNameOfXmpMetaDataValue(mdValue);
+
+            if (namespaceUri != null && mdValue.getValueType() != null) {
+                mappedProperties.add(new MappedProperty(mdValue, namespaceUri, arrayName));
+            }
+        }
+
+        return Collections.unmodifiableList(mappedProperties);
+    }
+
+    private static final class MappedProperty {
+
+        private final MetaDataValue mdValue;
+        private final String namespaceUri;
+        private final String arrayName;
+
+        private MappedProperty(MetaDataValue mdValue, String namespaceUri, String arrayName) {
+            this.mdValue = mdValue;
+            this.namespaceUri = namespaceUri;
+            this.arrayName = arrayName;
+        }
+
+        private void copy(XMPMeta fromXmpMeta, Xmp toXmp) throws XMPException {
+            XMPProperty property = fromXmpMeta.getProperty(namespaceUri, arrayName);
+
+            if (property == null) {
+                return;
+            }
+
+            if (property.getOptions().isArray()) {
+                // Iterating the items does not parse a path for each item as getArrayItem() does
+                for (XMPIterator it = fromXmpMeta.iterator(namespaceUri, arrayName, ARRAY_ITEMS_ITERATOR_OPTIONS); it.hasNext();) {
+                    XMPPropertyInfo item = (XMPPropertyInfo) it.next();
+
+                    if (!item.getOptions().isQualifier()) {
+                        setValue(item.getValue(), toXmp);
+                    }
+                }
+            } else {
+                setValue(property.getValue(), toXmp);
+            }
+        }
+
+        // Values of not repeatable array items, e.g. language alternatives, are overwritten by the following items
+        private void setValue(Object value, Xmp toXmp) {
+            if (value == null) {
+                return;
+            }
+
+            String string = value.toString();
+
+            if (string.isEmpty()) {
+                return;
+            }
+
+            try {
+                toXmp.setValue(mdValue, mdValue.getValueType().parseString(string));
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, null, t);
+            }
+        }
+    }
+
+    private XmpMetaToXmpMapper() {
+    }
+}
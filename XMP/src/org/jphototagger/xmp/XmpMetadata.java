@@ -12,6 +12,9 @@ import com.imagero.reader.iptc.IPTCEntryMeta;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -124,13 +127,21 @@ public final class XmpMetadata {
      * @throws IOException
      */
     public static List<XMPPropertyInfo> getPropertyInfosOfSidecarFile(File sidecarFile) throws IOException {
+        String xmpOfSidecarFile = getXmpStringOfSidecarFileFromFirstTag(sidecarFile);
+        if (xmpOfSidecarFile == null) {
+            return null;
+        }
+        return getPropertyInfosOfXmpString(xmpOfSidecarFile);
+    }
+
+    private static String getXmpStringOfSidecarFileFromFirstTag(File sidecarFile) throws IOException {
         if (sidecarFile == null || !sidecarFile.exists()) {
             return null;
         }
         String xmpOfSidecarFile = getXmpAsStringOfSidecarFile(sidecarFile);
         if (xmpOfSidecarFile == null) {
             return null;
-    }
+        }
         if (!xmpOfSidecarFile.startsWith("<")) {
             int firstStartTagIndex = xmpOfSidecarFile.indexOf('<');
             if (firstStartTagIndex < 0) {
@@ -138,7 +149,28 @@ public final class XmpMetadata {
             }
             xmpOfSidecarFile = xmpOfSidecarFile.substring(firstStartTagIndex);
         }
-        return getPropertyInfosOfXmpString(xmpOfSidecarFile);
+        return xmpOfSidecarFile;
+    }
+
+    /**
+     * Returns the XMP metadata of a XMP string without creating property infos of all properties.
+     *
+     * @param xmpAsString can be null
+     * @return XMP metadata, empty if the string is null or empty, null on errors while parsing
+     */
+    public static Xmp getXmpOfXmpString(String xmpAsString) {
+        if ((xmpAsString == null) || xmpAsString.isEmpty()) {
+            return new Xmp();
+        }
+        try {
+            XMPMeta xmpMeta = XMPMetaFactory.parseFromString(xmpAsString);
+            return (xmpMeta == null)
+                    ? new Xmp()
+                    : XmpMetaToXmpMapper.toXmp(xmpMeta);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, null, t);
+            return null;
+        }
     }
 
     /**
@@ -418,34 +450,43 @@ public final class XmpMetadata {
         }
     }
 
+    // Writes into a temporary file renamed to the sidecar file, so that an abort while writing does not leave a
+    // truncated sidecar file
     private static boolean writeSidecarFile(XMPMeta fromXmpMeta, File toSidecarFile) {
-        FileOutputStream out = null;
         if (!FileLock.INSTANCE.lockLogWarning(toSidecarFile, XmpMetadata.class)) {
             return false;
         }
+        File tempFile = null;
         try {
-            out = new FileOutputStream(toSidecarFile);
-            if (PreferencesUtil.getBoolean(XmpPreferences.KEY_LOCK_FILE_WHEN_WRITING_XMP, true)) {
-                out.getChannel().lock();
+            tempFile = File.createTempFile("~" + toSidecarFile.getName(), ".tmp", toSidecarFile.getAbsoluteFile().getParentFile());
+            try (FileOutputStream out = new FileOutputStream(tempFile)) {
+                if (PreferencesUtil.getBoolean(XmpPreferences.KEY_LOCK_FILE_WHEN_WRITING_XMP, true)) {
+                    out.getChannel().lock();
+                }
+                XMPMetaFactory.serialize(fromXmpMeta, out,
+                        new SerializeOptions().setPadding(10).setOmitPacketWrapper(true));
             }
-            XMPMetaFactory.serialize(fromXmpMeta, out,
-                    new SerializeOptions().setPadding(10).setOmitPacketWrapper(true));
+            replaceFile(tempFile, toSidecarFile);
             return true;
         } catch (Throwable t) {
             LOGGER.log(Level.SEVERE, null, t);
             return false;
         } finally {
             FileLock.INSTANCE.unlock(toSidecarFile, XmpMetadata.class);
-            if (out != null) {
-                try {
-                    out.close();
-                } catch (Throwable t) {
-                    LOGGER.log(Level.SEVERE, null, t);
-                }
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOGGER.log(Level.WARNING, "Temporary file ''{0}'' could not be deleted", tempFile);
             }
         }
     }
 
+    private static void replaceFile(File sourceFile, File targetFile) throws IOException {
+        try {
+            Files.move(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Returns XMP metadata of a image file. <p> If the image has a sidecar file, it's metadata will be read. If the
      * image hasn't a sidecar file but embedded XMP metadata, the embedded XMP metadata will be read.
@@ -459,8 +500,10 @@ public final class XmpMetadata {
             return null;
         }
         File sidecarFile = XMP_SIDECAR_FILE_RESOLVER.getXmpSidecarFileOrNullIfNotExists(imageFile);
-        List<XMPPropertyInfo> propertyInfosOfSidecarFile = getPropertyInfosOfSidecarFile(sidecarFile);
-        return getXmp(propertyInfosOfSidecarFile, imageFile, XmpLocation.SIDECAR_FILE);
+        String xmpOfSidecarFile = getXmpStringOfSidecarFileFromFirstTag(sidecarFile);
+        return (xmpOfSidecarFile == null)
+                ? null
+                : getXmp(xmpOfSidecarFile, imageFile, XmpLocation.SIDECAR_FILE);
     }
 
     /**
@@ -476,7 +519,7 @@ public final class XmpMetadata {
         String cachedXmpString = EmbeddedXmpCache.INSTANCE.getCachedXmp(imageFile);
         return (cachedXmpString == null)
                 ? null
-                : getXmp(getPropertyInfosOfXmpString(cachedXmpString), imageFile, XmpLocation.EMBEDDED);
+                : getXmp(cachedXmpString, imageFile, XmpLocation.EMBEDDED);
     }
 
     /**
@@ -511,22 +554,9 @@ public final class XmpMetadata {
         return propertyInfoWithPathStart;
     }
 
-    private static Xmp getXmp(List<XMPPropertyInfo> xmpPropertyInfos, File areFromXmpImageFile, XmpLocation xmpLocation) {
-        Xmp xmp = null;
-        if (xmpPropertyInfos != null) {
-            xmp = new Xmp();
-            for (XMPPropertyInfo xmpPropertyInfo : xmpPropertyInfos) {
-                String path = xmpPropertyInfo.getPath();
-                Object value = xmpPropertyInfo.getValue();
-                MetaDataValue mdValue = XmpMetaDataValueXmpArrayNameMapping.findXmpMetaDataValue(path);
-                if ((value != null) && (mdValue != null) && (mdValue.getValueType() != null)) {
-                    try {
-                        xmp.setValue(mdValue, mdValue.getValueType().parseString(value.toString()));
-                    } catch (Throwable t) {
-                        LOGGER.log(Level.SEVERE, null, t);
-                    }
-                }
-            }
+    private static Xmp getXmp(String xmpAsString, File areFromXmpImageFile, XmpLocation xmpLocation) {
+        Xmp xmp = getXmpOfXmpString(xmpAsString);
+        if (xmp != null) {
             setLastModified(xmpLocation, xmp, areFromXmpImageFile);
         }
         return xmp;